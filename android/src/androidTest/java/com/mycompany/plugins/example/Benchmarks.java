@@ -0,0 +1,90 @@
+package com.mycompany.plugins.example;
+
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * 设备上的微基准测试工具
+ * 基准测试默认跳过，用 -e benchmark true 运行：
+ * ./gradlew connectedAndroidTest -Pandroid.testInstrumentationRunnerArguments.benchmark=true
+ * 每个用例先预热再计时多轮，报告中位数；结果写入 logcat（tag AFM-benchmark）和 instrumentation 状态
+ */
+public final class Benchmarks {
+    private static final String TAG = "AFM-benchmark";
+
+    /**
+     * 被测操作
+     */
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    private Benchmarks() {
+    }
+
+    public static boolean isEnabled() {
+        return "true".equals(InstrumentationRegistry.getArguments().getString("benchmark"));
+    }
+
+    /**
+     * 读取整数 instrumentation 参数（-e name value），未指定时返回默认值
+     */
+    public static int intArgument(String name, int defaultValue) {
+        String value = InstrumentationRegistry.getArguments().getString(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    /**
+     * 基准测试的工作目录（应用缓存目录下，每次运行前清空）
+     */
+    public static File workDir(String name) {
+        File dir = new File(InstrumentationRegistry.getInstrumentation().getTargetContext().getCacheDir(),
+                            "benchmark-" + name);
+        deleteTree(dir);
+        dir.mkdirs();
+        return dir;
+    }
+
+    /**
+     * @return 每轮耗时的中位数（纳秒）
+     */
+    public static long measure(int warmup, int iterations, Task task) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            task.run();
+        }
+        long[] samples = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            task.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[iterations / 2];
+    }
+
+    public static void report(String benchmark, String line) {
+        Log.i(TAG, benchmark + ": " + line);
+        Bundle status = new Bundle();
+        status.putString("stream", benchmark + ": " + line + "\n");
+        InstrumentationRegistry.getInstrumentation().sendStatus(0, status);
+    }
+
+    public static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    public static void deleteTree(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteTree(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,156 @@
+package com.mycompany.plugins.example.ai;
+
+import static org.junit.Assume.assumeTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.mycompany.plugins.example.Benchmarks;
+import com.mycompany.plugins.example.core.AtomicFileWriter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 大补丁应用：流式 DiffApplier 与原来的 ArrayList remove/add 实现对比
+ * 10 万行文件上应用 1000 个 hunk 的补丁，每轮先应用补丁再应用反向补丁还原，耗时按单次应用计算
+ */
+@RunWith(AndroidJUnit4.class)
+public class DiffApplierBenchmark {
+    private static final int LINES = 100_000;
+    private static final int HUNKS = 1_000;
+
+    private File dir;
+    private AtomicFileWriter atomicWriter;
+
+    @Before
+    public void setUp() {
+        assumeTrue(Benchmarks.isEnabled());
+        dir = Benchmarks.workDir("diff-applier");
+        atomicWriter = new AtomicFileWriter();
+    }
+
+    @After
+    public void tearDown() {
+        if (atomicWriter != null) {
+            atomicWriter.shutdown();
+        }
+    }
+
+    @Test
+    public void thousandHunksOnHundredThousandLines() throws Exception {
+        File file = new File(dir, "large.txt");
+        try (Writer out = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 64 * 1024)) {
+            for (int i = 0; i < LINES; i++) {
+                out.write(originalLine(i));
+                out.write('\n');
+            }
+        }
+        String forward = buildPatch(false);
+        String reverse = buildPatch(true);
+
+        long streaming = Benchmarks.measure(1, 5, () -> {
+            new DiffApplier(DiffApplier.DEFAULT_FUZZ, false, atomicWriter).apply(file, forward);
+            new DiffApplier(DiffApplier.DEFAULT_FUZZ, false, atomicWriter).apply(file, reverse);
+        });
+        long legacy = Benchmarks.measure(1, 5, () -> {
+            legacyApply(file, forward);
+            legacyApply(file, reverse);
+        });
+
+        Benchmarks.report("DiffApplier", String.format(
+            "lines=%d hunks=%d patch=%dKB streaming=%.1fms legacy=%.1fms",
+            LINES, HUNKS, forward.length() / 1024,
+            Benchmarks.millis(streaming) / 2, Benchmarks.millis(legacy) / 2));
+    }
+
+    /**
+     * 每 LINES / HUNKS 行中修改一行，带 3 行上下文
+     */
+    private static String buildPatch(boolean reverse) {
+        int stride = LINES / HUNKS;
+        StringBuilder diff = new StringBuilder("--- a/large.txt\n+++ b/large.txt\n");
+        for (int h = 0; h < HUNKS; h++) {
+            int changed = h * stride + stride / 2;
+            diff.append("@@ -").append(changed - 2).append(",7 +").append(changed - 2).append(",7 @@\n");
+            for (int i = changed - 3; i < changed; i++) {
+                diff.append(' ').append(originalLine(i)).append('\n');
+            }
+            String oldLine = originalLine(changed);
+            String newLine = "patched " + oldLine;
+            diff.append('-').append(reverse ? newLine : oldLine).append('\n');
+            diff.append('+').append(reverse ? oldLine : newLine).append('\n');
+            for (int i = changed + 1; i <= changed + 3; i++) {
+                diff.append(' ').append(originalLine(i)).append('\n');
+            }
+        }
+        return diff.toString();
+    }
+
+    private static String originalLine(int index) {
+        return "    value" + index + " = compute(" + index + ", \"payload\");";
+    }
+
+    /**
+     * 改造前 applyDiff 的做法：整个文件读入 ArrayList，按 hunk 在列表中间 remove/add，
+     * 每个 hunk 头重新编译正则，最后整体写回
+     */
+    private static void legacyApply(File file, String diff) throws Exception {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+
+        int currentLine = 0;
+        int offset = 0;
+        for (String diffLine : diff.split("\n")) {
+            if (diffLine.startsWith("@@")) {
+                Pattern pattern = Pattern.compile("@@ -(\\d+)(?:,\\d+)? \\+(\\d+)(?:,\\d+)? @@");
+                Matcher matcher = pattern.matcher(diffLine);
+                if (matcher.find()) {
+                    currentLine = Integer.parseInt(matcher.group(1)) - 1 + offset;
+                }
+            } else if (diffLine.startsWith("-") && !diffLine.startsWith("---")) {
+                if (currentLine < lines.size()) {
+                    lines.remove(currentLine);
+                    offset--;
+                }
+            } else if (diffLine.startsWith("+") && !diffLine.startsWith("+++")) {
+                lines.add(currentLine, diffLine.substring(1));
+                currentLine++;
+                offset++;
+            } else if (!diffLine.startsWith("\\") && !diffLine.startsWith("---")
+                       && !diffLine.startsWith("+++") && !diffLine.startsWith("diff")) {
+                currentLine++;
+            }
+        }
+
+        try (Writer out = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            for (String line : lines) {
+                out.write(line);
+                out.write('\n');
+            }
+        }
+    }
+}
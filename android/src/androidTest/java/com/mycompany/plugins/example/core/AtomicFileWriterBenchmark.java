@@ -0,0 +1,90 @@
+package com.mycompany.plugins.example.core;
+
+import static org.junit.Assume.assumeTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.mycompany.plugins.example.Benchmarks;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Random;
+
+/**
+ * 原子写入开销：按写入大小比较原地写入与各同步策略
+ * 每轮向 FILES 个已存在的文件各写一次，batch 策略在每轮末尾调用 syncPending，开销按单次写入摊销
+ */
+@RunWith(AndroidJUnit4.class)
+public class AtomicFileWriterBenchmark {
+    private static final int[] SIZES = {1024, 16 * 1024, 256 * 1024, 4 * 1024 * 1024};
+    private static final int FILES = 16;
+
+    private File dir;
+    private AtomicFileWriter writer;
+
+    @Before
+    public void setUp() {
+        assumeTrue(Benchmarks.isEnabled());
+        dir = Benchmarks.workDir("atomic-write");
+        writer = new AtomicFileWriter();
+    }
+
+    @Test
+    public void overheadPerWriteSize() throws Exception {
+        for (int size : SIZES) {
+            byte[] data = new byte[size];
+            new Random(size).nextBytes(data);
+            File[] files = new File[FILES];
+            for (int i = 0; i < FILES; i++) {
+                files[i] = new File(dir, size + "-" + i + ".bin");
+                writer.write(files[i], data, AtomicFileWriter.SYNC_NONE);
+            }
+            int iterations = size >= 1024 * 1024 ? 5 : 15;
+
+            long plain = Benchmarks.measure(1, iterations, () -> {
+                for (File file : files) {
+                    try (FileOutputStream out = new FileOutputStream(file)) {
+                        out.write(data);
+                    }
+                }
+            });
+            long plainSync = Benchmarks.measure(1, iterations, () -> {
+                for (File file : files) {
+                    try (FileOutputStream out = new FileOutputStream(file)) {
+                        out.write(data);
+                        out.getChannel().force(false);
+                    }
+                }
+            });
+            long always = Benchmarks.measure(1, iterations, () -> {
+                for (File file : files) {
+                    writer.write(file, data, AtomicFileWriter.SYNC_ALWAYS);
+                }
+            });
+            long batch = Benchmarks.measure(1, iterations, () -> {
+                for (File file : files) {
+                    writer.write(file, data, AtomicFileWriter.SYNC_BATCH);
+                }
+                writer.syncPending();
+            });
+            long none = Benchmarks.measure(1, iterations, () -> {
+                for (File file : files) {
+                    writer.write(file, data, AtomicFileWriter.SYNC_NONE);
+                }
+            });
+
+            Benchmarks.report("AtomicFileWriter", String.format(
+                "size=%dB us/write plain=%.0f plain+fsync=%.0f always=%.0f batch=%.0f none=%.0f",
+                size, perWrite(plain), perWrite(plainSync), perWrite(always), perWrite(batch), perWrite(none)));
+        }
+        writer.shutdown();
+    }
+
+    private static double perWrite(long nanos) {
+        return nanos / 1000.0 / FILES;
+    }
+}
@@ -0,0 +1,72 @@
+package com.mycompany.plugins.example.core;
+
+import static org.junit.Assume.assumeTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.getcapacitor.JSArray;
+import com.mycompany.plugins.example.Benchmarks;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 文件列表的桥接负载：列式编码与逐条目对象的序列化耗时和数据量对比
+ * 计时包含构建 JSON 和 toString（桥接发送前的序列化），数据量按 UTF-8 字节计算
+ */
+@RunWith(AndroidJUnit4.class)
+public class ColumnarEncoderBenchmark {
+    private static final int[] COUNTS = {1_000, 5_000, 20_000};
+    private static final String PARENT = "/storage/emulated/0/DCIM/Camera";
+
+    @Before
+    public void setUp() {
+        assumeTrue(Benchmarks.isEnabled());
+    }
+
+    @Test
+    public void columnarVersusObjects() throws Exception {
+        for (int count : COUNTS) {
+            List<DirectoryScanner.Entry> entries = syntheticListing(count);
+            int[] sizes = new int[2];
+
+            long objects = Benchmarks.measure(2, 10, () -> {
+                JSArray files = new JSArray();
+                for (DirectoryScanner.Entry entry : entries) {
+                    files.put(FileUtils.createFileInfo(entry));
+                }
+                sizes[0] = files.toString().getBytes(StandardCharsets.UTF_8).length;
+            });
+            long columnar = Benchmarks.measure(2, 10, () -> {
+                String json = ColumnarEncoder.encode(entries, 0, entries.size()).toString();
+                sizes[1] = json.getBytes(StandardCharsets.UTF_8).length;
+            });
+
+            Benchmarks.report("ColumnarEncoder", String.format(
+                "entries=%d objects=%.1fms %dKB columnar=%.1fms %dKB (%.0f%% of payload)",
+                count, Benchmarks.millis(objects), sizes[0] / 1024,
+                Benchmarks.millis(columnar), sizes[1] / 1024, 100.0 * sizes[1] / sizes[0]));
+        }
+    }
+
+    private static List<DirectoryScanner.Entry> syntheticListing(int count) {
+        Random random = new Random(count);
+        List<DirectoryScanner.Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            boolean isDirectory = random.nextInt(20) == 0;
+            String name = isDirectory
+                ? "album-" + i
+                : String.format("IMG_2024%04d_%06d.jpg", random.nextInt(1231), random.nextInt(1_000_000));
+            entries.add(new DirectoryScanner.Entry(name, PARENT + "/" + name, isDirectory, false,
+                                                   isDirectory ? 4096 : random.nextInt(8 * 1024 * 1024),
+                                                   1_700_000_000_000L + random.nextInt(1_000_000_000)));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,112 @@
+package com.mycompany.plugins.example.core;
+
+import static org.junit.Assume.assumeTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.mycompany.plugins.example.Benchmarks;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 目录遍历：单次读取属性的 DirectoryScanner 与原来的 listFiles + 逐项 stat 对比
+ * 在 DIRECTORIES × FILES_PER_DIRECTORY（共 5 万）个条目的目录树上完整遍历，
+ * 两种方式都读取列表所需的属性并按 listDirectory 的默认规则（目录在前、按大小）排序
+ */
+@RunWith(AndroidJUnit4.class)
+public class DirectoryScannerBenchmark {
+    private static final int DIRECTORIES = 50;
+    private static final int FILES_PER_DIRECTORY = 1_000;
+
+    private File root;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue(Benchmarks.isEnabled());
+        root = Benchmarks.workDir("directory-scanner");
+        for (int d = 0; d < DIRECTORIES; d++) {
+            File directory = new File(root, "dir" + d);
+            directory.mkdirs();
+            for (int f = 0; f < FILES_PER_DIRECTORY; f++) {
+                try (FileOutputStream out = new FileOutputStream(new File(directory, "file" + f + ".dat"))) {
+                    out.write(new byte[f % 64]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void scannerVersusListFiles() throws Exception {
+        int[] counts = new int[2];
+        long legacy = Benchmarks.measure(1, 5, () -> counts[0] = walkLegacy(root));
+        long scanner = Benchmarks.measure(1, 5, () -> counts[1] = walkScanner(root));
+
+        if (counts[0] != counts[1]) {
+            throw new AssertionError("Entry count differs: " + counts[0] + " vs " + counts[1]);
+        }
+        Benchmarks.report("DirectoryScanner", String.format(
+            "entries=%d listFiles=%.1fms scanner=%.1fms speedup=%.2fx",
+            counts[0], Benchmarks.millis(legacy), Benchmarks.millis(scanner), (double) legacy / scanner));
+    }
+
+    /**
+     * 改造前的做法：listFiles 后对每个条目分别调用 isDirectory、length、lastModified、isHidden，
+     * 排序比较器中再次调用 isDirectory 和 length
+     */
+    private static int walkLegacy(File directory) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return 0;
+        }
+        long checksum = 0;
+        for (File file : files) {
+            checksum += file.isDirectory() ? 1 : 0;
+            checksum += file.length();
+            checksum += file.lastModified();
+            checksum += file.isHidden() ? 1 : 0;
+        }
+        Arrays.sort(files, (a, b) -> {
+            if (a.isDirectory() != b.isDirectory()) {
+                return a.isDirectory() ? -1 : 1;
+            }
+            return Long.compare(a.length(), b.length());
+        });
+
+        int count = files.length;
+        for (File file : files) {
+            if (file.isDirectory()) {
+                count += walkLegacy(file);
+            }
+        }
+        return checksum == Long.MIN_VALUE ? -1 : count;
+    }
+
+    private static int walkScanner(File directory) {
+        List<DirectoryScanner.Entry> entries = DirectoryScanner.scan(directory);
+        if (entries == null) {
+            return 0;
+        }
+        Collections.sort(entries, (a, b) -> {
+            if (a.isDirectory != b.isDirectory) {
+                return a.isDirectory ? -1 : 1;
+            }
+            return Long.compare(a.size, b.size);
+        });
+
+        int count = entries.size();
+        for (DirectoryScanner.Entry entry : entries) {
+            if (entry.isDirectory && !entry.isSymbolicLink) {
+                count += walkScanner(entry.toFile());
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,77 @@
+package com.mycompany.plugins.example.core;
+
+import static org.junit.Assume.assumeTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.mycompany.plugins.example.Benchmarks;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * 大文件复制：FileCopier（FileChannel.transferTo 分块）与原来的 8KB 数组流式复制对比
+ * 文件大小默认 256MB，GB 级测试用 -e copySizeMb 2048 指定（需要足够的缓存目录空间）
+ */
+@RunWith(AndroidJUnit4.class)
+public class FileCopierBenchmark {
+    private static final int DEFAULT_SIZE_MB = 256;
+
+    private File dir;
+
+    @Before
+    public void setUp() {
+        assumeTrue(Benchmarks.isEnabled());
+        dir = Benchmarks.workDir("file-copier");
+    }
+
+    @Test
+    public void transferToVersusStreamCopy() throws Exception {
+        int sizeMb = Benchmarks.intArgument("copySizeMb", DEFAULT_SIZE_MB);
+        File source = new File(dir, "source.bin");
+        File dest = new File(dir, "dest.bin");
+        byte[] block = new byte[1024 * 1024];
+        new Random(sizeMb).nextBytes(block);
+        try (OutputStream out = new FileOutputStream(source)) {
+            for (int i = 0; i < sizeMb; i++) {
+                out.write(block);
+            }
+        }
+
+        long legacy = Benchmarks.measure(1, 3, () -> {
+            streamCopy(source, dest);
+            dest.delete();
+        });
+        long channel = Benchmarks.measure(1, 3, () -> {
+            FileCopier.copyFile(source, dest, new FileCopier.Operation("benchmark", null));
+            dest.delete();
+        });
+
+        Benchmarks.report("FileCopier", String.format(
+            "size=%dMB stream=%.0fms (%.0f MB/s) transferTo=%.0fms (%.0f MB/s)",
+            sizeMb, Benchmarks.millis(legacy), sizeMb / (legacy / 1_000_000_000.0),
+            Benchmarks.millis(channel), sizeMb / (channel / 1_000_000_000.0)));
+    }
+
+    /**
+     * 改造前 copyFileInternal 的做法
+     */
+    private static void streamCopy(File source, File dest) throws Exception {
+        try (InputStream in = new FileInputStream(source);
+             OutputStream out = new FileOutputStream(dest)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+}
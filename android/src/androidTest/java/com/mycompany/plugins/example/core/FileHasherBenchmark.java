@@ -0,0 +1,96 @@
+package com.mycompany.plugins.example.core;
+
+import static org.junit.Assume.assumeTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.mycompany.plugins.example.Benchmarks;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 文件哈希：FileHasher 流式读取原始字节与原来的 解码为字符串 → 重新编码 → 摘要 对比，
+ * 另外比较一次读取计算四种算法与逐个算法各读一次
+ * 原来的做法需要把整个文件放进内存，文件大小只测到 32MB
+ */
+@RunWith(AndroidJUnit4.class)
+public class FileHasherBenchmark {
+    private static final int[] SIZES_MB = {1, 8, 32};
+    private static final List<String> ALL_ALGORITHMS = Arrays.asList("md5", "sha1", "sha256", "crc32");
+
+    private File dir;
+
+    @Before
+    public void setUp() {
+        assumeTrue(Benchmarks.isEnabled());
+        dir = Benchmarks.workDir("file-hasher");
+    }
+
+    @Test
+    public void streamingVersusDecodedString() throws Exception {
+        for (int sizeMb : SIZES_MB) {
+            File file = new File(dir, sizeMb + "mb.txt");
+            writeText(file, sizeMb);
+
+            long legacy = Benchmarks.measure(1, 5, () -> legacyHash(file));
+            long streaming = Benchmarks.measure(1, 5, () -> FileHasher.hash(file, "md5"));
+            long onePass = Benchmarks.measure(1, 5, () -> FileHasher.hash(file, ALL_ALGORITHMS, null));
+            long separate = Benchmarks.measure(1, 5, () -> {
+                for (String algorithm : ALL_ALGORITHMS) {
+                    FileHasher.hash(file, algorithm);
+                }
+            });
+
+            Benchmarks.report("FileHasher", String.format(
+                "size=%dMB md5 legacy=%.1fms streaming=%.1fms | 4 algorithms one pass=%.1fms separate=%.1fms",
+                sizeMb, Benchmarks.millis(legacy), Benchmarks.millis(streaming),
+                Benchmarks.millis(onePass), Benchmarks.millis(separate)));
+        }
+    }
+
+    /**
+     * 改造前 getFileHash 的做法：readFileContent 解码为字符串，再编码为 UTF-8 计算摘要
+     */
+    private static String legacyHash(File file) throws Exception {
+        StringBuilder content = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                content.append(buffer, 0, read);
+            }
+        }
+        MessageDigest md = MessageDigest.getInstance("MD5");
+        return FileHasher.toHex(md.digest(content.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void writeText(File file, int sizeMb) throws Exception {
+        // 文本内容，保证原来的解码路径得到相同的哈希
+        byte[] line = new byte[128];
+        Random random = new Random(sizeMb);
+        try (OutputStream out = new FileOutputStream(file)) {
+            for (long written = 0; written < sizeMb * 1024L * 1024L; written += line.length) {
+                for (int i = 0; i < line.length - 1; i++) {
+                    line[i] = (byte) ('a' + random.nextInt(26));
+                }
+                line[line.length - 1] = '\n';
+                out.write(line);
+            }
+        }
+    }
+}
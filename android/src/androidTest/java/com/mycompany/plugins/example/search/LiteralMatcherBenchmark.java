@@ -0,0 +1,126 @@
+package com.mycompany.plugins.example.search;
+
+import static org.junit.Assume.assumeTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.mycompany.plugins.example.Benchmarks;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 内容搜索热循环：字节级字面量匹配与原来的逐行解码 + 正则匹配对比
+ * 在多 MB 的日志文件上分别测试罕见关键词（几乎全是跳转）和高频关键词（大量命中需要解码行）
+ */
+@RunWith(AndroidJUnit4.class)
+public class LiteralMatcherBenchmark {
+    private static final int[] SIZES_MB = {4, 16};
+    private static final String RARE = "OutOfMemoryError";
+    private static final String FREQUENT = "INFO";
+
+    private File dir;
+
+    @Before
+    public void setUp() {
+        assumeTrue(Benchmarks.isEnabled());
+        dir = Benchmarks.workDir("literal-matcher");
+    }
+
+    @Test
+    public void literalVersusRegex() throws Exception {
+        for (int sizeMb : SIZES_MB) {
+            File log = writeLog(new File(dir, sizeMb + "mb.log"), sizeMb * 1024L * 1024L);
+            for (String keyword : new String[]{RARE, FREQUENT}) {
+                for (boolean caseSensitive : new boolean[]{true, false}) {
+                    LiteralMatcher matcher = LiteralMatcher.compile(keyword, caseSensitive);
+                    Pattern pattern = Pattern.compile(Pattern.quote(keyword),
+                                                      caseSensitive ? 0 : Pattern.CASE_INSENSITIVE);
+                    int[] counts = new int[2];
+
+                    long literal = Benchmarks.measure(1, 5, () -> {
+                        counts[0] = 0;
+                        matcher.search(log, Integer.MAX_VALUE, (line, text, start, end) -> counts[0]++);
+                    });
+                    long regex = Benchmarks.measure(1, 5, () -> counts[1] = regexSearch(log, pattern));
+
+                    if (counts[0] != counts[1]) {
+                        throw new AssertionError("Match count differs: " + counts[0] + " vs " + counts[1]);
+                    }
+                    Benchmarks.report("LiteralMatcher", String.format(
+                        "size=%dMB keyword=%s caseSensitive=%b matches=%d literal=%.1fms (%.0f MB/s) regex=%.1fms (%.0f MB/s)",
+                        sizeMb, keyword, caseSensitive, counts[0],
+                        Benchmarks.millis(literal), throughput(sizeMb, literal),
+                        Benchmarks.millis(regex), throughput(sizeMb, regex)));
+                }
+            }
+        }
+    }
+
+    /**
+     * 改造前 searchContent 的做法：逐行解码后用 Pattern.quote 的正则查找
+     */
+    private static int regexSearch(File file, Pattern pattern) throws Exception {
+        int count = 0;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = pattern.matcher(line);
+                while (matcher.find()) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static double throughput(int sizeMb, long nanos) {
+        return sizeMb / (nanos / 1_000_000_000.0);
+    }
+
+    private static File writeLog(File file, long size) throws Exception {
+        String[] levels = {"DEBUG", "INFO", "WARN", "ERROR"};
+        String[] messages = {
+            "Request handled in %d ms",
+            "Cache miss for key user:%d",
+            "Connection pool size %d",
+            "Retrying upload, attempt %d",
+            "同步完成，共 %d 个文件",
+        };
+        Random random = new Random(size);
+        long written = 0;
+        try (Writer out = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 64 * 1024)) {
+            int lineNumber = 0;
+            while (written < size) {
+                String line = String.format("2024-01-01 12:00:%02d.%03d %s [worker-%d] ",
+                                            lineNumber % 60, lineNumber % 1000,
+                                            levels[random.nextInt(levels.length)], random.nextInt(16))
+                    + String.format(messages[random.nextInt(messages.length)], random.nextInt(10_000));
+                if (lineNumber % 50_000 == 49_999) {
+                    line += " java.lang." + RARE;
+                }
+                out.write(line);
+                out.write('\n');
+                written += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                lineNumber++;
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,90 @@
+package com.mycompany.plugins.example.search;
+
+import static org.junit.Assume.assumeTrue;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.getcapacitor.JSObject;
+import com.mycompany.plugins.example.Benchmarks;
+import com.mycompany.plugins.example.core.HashCache;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * 内容搜索吞吐量随线程数的变化
+ * 在 DIRECTORIES × FILES_PER_DIRECTORY 个文本文件的目录树上搜索，约 10% 的文件包含关键词；
+ * parallelism 为 1 时走原来的单线程遍历
+ */
+@RunWith(AndroidJUnit4.class)
+public class ParallelContentSearchBenchmark {
+    private static final int DIRECTORIES = 40;
+    private static final int FILES_PER_DIRECTORY = 50;
+    private static final int FILE_SIZE = 16 * 1024;
+    private static final String KEYWORD = "findMeInTheHaystack";
+
+    private File root;
+    private FileSearcher searcher;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue(Benchmarks.isEnabled());
+        root = Benchmarks.workDir("parallel-search");
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        searcher = new FileSearcher(context, new HashCache(context));
+        buildTree();
+    }
+
+    @Test
+    public void throughputByThreadCount() throws Exception {
+        long totalBytes = (long) DIRECTORIES * FILES_PER_DIRECTORY * FILE_SIZE;
+        int cpus = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= cpus; threads *= 2) {
+            int parallelism = threads;
+            JSObject[] result = new JSObject[1];
+            long nanos = Benchmarks.measure(1, 5, () -> result[0] = searcher.searchContent(
+                root.getPath(), KEYWORD, false, null, 10_000, 0, 0, 0, 10, true, parallelism));
+
+            Benchmarks.report("ParallelContentSearch", String.format(
+                "threads=%d files=%d matched=%d time=%.1fms throughput=%.0f MB/s",
+                threads, DIRECTORIES * FILES_PER_DIRECTORY, result[0].optInt("totalFiles"),
+                Benchmarks.millis(nanos), totalBytes / 1024.0 / 1024.0 / (nanos / 1_000_000_000.0)));
+        }
+    }
+
+    private void buildTree() throws Exception {
+        Random random = new Random(42);
+        for (int d = 0; d < DIRECTORIES; d++) {
+            File directory = new File(root, "module" + d + "/src");
+            directory.mkdirs();
+            for (int f = 0; f < FILES_PER_DIRECTORY; f++) {
+                boolean containsKeyword = random.nextInt(10) == 0;
+                try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                        new FileOutputStream(new File(directory, "Source" + f + ".java")), StandardCharsets.UTF_8))) {
+                    int written = 0;
+                    int line = 0;
+                    while (written < FILE_SIZE) {
+                        String text = line == 200 && containsKeyword
+                            ? "    " + KEYWORD + "(" + line + ");\n"
+                            : "    int value" + line + " = compute(" + random.nextInt(100_000) + ");\n";
+                        out.write(text);
+                        written += text.length();
+                        line++;
+                    }
+                }
+            }
+        }
+    }
+}
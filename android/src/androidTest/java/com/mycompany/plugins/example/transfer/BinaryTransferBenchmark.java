@@ -0,0 +1,224 @@
+package com.mycompany.plugins.example.transfer;
+
+import static org.junit.Assume.assumeTrue;
+
+import android.content.Context;
+import android.util.Base64;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.getcapacitor.JSObject;
+import com.mycompany.plugins.example.Benchmarks;
+import com.mycompany.plugins.example.core.HashCache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * 文件传输吞吐量：二进制通道与 base64 桥接路径对比（1MB–500MB）
+ * 只测原生一侧：二进制通道用原始 socket 发送 HTTP 请求（不受明文流量策略限制），
+ * base64 路径包括编解码和桥接消息的 JSON 序列化/解析，不含 WebView 中的 JS 处理。
+ * base64 路径需要在内存中保存整个文件的多份副本，超过堆大小的 1/8 时跳过
+ */
+@RunWith(AndroidJUnit4.class)
+public class BinaryTransferBenchmark {
+    private static final int[] SIZES_MB = {1, 16, 128, 500};
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private File dir;
+    private BinaryTransferServer server;
+
+    @Before
+    public void setUp() {
+        assumeTrue(Benchmarks.isEnabled());
+        dir = Benchmarks.workDir("binary-transfer");
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        server = new BinaryTransferServer(new HashCache(context), null);
+    }
+
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void binaryChannelVersusBase64() throws Exception {
+        long heapLimit = Runtime.getRuntime().maxMemory() / 8;
+        for (int sizeMb : SIZES_MB) {
+            long size = sizeMb * 1024L * 1024L;
+            File source = new File(dir, "source.bin");
+            File dest = new File(dir, "dest.bin");
+            writeRandom(source, size);
+            int iterations = sizeMb >= 128 ? 3 : 5;
+
+            long binaryRead = Benchmarks.measure(1, iterations, () -> binaryRead(source, size));
+            long binaryWrite = Benchmarks.measure(1, iterations, () -> binaryWrite(dest, size));
+
+            String base64;
+            if (size <= heapLimit) {
+                long base64Read = Benchmarks.measure(1, iterations, () -> base64Read(source));
+                String message = base64Message(source);
+                long base64Write = Benchmarks.measure(1, iterations, () -> base64Write(message, dest));
+                base64 = String.format("base64 read=%.0f MB/s write=%.0f MB/s",
+                                       throughput(sizeMb, base64Read), throughput(sizeMb, base64Write));
+            } else {
+                base64 = "base64 skipped (heap " + Runtime.getRuntime().maxMemory() / 1024 / 1024 + "MB)";
+            }
+
+            Benchmarks.report("BinaryTransfer", String.format(
+                "size=%dMB binary read=%.0f MB/s write=%.0f MB/s | %s",
+                sizeMb, throughput(sizeMb, binaryRead), throughput(sizeMb, binaryWrite), base64));
+            source.delete();
+            dest.delete();
+        }
+    }
+
+    // ============ 二进制通道 ============
+
+    private void binaryRead(File file, long size) throws Exception {
+        JSObject channel = server.open(file.getPath(), BinaryTransferServer.MODE_READ, false);
+        try (Socket socket = connect(channel)) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET " + path(channel) + " HTTP/1.1\r\nHost: 127.0.0.1\r\nConnection: close\r\n\r\n")
+                          .getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            InputStream in = new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE);
+            expectStatus(in, "200");
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long received = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                received += read;
+            }
+            if (received != size) {
+                throw new IOException("Short read: " + received + " of " + size);
+            }
+        } finally {
+            server.close(channel.getString("handle"));
+        }
+    }
+
+    private void binaryWrite(File file, long size) throws Exception {
+        JSObject channel = server.open(file.getPath(), BinaryTransferServer.MODE_WRITE, true);
+        try (Socket socket = connect(channel)) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("PUT " + path(channel) + "?offset=0 HTTP/1.1\r\nHost: 127.0.0.1\r\n"
+                       + "Content-Type: application/octet-stream\r\nContent-Length: " + size
+                       + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            for (long sent = 0; sent < size; sent += buffer.length) {
+                out.write(buffer, 0, (int) Math.min(buffer.length, size - sent));
+            }
+            out.flush();
+            expectStatus(socket.getInputStream(), "200");
+        } finally {
+            // close 会 fdatasync，与 base64 路径一样计入耗时
+            server.close(channel.getString("handle"));
+        }
+    }
+
+    private static Socket connect(JSObject channel) throws Exception {
+        return new Socket("127.0.0.1", URI.create(channel.getString("url")).getPort());
+    }
+
+    private static String path(JSObject channel) {
+        return URI.create(channel.getString("url")).getPath();
+    }
+
+    private static void expectStatus(InputStream in, String status) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        int matched = 0;
+        while (matched < 4) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Connection closed before response headers");
+            }
+            head.write(b);
+            matched = (b == '\r' && matched % 2 == 0) || (b == '\n' && matched % 2 == 1) ? matched + 1 : 0;
+        }
+        String statusLine = head.toString("US-ASCII").split("\r\n", 2)[0];
+        if (!statusLine.contains(" " + status + " ")) {
+            throw new IOException("Unexpected response: " + statusLine);
+        }
+    }
+
+    // ============ base64 路径 ============
+
+    /**
+     * 原来的 readFile：读入整个文件，base64 编码后放入结果对象，桥接发送前序列化为 JSON
+     */
+    private static void base64Read(File file) throws Exception {
+        byte[] data = readFully(file);
+        JSObject result = new JSObject();
+        result.put("data", Base64.encodeToString(data, Base64.NO_WRAP));
+        if (result.toString().isEmpty()) {
+            throw new IOException("Empty message");
+        }
+    }
+
+    /**
+     * 原来的 writeFile：从桥接消息中解析出 base64 字符串，解码后写入文件并同步
+     */
+    private static void base64Write(String message, File dest) throws Exception {
+        JSObject call = new JSObject(message);
+        byte[] data = Base64.decode(call.getString("data"), Base64.DEFAULT);
+        try (FileOutputStream out = new FileOutputStream(dest)) {
+            out.write(data);
+            out.getChannel().force(false);
+        }
+    }
+
+    /**
+     * WebView 一侧构造的桥接消息，不计入写入耗时
+     */
+    private static String base64Message(File source) throws Exception {
+        JSObject call = new JSObject();
+        call.put("data", Base64.encodeToString(readFully(source), Base64.NO_WRAP));
+        return call.toString();
+    }
+
+    private static byte[] readFully(File file) throws IOException {
+        byte[] data = new byte[(int) file.length()];
+        try (InputStream in = new FileInputStream(file)) {
+            int offset = 0;
+            int read;
+            while (offset < data.length && (read = in.read(data, offset, data.length - offset)) > 0) {
+                offset += read;
+            }
+        }
+        return data;
+    }
+
+    private static void writeRandom(File file, long size) throws IOException {
+        byte[] block = new byte[1024 * 1024];
+        new Random(size).nextBytes(block);
+        try (OutputStream out = new FileOutputStream(file)) {
+            for (long written = 0; written < size; written += block.length) {
+                out.write(block, 0, (int) Math.min(block.length, size - written));
+            }
+        }
+    }
+
+    private static double throughput(int sizeMb, long nanos) {
+        return sizeMb / (nanos / 1_000_000_000.0);
+    }
+}
@@ -20,15 +20,32 @@ import com.getcapacitor.annotation.CapacitorPlugin;
 import com.getcapacitor.annotation.Permission;
 import com.getcapacitor.annotation.PermissionCallback;
 
+import com.mycompany.plugins.example.batch.BatchOperationEngine;
+import com.mycompany.plugins.example.core.AtomicFileWriter;
+import com.mycompany.plugins.example.core.ColumnarEncoder;
+import com.mycompany.plugins.example.core.FileCopier;
+import com.mycompany.plugins.example.core.FileHasher;
 import com.mycompany.plugins.example.core.FileOperations;
 import com.mycompany.plugins.example.core.DirectoryOperations;
 import com.mycompany.plugins.example.core.FileUtils;
+import com.mycompany.plugins.example.core.HashCache;
+import com.mycompany.plugins.example.core.WriteSessionManager;
+import com.mycompany.plugins.example.executor.IoDispatcher;
 import com.mycompany.plugins.example.permission.PermissionManager;
 import com.mycompany.plugins.example.picker.SystemFilePicker;
 import com.mycompany.plugins.example.search.FileSearcher;
+import com.mycompany.plugins.example.search.SearchSession;
+import com.mycompany.plugins.example.transfer.BinaryTransferServer;
 import com.mycompany.plugins.example.ai.AIEditOperations;
+import com.mycompany.plugins.example.ai.DirectoryReplacer;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
 
 /**
  * Advanced File Manager Plugin
@@ -55,17 +72,70 @@ public class AdvancedFileManagerPlugin extends Plugin {
     private SystemFilePicker filePicker;
     private FileSearcher fileSearcher;
     private AIEditOperations aiEditOps;
+    private DirectoryReplacer directoryReplacer;
+    private IoDispatcher dispatcher;
+    private HashCache hashCache;
+    private BatchOperationEngine batchEngine;
+    private BinaryTransferServer transferServer;
+    private WriteSessionManager writeSessions;
+    private AtomicFileWriter atomicWriter;
 
     @Override
     public void load() {
         super.load();
         // 初始化各模块
-        fileOps = new FileOperations(getContext());
+        hashCache = new HashCache(getContext());
+        atomicWriter = new AtomicFileWriter();
+        fileOps = new FileOperations(getContext(), hashCache, atomicWriter);
         dirOps = new DirectoryOperations(getContext());
         permManager = new PermissionManager(this);
         filePicker = new SystemFilePicker(this);
-        fileSearcher = new FileSearcher(getContext());
-        aiEditOps = new AIEditOperations(getContext());
+        fileSearcher = new FileSearcher(getContext(), hashCache);
+        aiEditOps = new AIEditOperations(getContext(), hashCache, atomicWriter);
+        directoryReplacer = new DirectoryReplacer(fileSearcher, hashCache, atomicWriter);
+        dispatcher = new IoDispatcher();
+        transferServer = new BinaryTransferServer(hashCache, getBridge().getLocalUrl());
+        writeSessions = new WriteSessionManager(hashCache);
+
+        // 删除进度通过 deleteProgress 事件推送，并继续清理上次未完成的快速删除
+        dirOps.startTrashReaper((progress, done) -> {
+            progress.put("done", done);
+            notifyListeners("deleteProgress", progress);
+        });
+
+        // 批量操作进度通过 batchProgress 事件推送，上次未完成的批量操作以暂停状态恢复
+        batchEngine = new BatchOperationEngine(getContext(), fileOps, dirOps, dispatcher);
+        batchEngine.setListener((progress, done) -> {
+            progress.put("done", done);
+            notifyListeners("batchProgress", progress);
+        });
+        batchEngine.restorePendingBatches();
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+        if (dirOps != null) {
+            dirOps.shutdown();
+        }
+        if (hashCache != null) {
+            hashCache.shutdown();
+        }
+        if (batchEngine != null) {
+            batchEngine.shutdown();
+        }
+        if (transferServer != null) {
+            transferServer.shutdown();
+        }
+        if (writeSessions != null) {
+            writeSessions.shutdown();
+        }
+        if (atomicWriter != null) {
+            atomicWriter.shutdown();
+        }
+        super.handleOnDestroy();
     }
 
     // ==================== 权限管理 ====================
@@ -110,18 +180,53 @@ public class AdvancedFileManagerPlugin extends Plugin {
         Boolean showHidden = call.getBoolean("showHidden", false);
         String sortBy = call.getString("sortBy", "name");
         String sortOrder = call.getString("sortOrder", "asc");
+        Integer offset = call.getInt("offset", 0);
+        Integer limit = call.getInt("limit", 0);
+        String cursor = call.getString("cursor");
+        Boolean stream = call.getBoolean("stream", false);
+        Integer chunkSize = call.getInt("chunkSize", 200);
+        boolean columnar = ColumnarEncoder.FORMAT.equals(call.getString("format"));
 
         if (path == null) {
             call.reject("Path is required");
             return;
         }
 
-        try {
-            JSObject result = dirOps.listDirectory(path, showHidden, sortBy, sortOrder);
-            call.resolve(result);
-        } catch (Exception e) {
-            call.reject("Failed to list directory: " + e.getMessage());
-        }
+        dispatcher.read(call, () -> {
+            try {
+                JSObject result;
+                if (stream) {
+                    // 流式模式：分块通过 listDirectoryChunk 事件推送
+                    String listingId = call.getString("listingId", call.getCallbackId());
+                    result = dirOps.listDirectoryStream(path, showHidden, sortBy, sortOrder, chunkSize, columnar,
+                        (files, columns, chunkIndex, chunkOffset, totalCount, done) -> {
+                            JSObject event = new JSObject();
+                            event.put("listingId", listingId);
+                            event.put("path", path);
+                            event.put("files", files);
+                            if (columns != null) {
+                                event.put("format", ColumnarEncoder.FORMAT);
+                                event.put("columns", columns);
+                            }
+                            event.put("chunkIndex", chunkIndex);
+                            event.put("offset", chunkOffset);
+                            event.put("totalCount", totalCount);
+                            event.put("done", done);
+                            notifyListeners("listDirectoryChunk", event);
+                        });
+                    result.put("listingId", listingId);
+                } else if (limit > 0 || cursor != null) {
+                    // 分页模式
+                    result = dirOps.listDirectoryPage(path, showHidden, sortBy, sortOrder,
+                                                      offset, limit, cursor, columnar);
+                } else {
+                    result = dirOps.listDirectory(path, showHidden, sortBy, sortOrder, columnar);
+                }
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to list directory: " + e.getMessage());
+            }
+        });
     }
 
     @PluginMethod
@@ -134,29 +239,73 @@ public class AdvancedFileManagerPlugin extends Plugin {
             return;
         }
 
-        try {
-            dirOps.createDirectory(path, recursive);
-            call.resolve();
-        } catch (Exception e) {
-            call.reject("Failed to create directory: " + e.getMessage());
-        }
+        dispatcher.write(path, call, () -> {
+            try {
+                dirOps.createDirectory(path, recursive);
+                call.resolve();
+            } catch (Exception e) {
+                call.reject("Failed to create directory: " + e.getMessage());
+            }
+        });
     }
 
     @PluginMethod
     public void deleteDirectory(PluginCall call) {
         String path = call.getString("path");
+        Boolean fast = call.getBoolean("fast", false);
+        String operationId = call.getString("operationId");
 
         if (path == null) {
             call.reject("Path is required");
             return;
         }
 
-        try {
-            dirOps.deleteDirectory(path);
-            call.resolve();
-        } catch (Exception e) {
-            call.reject("Failed to delete directory: " + e.getMessage());
+        dispatcher.write(path, call, () -> {
+            try {
+                JSObject result = dirOps.deleteDirectory(path, fast, operationId);
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to delete directory: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 计算目录大小
+     * 传入 operationId 时通过 directorySizeProgress 事件推送进度
+     */
+    @PluginMethod
+    public void calculateDirectorySize(PluginCall call) {
+        String path = call.getString("path");
+        Boolean includeHidden = call.getBoolean("includeHidden", true);
+        Boolean useCache = call.getBoolean("useCache", true);
+        String operationId = call.getString("operationId");
+
+        if (path == null) {
+            call.reject("Path is required");
+            return;
         }
+
+        dispatcher.read(call, () -> {
+            try {
+                JSObject result = dirOps.calculateDirectorySize(path, includeHidden, useCache, operationId,
+                    (progress, done) -> {
+                        progress.put("done", done);
+                        notifyListeners("directorySizeProgress", progress);
+                    });
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to calculate directory size: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 获取正在后台清理的快速删除
+     */
+    @PluginMethod
+    public void getPendingDeletes(PluginCall call) {
+        call.resolve(dirOps.getPendingDeletes());
     }
 
     // ==================== 文件操作 ====================
@@ -166,36 +315,94 @@ public class AdvancedFileManagerPlugin extends Plugin {
         String path = call.getString("path");
         String content = call.getString("content", "");
         String encoding = call.getString("encoding", "utf8");
+        Boolean atomic = call.getBoolean("atomic", false);
+        String syncPolicy = call.getString("syncPolicy", AtomicFileWriter.SYNC_ALWAYS);
 
         if (path == null) {
             call.reject("Path is required");
             return;
         }
-
-        try {
-            fileOps.createFile(path, content, encoding);
-            call.resolve();
-        } catch (Exception e) {
-            call.reject("Failed to create file: " + e.getMessage());
+        if (!AtomicFileWriter.isValidSyncPolicy(syncPolicy)) {
+            call.reject("Invalid syncPolicy: " + syncPolicy);
+            return;
         }
+
+        dispatcher.write(path, call, () -> {
+            try {
+                fileOps.createFile(path, content, encoding, atomic, syncPolicy);
+                call.resolve();
+            } catch (Exception e) {
+                call.reject("Failed to create file: " + e.getMessage());
+            }
+        });
     }
 
     @PluginMethod
     public void readFile(PluginCall call) {
         String path = call.getString("path");
         String encoding = call.getString("encoding", "utf8");
+        Boolean stream = call.getBoolean("stream", false);
+        Integer chunkSize = call.getInt("chunkSize", 512 * 1024);
 
         if (path == null) {
             call.reject("Path is required");
             return;
         }
 
-        try {
-            JSObject result = fileOps.readFile(path, encoding);
-            call.resolve(result);
-        } catch (Exception e) {
-            call.reject("Failed to read file: " + e.getMessage());
+        dispatcher.read(call, () -> {
+            try {
+                JSObject result;
+                if (stream) {
+                    // 流式模式：分块通过 readFileChunk 事件推送
+                    String readId = call.getString("readId", call.getCallbackId());
+                    result = fileOps.readFileStream(path, encoding, chunkSize,
+                        (content, chunkIndex, offset, length, totalSize, done) -> {
+                            JSObject event = new JSObject();
+                            event.put("readId", readId);
+                            event.put("path", path);
+                            event.put("content", content);
+                            event.put("encoding", encoding);
+                            event.put("chunkIndex", chunkIndex);
+                            event.put("offset", offset);
+                            event.put("length", length);
+                            event.put("totalSize", totalSize);
+                            event.put("done", done);
+                            notifyListeners("readFileChunk", event);
+                        });
+                    result.put("readId", readId);
+                } else {
+                    result = fileOps.readFile(path, encoding);
+                }
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to read file: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 读取文件的指定字节区间
+     */
+    @PluginMethod
+    public void readFileChunk(PluginCall call) {
+        String path = call.getString("path");
+        Long offset = call.getLong("offset", 0L);
+        Integer length = call.getInt("length");
+        String encoding = call.getString("encoding", "utf8");
+
+        if (path == null || length == null) {
+            call.reject("path and length are required");
+            return;
         }
+
+        dispatcher.read(call, () -> {
+            try {
+                JSObject result = fileOps.readFileChunk(path, offset, length, encoding);
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to read file chunk: " + e.getMessage());
+            }
+        });
     }
 
     @PluginMethod
@@ -204,37 +411,195 @@ public class AdvancedFileManagerPlugin extends Plugin {
         String content = call.getString("content");
         String encoding = call.getString("encoding", "utf8");
         Boolean append = call.getBoolean("append", false);
+        Boolean atomic = call.getBoolean("atomic", false);
+        String syncPolicy = call.getString("syncPolicy", AtomicFileWriter.SYNC_ALWAYS);
 
         if (path == null || content == null) {
             call.reject("Path and content are required");
             return;
         }
+        if (!AtomicFileWriter.isValidSyncPolicy(syncPolicy)) {
+            call.reject("Invalid syncPolicy: " + syncPolicy);
+            return;
+        }
 
+        dispatcher.write(path, call, () -> {
+            try {
+                fileOps.writeFile(path, content, encoding, append, atomic, syncPolicy);
+                call.resolve();
+            } catch (Exception e) {
+                call.reject("Failed to write file: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 立即同步 syncPolicy 为 batch 的原子写入（正常情况下由后台按批同步）
+     */
+    @PluginMethod
+    public void syncPendingWrites(PluginCall call) {
+        dispatcher.read(call, () -> {
+            try {
+                JSObject result = new JSObject();
+                result.put("files", atomicWriter.syncPending());
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to sync pending writes: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 打开写入会话，之后通过 appendChunk 分块写入，文件在会话期间保持打开
+     */
+    @PluginMethod
+    public void openWriteSession(PluginCall call) {
+        String path = call.getString("path");
+        Long offset = call.getLong("offset");
+        Boolean append = call.getBoolean("append", false);
+        String syncPolicy = call.getString("syncPolicy", WriteSessionManager.SYNC_CLOSE);
+        Long idleTimeout = call.getLong("idleTimeout", 0L);
+
+        if (path == null) {
+            call.reject("Path is required");
+            return;
+        }
+
+        dispatcher.write(path, call, () -> {
+            try {
+                JSObject result = writeSessions.open(path, offset, append, syncPolicy, idleTimeout);
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to open write session: " + e.getMessage());
+            }
+        });
+    }
+
+    @PluginMethod
+    public void appendChunk(PluginCall call) {
+        String handle = call.getString("handle");
+        String data = call.getString("data");
+        String encoding = call.getString("encoding", "utf8");
+        Long offset = call.getLong("offset");
+
+        if (handle == null || data == null) {
+            call.reject("handle and data are required");
+            return;
+        }
+
+        String path;
         try {
-            fileOps.writeFile(path, content, encoding, append);
-            call.resolve();
+            path = writeSessions.getPath(handle);
+        } catch (Exception e) {
+            call.reject("Failed to append chunk: " + e.getMessage());
+            return;
+        }
+
+        dispatcher.write(path, call, () -> {
+            try {
+                JSObject result = writeSessions.append(handle, data, encoding, offset);
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to append chunk: " + e.getMessage());
+            }
+        });
+    }
+
+    @PluginMethod
+    public void closeWriteSession(PluginCall call) {
+        String handle = call.getString("handle");
+
+        if (handle == null) {
+            call.reject("handle is required");
+            return;
+        }
+
+        String path;
+        try {
+            path = writeSessions.getPath(handle);
         } catch (Exception e) {
-            call.reject("Failed to write file: " + e.getMessage());
+            call.reject("Failed to close write session: " + e.getMessage());
+            return;
         }
+
+        dispatcher.write(path, call, () -> {
+            try {
+                JSObject result = writeSessions.close(handle);
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to close write session: " + e.getMessage());
+            }
+        });
     }
 
+    /**
+     * 打开二进制传输通道，返回可直接 fetch 的本地 URL（读：GET，写：PUT 分块上传）
+     */
     @PluginMethod
-    public void deleteFile(PluginCall call) {
+    public void openBinaryChannel(PluginCall call) {
         String path = call.getString("path");
+        String mode = call.getString("mode", BinaryTransferServer.MODE_READ);
+        Boolean truncate = call.getBoolean("truncate", true);
 
         if (path == null) {
             call.reject("Path is required");
             return;
         }
 
-        try {
-            fileOps.deleteFile(path);
-            call.resolve();
-        } catch (Exception e) {
-            call.reject("Failed to delete file: " + e.getMessage());
+        // 写通道打开时可能清空文件，排在该路径之前的写操作之后
+        Runnable openTask = () -> {
+            try {
+                JSObject result = transferServer.open(path, mode, truncate);
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to open binary channel: " + e.getMessage());
+            }
+        };
+        if (BinaryTransferServer.MODE_WRITE.equals(mode)) {
+            dispatcher.write(path, call, openTask);
+        } else {
+            dispatcher.read(call, openTask);
         }
     }
 
+    @PluginMethod
+    public void closeBinaryChannel(PluginCall call) {
+        String handle = call.getString("handle");
+
+        if (handle == null) {
+            call.reject("handle is required");
+            return;
+        }
+
+        dispatcher.read(call, () -> {
+            try {
+                JSObject result = transferServer.close(handle);
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to close binary channel: " + e.getMessage());
+            }
+        });
+    }
+
+    @PluginMethod
+    public void deleteFile(PluginCall call) {
+        String path = call.getString("path");
+
+        if (path == null) {
+            call.reject("Path is required");
+            return;
+        }
+
+        dispatcher.write(path, call, () -> {
+            try {
+                fileOps.deleteFile(path);
+                call.resolve();
+            } catch (Exception e) {
+                call.reject("Failed to delete file: " + e.getMessage());
+            }
+        });
+    }
+
     @PluginMethod
     public void renameFile(PluginCall call) {
         String path = call.getString("path");
@@ -245,30 +610,38 @@ public class AdvancedFileManagerPlugin extends Plugin {
             return;
         }
 
-        try {
-            fileOps.renameFile(path, newName);
-            call.resolve();
-        } catch (Exception e) {
-            call.reject("Failed to rename file: " + e.getMessage());
-        }
+        String newPath = new File(new File(path).getParentFile(), newName).getPath();
+        dispatcher.write(new String[]{path, newPath}, call, () -> {
+            try {
+                fileOps.renameFile(path, newName);
+                call.resolve();
+            } catch (Exception e) {
+                call.reject("Failed to rename file: " + e.getMessage());
+            }
+        });
     }
 
     @PluginMethod
     public void moveFile(PluginCall call) {
         String sourcePath = call.getString("sourcePath");
         String destinationPath = call.getString("destinationPath");
+        String operationId = call.getString("operationId");
+        Integer parallelism = call.getInt("parallelism", 4);
 
         if (sourcePath == null || destinationPath == null) {
             call.reject("sourcePath and destinationPath are required");
             return;
         }
 
-        try {
-            fileOps.moveFile(sourcePath, destinationPath);
-            call.resolve();
-        } catch (Exception e) {
-            call.reject("Failed to move file: " + e.getMessage());
-        }
+        dispatcher.write(new String[]{sourcePath, destinationPath}, call, () -> {
+            try {
+                fileOps.moveFile(sourcePath, destinationPath, operationId, parallelism,
+                                 createCopyProgressListener(operationId, "move", sourcePath, destinationPath));
+                call.resolve();
+            } catch (Exception e) {
+                call.reject("Failed to move file: " + e.getMessage());
+            }
+        });
     }
 
     @PluginMethod
@@ -276,18 +649,61 @@ public class AdvancedFileManagerPlugin extends Plugin {
         String sourcePath = call.getString("sourcePath");
         String destinationPath = call.getString("destinationPath");
         Boolean overwrite = call.getBoolean("overwrite", false);
+        String operationId = call.getString("operationId");
+        Integer parallelism = call.getInt("parallelism", 4);
 
         if (sourcePath == null || destinationPath == null) {
             call.reject("sourcePath and destinationPath are required");
             return;
         }
 
-        try {
-            fileOps.copyFile(sourcePath, destinationPath, overwrite);
-            call.resolve();
-        } catch (Exception e) {
-            call.reject("Failed to copy file: " + e.getMessage());
+        dispatcher.write(new String[]{sourcePath, destinationPath}, call, () -> {
+            try {
+                JSObject result = fileOps.copyFile(sourcePath, destinationPath, overwrite, operationId, parallelism,
+                    createCopyProgressListener(operationId, "copy", sourcePath, destinationPath));
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to copy file: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 取消正在进行的复制、移动或删除操作
+     */
+    @PluginMethod
+    public void cancelOperation(PluginCall call) {
+        String operationId = call.getString("operationId");
+
+        if (operationId == null) {
+            call.reject("operationId is required");
+            return;
         }
+
+        JSObject result = new JSObject();
+        result.put("cancelled", fileOps.cancelOperation(operationId) || dirOps.cancelDelete(operationId));
+        call.resolve(result);
+    }
+
+    private FileCopier.ProgressListener createCopyProgressListener(String operationId, String operation,
+                                                                   String sourcePath, String destinationPath) {
+        if (operationId == null) {
+            return null;
+        }
+        return (bytesCopied, totalBytes, bytesPerSecond, filesCopied, totalFiles, done) -> {
+            JSObject event = new JSObject();
+            event.put("operationId", operationId);
+            event.put("operation", operation);
+            event.put("sourcePath", sourcePath);
+            event.put("destinationPath", destinationPath);
+            event.put("bytesCopied", bytesCopied);
+            event.put("totalBytes", totalBytes);
+            event.put("throughput", bytesPerSecond);
+            event.put("filesCopied", filesCopied);
+            event.put("totalFiles", totalFiles);
+            event.put("done", done);
+            notifyListeners("copyProgress", event);
+        };
     }
 
     @PluginMethod
@@ -299,12 +715,14 @@ public class AdvancedFileManagerPlugin extends Plugin {
             return;
         }
 
-        try {
-            JSObject result = fileOps.getFileInfo(path);
-            call.resolve(result);
-        } catch (Exception e) {
-            call.reject("Failed to get file info: " + e.getMessage());
-        }
+        dispatcher.read(call, () -> {
+            try {
+                JSObject result = fileOps.getFileInfo(path);
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to get file info: " + e.getMessage());
+            }
+        });
     }
 
     @PluginMethod
@@ -316,9 +734,11 @@ public class AdvancedFileManagerPlugin extends Plugin {
             return;
         }
 
-        JSObject result = new JSObject();
-        result.put("exists", fileOps.exists(path));
-        call.resolve(result);
+        dispatcher.read(call, () -> {
+            JSObject result = new JSObject();
+            result.put("exists", fileOps.exists(path));
+            call.resolve(result);
+        });
     }
 
     // ==================== 搜索 ====================
@@ -331,27 +751,47 @@ public class AdvancedFileManagerPlugin extends Plugin {
         JSArray fileTypesArray = call.getArray("fileTypes");
         Integer maxResults = call.getInt("maxResults", 100);
         Boolean recursive = call.getBoolean("recursive", true);
+        Boolean stream = call.getBoolean("stream", false);
+        boolean columnar = ColumnarEncoder.FORMAT.equals(call.getString("format"));
 
         if (directory == null || query == null) {
             call.reject("Directory and query are required");
             return;
         }
 
-        try {
-            String[] fileTypes = null;
-            if (fileTypesArray != null && fileTypesArray.length() > 0) {
-                fileTypes = new String[fileTypesArray.length()];
-                for (int i = 0; i < fileTypesArray.length(); i++) {
-                    fileTypes[i] = fileTypesArray.getString(i);
+        dispatcher.read(call, () -> {
+            try {
+                String[] fileTypes = null;
+                if (fileTypesArray != null && fileTypesArray.length() > 0) {
+                    fileTypes = new String[fileTypesArray.length()];
+                    for (int i = 0; i < fileTypesArray.length(); i++) {
+                        fileTypes[i] = fileTypesArray.getString(i);
+                    }
                 }
-            }
 
-            JSObject result = fileSearcher.searchFiles(directory, query, searchType, 
-                                                        fileTypes, maxResults, recursive);
-            call.resolve(result);
-        } catch (Exception e) {
-            call.reject("Failed to search files: " + e.getMessage());
-        }
+                if (stream) {
+                    // 流式模式：立即返回 searchId，结果通过 searchResult 事件推送
+                    String searchId = call.getString("searchId", call.getCallbackId());
+                    JSObject ret = new JSObject();
+                    ret.put("files", new JSArray());
+                    ret.put("totalFound", 0);
+                    ret.put("searchId", searchId);
+                    call.resolve(ret);
+                    fileSearcher.streamSearchFiles(searchId, directory, query, searchType,
+                                                   fileTypes, maxResults, recursive,
+                                                   call.getInt("batchSize", 20),
+                                                   call.getInt("emitInterval", 100),
+                                                   createSearchListener());
+                    return;
+                }
+
+                JSObject result = fileSearcher.searchFiles(directory, query, searchType, 
+                                                            fileTypes, maxResults, recursive, columnar);
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to search files: " + e.getMessage());
+            }
+        });
     }
     
     /**
@@ -370,30 +810,416 @@ public class AdvancedFileManagerPlugin extends Plugin {
         Integer contextLength = call.getInt("contextLength", 40);
         Integer maxDepth = call.getInt("maxDepth", 5);
         Boolean recursive = call.getBoolean("recursive", true);
+        Integer parallelism = call.getInt("parallelism", 1);
+        Boolean stream = call.getBoolean("stream", false);
 
         if (directory == null || keyword == null || keyword.isEmpty()) {
             call.reject("Directory and keyword are required");
             return;
         }
 
-        try {
-            String[] fileExtensions = null;
-            if (fileExtensionsArray != null && fileExtensionsArray.length() > 0) {
-                fileExtensions = new String[fileExtensionsArray.length()];
-                for (int i = 0; i < fileExtensionsArray.length(); i++) {
-                    fileExtensions[i] = fileExtensionsArray.getString(i);
+        dispatcher.read(call, () -> {
+            try {
+                String[] fileExtensions = null;
+                if (fileExtensionsArray != null && fileExtensionsArray.length() > 0) {
+                    fileExtensions = new String[fileExtensionsArray.length()];
+                    for (int i = 0; i < fileExtensionsArray.length(); i++) {
+                        fileExtensions[i] = fileExtensionsArray.getString(i);
+                    }
+                }
+
+                if (stream) {
+                    // 流式模式：立即返回 searchId，结果通过 searchResult 事件推送
+                    String searchId = call.getString("searchId", call.getCallbackId());
+                    JSObject ret = new JSObject();
+                    ret.put("results", new JSArray());
+                    ret.put("totalFiles", 0);
+                    ret.put("totalMatches", 0);
+                    ret.put("duration", 0);
+                    ret.put("skippedFiles", 0);
+                    ret.put("searchId", searchId);
+                    call.resolve(ret);
+                    fileSearcher.streamSearchContent(
+                        searchId, directory, keyword, caseSensitive, fileExtensions,
+                        maxFiles, maxFileSize, maxMatchesPerFile,
+                        contextLength, maxDepth, recursive, parallelism,
+                        call.getInt("batchSize", 20), call.getInt("emitInterval", 100),
+                        createSearchListener()
+                    );
+                    return;
+                }
+
+                JSObject result = fileSearcher.searchContent(
+                    directory, keyword, caseSensitive, fileExtensions,
+                    maxFiles, maxFileSize, maxMatchesPerFile, 
+                    contextLength, maxDepth, recursive, parallelism
+                );
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to search content: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 取消流式搜索
+     */
+    @PluginMethod
+    public void cancelSearch(PluginCall call) {
+        String searchId = call.getString("searchId");
+
+        if (searchId == null) {
+            call.reject("searchId is required");
+            return;
+        }
+
+        JSObject result = new JSObject();
+        result.put("cancelled", fileSearcher.cancelSearch(searchId));
+        call.resolve(result);
+    }
+
+    /**
+     * 查找重复文件
+     * 按大小、首尾哈希、完整哈希逐级筛选，stream 为 true 时每组结果通过 searchResult 事件推送
+     */
+    @PluginMethod
+    public void findDuplicateFiles(PluginCall call) {
+        String directory = call.getString("directory");
+        JSArray directoriesArray = call.getArray("directories");
+        Long minSize = call.getLong("minSize", 1L);
+        Boolean recursive = call.getBoolean("recursive", true);
+        Boolean includeHidden = call.getBoolean("includeHidden", false);
+        JSArray fileExtensionsArray = call.getArray("fileExtensions");
+        String algorithm = call.getString("algorithm", FileHasher.DEFAULT_ALGORITHM);
+        Integer parallelism = call.getInt("parallelism", 0);
+        Boolean stream = call.getBoolean("stream", false);
+
+        if (directory == null && (directoriesArray == null || directoriesArray.length() == 0)) {
+            call.reject("directory or directories is required");
+            return;
+        }
+
+        dispatcher.read(call, () -> {
+            try {
+                List<String> directories = new ArrayList<>();
+                if (directory != null) {
+                    directories.add(directory);
+                }
+                if (directoriesArray != null) {
+                    for (int i = 0; i < directoriesArray.length(); i++) {
+                        directories.add(directoriesArray.getString(i));
+                    }
+                }
+                String[] roots = directories.toArray(new String[0]);
+
+                String[] fileExtensions = null;
+                if (fileExtensionsArray != null && fileExtensionsArray.length() > 0) {
+                    fileExtensions = new String[fileExtensionsArray.length()];
+                    for (int i = 0; i < fileExtensionsArray.length(); i++) {
+                        fileExtensions[i] = fileExtensionsArray.getString(i);
+                    }
+                }
+
+                if (stream) {
+                    // 流式模式：立即返回 searchId，结果通过 searchResult 事件推送
+                    String searchId = call.getString("searchId", call.getCallbackId());
+                    JSObject ret = new JSObject();
+                    ret.put("groups", new JSArray());
+                    ret.put("totalGroups", 0);
+                    ret.put("searchId", searchId);
+                    call.resolve(ret);
+                    fileSearcher.streamFindDuplicates(searchId, roots, minSize, recursive, includeHidden,
+                                                      fileExtensions, algorithm, parallelism,
+                                                      call.getInt("batchSize", 20),
+                                                      call.getInt("emitInterval", 100),
+                                                      createSearchListener());
+                    return;
+                }
+
+                JSObject result = fileSearcher.findDuplicateFiles(roots, minSize, recursive, includeHidden,
+                                                                  fileExtensions, algorithm, parallelism);
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to find duplicate files: " + e.getMessage());
+            }
+        });
+    }
+
+    private SearchSession.Listener createSearchListener() {
+        return new SearchSession.Listener() {
+            @Override
+            public void onResults(String searchId, JSArray results) {
+                JSObject event = new JSObject();
+                event.put("searchId", searchId);
+                event.put("results", results);
+                notifyListeners("searchResult", event);
+            }
+
+            @Override
+            public void onComplete(String searchId, JSObject summary) {
+                summary.put("searchId", searchId);
+                notifyListeners("searchComplete", summary);
+            }
+        };
+    }
+
+    /**
+     * 为指定根目录构建或增量更新内容搜索索引
+     */
+    @PluginMethod
+    public void buildIndex(PluginCall call) {
+        JSArray rootsArray = call.getArray("roots");
+        Integer maxFileSize = call.getInt("maxFileSize", 1024 * 1024); // 1MB
+
+        if (rootsArray == null || rootsArray.length() == 0) {
+            call.reject("roots are required");
+            return;
+        }
+
+        dispatcher.read(call, () -> {
+            try {
+                String[] roots = new String[rootsArray.length()];
+                for (int i = 0; i < rootsArray.length(); i++) {
+                    roots[i] = rootsArray.getString(i);
+                }
+
+                JSObject result = fileSearcher.buildIndex(roots, maxFileSize);
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to build index: " + e.getMessage());
+            }
+        });
+    }
+
+    @PluginMethod
+    public void getIndexStatus(PluginCall call) {
+        dispatcher.read(call, () -> call.resolve(fileSearcher.getIndexStatus()));
+    }
+
+    @PluginMethod
+    public void dropIndex(PluginCall call) {
+        String root = call.getString("root");
+
+        if (root == null) {
+            call.reject("root is required");
+            return;
+        }
+
+        dispatcher.read(call, () -> call.resolve(fileSearcher.dropIndex(root)));
+    }
+
+    // ==================== 批量操作 ====================
+
+    @PluginMethod
+    public void batchCopy(PluginCall call) {
+        runBatch(call, "copy", "Failed to copy batch: ");
+    }
+
+    @PluginMethod
+    public void batchMove(PluginCall call) {
+        runBatch(call, "move", "Failed to move batch: ");
+    }
+
+    @PluginMethod
+    public void batchDelete(PluginCall call) {
+        JSArray paths = call.getArray("paths");
+
+        if (paths == null || paths.length() == 0) {
+            call.reject("paths is required");
+            return;
+        }
+
+        dispatcher.read(call, () -> {
+            try {
+                JSONArray operations = new JSONArray();
+                for (int i = 0; i < paths.length(); i++) {
+                    JSONObject operation = new JSONObject();
+                    operation.put("type", "delete");
+                    operation.put("sourcePath", paths.getString(i));
+                    operations.put(operation);
                 }
+                batchEngine.run(call.getString("batchId"), operations, false,
+                                call.getBoolean("continueOnError", true),
+                                call.getInt("concurrency", BatchOperationEngine.DEFAULT_CONCURRENCY),
+                                call::resolve);
+            } catch (Exception e) {
+                call.reject("Failed to delete batch: " + e.getMessage());
             }
+        });
+    }
 
-            JSObject result = fileSearcher.searchContent(
-                directory, keyword, caseSensitive, fileExtensions,
-                maxFiles, maxFileSize, maxMatchesPerFile, 
-                contextLength, maxDepth, recursive
-            );
+    /**
+     * 按正则替换目录中的文件名
+     */
+    @PluginMethod
+    public void batchRename(PluginCall call) {
+        String directory = call.getString("directory");
+        String pattern = call.getString("pattern");
+        String replacement = call.getString("replacement", "");
+        Boolean recursive = call.getBoolean("recursive", false);
+        JSArray fileTypesArray = call.getArray("fileTypes");
+
+        if (directory == null || pattern == null) {
+            call.reject("directory and pattern are required");
+            return;
+        }
+
+        dispatcher.read(call, () -> {
+            try {
+                String[] fileTypes = null;
+                if (fileTypesArray != null) {
+                    fileTypes = new String[fileTypesArray.length()];
+                    for (int i = 0; i < fileTypesArray.length(); i++) {
+                        fileTypes[i] = fileTypesArray.getString(i);
+                    }
+                }
+                JSONArray operations = BatchOperationEngine.collectRenameOperations(
+                    directory, pattern, replacement, recursive, fileTypes);
+                if (operations.length() == 0) {
+                    JSObject result = new JSObject();
+                    result.put("total", 0);
+                    result.put("successful", 0);
+                    result.put("failed", 0);
+                    result.put("skipped", 0);
+                    result.put("results", new JSArray());
+                    result.put("totalTime", 0);
+                    call.resolve(result);
+                    return;
+                }
+                batchEngine.run(call.getString("batchId"), operations,
+                                call.getBoolean("overwrite", false),
+                                call.getBoolean("continueOnError", true),
+                                call.getInt("concurrency", BatchOperationEngine.DEFAULT_CONCURRENCY),
+                                call::resolve);
+            } catch (Exception e) {
+                call.reject("Failed to rename batch: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 提交批量操作后立即返回，进度通过 batchProgress 事件推送
+     */
+    @PluginMethod
+    public void batchOperateAsync(PluginCall call) {
+        JSArray operations = call.getArray("operations");
+
+        if (operations == null || operations.length() == 0) {
+            call.reject("operations is required");
+            return;
+        }
+
+        dispatcher.read(call, () -> {
+            try {
+                call.resolve(batchEngine.start(call.getString("batchId"), operations,
+                                               call.getBoolean("overwrite", false),
+                                               call.getBoolean("continueOnError", true),
+                                               call.getInt("concurrency", BatchOperationEngine.DEFAULT_CONCURRENCY)));
+            } catch (Exception e) {
+                call.reject("Failed to start batch: " + e.getMessage());
+            }
+        });
+    }
+
+    @PluginMethod
+    public void pauseBatch(PluginCall call) {
+        String batchId = call.getString("batchId");
+
+        if (batchId == null) {
+            call.reject("batchId is required");
+            return;
+        }
+
+        dispatcher.read(call, () -> {
+            JSObject result = new JSObject();
+            result.put("success", batchEngine.pause(batchId));
             call.resolve(result);
-        } catch (Exception e) {
-            call.reject("Failed to search content: " + e.getMessage());
+        });
+    }
+
+    @PluginMethod
+    public void resumeBatch(PluginCall call) {
+        String batchId = call.getString("batchId");
+
+        if (batchId == null) {
+            call.reject("batchId is required");
+            return;
+        }
+
+        dispatcher.read(call, () -> {
+            JSObject result = new JSObject();
+            result.put("success", batchEngine.resume(batchId));
+            call.resolve(result);
+        });
+    }
+
+    @PluginMethod
+    public void cancelBatch(PluginCall call) {
+        String batchId = call.getString("batchId");
+
+        if (batchId == null) {
+            call.reject("batchId is required");
+            return;
+        }
+
+        dispatcher.read(call, () -> {
+            JSObject result = new JSObject();
+            result.put("cancelled", batchEngine.cancel(batchId));
+            call.resolve(result);
+        });
+    }
+
+    @PluginMethod
+    public void getBatchResult(PluginCall call) {
+        String batchId = call.getString("batchId");
+
+        if (batchId == null) {
+            call.reject("batchId is required");
+            return;
         }
+
+        dispatcher.read(call, () -> {
+            try {
+                call.resolve(batchEngine.getResult(batchId));
+            } catch (Exception e) {
+                call.reject("Failed to get batch result: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 获取未结束的批量操作（含进程重启后恢复的暂停任务）
+     */
+    @PluginMethod
+    public void getPendingBatches(PluginCall call) {
+        dispatcher.read(call, () -> call.resolve(batchEngine.getPendingBatches()));
+    }
+
+    private void runBatch(PluginCall call, String type, String errorPrefix) {
+        JSArray operations = call.getArray("operations");
+
+        if (operations == null || operations.length() == 0) {
+            call.reject("operations is required");
+            return;
+        }
+
+        dispatcher.read(call, () -> {
+            try {
+                JSONArray typed = new JSONArray();
+                for (int i = 0; i < operations.length(); i++) {
+                    JSONObject operation = operations.getJSONObject(i);
+                    operation.put("type", type);
+                    typed.put(operation);
+                }
+                batchEngine.run(call.getString("batchId"), typed,
+                                call.getBoolean("overwrite", false),
+                                call.getBoolean("continueOnError", true),
+                                call.getInt("concurrency", BatchOperationEngine.DEFAULT_CONCURRENCY),
+                                call::resolve);
+            } catch (Exception e) {
+                call.reject(errorPrefix + e.getMessage());
+            }
+        });
     }
 
     // ==================== 系统文件选择器 ====================
@@ -537,12 +1363,14 @@ public class AdvancedFileManagerPlugin extends Plugin {
             return;
         }
 
-        try {
-            JSObject result = aiEditOps.readFileRange(path, startLine, endLine);
-            call.resolve(result);
-        } catch (Exception e) {
-            call.reject("Failed to read file range: " + e.getMessage());
-        }
+        dispatcher.read(call, () -> {
+            try {
+                JSObject result = aiEditOps.readFileRange(path, startLine, endLine);
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to read file range: " + e.getMessage());
+            }
+        });
     }
 
     @PluginMethod
@@ -556,12 +1384,14 @@ public class AdvancedFileManagerPlugin extends Plugin {
             return;
         }
 
-        try {
-            aiEditOps.insertContent(path, line, content);
-            call.resolve();
-        } catch (Exception e) {
-            call.reject("Failed to insert content: " + e.getMessage());
-        }
+        dispatcher.write(path, call, () -> {
+            try {
+                aiEditOps.insertContent(path, line, content);
+                call.resolve();
+            } catch (Exception e) {
+                call.reject("Failed to insert content: " + e.getMessage());
+            }
+        });
     }
 
     @PluginMethod
@@ -572,19 +1402,82 @@ public class AdvancedFileManagerPlugin extends Plugin {
         Boolean isRegex = call.getBoolean("isRegex", false);
         Boolean replaceAll = call.getBoolean("replaceAll", true);
         Boolean caseSensitive = call.getBoolean("caseSensitive", true);
+        Integer windowLines = call.getInt("windowLines", 1);
 
         if (path == null || search == null || replace == null) {
             call.reject("path, search and replace are required");
             return;
         }
 
-        try {
-            JSObject result = aiEditOps.replaceInFile(path, search, replace, 
-                                                       isRegex, replaceAll, caseSensitive);
-            call.resolve(result);
-        } catch (Exception e) {
-            call.reject("Failed to replace in file: " + e.getMessage());
+        dispatcher.write(path, call, () -> {
+            try {
+                JSObject result = aiEditOps.replaceInFile(path, search, replace, 
+                                                           isRegex, replaceAll, caseSensitive, windowLines);
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to replace in file: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 在目录下批量查找替换
+     * 并行处理匹配的文件，全部成功后才替换（失败时还原），每个有匹配的文件通过 replaceProgress 事件推送
+     */
+    @PluginMethod
+    public void replaceInDirectory(PluginCall call) {
+        String directory = call.getString("directory");
+        String search = call.getString("search");
+        String replace = call.getString("replace");
+        Boolean isRegex = call.getBoolean("isRegex", false);
+        Boolean caseSensitive = call.getBoolean("caseSensitive", true);
+        Integer windowLines = call.getInt("windowLines", 1);
+        JSArray fileExtensionsArray = call.getArray("fileExtensions");
+        Integer maxFileSize = call.getInt("maxFileSize", 500 * 1024); // 500KB
+        Integer maxDepth = call.getInt("maxDepth", 5);
+        Boolean recursive = call.getBoolean("recursive", true);
+        Integer parallelism = call.getInt("parallelism", 0);
+        Boolean dryRun = call.getBoolean("dryRun", false);
+        Integer maxPreviewMatches = call.getInt("maxPreviewMatches", 5);
+        String replaceId = call.getString("replaceId", call.getCallbackId());
+
+        if (directory == null || search == null || search.isEmpty() || replace == null) {
+            call.reject("directory, search and replace are required");
+            return;
         }
+
+        // 提交时就占住目录的写队列，遍历和替换都在这个写操作中执行；
+        // 替换前再通过 runWrite 排在每个候选文件上之前提交的写操作之后
+        dispatcher.write(directory, call, () -> {
+            try {
+                String[] fileExtensions = null;
+                if (fileExtensionsArray != null && fileExtensionsArray.length() > 0) {
+                    fileExtensions = new String[fileExtensionsArray.length()];
+                    for (int i = 0; i < fileExtensionsArray.length(); i++) {
+                        fileExtensions[i] = fileExtensionsArray.getString(i);
+                    }
+                }
+
+                DirectoryReplacer.Candidates candidates = directoryReplacer.collect(
+                    directory, search, replace, isRegex, caseSensitive, windowLines, fileExtensions,
+                    maxFileSize, maxDepth, recursive);
+                Callable<JSObject> replaceTask = () -> directoryReplacer.replace(
+                    candidates, search, replace, isRegex, caseSensitive, windowLines, parallelism,
+                    dryRun, maxPreviewMatches,
+                    fileResult -> {
+                        fileResult.put("replaceId", replaceId);
+                        fileResult.put("dryRun", dryRun);
+                        notifyListeners("replaceProgress", fileResult);
+                    });
+                JSObject result = dryRun
+                    ? replaceTask.call()
+                    : dispatcher.runWrite(candidates.getFilePaths(), replaceTask);
+                result.put("replaceId", replaceId);
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to replace in directory: " + e.getMessage());
+            }
+        });
     }
 
     @PluginMethod
@@ -592,36 +1485,127 @@ public class AdvancedFileManagerPlugin extends Plugin {
         String path = call.getString("path");
         String diff = call.getString("diff");
         Boolean createBackup = call.getBoolean("createBackup", false);
+        Integer fuzz = call.getInt("fuzz", 2);
 
         if (path == null || diff == null) {
             call.reject("path and diff are required");
             return;
         }
 
+        // 在调用线程解析补丁（只解析和 stat，不读写文件内容），提交时就占住每个目标文件的写队列，
+        // 之后提交的同路径写操作不会先于补丁执行
+        String[] paths;
         try {
-            JSObject result = aiEditOps.applyDiff(path, diff, createBackup);
-            call.resolve(result);
+            paths = aiEditOps.getDiffPaths(path, diff);
         } catch (Exception e) {
             call.reject("Failed to apply diff: " + e.getMessage());
+            return;
         }
+
+        dispatcher.write(paths, call, () -> {
+            try {
+                JSObject result = aiEditOps.applyDiff(path, diff, createBackup, fuzz);
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to apply diff: " + e.getMessage());
+            }
+        });
+    }
+
+    @PluginMethod
+    public void applyEdits(PluginCall call) {
+        String path = call.getString("path");
+        JSArray edits = call.getArray("edits");
+        String expectedHash = call.getString("expectedHash");
+        String hashAlgorithm = call.getString("hashAlgorithm", "md5");
+
+        if (path == null || edits == null) {
+            call.reject("path and edits are required");
+            return;
+        }
+
+        dispatcher.write(path, call, () -> {
+            try {
+                JSObject result = aiEditOps.applyEdits(path, edits, expectedHash, hashAlgorithm);
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to apply edits: " + e.getMessage());
+            }
+        });
     }
 
     @PluginMethod
     public void getFileHash(PluginCall call) {
         String path = call.getString("path");
         String algorithm = call.getString("algorithm", "md5");
+        JSArray algorithmsArray = call.getArray("algorithms");
+        String operationId = call.getString("operationId");
 
         if (path == null) {
             call.reject("path is required");
             return;
         }
 
-        try {
-            JSObject result = aiEditOps.getFileHash(path, algorithm);
-            call.resolve(result);
-        } catch (Exception e) {
-            call.reject("Failed to get file hash: " + e.getMessage());
+        dispatcher.read(call, () -> {
+            try {
+                List<String> algorithms = new ArrayList<>();
+                if (algorithmsArray != null && algorithmsArray.length() > 0) {
+                    for (int i = 0; i < algorithmsArray.length(); i++) {
+                        algorithms.add(algorithmsArray.getString(i));
+                    }
+                } else {
+                    algorithms.add(algorithm);
+                }
+                JSObject result = aiEditOps.getFileHash(path, algorithms,
+                                                        createHashProgressListener(operationId, path));
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to get file hash: " + e.getMessage());
+            }
+        });
+    }
+
+    private FileHasher.ProgressListener createHashProgressListener(String operationId, String path) {
+        if (operationId == null) {
+            return null;
         }
+        return (bytesHashed, totalBytes, done) -> {
+            JSObject event = new JSObject();
+            event.put("operationId", operationId);
+            event.put("path", path);
+            event.put("bytesHashed", bytesHashed);
+            event.put("totalBytes", totalBytes);
+            event.put("done", done);
+            notifyListeners("hashProgress", event);
+        };
+    }
+
+    @PluginMethod
+    public void getHashCacheStats(PluginCall call) {
+        dispatcher.read(call, () -> call.resolve(hashCache.getStats()));
+    }
+
+    @PluginMethod
+    public void configureHashCache(PluginCall call) {
+        Integer maxEntries = call.getInt("maxEntries");
+
+        if (maxEntries == null || maxEntries < 0) {
+            call.reject("maxEntries must be a non-negative number");
+            return;
+        }
+
+        dispatcher.read(call, () -> {
+            hashCache.setMaxEntries(maxEntries);
+            call.resolve(hashCache.getStats());
+        });
+    }
+
+    @PluginMethod
+    public void clearHashCache(PluginCall call) {
+        dispatcher.read(call, () -> {
+            hashCache.clear();
+            call.resolve();
+        });
     }
 
     @PluginMethod
@@ -633,16 +1617,26 @@ public class AdvancedFileManagerPlugin extends Plugin {
             return;
         }
 
-        try {
-            JSObject result = aiEditOps.getLineCount(path);
-            call.resolve(result);
-        } catch (Exception e) {
-            call.reject("Failed to get line count: " + e.getMessage());
-        }
+        dispatcher.read(call, () -> {
+            try {
+                JSObject result = aiEditOps.getLineCount(path);
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject("Failed to get line count: " + e.getMessage());
+            }
+        });
     }
 
     // ==================== 工具方法 ====================
 
+    /**
+     * 获取 I/O 执行器统计信息（队列深度、等待时间等）
+     */
+    @PluginMethod
+    public void getExecutorStats(PluginCall call) {
+        call.resolve(dispatcher.getStats());
+    }
+
     @PluginMethod
     public void echo(PluginCall call) {
         String value = call.getString("value");
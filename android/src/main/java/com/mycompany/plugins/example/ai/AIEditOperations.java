@@ -3,24 +3,31 @@ package com.mycompany.plugins.example.ai;
 import android.content.Context;
 import android.util.Log;
 
+import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
+import com.mycompany.plugins.example.core.AtomicFileWriter;
+import com.mycompany.plugins.example.core.FileHasher;
+import com.mycompany.plugins.example.core.FileUtils;
+import com.mycompany.plugins.example.core.HashCache;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.CharacterCodingException;
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
 
 /**
  * AI 编辑操作模块
@@ -29,9 +36,14 @@ import java.util.regex.Pattern;
 public class AIEditOperations {
     private static final String TAG = "AIEditOperations";
     private final Context context;
+    private final HashCache hashCache;
+    private final AtomicFileWriter atomicWriter;
+    private final LineIndexCache lineIndexCache = new LineIndexCache();
 
-    public AIEditOperations(Context context) {
+    public AIEditOperations(Context context, HashCache hashCache, AtomicFileWriter atomicWriter) {
         this.context = context;
+        this.hashCache = hashCache;
+        this.atomicWriter = atomicWriter;
     }
 
     /**
@@ -44,8 +56,9 @@ public class AIEditOperations {
             throw new Exception("File does not exist: " + path);
         }
 
-        List<String> allLines = readAllLines(file);
-        int totalLines = allLines.size();
+        // 通过行偏移索引直接定位，只解码请求的行
+        LineIndexCache.LineIndex index = lineIndexCache.get(file);
+        int totalLines = index.getLineCount();
 
         // 边界检查
         startLine = Math.max(1, startLine);
@@ -55,16 +68,7 @@ public class AIEditOperations {
             throw new Exception("Invalid line range: " + startLine + "-" + endLine);
         }
 
-        // 提取指定范围的行 (转换为 0-based index)
-        StringBuilder content = new StringBuilder();
-        for (int i = startLine - 1; i < endLine; i++) {
-            content.append(allLines.get(i));
-            if (i < endLine - 1) {
-                content.append("\n");
-            }
-        }
-
-        String contentStr = content.toString();
+        String contentStr = lineIndexCache.readLines(file, index, startLine, endLine);
         String rangeHash = calculateHash(contentStr, "md5");
 
         JSObject result = new JSObject();
@@ -110,75 +114,45 @@ public class AIEditOperations {
     public JSObject replaceInFile(String path, String search, String replace, 
                                    boolean isRegex, boolean replaceAll, 
                                    boolean caseSensitive) throws Exception {
+        return replaceInFile(path, search, replace, isRegex, replaceAll, caseSensitive, 1);
+    }
+
+    /**
+     * 查找并替换文件内容
+     * 流式读取原文件，替换结果写入临时文件后原子替换，同一遍统计替换次数；没有变化时不改动原文件
+     * @param windowLines 正则模式下单个匹配可跨越的行数（1 为逐行匹配）
+     */
+    public JSObject replaceInFile(String path, String search, String replace,
+                                   boolean isRegex, boolean replaceAll,
+                                   boolean caseSensitive, int windowLines) throws Exception {
         File file = new File(path);
         
         if (!file.exists()) {
             throw new Exception("File does not exist: " + path);
         }
 
-        String content = readFileContent(file);
-        String newContent;
-        int replacements = 0;
-
-        if (isRegex) {
-            int flags = caseSensitive ? 0 : Pattern.CASE_INSENSITIVE;
-            Pattern pattern = Pattern.compile(search, flags);
-            Matcher matcher = pattern.matcher(content);
-            
-            if (replaceAll) {
-                // 计算替换次数
-                Matcher countMatcher = pattern.matcher(content);
-                while (countMatcher.find()) {
-                    replacements++;
-                }
-                newContent = matcher.replaceAll(replace);
-            } else {
-                if (matcher.find()) {
-                    replacements = 1;
-                }
-                newContent = matcher.replaceFirst(replace);
-            }
-        } else {
-            if (replaceAll) {
-                if (caseSensitive) {
-                    // 计算替换次数
-                    int idx = 0;
-                    while ((idx = content.indexOf(search, idx)) != -1) {
-                        replacements++;
-                        idx += search.length();
-                    }
-                    newContent = content.replace(search, replace);
-                } else {
-                    String lowerContent = content.toLowerCase();
-                    String lowerSearch = search.toLowerCase();
-                    int idx = 0;
-                    while ((idx = lowerContent.indexOf(lowerSearch, idx)) != -1) {
-                        replacements++;
-                        idx += search.length();
-                    }
-                    newContent = content.replaceAll("(?i)" + Pattern.quote(search), 
-                                                     Matcher.quoteReplacement(replace));
-                }
-            } else {
-                int idx = caseSensitive ? content.indexOf(search) : 
-                          content.toLowerCase().indexOf(search.toLowerCase());
-                if (idx != -1) {
-                    replacements = 1;
-                    newContent = content.substring(0, idx) + replace + 
-                                content.substring(idx + search.length());
-                } else {
-                    newContent = content;
+        StreamingReplacer replacer = new StreamingReplacer(search, replace, isRegex, replaceAll,
+                                                           caseSensitive, windowLines);
+        boolean modified;
+        try {
+            modified = atomicWriter.rewrite(file, out -> {
+                try (Reader reader = FileUtils.openUtf8Reader(file)) {
+                    Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                    boolean changed = replacer.run(reader, writer);
+                    writer.flush();
+                    return changed;
                 }
-            }
-        }
-
-        boolean modified = !content.equals(newContent);
-        if (modified) {
-            writeFileContent(file, newContent);
+            }, AtomicFileWriter.SYNC_BATCH);
+        } catch (CharacterCodingException e) {
+            // 宽松解码会把匹配之外的非法字节改写为 U+FFFD，直接拒绝
+            throw new Exception("File is not valid UTF-8: " + path);
+        } finally {
+            lineIndexCache.invalidate(file);
+            hashCache.invalidate(file);
         }
 
         JSObject result = new JSObject();
-        result.put("replacements", replacements);
+        result.put("replacements", replacer.getReplacements());
         result.put("modified", modified);
 
         return result;
@@ -188,73 +162,117 @@ public class AIEditOperations {
      * 应用 Unified Diff 补丁
      */
     public JSObject applyDiff(String path, String diff, boolean createBackup) throws Exception {
+        return applyDiff(path, diff, createBackup, DiffApplier.DEFAULT_FUZZ);
+    }
+
+    /**
+     * 应用 Unified Diff 补丁
+     * 流式生成结果并原子替换原文件；path 为目录时按补丁中的文件路径应用多文件补丁
+     */
+    public JSObject applyDiff(String path, String diff, boolean createBackup, int fuzz) throws Exception {
         File file = new File(path);
-        
-        if (!file.exists()) {
-            throw new Exception("File does not exist: " + path);
-        }
 
-        String backupPath = null;
-        if (createBackup) {
-            backupPath = path + ".bak";
-            copyFile(file, new File(backupPath));
+        DiffApplier applier = new DiffApplier(fuzz, createBackup, atomicWriter);
+        try {
+            return applier.apply(file, diff);
+        } finally {
+            for (File touched : applier.getTouchedFiles()) {
+                lineIndexCache.invalidate(touched);
+                hashCache.invalidate(touched);
+            }
         }
+    }
 
-        List<String> lines = readAllLines(file);
-        List<String> diffLines = parseDiffLines(diff);
-
-        int linesAdded = 0;
-        int linesDeleted = 0;
-        int linesChanged = 0;
+    /**
+     * 应用补丁时需要与其他写操作排序的路径（path 本身和补丁写入的每个文件）
+     */
+    public String[] getDiffPaths(String path, String diff) throws Exception {
+        List<File> targets = DiffApplier.targets(new File(path), diff);
+        String[] paths = new String[targets.size() + 1];
+        paths[0] = path;
+        for (int i = 0; i < targets.size(); i++) {
+            paths[i + 1] = targets.get(i).getPath();
+        }
+        return paths;
+    }
 
-        // 解析并应用 diff
-        int currentLine = 0;
-        int offset = 0;
+    /**
+     * 批量编辑
+     * 在内存中按顺序应用所有编辑后一次性原子写回；任一编辑失败时文件保持不变
+     * @param expectedHash 不为空时先校验文件当前内容的哈希值
+     */
+    public JSObject applyEdits(String path, JSONArray edits, String expectedHash,
+                               String hashAlgorithm) throws Exception {
+        File file = new File(path);
 
-        for (int i = 0; i < diffLines.size(); i++) {
-            String diffLine = diffLines.get(i);
+        if (!file.exists()) {
+            throw new Exception("File does not exist: " + path);
+        }
+        // 不支持的算法在编辑前报错
+        FileHasher.hash(new byte[0], 0, hashAlgorithm);
+
+        // 哈希按原始字节计算，与 getFileHash 的结果一致（BOM、CRLF、非法 UTF-8 字节都参与计算）
+        byte[] bytes = readFileBytes(file);
+        if (expectedHash != null) {
+            String actualHash = FileHasher.hash(bytes, bytes.length, hashAlgorithm);
+            if (!actualHash.equalsIgnoreCase(expectedHash)) {
+                throw new Exception("File has changed: expected hash " + expectedHash + ", actual " + actualHash);
+            }
+        }
+        // 提交时整个文本会被写回，宽松解码会把编辑范围之外的非法字节也改写为 U+FFFD
+        String content;
+        try {
+            content = FileUtils.decodeUtf8(bytes);
+        } catch (CharacterCodingException e) {
+            throw new Exception("File is not valid UTF-8, no changes written: " + path);
+        }
 
-            if (diffLine.startsWith("@@")) {
-                // 解析 hunk header: @@ -start,count +start,count @@
-                Pattern pattern = Pattern.compile("@@ -(\\d+)(?:,\\d+)? \\+(\\d+)(?:,\\d+)? @@");
-                Matcher matcher = pattern.matcher(diffLine);
-                if (matcher.find()) {
-                    currentLine = Integer.parseInt(matcher.group(1)) - 1 + offset;
-                }
-            } else if (diffLine.startsWith("-") && !diffLine.startsWith("---")) {
-                // 删除行
-                if (currentLine < lines.size()) {
-                    lines.remove(currentLine);
-                    linesDeleted++;
-                    offset--;
+        EditTransaction transaction = new EditTransaction(file, content);
+        JSArray results = new JSArray();
+        for (int i = 0; i < edits.length(); i++) {
+            JSONObject edit = edits.getJSONObject(i);
+            String type = edit.optString("type", "");
+            JSObject editResult;
+            try {
+                switch (type) {
+                    case "insert":
+                        editResult = transaction.insert(edit.getInt("line"), edit.getString("content"));
+                        break;
+                    case "replace":
+                        editResult = transaction.replace(edit.getString("search"), edit.optString("replace", ""),
+                                                         edit.optBoolean("isRegex", false),
+                                                         edit.optBoolean("replaceAll", true),
+                                                         edit.optBoolean("caseSensitive", true));
+                        break;
+                    case "deleteRange":
+                        editResult = transaction.deleteRange(edit.getInt("startLine"), edit.getInt("endLine"));
+                        break;
+                    case "diff":
+                        editResult = transaction.applyDiff(edit.getString("diff"),
+                                                           edit.optInt("fuzz", DiffApplier.DEFAULT_FUZZ));
+                        break;
+                    default:
+                        throw new Exception("Unknown edit type: " + type);
                 }
-            } else if (diffLine.startsWith("+") && !diffLine.startsWith("+++")) {
-                // 添加行
-                String newLine = diffLine.substring(1);
-                lines.add(currentLine, newLine);
-                linesAdded++;
-                currentLine++;
-                offset++;
-            } else if (!diffLine.startsWith("\\") && !diffLine.startsWith("---") && 
-                       !diffLine.startsWith("+++") && !diffLine.startsWith("diff")) {
-                // 上下文行，移动到下一行
-                currentLine++;
+            } catch (Exception e) {
+                throw new Exception("Edit #" + (i + 1) + " (" + type + ") failed, no changes written: " + e.getMessage());
             }
+            editResult.put("index", i);
+            editResult.put("type", type);
+            results.put(editResult);
         }
 
-        linesChanged = linesAdded + linesDeleted;
-
-        // 写回文件
-        writeAllLines(file, lines);
+        String hash = transaction.commit(hashAlgorithm, atomicWriter);
+        lineIndexCache.invalidate(file);
+        hashCache.invalidate(file);
+        Log.d(TAG, "Applied " + edits.length() + " edits to " + path);
 
         JSObject result = new JSObject();
         result.put("success", true);
-        result.put("linesChanged", linesChanged);
-        result.put("linesAdded", linesAdded);
-        result.put("linesDeleted", linesDeleted);
-        if (backupPath != null) {
-            result.put("backupPath", backupPath);
-        }
+        result.put("edits", results);
+        result.put("hash", hash);
+        result.put("algorithm", hashAlgorithm);
+        result.put("totalLines", transaction.getLineCount());
 
         return result;
     }
@@ -263,18 +281,39 @@ public class AIEditOperations {
      * 获取文件哈希值
      */
     public JSObject getFileHash(String path, String algorithm) throws Exception {
+        List<String> algorithms = new ArrayList<>();
+        algorithms.add(algorithm);
+        return getFileHash(path, algorithms, null);
+    }
+
+    /**
+     * 获取文件哈希值
+     * 流式读取原始字节，一次读取计算所有请求的算法
+     */
+    public JSObject getFileHash(String path, List<String> algorithms,
+                                FileHasher.ProgressListener listener) throws Exception {
         File file = new File(path);
         
         if (!file.exists()) {
             throw new Exception("File does not exist: " + path);
         }
 
-        String content = readFileContent(file);
-        String hash = calculateHash(content, algorithm);
+        // 文件未变化时直接使用缓存的哈希
+        HashCache.Result cached = hashCache.getHashes(file, algorithms, listener);
+        Map<String, String> hashes = cached.hashes;
+        Map.Entry<String, String> first = hashes.entrySet().iterator().next();
+
+        JSObject hashesObject = new JSObject();
+        for (Map.Entry<String, String> entry : hashes.entrySet()) {
+            hashesObject.put(entry.getKey(), entry.getValue());
+        }
 
         JSObject result = new JSObject();
-        result.put("hash", hash);
-        result.put("algorithm", algorithm);
+        result.put("hash", first.getValue());
+        result.put("algorithm", first.getKey());
+        result.put("hashes", hashesObject);
+        result.put("size", file.length());
+        result.put("cached", cached.cached);
 
         return result;
     }
@@ -289,10 +328,8 @@ public class AIEditOperations {
             throw new Exception("File does not exist: " + path);
         }
 
-        List<String> lines = readAllLines(file);
-
         JSObject result = new JSObject();
-        result.put("lines", lines.size());
+        result.put("lines", lineIndexCache.get(file).getLineCount());
 
         return result;
     }
@@ -311,78 +348,41 @@ public class AIEditOperations {
         return lines;
     }
 
+    /**
+     * 原子写回所有行（临时文件 + 重命名，fdatasync 按批延迟执行）
+     */
     private void writeAllLines(File file, List<String> lines) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(
-                new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
-            for (int i = 0; i < lines.size(); i++) {
-                writer.write(lines.get(i));
-                if (i < lines.size() - 1) {
-                    writer.newLine();
-                }
-            }
-        }
-    }
-
-    private String readFileContent(File file) throws IOException {
-        StringBuilder content = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(
-                new FileReader(file, StandardCharsets.UTF_8))) {
-            char[] buffer = new char[8192];
-            int read;
-            while ((read = reader.read(buffer)) != -1) {
-                content.append(buffer, 0, read);
-            }
-        }
-        return content.toString();
-    }
-
-    private void writeFileContent(File file, String content) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(
-                new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
-            writer.write(content);
-        }
-    }
-
-    private String calculateHash(String content, String algorithm) throws Exception {
         try {
-            MessageDigest md;
-            if ("sha256".equalsIgnoreCase(algorithm)) {
-                md = MessageDigest.getInstance("SHA-256");
-            } else {
-                md = MessageDigest.getInstance("MD5");
-            }
-            
-            byte[] digest = md.digest(content.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : digest) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
+            atomicWriter.write(file, out -> {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                for (int i = 0; i < lines.size(); i++) {
+                    writer.write(lines.get(i));
+                    if (i < lines.size() - 1) {
+                        writer.write(System.lineSeparator());
+                    }
                 }
-                hexString.append(hex);
-            }
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new Exception("Hash algorithm not supported: " + algorithm);
+                writer.flush();
+            }, AtomicFileWriter.SYNC_BATCH);
+        } finally {
+            lineIndexCache.invalidate(file);
+            hashCache.invalidate(file);
         }
     }
 
-    private void copyFile(File source, File dest) throws IOException {
-        try (FileInputStream fis = new FileInputStream(source);
-             FileOutputStream fos = new FileOutputStream(dest)) {
+    private byte[] readFileBytes(File file) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream((int) Math.min(file.length(), Integer.MAX_VALUE - 8));
+        try (FileInputStream in = new FileInputStream(file)) {
             byte[] buffer = new byte[8192];
-            int length;
-            while ((length = fis.read(buffer)) > 0) {
-                fos.write(buffer, 0, length);
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                content.write(buffer, 0, read);
             }
         }
+        return content.toByteArray();
     }
 
-    private List<String> parseDiffLines(String diff) {
-        List<String> lines = new ArrayList<>();
-        for (String line : diff.split("\n")) {
-            lines.add(line);
-        }
-        return lines;
+    private String calculateHash(String content, String algorithm) throws Exception {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return FileHasher.hash(bytes, bytes.length, algorithm);
     }
 }
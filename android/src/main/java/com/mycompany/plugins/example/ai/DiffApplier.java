@@ -0,0 +1,815 @@
+package com.mycompany.plugins.example.ai;
+
+import android.util.Log;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.mycompany.plugins.example.core.AtomicFileWriter;
+import com.mycompany.plugins.example.core.FileCopier;
+import com.mycompany.plugins.example.core.FileUtils;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Unified Diff 应用引擎
+ * 流式读取原文件，一遍写出补丁结果到临时文件。校验上下文行，支持多 hunk、多文件补丁和模糊匹配（fuzz），
+ * 所有文件都成功生成后再通过 AtomicFileWriter 逐个落盘并重命名替换原文件，任一文件失败时全部还原
+ */
+class DiffApplier {
+    private static final String TAG = "DiffApplier";
+    private static final Pattern HUNK_HEADER =
+        Pattern.compile("^@@ -(\\d+)(?:,(\\d+))? \\+(\\d+)(?:,(\\d+))? @@");
+    private static final String DEV_NULL = "/dev/null";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // 默认 fuzz 与 GNU patch 一致：最多忽略 hunk 首尾各 2 行上下文
+    static final int DEFAULT_FUZZ = 2;
+    // hunk 实际位置与声明位置的最大偏移（行）
+    private static final int MAX_OFFSET = 1000;
+
+    private final int fuzz;
+    private final boolean createBackup;
+    private final AtomicFileWriter atomicWriter;
+    private final List<File> touchedFiles = new ArrayList<>();
+
+    /**
+     * @param atomicWriter 只应用到内存文本（applyToText）时可以为 null
+     */
+    DiffApplier(int fuzz, boolean createBackup, AtomicFileWriter atomicWriter) {
+        this.fuzz = Math.max(0, fuzz);
+        this.createBackup = createBackup;
+        this.atomicWriter = atomicWriter;
+    }
+
+    /**
+     * 被修改、创建或删除的文件
+     */
+    List<File> getTouchedFiles() {
+        return touchedFiles;
+    }
+
+    /**
+     * 应用补丁
+     * target 为文件时应用与之对应的文件段（补丁只有一段时直接应用）；
+     * target 为目录时把每个文件段应用到目录下的相对路径
+     */
+    JSObject apply(File target, String diff) throws Exception {
+        List<FilePatch> patches = parse(diff);
+        List<Prepared> prepared = new ArrayList<>();
+
+        try {
+            if (target.isDirectory()) {
+                for (FilePatch patch : patches) {
+                    prepared.add(prepare(resolve(target, patch), patch));
+                }
+            } else {
+                FilePatch patch = select(target, patches);
+                if (!target.exists() && !patch.isCreate()) {
+                    throw new Exception("File does not exist: " + target.getPath());
+                }
+                prepared.add(prepare(target, patch));
+            }
+        } catch (Exception e) {
+            for (Prepared p : prepared) {
+                p.temp.delete();
+            }
+            throw e;
+        }
+
+        return commit(prepared);
+    }
+
+    /**
+     * 补丁会写入的文件（规则与 apply 相同），供调用方在应用前与这些文件上的其他写操作排序
+     */
+    static List<File> targets(File target, String diff) throws Exception {
+        List<FilePatch> patches = parse(diff);
+        List<File> files = new ArrayList<>();
+        if (target.isDirectory()) {
+            for (FilePatch patch : patches) {
+                files.add(resolve(target, patch));
+            }
+        } else {
+            files.add(target);
+        }
+        return files;
+    }
+
+    /**
+     * 把单文件补丁应用到内存中的文本
+     * @param stats 写入 linesAdded、linesDeleted、hunksApplied、hunks
+     * @return 应用补丁后的文本
+     */
+    String applyToText(String content, String diff, JSObject stats) throws Exception {
+        List<FilePatch> patches = parse(diff);
+        if (patches.size() != 1) {
+            throw new Exception("Expected a single-file patch, got " + patches.size() + " files");
+        }
+
+        if (patches.get(0).isCreate() && !content.isEmpty()) {
+            throw new Exception("File already exists: patch creates a file but the content is not empty");
+        }
+
+        Prepared prepared = new Prepared(null, null, patches.get(0));
+        StringWriter output = new StringWriter(content.length() + diff.length());
+        try (LineSource source = new LineSource(new StringReader(content));
+             LineSink sink = new LineSink(output)) {
+            applyHunks(prepared, source, sink);
+        }
+
+        stats.put("linesAdded", prepared.linesAdded);
+        stats.put("linesDeleted", prepared.linesDeleted);
+        stats.put("hunksApplied", prepared.patch.hunks.size());
+        stats.put("hunks", prepared.hunks);
+        return output.toString();
+    }
+
+    // ============ 补丁解析 ============
+
+    /**
+     * 单个文件的补丁段
+     */
+    static final class FilePatch {
+        String oldPath;
+        String newPath;
+        final List<Hunk> hunks = new ArrayList<>();
+
+        boolean isCreate() {
+            return DEV_NULL.equals(oldPath);
+        }
+
+        boolean isDelete() {
+            return DEV_NULL.equals(newPath);
+        }
+    }
+
+    /**
+     * hunk：kinds 为每行的类型（' '、'-'、'+'），oldLines 为上下文行和删除行
+     */
+    static final class Hunk {
+        int oldStart;
+        int oldCount;
+        final List<Character> kinds = new ArrayList<>();
+        final List<String> texts = new ArrayList<>();
+        final List<String> oldLines = new ArrayList<>();
+        boolean newNoEol;
+        int leadingContext;
+        int trailingContext;
+
+        /**
+         * 在原文件中的声明位置（0-based）
+         * 纯插入 hunk（-N,0）表示插入到第 N 行之后
+         */
+        int nominalPosition() {
+            return oldCount == 0 ? oldStart : Math.max(0, oldStart - 1);
+        }
+    }
+
+    static List<FilePatch> parse(String diff) throws Exception {
+        String[] lines = diff.split("\n", -1);
+        List<FilePatch> patches = new ArrayList<>();
+        FilePatch current = null;
+
+        for (int i = 0; i < lines.length; i++) {
+            String line = stripCR(lines[i]);
+
+            if (line.startsWith("diff ")) {
+                current = new FilePatch();
+                patches.add(current);
+            } else if (line.startsWith("--- ") && i + 1 < lines.length && stripCR(lines[i + 1]).startsWith("+++ ")) {
+                if (current == null || current.oldPath != null || !current.hunks.isEmpty()) {
+                    current = new FilePatch();
+                    patches.add(current);
+                }
+                current.oldPath = parsePath(line.substring(4));
+                current.newPath = parsePath(stripCR(lines[++i]).substring(4));
+            } else if (line.startsWith("@@")) {
+                Matcher matcher = HUNK_HEADER.matcher(line);
+                if (!matcher.find()) {
+                    throw new Exception("Malformed hunk header: " + line);
+                }
+                if (current == null) {
+                    current = new FilePatch();
+                    patches.add(current);
+                }
+                Hunk hunk = new Hunk();
+                i = parseHunk(lines, i + 1, matcher, hunk);
+                current.hunks.add(hunk);
+            }
+            // 其他行（index、mode 等头部信息）忽略
+        }
+
+        List<FilePatch> result = new ArrayList<>();
+        for (FilePatch patch : patches) {
+            if (!patch.hunks.isEmpty()) {
+                result.add(patch);
+            }
+        }
+        if (result.isEmpty()) {
+            throw new Exception("No hunks found in diff");
+        }
+        return result;
+    }
+
+    /**
+     * 按头部声明的行数解析 hunk 正文，返回最后一行的下标
+     */
+    private static int parseHunk(String[] lines, int start, Matcher header, Hunk hunk) throws Exception {
+        hunk.oldStart = Integer.parseInt(header.group(1));
+        hunk.oldCount = header.group(2) != null ? Integer.parseInt(header.group(2)) : 1;
+        int newCount = header.group(4) != null ? Integer.parseInt(header.group(4)) : 1;
+
+        int oldRemaining = hunk.oldCount;
+        int newRemaining = newCount;
+        int i = start;
+        while (oldRemaining > 0 || newRemaining > 0) {
+            if (i >= lines.length) {
+                throw new Exception("Malformed hunk at line " + hunk.oldStart + ": unexpected end of diff");
+            }
+            String line = stripCR(lines[i++]);
+            // 被去掉行尾空白的空上下文行按空行处理
+            char kind = line.isEmpty() ? ' ' : line.charAt(0);
+            String text = line.isEmpty() ? "" : line.substring(1);
+
+            if (kind == '\\') {
+                markNoEol(hunk);
+                continue;
+            }
+            if (kind == ' ') {
+                oldRemaining--;
+                newRemaining--;
+            } else if (kind == '-') {
+                oldRemaining--;
+            } else if (kind == '+') {
+                newRemaining--;
+            } else {
+                throw new Exception("Malformed hunk at line " + hunk.oldStart + ": " + line);
+            }
+            if (oldRemaining < 0 || newRemaining < 0) {
+                throw new Exception("Malformed hunk at line " + hunk.oldStart + ": line count mismatch");
+            }
+
+            hunk.kinds.add(kind);
+            hunk.texts.add(text);
+            if (kind != '+') {
+                hunk.oldLines.add(text);
+            }
+        }
+
+        // hunk 末尾的 "\ No newline at end of file"
+        if (i < lines.length && lines[i].startsWith("\\")) {
+            markNoEol(hunk);
+            i++;
+        }
+
+        int size = hunk.kinds.size();
+        while (hunk.leadingContext < size && hunk.kinds.get(hunk.leadingContext) == ' ') {
+            hunk.leadingContext++;
+        }
+        while (hunk.trailingContext < size - hunk.leadingContext
+               && hunk.kinds.get(size - 1 - hunk.trailingContext) == ' ') {
+            hunk.trailingContext++;
+        }
+        return i - 1;
+    }
+
+    private static void markNoEol(Hunk hunk) {
+        // 只关心新文件最后一行没有换行符的情况
+        int last = hunk.kinds.size() - 1;
+        if (last >= 0 && hunk.kinds.get(last) != '-') {
+            hunk.newNoEol = true;
+        }
+    }
+
+    private static String parsePath(String header) {
+        int tab = header.indexOf('\t');
+        return (tab >= 0 ? header.substring(0, tab) : header).trim();
+    }
+
+    private static String stripCR(String line) {
+        return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+    }
+
+    /**
+     * 去掉 git 风格的 a/ b/ 前缀
+     */
+    private static String relativePath(FilePatch patch) {
+        String path = patch.isDelete() ? patch.oldPath : patch.newPath;
+        if (path == null) {
+            return null;
+        }
+        if (path.startsWith("a/") || path.startsWith("b/")) {
+            path = path.substring(2);
+        }
+        return path;
+    }
+
+    private static File resolve(File directory, FilePatch patch) throws Exception {
+        String relative = relativePath(patch);
+        if (relative == null || relative.isEmpty()) {
+            throw new Exception("Patch without file name cannot be applied to a directory");
+        }
+        File file = new File(directory, relative);
+        String root = directory.getCanonicalPath() + File.separator;
+        if (!file.getCanonicalPath().startsWith(root)) {
+            throw new Exception("Patch path outside target directory: " + relative);
+        }
+        return file;
+    }
+
+    private static FilePatch select(File target, List<FilePatch> patches) throws Exception {
+        if (patches.size() == 1) {
+            return patches.get(0);
+        }
+        String targetPath = target.getPath();
+        for (FilePatch patch : patches) {
+            String relative = relativePath(patch);
+            if (relative != null && (targetPath.equals(relative) || targetPath.endsWith("/" + relative))) {
+                return patch;
+            }
+        }
+        throw new Exception("No patch for file: " + targetPath);
+    }
+
+    // ============ 应用 ============
+
+    /**
+     * 已生成临时文件、等待提交的结果
+     */
+    private static final class Prepared {
+        final File target;
+        final File temp;
+        final FilePatch patch;
+        final JSArray hunks = new JSArray();
+        int linesAdded;
+        int linesDeleted;
+
+        Prepared(File target, File temp, FilePatch patch) {
+            this.target = target;
+            this.temp = temp;
+            this.patch = patch;
+        }
+
+        String name() {
+            return target != null ? target.getPath() : "content";
+        }
+
+        JSObject toJSObject() {
+            JSObject result = new JSObject();
+            result.put("path", target.getPath());
+            result.put("linesAdded", linesAdded);
+            result.put("linesDeleted", linesDeleted);
+            result.put("hunksApplied", patch.hunks.size());
+            result.put("hunks", hunks);
+            result.put("created", patch.isCreate());
+            result.put("deleted", patch.isDelete());
+            return result;
+        }
+    }
+
+    private Prepared prepare(File target, FilePatch patch) throws Exception {
+        File parent = target.getAbsoluteFile().getParentFile();
+        if (patch.isCreate() && parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new Exception("Failed to create directory: " + parent.getPath());
+        }
+        if (!patch.isCreate() && !target.isFile()) {
+            throw new Exception("File does not exist: " + target.getPath());
+        }
+        // 与 GNU patch 一致：新建文件的补丁不应用到已有内容的文件，否则重复发送同一补丁会把内容插到文件开头
+        if (patch.isCreate() && target.exists() && (!target.isFile() || target.length() > 0)) {
+            throw new Exception("File already exists: " + target.getPath());
+        }
+
+        Prepared prepared = new Prepared(target, atomicWriter.createTempFile(target), patch);
+        boolean completed = false;
+        // 严格解码：非 UTF-8 文件拒绝应用，避免把补丁之外的非法字节写回为 U+FFFD
+        try (LineSource source = new LineSource(patch.isCreate() && !target.exists() ? null
+                 : FileUtils.openUtf8Reader(target));
+             LineSink sink = new LineSink(new OutputStreamWriter(new FileOutputStream(prepared.temp),
+                                                                 StandardCharsets.UTF_8))) {
+            applyHunks(prepared, source, sink);
+            if (patch.isDelete() && sink.linesWritten > 0) {
+                throw new Exception("File not empty after applying deletion patch: " + target.getPath());
+            }
+            completed = true;
+            return prepared;
+        } catch (CharacterCodingException e) {
+            throw new Exception("File is not valid UTF-8: " + target.getPath());
+        } finally {
+            if (!completed) {
+                prepared.temp.delete();
+            }
+        }
+    }
+
+    private void applyHunks(Prepared prepared, LineSource source, LineSink sink) throws Exception {
+        FilePatch patch = prepared.patch;
+        sink.defaultEol = source.detectEol();
+        int delta = 0;
+
+        for (int h = 0; h < patch.hunks.size(); h++) {
+            Hunk hunk = patch.hunks.get(h);
+            int nominal = hunk.nominalPosition();
+            int[] match = locate(source, hunk, nominal + delta);
+            if (match == null) {
+                throw new Exception("Hunk #" + (h + 1) + " failed at line " + hunk.oldStart
+                                    + " of " + prepared.name() + ": context does not match");
+            }
+            int position = match[0];
+            int top = match[1];
+            int bottom = match[2];
+
+            // 原样复制 hunk 之前的行
+            source.copyUntil(position, sink);
+
+            int size = hunk.kinds.size();
+            int lastNewLine = lastNewSideLine(hunk, size - bottom);
+            for (int k = top; k < size - bottom; k++) {
+                char kind = hunk.kinds.get(k);
+                if (kind == ' ') {
+                    Line line = source.take();
+                    sink.write(line.text, k == lastNewLine && hunk.newNoEol ? "" : line.eol);
+                } else if (kind == '-') {
+                    source.take();
+                    prepared.linesDeleted++;
+                } else {
+                    sink.write(hunk.texts.get(k), k == lastNewLine && hunk.newNoEol ? "" : null);
+                    prepared.linesAdded++;
+                }
+            }
+
+            int actualStart = position - top;
+            delta = actualStart - nominal;
+
+            JSObject hunkResult = new JSObject();
+            hunkResult.put("hunk", h + 1);
+            hunkResult.put("oldStart", hunk.oldStart);
+            hunkResult.put("appliedAt", hunk.oldCount == 0 ? actualStart : actualStart + 1);
+            hunkResult.put("offset", delta);
+            hunkResult.put("fuzz", Math.max(top, bottom));
+            prepared.hunks.put(hunkResult);
+        }
+
+        // 复制剩余的行
+        source.copyUntil(Integer.MAX_VALUE, sink);
+    }
+
+    private static int lastNewSideLine(Hunk hunk, int end) {
+        for (int k = end - 1; k >= 0; k--) {
+            if (hunk.kinds.get(k) != '-') {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 查找 hunk 的实际位置
+     * 先在各个偏移上精确匹配，失败后逐级增大 fuzz（忽略首尾的上下文行）
+     * @return {匹配起始位置, 忽略的首部上下文行数, 忽略的尾部上下文行数}，找不到返回 null
+     */
+    private int[] locate(LineSource source, Hunk hunk, int expected) throws IOException {
+        int previousTop = -1;
+        int previousBottom = -1;
+        for (int level = 0; level <= fuzz; level++) {
+            int top = Math.min(level, hunk.leadingContext);
+            int bottom = Math.min(level, hunk.trailingContext);
+            if (top == previousTop && bottom == previousBottom) {
+                continue;
+            }
+            previousTop = top;
+            previousBottom = bottom;
+
+            int start = expected + top;
+            boolean forward = true;
+            boolean backward = true;
+            for (int offset = 0; offset <= MAX_OFFSET && (forward || backward); offset++) {
+                if (forward) {
+                    int candidate = start + offset;
+                    int result = matchAt(source, hunk, candidate, top, bottom);
+                    if (result > 0) {
+                        return new int[]{candidate, top, bottom};
+                    }
+                    // 候选位置已超出文件末尾
+                    forward = result == 0;
+                }
+                if (backward && offset > 0) {
+                    int candidate = start - offset;
+                    if (candidate < source.position()) {
+                        backward = false;
+                    } else if (matchAt(source, hunk, candidate, top, bottom) > 0) {
+                        return new int[]{candidate, top, bottom};
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return 1 匹配，0 不匹配，-1 超出文件末尾
+     */
+    private static int matchAt(LineSource source, Hunk hunk, int position, int top, int bottom) throws IOException {
+        if (position < source.position()) {
+            return 0;
+        }
+        int end = hunk.oldLines.size() - bottom;
+        if (top >= end) {
+            // 没有需要比较的行：只要求插入位置在文件范围内
+            return position == 0 || source.ensure(position - 1) ? 1 : -1;
+        }
+        for (int k = top; k < end; k++) {
+            int index = position + k - top;
+            if (!source.ensure(index)) {
+                return k == top ? -1 : 0;
+            }
+            if (!source.get(index).text.equals(hunk.oldLines.get(k))) {
+                return 0;
+            }
+        }
+        return 1;
+    }
+
+    // ============ 提交 ============
+
+    /**
+     * 通过 AtomicFileWriter 的多文件提交逐个替换原文件；
+     * 任一文件失败时按相反顺序还原已提交的文件，补丁不会只应用一部分
+     */
+    private JSObject commit(List<Prepared> prepared) throws Exception {
+        int linesAdded = 0;
+        int linesDeleted = 0;
+        int hunksApplied = 0;
+        String backupPath = null;
+        JSArray files = new JSArray();
+        AtomicFileWriter.Transaction transaction = atomicWriter.beginTransaction(AtomicFileWriter.SYNC_BATCH);
+
+        try {
+            for (Prepared p : prepared) {
+                JSObject fileResult = p.toJSObject();
+                if (createBackup && p.target.exists()) {
+                    File backup = new File(p.target.getPath() + ".bak");
+                    FileCopier.copyFile(p.target, backup, null);
+                    fileResult.put("backupPath", backup.getPath());
+                    backupPath = backup.getPath();
+                }
+                if (p.patch.isDelete()) {
+                    transaction.delete(p.target);
+                    p.temp.delete();
+                } else {
+                    transaction.replace(p.temp, p.target);
+                }
+                touchedFiles.add(p.target);
+
+                linesAdded += p.linesAdded;
+                linesDeleted += p.linesDeleted;
+                hunksApplied += p.patch.hunks.size();
+                files.put(fileResult);
+            }
+        } catch (IOException e) {
+            int unrestored = transaction.rollback();
+            for (Prepared p : prepared) {
+                p.temp.delete();
+            }
+            throw new Exception(e.getMessage() + (unrestored == 0
+                ? " (all changes rolled back)"
+                : " (" + unrestored + " files could not be restored, backups kept next to them)"));
+        }
+
+        transaction.finish();
+        Log.d(TAG, "Applied " + hunksApplied + " hunks to " + prepared.size() + " files");
+
+        JSObject result = new JSObject();
+        result.put("success", true);
+        result.put("linesChanged", linesAdded + linesDeleted);
+        result.put("linesAdded", linesAdded);
+        result.put("linesDeleted", linesDeleted);
+        result.put("hunksApplied", hunksApplied);
+        result.put("files", files);
+        if (backupPath != null && prepared.size() == 1) {
+            result.put("backupPath", backupPath);
+        }
+        return result;
+    }
+
+    // ============ 行读写 ============
+
+    private static final class Line {
+        final String text;
+        final String eol;
+
+        Line(String text, String eol) {
+            this.text = text;
+            this.eol = eol;
+        }
+    }
+
+    /**
+     * 原文件行源
+     * 按 \n、\r、\r\n 分行并保留行结束符；维护一个前瞻窗口用于 hunk 定位
+     */
+    private static final class LineSource implements Closeable {
+        private final Reader reader;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int bufferPos;
+        private int bufferLimit;
+        private boolean eof;
+
+        // 窗口：window[head] 对应原文件第 windowStart + head 行（0-based）
+        private final ArrayList<Line> window = new ArrayList<>();
+        private int windowStart;
+        private int head;
+
+        /**
+         * reader 为 null 时视为空文件
+         */
+        LineSource(Reader reader) {
+            this.reader = reader;
+            this.eof = reader == null;
+        }
+
+        /**
+         * 下一个待输出行的位置
+         */
+        int position() {
+            return windowStart + head;
+        }
+
+        /**
+         * 确保第 index 行已读入窗口，文件行数不足时返回 false
+         */
+        boolean ensure(int index) throws IOException {
+            while (windowStart + window.size() <= index) {
+                Line line = readLine();
+                if (line == null) {
+                    return false;
+                }
+                window.add(line);
+            }
+            return true;
+        }
+
+        Line get(int index) {
+            return window.get(index - windowStart);
+        }
+
+        /**
+         * 取出下一个待输出行
+         */
+        Line take() throws IOException {
+            if (!ensure(position())) {
+                throw new IOException("Unexpected end of file");
+            }
+            Line line = window.get(head++);
+            compact();
+            return line;
+        }
+
+        /**
+         * 原样输出 [position(), end) 的行
+         */
+        void copyUntil(int end, LineSink sink) throws IOException {
+            while (position() < end) {
+                if (head < window.size()) {
+                    Line line = window.get(head++);
+                    sink.write(line.text, line.eol);
+                } else {
+                    // 窗口已全部输出时直接读取输出，不经过窗口
+                    compact();
+                    Line line = readLine();
+                    if (line == null) {
+                        break;
+                    }
+                    windowStart++;
+                    sink.write(line.text, line.eol);
+                }
+            }
+            compact();
+        }
+
+        String detectEol() throws IOException {
+            if (ensure(0) && !get(0).eol.isEmpty()) {
+                return get(0).eol;
+            }
+            return "\n";
+        }
+
+        private void compact() {
+            if (head == window.size()) {
+                windowStart += head;
+                window.clear();
+                head = 0;
+            } else if (head > 1024 && head > window.size() / 2) {
+                window.subList(0, head).clear();
+                windowStart += head;
+                head = 0;
+            }
+        }
+
+        private Line readLine() throws IOException {
+            StringBuilder text = null;
+            while (true) {
+                if (bufferPos >= bufferLimit && !fill()) {
+                    return text == null ? null : new Line(text.toString(), "");
+                }
+                int start = bufferPos;
+                while (bufferPos < bufferLimit && buffer[bufferPos] != '\n' && buffer[bufferPos] != '\r') {
+                    bufferPos++;
+                }
+                if (text == null) {
+                    text = new StringBuilder(bufferPos - start);
+                }
+                text.append(buffer, start, bufferPos - start);
+                if (bufferPos < bufferLimit) {
+                    char c = buffer[bufferPos++];
+                    if (c == '\n') {
+                        return new Line(text.toString(), "\n");
+                    }
+                    if (bufferPos >= bufferLimit && !fill()) {
+                        return new Line(text.toString(), "\r");
+                    }
+                    if (buffer[bufferPos] == '\n') {
+                        bufferPos++;
+                        return new Line(text.toString(), "\r\n");
+                    }
+                    return new Line(text.toString(), "\r");
+                }
+            }
+        }
+
+        private boolean fill() throws IOException {
+            if (eof) {
+                return false;
+            }
+            int read;
+            do {
+                read = reader.read(buffer);
+            } while (read == 0);
+            if (read < 0) {
+                eof = true;
+                return false;
+            }
+            bufferPos = 0;
+            bufferLimit = read;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (reader != null) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * 输出行
+     * 行结束符延迟写出：没有结束符的行后面再有新行时补上默认换行符
+     */
+    private static final class LineSink implements Closeable {
+        private final Writer writer;
+        private String pendingEol;
+        String defaultEol = "\n";
+        int linesWritten;
+
+        LineSink(Writer writer) {
+            this.writer = new BufferedWriter(writer, BUFFER_SIZE);
+        }
+
+        /**
+         * eol 为 null 时使用默认换行符，为空串表示没有换行符
+         */
+        void write(String text, String eol) throws IOException {
+            if (pendingEol != null) {
+                writer.write(pendingEol.isEmpty() ? defaultEol : pendingEol);
+            }
+            writer.write(text);
+            pendingEol = eol != null ? eol : defaultEol;
+            linesWritten++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (pendingEol != null) {
+                writer.write(pendingEol);
+                pendingEol = null;
+            }
+            writer.close();
+        }
+    }
+}
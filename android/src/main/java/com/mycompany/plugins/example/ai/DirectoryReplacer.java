@@ -0,0 +1,391 @@
+package com.mycompany.plugins.example.ai;
+
+import android.util.Log;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.mycompany.plugins.example.core.AtomicFileWriter;
+import com.mycompany.plugins.example.core.FileUtils;
+import com.mycompany.plugins.example.core.HashCache;
+import com.mycompany.plugins.example.search.FileSearcher;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 目录批量查找替换
+ * 复用 FileSearcher 的遍历和过滤规则收集候选文件，并行生成每个文件的替换结果到临时文件；
+ * 全部成功后逐个重命名替换，任一文件替换失败时已替换的文件全部还原，提交后按批同步目录项。
+ * 收集和替换分两步，调用方在两步之间把替换排在候选文件的写操作之后；dryRun 只统计并返回预览
+ */
+public class DirectoryReplacer {
+    private static final String TAG = "DirectoryReplacer";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long TERMINATION_TIMEOUT_SECONDS = 30;
+
+    /**
+     * 单个文件的结果回调（只回调有匹配的文件）
+     */
+    public interface Listener {
+        void onFile(JSObject fileResult);
+    }
+
+    /**
+     * 单个文件的替换结果
+     */
+    private static final class Prepared {
+        final File file;
+        final JSArray preview = new JSArray();
+        int replacements;
+        File temp;
+        String error;
+        // 不是有效的 UTF-8，跳过不替换
+        boolean undecodable;
+
+        Prepared(File file) {
+            this.file = file;
+        }
+
+        JSObject toJSObject(boolean dryRun) {
+            JSObject result = new JSObject();
+            result.put("path", file.getPath());
+            result.put("replacements", replacements);
+            if (dryRun) {
+                result.put("preview", preview);
+            }
+            return result;
+        }
+    }
+
+    private final FileSearcher fileSearcher;
+    private final HashCache hashCache;
+    private final AtomicFileWriter atomicWriter;
+
+    public DirectoryReplacer(FileSearcher fileSearcher, HashCache hashCache, AtomicFileWriter atomicWriter) {
+        this.fileSearcher = fileSearcher;
+        this.hashCache = hashCache;
+        this.atomicWriter = atomicWriter;
+    }
+
+    /**
+     * 收集到的候选文件
+     */
+    public static final class Candidates {
+        final long startTime;
+        final List<File> files;
+        final int skippedFiles;
+
+        Candidates(long startTime, List<File> files, int skippedFiles) {
+            this.startTime = startTime;
+            this.files = files;
+            this.skippedFiles = skippedFiles;
+        }
+
+        /**
+         * 替换时需要与其他写操作排序的候选文件路径（目录本身由调用方在遍历前占用）
+         */
+        public String[] getFilePaths() {
+            String[] paths = new String[files.size()];
+            for (int i = 0; i < files.size(); i++) {
+                paths[i] = files.get(i).getPath();
+            }
+            return paths;
+        }
+    }
+
+    /**
+     * 按 searchContent 的过滤规则收集候选文件，并提前校验搜索串和替换串
+     */
+    public Candidates collect(String directory, String search, String replace, boolean isRegex,
+                              boolean caseSensitive, int windowLines, String[] fileExtensions,
+                              int maxFileSize, int maxDepth, boolean recursive) throws Exception {
+        long startTime = System.currentTimeMillis();
+        new StreamingReplacer(search, replace, isRegex, true, caseSensitive, windowLines);
+
+        // trigram 索引只折叠 ASCII 大小写，而替换按 Unicode 字符折叠：
+        // 忽略大小写且关键词含非 ASCII 字符时不用索引预筛，否则会漏掉只有大小写不同的文件
+        String indexKeyword = !isRegex && (caseSensitive || isAscii(search)) ? search : null;
+        int[] skippedCount = {0};
+        List<File> files = fileSearcher.collectContentFiles(directory, indexKeyword, fileExtensions,
+                                                            maxFileSize, maxDepth, recursive, skippedCount);
+        return new Candidates(startTime, files, skippedCount[0]);
+    }
+
+    /**
+     * 在候选文件中查找并替换
+     * 非 dryRun 时调用方应保证执行期间没有其他写操作修改这些文件（见 Candidates.getFilePaths）；
+     * listener 在 dryRun 时随预览回调，否则在全部文件提交成功后回调，回滚时不回调
+     * @param windowLines 正则模式下单个匹配可跨越的行数
+     * @param parallelism 并行线程数，0 为使用全部 CPU 核心
+     * @param maxPreviewMatches dryRun 时每个文件返回的预览匹配数
+     */
+    public JSObject replace(Candidates candidates, String search, String replace, boolean isRegex,
+                            boolean caseSensitive, int windowLines, int parallelism,
+                            boolean dryRun, int maxPreviewMatches, Listener listener) throws Exception {
+        List<File> files = candidates.files;
+
+        // 并行生成替换结果
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        List<Callable<Prepared>> tasks = new ArrayList<>(files.size());
+        for (File file : files) {
+            tasks.add(() -> {
+                Prepared prepared = prepare(file, search, replace, isRegex, caseSensitive, windowLines,
+                                            dryRun, maxPreviewMatches);
+                if (dryRun && prepared.replacements > 0 && prepared.error == null && listener != null) {
+                    listener.onFile(prepared.toJSObject(true));
+                }
+                return prepared;
+            });
+        }
+        List<Prepared> matched = new ArrayList<>();
+        List<Prepared> failed = new ArrayList<>();
+        JSArray undecodable = new JSArray();
+        // 先取回所有任务的结果再判断成败，任一任务失败时其他任务生成的临时文件都要删除
+        List<Prepared> completed = new ArrayList<>();
+        List<Future<Prepared>> futures = new ArrayList<>(tasks.size());
+        Throwable taskError = null;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (Callable<Prepared> task : tasks) {
+                futures.add(pool.submit(task));
+            }
+            for (Future<Prepared> future : futures) {
+                try {
+                    completed.add(future.get());
+                } catch (ExecutionException e) {
+                    if (taskError == null) {
+                        taskError = e.getCause() != null ? e.getCause() : e;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // 取消尚未开始的任务，等正在执行的任务结束后删除已生成的临时文件
+            for (Future<Prepared> future : futures) {
+                future.cancel(false);
+            }
+            pool.shutdown();
+            pool.awaitTermination(TERMINATION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            for (Future<Prepared> future : futures) {
+                if (future.isDone() && !future.isCancelled()) {
+                    try {
+                        discard(Collections.singletonList(future.get()));
+                    } catch (ExecutionException ignored) {
+                        // 失败的任务已删除自己的临时文件
+                    }
+                }
+            }
+            throw e;
+        } finally {
+            pool.shutdown();
+        }
+        if (taskError != null) {
+            discard(completed);
+            throw new Exception(taskError.getMessage());
+        }
+
+        for (Prepared prepared : completed) {
+            if (prepared.error != null) {
+                failed.add(prepared);
+            } else if (prepared.undecodable) {
+                undecodable.put(prepared.file.getPath());
+            } else if (prepared.replacements > 0) {
+                matched.add(prepared);
+            }
+        }
+
+        if (!failed.isEmpty()) {
+            discard(matched);
+            Prepared first = failed.get(0);
+            throw new Exception("Failed to process " + failed.size() + " files, no changes applied ("
+                                + first.file.getPath() + ": " + first.error + ")");
+        }
+
+        int totalReplacements = 0;
+        JSArray filesArray = new JSArray();
+        for (Prepared prepared : matched) {
+            totalReplacements += prepared.replacements;
+            filesArray.put(prepared.toJSObject(dryRun));
+        }
+        if (!dryRun) {
+            commit(matched);
+            if (listener != null) {
+                for (Prepared prepared : matched) {
+                    listener.onFile(prepared.toJSObject(false));
+                }
+            }
+        }
+
+        Log.d(TAG, "replaceInDirectory " + (dryRun ? "previewed " : "replaced ") + totalReplacements
+                   + " matches in " + matched.size() + " of " + files.size() + " files");
+
+        JSObject result = new JSObject();
+        result.put("files", filesArray);
+        result.put("filesScanned", files.size());
+        result.put("filesMatched", matched.size());
+        result.put("totalReplacements", totalReplacements);
+        result.put("skippedFiles", candidates.skippedFiles + undecodable.length());
+        result.put("undecodableFiles", undecodable);
+        result.put("dryRun", dryRun);
+        result.put("duration", System.currentTimeMillis() - candidates.startTime);
+        return result;
+    }
+
+    // ============ 辅助方法 ============
+
+    /**
+     * 生成单个文件的替换结果
+     * 先只统计匹配（大部分候选文件没有匹配，不必写出副本），有变化且不是 dryRun 时再写入同目录的临时文件。
+     * 按严格 UTF-8 解码，遇到非法字节时跳过该文件，不把匹配之外的字节写回为 U+FFFD
+     */
+    private Prepared prepare(File file, String search, String replace, boolean isRegex, boolean caseSensitive,
+                             int windowLines, boolean dryRun, int maxPreviewMatches) {
+        Prepared prepared = new Prepared(file);
+        StreamingReplacer counter = new StreamingReplacer(search, replace, isRegex, true, caseSensitive,
+                                                          windowLines);
+        if (dryRun && maxPreviewMatches > 0) {
+            counter.setMatchListener((line, matched, replacement) -> {
+                if (prepared.preview.length() < maxPreviewMatches) {
+                    JSObject match = new JSObject();
+                    match.put("line", line);
+                    match.put("match", matched);
+                    match.put("replacement", replacement);
+                    prepared.preview.put(match);
+                }
+            });
+        }
+
+        File temp = null;
+        try {
+            boolean changed;
+            try (Reader reader = FileUtils.openUtf8Reader(file)) {
+                changed = counter.run(reader, new NullWriter());
+            }
+            prepared.replacements = counter.getReplacements();
+            if (dryRun || !changed) {
+                return prepared;
+            }
+
+            StreamingReplacer replacer = new StreamingReplacer(search, replace, isRegex, true, caseSensitive,
+                                                               windowLines);
+            temp = atomicWriter.createTempFile(file);
+            try (Reader reader = FileUtils.openUtf8Reader(file);
+                 FileOutputStream fos = new FileOutputStream(temp)) {
+                Writer writer = new OutputStreamWriter(new BufferedOutputStream(fos, BUFFER_SIZE),
+                                                       StandardCharsets.UTF_8);
+                replacer.run(reader, writer);
+                writer.flush();
+                // 在工作线程中并行落盘，提交时的 fdatasync 不再有脏数据要写
+                fos.getChannel().force(false);
+            }
+            prepared.replacements = replacer.getReplacements();
+            prepared.temp = temp;
+            temp = null;
+        } catch (CharacterCodingException e) {
+            prepared.undecodable = true;
+            prepared.replacements = 0;
+        } catch (IOException | RuntimeException e) {
+            prepared.error = e.getMessage();
+        } finally {
+            if (temp != null) {
+                temp.delete();
+            }
+        }
+        return prepared;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 通过 AtomicFileWriter 的多文件提交逐个替换原文件，任一步失败时按相反顺序还原已替换的文件
+     */
+    private void commit(List<Prepared> prepared) throws Exception {
+        AtomicFileWriter.Transaction transaction = atomicWriter.beginTransaction(AtomicFileWriter.SYNC_BATCH);
+        List<Prepared> committed = new ArrayList<>();
+        try {
+            for (Prepared p : prepared) {
+                if (p.temp == null) {
+                    continue;
+                }
+                transaction.replace(p.temp, p.file);
+                p.temp = null;
+                committed.add(p);
+            }
+        } catch (IOException e) {
+            int unrestored = transaction.rollback();
+            discard(prepared);
+            throw new Exception(e.getMessage() + (unrestored == 0
+                ? " (all changes rolled back)"
+                : " (" + unrestored + " files could not be restored, backups kept next to them)"));
+        } finally {
+            for (Prepared p : committed) {
+                hashCache.invalidate(p.file);
+            }
+        }
+        transaction.finish();
+    }
+
+    /**
+     * 删除未提交的临时文件
+     */
+    private static void discard(List<Prepared> prepared) {
+        for (Prepared p : prepared) {
+            if (p.temp != null) {
+                p.temp.delete();
+                p.temp = null;
+            }
+        }
+    }
+
+    /**
+     * 丢弃所有输出（dryRun 只统计）
+     */
+    private static final class NullWriter extends Writer {
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+        }
+
+        @Override
+        public Writer append(CharSequence csq) {
+            return this;
+        }
+
+        @Override
+        public Writer append(CharSequence csq, int start, int end) {
+            return this;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.mycompany.plugins.example.ai;
+
+import com.getcapacitor.JSObject;
+import com.mycompany.plugins.example.core.AtomicFileWriter;
+import com.mycompany.plugins.example.core.FileHasher;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 批量编辑事务
+ * 在片段表上按顺序执行插入、替换、删除行和 diff 编辑，全部成功后一次性原子写入（与其他 AI 编辑相同的 batch 同步）；
+ * 任一编辑失败时不写入任何内容
+ */
+class EditTransaction {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // 匹配较少时逐个编辑片段，较多时整体重建文本
+    private static final int MAX_PIECE_REPLACEMENTS = 64;
+
+    private final File file;
+    private final PieceTable table;
+    private final String eol;
+
+    EditTransaction(File file, String content) {
+        this.file = file;
+        this.table = new PieceTable(content);
+        int newline = content.indexOf('\n');
+        this.eol = newline > 0 && content.charAt(newline - 1) == '\r' ? "\r\n" : "\n";
+    }
+
+    int getLineCount() {
+        return table.getLineCount();
+    }
+
+    String getText() {
+        return table.getText();
+    }
+
+    /**
+     * 在第 line 行之前插入内容，行号超出范围时插入到开头或末尾
+     */
+    JSObject insert(int line, String content) {
+        int lineCount = table.getLineCount();
+        int insertIndex = Math.max(0, Math.min(lineCount, line - 1));
+        String converted = "\n".equals(eol) ? content : content.replace("\n", eol);
+
+        int offset = table.offsetOfLine(insertIndex + 1);
+        boolean atEnd = offset == table.length();
+        if (atEnd && table.length() == 0) {
+            table.insert(offset, converted);
+        } else if (atEnd && !table.endsWithNewline()) {
+            // 最后一行没有换行符时保持这一状态
+            table.insert(offset, eol + converted);
+        } else {
+            table.insert(offset, converted + eol);
+        }
+
+        JSObject result = new JSObject();
+        result.put("line", insertIndex + 1);
+        result.put("linesInserted", content.split("\n", -1).length);
+        return result;
+    }
+
+    /**
+     * 查找并替换，没有匹配时失败
+     */
+    JSObject replace(String search, String replace, boolean isRegex,
+                     boolean replaceAll, boolean caseSensitive) throws Exception {
+        int flags = caseSensitive ? 0 : Pattern.CASE_INSENSITIVE;
+        Pattern pattern = isRegex ? Pattern.compile(search, flags) : Pattern.compile(Pattern.quote(search), flags);
+        String replacement = isRegex ? replace : Matcher.quoteReplacement(replace);
+
+        String text = table.getText();
+        Matcher matcher = pattern.matcher(text);
+        StringBuffer rebuilt = new StringBuffer(text.length());
+        List<int[]> ranges = new ArrayList<>();
+        List<String> replacements = new ArrayList<>();
+        int lastEnd = 0;
+        while (matcher.find()) {
+            int before = rebuilt.length() + (matcher.start() - lastEnd);
+            matcher.appendReplacement(rebuilt, replacement);
+            ranges.add(new int[]{matcher.start(), matcher.end()});
+            replacements.add(rebuilt.substring(before));
+            lastEnd = matcher.end();
+            if (!replaceAll) {
+                break;
+            }
+        }
+
+        if (ranges.isEmpty()) {
+            throw new Exception("Search text not found: " + search);
+        }
+
+        if (ranges.size() <= MAX_PIECE_REPLACEMENTS) {
+            // 从后往前编辑，前面的偏移不受影响
+            for (int i = ranges.size() - 1; i >= 0; i--) {
+                int[] range = ranges.get(i);
+                table.delete(range[0], range[1] - range[0]);
+                table.insert(range[0], replacements.get(i));
+            }
+        } else {
+            matcher.appendTail(rebuilt);
+            table.setText(rebuilt.toString());
+        }
+
+        JSObject result = new JSObject();
+        result.put("replacements", ranges.size());
+        return result;
+    }
+
+    /**
+     * 删除第 startLine 到 endLine 行（包含两端）
+     */
+    JSObject deleteRange(int startLine, int endLine) throws Exception {
+        int lineCount = table.getLineCount();
+        if (startLine < 1 || endLine < startLine || endLine > lineCount) {
+            throw new Exception("Invalid line range: " + startLine + "-" + endLine + " (file has " + lineCount + " lines)");
+        }
+
+        int from = table.offsetOfLine(startLine);
+        int to = table.offsetOfLine(endLine + 1);
+        table.delete(from, to - from);
+
+        JSObject result = new JSObject();
+        result.put("linesDeleted", endLine - startLine + 1);
+        return result;
+    }
+
+    /**
+     * 把单文件 unified diff 应用到当前内容
+     */
+    JSObject applyDiff(String diff, int fuzz) throws Exception {
+        JSObject result = new JSObject();
+        String patched = new DiffApplier(fuzz, false, null).applyToText(table.getText(), diff, result);
+        table.setText(patched);
+        return result;
+    }
+
+    /**
+     * 写入临时文件后原子替换原文件
+     * @return 新内容的哈希值
+     */
+    String commit(String algorithm, AtomicFileWriter atomicWriter) throws Exception {
+        FileHasher.Hasher hasher = FileHasher.newHasher(algorithm);
+        atomicWriter.write(file, out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new FileHasher.HashingOutputStream(out, hasher), StandardCharsets.UTF_8), BUFFER_SIZE);
+            table.writeTo(writer);
+            writer.flush();
+        }, AtomicFileWriter.SYNC_BATCH);
+        return hasher.digest();
+    }
+}
@@ -0,0 +1,175 @@
+package com.mycompany.plugins.example.ai;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 行偏移索引缓存
+ * 一次字节扫描记录每行的起始偏移，按文件大小和修改时间校验，LRU 淘汰。
+ * 行结束符与 BufferedReader.readLine 一致：\n、\r 或 \r\n
+ */
+class LineIndexCache {
+    private static final int MAX_ENTRIES = 16;
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 单个文件的行偏移索引
+     */
+    static final class LineIndex {
+        final long size;
+        final long lastModified;
+        private final long[] lineStarts;
+        private final int lineCount;
+
+        LineIndex(long size, long lastModified, long[] lineStarts, int lineCount) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.lineStarts = lineStarts;
+            this.lineCount = lineCount;
+        }
+
+        int getLineCount() {
+            return lineCount;
+        }
+
+        /**
+         * 第 index 行（0-based）的起始字节偏移
+         */
+        long startOf(int index) {
+            return lineStarts[index];
+        }
+
+        /**
+         * 第 index 行（0-based）之后下一行的起始偏移（包含行结束符）
+         */
+        long endOf(int index) {
+            return index + 1 < lineCount ? lineStarts[index + 1] : size;
+        }
+    }
+
+    private final Map<String, LineIndex> cache =
+        new LinkedHashMap<String, LineIndex>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LineIndex> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        };
+
+    /**
+     * 获取文件的行索引，缓存失效时重新扫描
+     */
+    LineIndex get(File file) throws IOException {
+        String key = file.getAbsolutePath();
+        long size = file.length();
+        long lastModified = file.lastModified();
+
+        synchronized (this) {
+            LineIndex index = cache.get(key);
+            if (index != null && index.size == size && index.lastModified == lastModified) {
+                return index;
+            }
+        }
+
+        // 在锁外扫描，避免阻塞其他文件的读取
+        LineIndex index = build(file, lastModified);
+        synchronized (this) {
+            cache.put(key, index);
+        }
+        return index;
+    }
+
+    /**
+     * 使文件的索引失效（文件被修改后调用）
+     */
+    synchronized void invalidate(File file) {
+        cache.remove(file.getAbsolutePath());
+    }
+
+    /**
+     * 读取第 startLine 到 endLine 行（1-based，包含两端），行之间以 \n 连接
+     */
+    String readLines(File file, LineIndex index, int startLine, int endLine) throws IOException {
+        long from = index.startOf(startLine - 1);
+        long to = index.endOf(endLine - 1);
+        byte[] data = new byte[(int) (to - from)];
+
+        try (FileInputStream fis = new FileInputStream(file);
+             FileChannel channel = fis.getChannel()) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, from + buffer.position()) < 0) {
+                    break;
+                }
+            }
+        }
+
+        String content = new String(data, StandardCharsets.UTF_8)
+            .replace("\r\n", "\n")
+            .replace('\r', '\n');
+        // 去掉最后一行的行结束符
+        if (content.endsWith("\n")) {
+            content = content.substring(0, content.length() - 1);
+        }
+        return content;
+    }
+
+    private LineIndex build(File file, long lastModified) throws IOException {
+        long[] starts = new long[1024];
+        int count = 0;
+        long position = 0;
+
+        try (FileInputStream fis = new FileInputStream(file);
+             FileChannel channel = fis.getChannel()) {
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+            byte[] bytes = buffer.array();
+            boolean previousCR = false;
+            int read;
+            while ((read = channel.read(buffer)) != -1) {
+                if (read == 0) {
+                    continue;
+                }
+                if (position == 0 && count == 0) {
+                    starts[count++] = 0;
+                }
+                for (int i = 0; i < read; i++) {
+                    byte b = bytes[i];
+                    if (b == '\n') {
+                        if (previousCR) {
+                            // \r\n：下一行从 \n 之后开始
+                            starts[count - 1] = position + i + 1;
+                        } else {
+                            if (count == starts.length) {
+                                starts = Arrays.copyOf(starts, count * 2);
+                            }
+                            starts[count++] = position + i + 1;
+                        }
+                        previousCR = false;
+                    } else if (b == '\r') {
+                        if (count == starts.length) {
+                            starts = Arrays.copyOf(starts, count * 2);
+                        }
+                        starts[count++] = position + i + 1;
+                        previousCR = true;
+                    } else {
+                        previousCR = false;
+                    }
+                }
+                position += read;
+                buffer.clear();
+            }
+        }
+
+        // 文件以行结束符结尾时，最后记录的起始位置之后没有内容
+        if (count > 0 && starts[count - 1] >= position) {
+            count--;
+        }
+        return new LineIndex(position, lastModified, starts, count);
+    }
+}
@@ -0,0 +1,242 @@
+package com.mycompany.plugins.example.ai;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 片段表（piece table）
+ * 原文只读保存，所有插入追加到追加缓冲区，文本由片段列表描述。编辑只拆分片段，不复制原文；
+ * 两个缓冲区都记录换行符位置，按行定位时在片段上二分查找
+ */
+class PieceTable {
+    private final String original;
+    private final int[] originalBreaks;
+    private final StringBuilder added = new StringBuilder();
+    private int[] addedBreaks = new int[64];
+    private int addedBreakCount;
+
+    private final List<Piece> pieces = new ArrayList<>();
+    private int length;
+    private int lineBreaks;
+    // 缓存的完整文本，编辑后失效
+    private String text;
+
+    /**
+     * 片段：缓冲区中 [start, start + length) 的一段文本
+     */
+    private static final class Piece {
+        final boolean added;
+        final int start;
+        final int length;
+        final int lineBreaks;
+
+        Piece(boolean added, int start, int length, int lineBreaks) {
+            this.added = added;
+            this.start = start;
+            this.length = length;
+            this.lineBreaks = lineBreaks;
+        }
+    }
+
+    PieceTable(String content) {
+        this.original = content;
+        int[] breaks = new int[64];
+        int count = 0;
+        for (int i = content.indexOf('\n'); i >= 0; i = content.indexOf('\n', i + 1)) {
+            if (count == breaks.length) {
+                breaks = Arrays.copyOf(breaks, count * 2);
+            }
+            breaks[count++] = i;
+        }
+        this.originalBreaks = Arrays.copyOf(breaks, count);
+        if (!content.isEmpty()) {
+            pieces.add(new Piece(false, 0, content.length(), count));
+        }
+        this.length = content.length();
+        this.lineBreaks = count;
+        this.text = content;
+    }
+
+    int length() {
+        return length;
+    }
+
+    /**
+     * 行数，与 BufferedReader.readLine 一致：末尾换行符不产生额外的空行
+     */
+    int getLineCount() {
+        if (length == 0) {
+            return 0;
+        }
+        return endsWithNewline() ? lineBreaks : lineBreaks + 1;
+    }
+
+    boolean endsWithNewline() {
+        return length > 0 && lastChar() == '\n';
+    }
+
+    /**
+     * 第 line 行（1-based）的起始字符偏移，超过最后一行时返回文本长度
+     */
+    int offsetOfLine(int line) {
+        int needed = line - 1;
+        if (needed <= 0) {
+            return 0;
+        }
+        int seen = 0;
+        int offset = 0;
+        for (Piece piece : pieces) {
+            if (seen + piece.lineBreaks >= needed) {
+                int[] breaks = piece.added ? addedBreaks : originalBreaks;
+                int count = piece.added ? addedBreakCount : originalBreaks.length;
+                int first = lowerBound(breaks, count, piece.start);
+                int position = breaks[first + (needed - seen) - 1];
+                return offset + (position - piece.start) + 1;
+            }
+            seen += piece.lineBreaks;
+            offset += piece.length;
+        }
+        return length;
+    }
+
+    private char lastChar() {
+        Piece piece = pieces.get(pieces.size() - 1);
+        int position = piece.start + piece.length - 1;
+        return piece.added ? added.charAt(position) : original.charAt(position);
+    }
+
+    void insert(int offset, String content) {
+        if (content.isEmpty()) {
+            return;
+        }
+        int start = added.length();
+        added.append(content);
+        int breaks = 0;
+        for (int i = content.indexOf('\n'); i >= 0; i = content.indexOf('\n', i + 1)) {
+            if (addedBreakCount == addedBreaks.length) {
+                addedBreaks = Arrays.copyOf(addedBreaks, addedBreakCount * 2);
+            }
+            addedBreaks[addedBreakCount++] = start + i;
+            breaks++;
+        }
+
+        pieces.add(split(offset), new Piece(true, start, content.length(), breaks));
+        length += content.length();
+        lineBreaks += breaks;
+        text = null;
+    }
+
+    void delete(int offset, int count) {
+        if (count <= 0) {
+            return;
+        }
+        int from = split(offset);
+        int to = split(offset + count);
+        List<Piece> removed = pieces.subList(from, to);
+        for (Piece piece : removed) {
+            length -= piece.length;
+            lineBreaks -= piece.lineBreaks;
+        }
+        removed.clear();
+        text = null;
+    }
+
+    /**
+     * 替换为新文本：只替换与当前文本不同的中间部分
+     */
+    void setText(String content) {
+        String current = getText();
+        int prefix = 0;
+        int max = Math.min(current.length(), content.length());
+        while (prefix < max && current.charAt(prefix) == content.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < max - prefix
+               && current.charAt(current.length() - 1 - suffix) == content.charAt(content.length() - 1 - suffix)) {
+            suffix++;
+        }
+        delete(prefix, current.length() - prefix - suffix);
+        insert(prefix, content.substring(prefix, content.length() - suffix));
+        text = content;
+    }
+
+    String getText() {
+        if (text == null) {
+            StringBuilder builder = new StringBuilder(length);
+            for (Piece piece : pieces) {
+                if (piece.added) {
+                    builder.append(added, piece.start, piece.start + piece.length);
+                } else {
+                    builder.append(original, piece.start, piece.start + piece.length);
+                }
+            }
+            text = builder.toString();
+        }
+        return text;
+    }
+
+    /**
+     * 按片段写出文本，不拼接完整字符串
+     */
+    void writeTo(Writer writer) throws IOException {
+        for (Piece piece : pieces) {
+            if (piece.added) {
+                writer.append(added, piece.start, piece.start + piece.length);
+            } else {
+                writer.write(original, piece.start, piece.length);
+            }
+        }
+    }
+
+    /**
+     * 确保 offset 处是片段边界，返回从该位置开始的片段下标
+     */
+    private int split(int offset) {
+        if (offset < 0 || offset > length) {
+            throw new IndexOutOfBoundsException("Offset: " + offset + ", length: " + length);
+        }
+        int position = 0;
+        for (int i = 0; i < pieces.size(); i++) {
+            Piece piece = pieces.get(i);
+            if (offset == position) {
+                return i;
+            }
+            if (offset < position + piece.length) {
+                int headLength = offset - position;
+                pieces.set(i, piece(piece.added, piece.start, headLength));
+                pieces.add(i + 1, piece(piece.added, piece.start + headLength, piece.length - headLength));
+                return i + 1;
+            }
+            position += piece.length;
+        }
+        return pieces.size();
+    }
+
+    private Piece piece(boolean isAdded, int start, int count) {
+        int[] breaks = isAdded ? addedBreaks : originalBreaks;
+        int size = isAdded ? addedBreakCount : originalBreaks.length;
+        int lines = lowerBound(breaks, size, start + count) - lowerBound(breaks, size, start);
+        return new Piece(isAdded, start, count, lines);
+    }
+
+    /**
+     * 第一个不小于 value 的元素下标
+     */
+    private static int lowerBound(int[] values, int size, int value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,494 @@
+package com.mycompany.plugins.example.ai;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 流式查找替换引擎
+ * 边读边写，一遍完成替换和计数，不把整个文件读入内存。
+ * 普通字符串：滑动窗口匹配，块之间只保留模式长度减一的字符；
+ * 正则：逐行匹配（^、$ 匹配行首行尾），windowLines 大于 1 时匹配可跨越多行，但必须从窗口第一行开始
+ */
+class StreamingReplacer {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 匹配回调（用于预览）
+     */
+    interface MatchListener {
+        /**
+         * @param line 匹配开始处的行号（从 1 开始）
+         */
+        void onMatch(int line, String matched, String replacement);
+    }
+
+    private final boolean replaceAll;
+    private final boolean caseSensitive;
+    private final int windowLines;
+
+    // 普通字符串模式
+    private final char[] search;
+    private final char[] searchUpper;
+    private final char[] searchLower;
+    private final String replace;
+
+    // 正则模式
+    private final Pattern pattern;
+    private final List<Object> replacementParts;
+
+    private int replacements;
+    private boolean changed;
+    private MatchListener matchListener;
+    private int line = 1;
+
+    StreamingReplacer(String search, String replace, boolean isRegex, boolean replaceAll,
+                      boolean caseSensitive, int windowLines) {
+        this.replaceAll = replaceAll;
+        this.caseSensitive = caseSensitive;
+        this.windowLines = Math.max(1, windowLines);
+        this.replace = replace;
+        if (isRegex) {
+            int flags = Pattern.MULTILINE | (caseSensitive ? 0 : Pattern.CASE_INSENSITIVE);
+            this.pattern = Pattern.compile(search, flags);
+            this.replacementParts = parseReplacement(replace);
+            this.search = null;
+            this.searchUpper = null;
+            this.searchLower = null;
+        } else {
+            if (search.isEmpty()) {
+                throw new IllegalArgumentException("Search string must not be empty");
+            }
+            this.pattern = null;
+            this.replacementParts = null;
+            this.search = search.toCharArray();
+            // 逐字符折叠而不是 String.toUpperCase/toLowerCase：后者受默认 Locale 影响且可能改变长度（ß→SS），
+            // matchesAt 要求三个数组与 search 等长
+            this.searchUpper = new char[this.search.length];
+            this.searchLower = new char[this.search.length];
+            for (int k = 0; k < this.search.length; k++) {
+                char upper = Character.toUpperCase(this.search[k]);
+                this.searchUpper[k] = upper;
+                this.searchLower[k] = Character.toLowerCase(upper);
+            }
+        }
+    }
+
+    /**
+     * 读取 in 并把替换后的内容写入 out
+     * @return 输出是否与输入不同
+     */
+    boolean run(Reader in, Writer out) throws IOException {
+        if (pattern != null) {
+            replaceRegex(in, out);
+        } else {
+            replaceLiteral(in, out);
+        }
+        return changed;
+    }
+
+    int getReplacements() {
+        return replacements;
+    }
+
+    /**
+     * 设置匹配回调，设置后额外统计行号
+     */
+    void setMatchListener(MatchListener matchListener) {
+        this.matchListener = matchListener;
+    }
+
+    // ============ 普通字符串 ============
+
+    private void replaceLiteral(Reader in, Writer out) throws IOException {
+        int m = search.length;
+        char[] buf = new char[Math.max(BUFFER_SIZE, m * 2)];
+        char[] replaceChars = replace.toCharArray();
+        int len = 0;
+        int counted = 0;
+
+        while (true) {
+            int read = in.read(buf, len, buf.length - len);
+            boolean eof = read == -1;
+            if (!eof) {
+                len += read;
+                if (len < buf.length) {
+                    continue;
+                }
+            }
+
+            int from = 0;
+            int i = 0;
+            while (i <= len - m) {
+                if (!matchesAt(buf, i)) {
+                    i++;
+                    continue;
+                }
+                out.write(buf, from, i - from);
+                out.write(replaceChars);
+                if (!changed && !regionEquals(buf, i, replaceChars)) {
+                    changed = true;
+                }
+                replacements++;
+                if (matchListener != null) {
+                    line += countLines(buf, counted, i);
+                    counted = i;
+                    matchListener.onMatch(line, new String(buf, i, m), replace);
+                }
+                i += m;
+                from = i;
+                if (!replaceAll) {
+                    // 只替换第一处，其余内容原样复制
+                    out.write(buf, from, len - from);
+                    copy(in, out, buf);
+                    return;
+                }
+            }
+
+            if (eof) {
+                out.write(buf, from, len - from);
+                return;
+            }
+            // 末尾不足模式长度的字符可能是下一处匹配的开头，留到下一块
+            int keep = Math.max(from, len - (m - 1));
+            out.write(buf, from, keep - from);
+            if (matchListener != null) {
+                line += countLines(buf, counted, keep);
+                counted = 0;
+            }
+            System.arraycopy(buf, keep, buf, 0, len - keep);
+            len -= keep;
+        }
+    }
+
+    private boolean matchesAt(char[] buf, int offset) {
+        if (caseSensitive) {
+            for (int k = 0; k < search.length; k++) {
+                if (buf[offset + k] != search[k]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        // 与 String.regionMatches(true, ...) 相同的大小写比较
+        for (int k = 0; k < search.length; k++) {
+            char c = buf[offset + k];
+            if (c == search[k]) {
+                continue;
+            }
+            char upper = Character.toUpperCase(c);
+            if (upper != searchUpper[k] && Character.toLowerCase(upper) != searchLower[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean regionEquals(char[] buf, int offset, char[] text) {
+        if (text.length != search.length) {
+            return false;
+        }
+        for (int k = 0; k < text.length; k++) {
+            if (buf[offset + k] != text[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ============ 正则 ============
+
+    private void replaceRegex(Reader in, Writer out) throws IOException {
+        LineBuffer lines = new LineBuffer(in);
+        Matcher matcher = pattern.matcher(lines.text);
+        matcher.useTransparentBounds(true);
+        matcher.useAnchoringBounds(false);
+        StringBuilder replacement = new StringBuilder();
+        int pos = 0;
+        int counted = 0;
+
+        while (lines.fill(pos, windowLines)) {
+            StringBuilder text = lines.text;
+            int firstNewline = lines.newlineAt(0);
+            int firstEnd = contentEnd(text, pos, firstNewline);
+            int windowEnd = contentEnd(text, pos, lines.newlineAt(windowLines - 1));
+            int nextLine = firstNewline >= 0 ? firstNewline + 1 : text.length();
+
+            int cursor = pos;
+            matcher.region(pos, windowEnd);
+            while (matcher.find() && matcher.start() <= firstEnd) {
+                lines.write(out, cursor, matcher.start());
+                replacement.setLength(0);
+                appendReplacement(matcher, replacement);
+                out.append(replacement);
+                if (!changed && !contentEquals(text, matcher.start(), matcher.end(), replacement)) {
+                    changed = true;
+                }
+                replacements++;
+                if (matchListener != null) {
+                    line += countLines(text, counted, matcher.start());
+                    counted = matcher.start();
+                    matchListener.onMatch(line, matcher.group(), replacement.toString());
+                }
+                cursor = matcher.end();
+                if (!replaceAll) {
+                    lines.write(out, cursor, text.length());
+                    copy(in, out, new char[BUFFER_SIZE]);
+                    return;
+                }
+            }
+
+            // 跨行匹配结束在后面的行时，从匹配结束处继续
+            int next = Math.max(cursor, nextLine);
+            lines.write(out, cursor, next);
+            if (matchListener != null) {
+                line += countLines(text, counted, next);
+            }
+            pos = lines.compact(next);
+            counted = pos;
+        }
+    }
+
+    private static int countLines(char[] buf, int start, int end) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (buf[i] == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int countLines(CharSequence text, int start, int end) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 行内容的结束位置（不含 \r\n、\n 和文件末尾的 \r）
+     */
+    private static int contentEnd(StringBuilder text, int lineStart, int newline) {
+        int end = newline >= 0 ? newline : text.length();
+        if (end > lineStart && text.charAt(end - 1) == '\r') {
+            return end - 1;
+        }
+        return end;
+    }
+
+    private static boolean contentEquals(StringBuilder text, int start, int end, StringBuilder other) {
+        if (end - start != other.length()) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) != other.charAt(i - start)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 预先解析替换串中的 $n、${name} 和 \ 转义（语义与 Matcher.appendReplacement 相同）
+     */
+    private static List<Object> parseReplacement(String replace) {
+        List<Object> parts = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < replace.length()) {
+            char c = replace.charAt(i);
+            if (c == '\\') {
+                if (++i == replace.length()) {
+                    throw new IllegalArgumentException("character to be escaped is missing");
+                }
+                literal.append(replace.charAt(i++));
+            } else if (c == '$') {
+                if (++i == replace.length()) {
+                    throw new IllegalArgumentException("Illegal group reference: group index is missing");
+                }
+                if (literal.length() > 0) {
+                    parts.add(literal.toString());
+                    literal.setLength(0);
+                }
+                if (replace.charAt(i) == '{') {
+                    int close = replace.indexOf('}', i);
+                    if (close < 0) {
+                        throw new IllegalArgumentException("named capturing group is missing trailing '}'");
+                    }
+                    parts.add(new GroupRef(replace.substring(i + 1, close)));
+                    i = close + 1;
+                } else {
+                    int start = i;
+                    while (i < replace.length() && Character.isDigit(replace.charAt(i))) {
+                        i++;
+                    }
+                    if (start == i) {
+                        throw new IllegalArgumentException("Illegal group reference");
+                    }
+                    parts.add(new GroupRef(replace.substring(start, i)));
+                }
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        if (literal.length() > 0) {
+            parts.add(literal.toString());
+        }
+        return parts;
+    }
+
+    private void appendReplacement(Matcher matcher, StringBuilder target) {
+        for (Object part : replacementParts) {
+            if (part instanceof GroupRef) {
+                String group = ((GroupRef) part).resolve(matcher);
+                if (group != null) {
+                    target.append(group);
+                }
+            } else {
+                target.append((String) part);
+            }
+        }
+    }
+
+    /**
+     * 分组引用；数字引用按 Java 规则尽量取更多位，但不超过分组数
+     */
+    private static final class GroupRef {
+        final String name;
+
+        GroupRef(String name) {
+            this.name = name;
+        }
+
+        String resolve(Matcher matcher) {
+            if (!Character.isDigit(name.charAt(0))) {
+                return matcher.group(name);
+            }
+            int group = name.charAt(0) - '0';
+            int used = 1;
+            while (used < name.length()) {
+                int next = group * 10 + (name.charAt(used) - '0');
+                if (next > matcher.groupCount()) {
+                    break;
+                }
+                group = next;
+                used++;
+            }
+            if (group > matcher.groupCount()) {
+                throw new IndexOutOfBoundsException("No group " + group);
+            }
+            String value = matcher.group(group);
+            return used < name.length() ? (value != null ? value : "") + name.substring(used) : value;
+        }
+    }
+
+    /**
+     * 正则模式的行缓冲：按需读入，记录换行位置，已输出的整行定期丢弃
+     */
+    private static final class LineBuffer {
+        final Reader in;
+        final StringBuilder text = new StringBuilder();
+        final char[] chunk = new char[BUFFER_SIZE];
+        int[] newlines = new int[64];
+        int head;
+        int count;
+        int scanned;
+        boolean eof;
+
+        LineBuffer(Reader in) {
+            this.in = in;
+        }
+
+        /**
+         * 确保 pos 之后至少有 lines 个换行（或已读到末尾）
+         * @return 缓冲区中是否还有未处理的内容
+         */
+        boolean fill(int pos, int lines) throws IOException {
+            while (count > 0 && newlines[head] < pos) {
+                head++;
+                count--;
+            }
+            while (count < lines && !eof) {
+                int read = in.read(chunk);
+                if (read == -1) {
+                    eof = true;
+                    break;
+                }
+                text.append(chunk, 0, read);
+                for (int i = scanned; i < text.length(); i++) {
+                    if (text.charAt(i) == '\n') {
+                        addNewline(i);
+                    }
+                }
+                scanned = text.length();
+            }
+            return pos < text.length();
+        }
+
+        /**
+         * 当前窗口内第 n 个换行的位置，不存在时返回 -1
+         */
+        int newlineAt(int n) {
+            return n < count ? newlines[head + n] : -1;
+        }
+
+        void write(Writer out, int start, int end) throws IOException {
+            if (end > start) {
+                out.append(text, start, end);
+            }
+        }
+
+        /**
+         * 丢弃 pos 所在行之前的内容（保留当前行供 ^ 和后向断言使用）
+         * @return 丢弃后 pos 的新位置
+         */
+        int compact(int pos) {
+            if (pos < BUFFER_SIZE) {
+                return pos;
+            }
+            int lineStart = pos;
+            while (lineStart > 0 && text.charAt(lineStart - 1) != '\n') {
+                lineStart--;
+            }
+            if (lineStart == 0) {
+                return pos;
+            }
+            text.delete(0, lineStart);
+            scanned -= lineStart;
+            for (int i = 0; i < count; i++) {
+                newlines[head + i] -= lineStart;
+            }
+            return pos - lineStart;
+        }
+
+        private void addNewline(int index) {
+            if (head + count == newlines.length) {
+                if (head > 0) {
+                    System.arraycopy(newlines, head, newlines, 0, count);
+                    head = 0;
+                } else {
+                    int[] grown = new int[newlines.length * 2];
+                    System.arraycopy(newlines, 0, grown, 0, count);
+                    newlines = grown;
+                }
+            }
+            newlines[head + count++] = index;
+        }
+    }
+
+    private static void copy(Reader in, Writer out, char[] buf) throws IOException {
+        int read;
+        while ((read = in.read(buf)) != -1) {
+            out.write(buf, 0, read);
+        }
+    }
+}
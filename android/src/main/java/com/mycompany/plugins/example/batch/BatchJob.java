@@ -0,0 +1,269 @@
+package com.mycompany.plugins.example.batch;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+
+import java.io.File;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量操作任务
+ * 保存操作列表、执行通道和统计；涉及同一路径（源或目标）的操作合并到同一通道按提交顺序串行执行，
+ * 不同通道之间并行
+ */
+class BatchJob {
+    static final String RUNNING = "running";
+    static final String PAUSED = "paused";
+    static final String CANCELLED = "cancelled";
+    static final String COMPLETED = "completed";
+
+    static final String PENDING = "pending";
+    static final String SUCCESS = "success";
+    static final String FAILED = "failed";
+    static final String SKIPPED = "skipped";
+
+    /**
+     * 单个操作
+     */
+    static final class Item {
+        final int index;
+        final String id;
+        final String type;
+        final String sourcePath;
+        final String destinationPath;
+        final String newName;
+
+        String status = PENDING;
+        String error;
+        long duration;
+        long bytes;
+        // 进程退出时正在执行（恢复后按可能已部分完成处理）
+        boolean interrupted;
+
+        Item(int index, String id, String type, String sourcePath, String destinationPath, String newName) {
+            this.index = index;
+            this.id = id;
+            this.type = type;
+            this.sourcePath = sourcePath;
+            this.destinationPath = destinationPath;
+            this.newName = newName;
+        }
+
+        /**
+         * 操作写入的目标路径
+         */
+        String getTargetPath() {
+            if ("rename".equals(type)) {
+                File parent = new File(sourcePath).getAbsoluteFile().getParentFile();
+                return new File(parent, newName).getPath();
+            }
+            return destinationPath;
+        }
+
+        boolean isDone() {
+            return !PENDING.equals(status);
+        }
+
+        JSObject toJSObject() {
+            JSObject result = new JSObject();
+            result.put("operationId", id);
+            result.put("type", type);
+            result.put("status", status);
+            result.put("sourcePath", sourcePath);
+            String target = getTargetPath();
+            if (target != null) {
+                result.put("destinationPath", target);
+            }
+            if (error != null) {
+                result.put(SKIPPED.equals(status) ? "skipReason" : "error", error);
+            }
+            result.put("duration", duration);
+            return result;
+        }
+    }
+
+    /**
+     * 执行通道：按顺序执行的一组操作
+     */
+    static final class Lane {
+        final List<Item> items = new ArrayList<>();
+        int next;
+
+        boolean hasNext() {
+            return next < items.size();
+        }
+    }
+
+    final String batchId;
+    final List<Item> items;
+    final boolean overwrite;
+    final boolean continueOnError;
+    final int concurrency;
+    final long createdAt;
+
+    // 以下字段由 BatchOperationEngine 在 synchronized (job) 中读写
+    final ArrayDeque<Lane> lanes = new ArrayDeque<>();
+    String status = RUNNING;
+    int activeWorkers;
+    boolean stoppedOnError;
+    int successful;
+    int failed;
+    int skipped;
+    long bytesProcessed;
+    String currentFile;
+    String currentOperation;
+    long runningSince;
+    long runningMillis;
+    long lastProgressAt;
+    long finishedAt;
+    Writer journal;
+    // 同步调用的结果回调，恢复的任务为 null
+    BatchOperationEngine.ResultListener resultListener;
+
+    BatchJob(String batchId, List<Item> items, boolean overwrite, boolean continueOnError,
+             int concurrency, long createdAt) {
+        this.batchId = batchId;
+        this.items = items;
+        this.overwrite = overwrite;
+        this.continueOnError = continueOnError;
+        this.concurrency = concurrency;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * 把未完成的操作按路径分组为通道
+     * 路径相同或互为父子（移动 a/ 的同时复制 a/x）的操作属于同一通道，按提交顺序执行
+     */
+    void buildLanes() {
+        int[] parent = new int[items.size()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        // 并查集：共享任一路径的操作属于同一通道
+        Map<String, Integer> owners = new HashMap<>();
+        for (Item item : items) {
+            if (item.isDone()) {
+                continue;
+            }
+            for (String path : new String[]{item.sourcePath, item.getTargetPath()}) {
+                if (path == null) {
+                    continue;
+                }
+                String key = new File(path).getAbsolutePath();
+                Integer owner = owners.get(key);
+                if (owner == null) {
+                    owners.put(key, item.index);
+                } else {
+                    parent[find(parent, item.index)] = find(parent, owner);
+                }
+            }
+        }
+        // 再与祖先路径的操作合并：子路径向上查找即可覆盖父子两个方向
+        for (Map.Entry<String, Integer> entry : owners.entrySet()) {
+            File ancestor = new File(entry.getKey()).getParentFile();
+            while (ancestor != null) {
+                Integer owner = owners.get(ancestor.getPath());
+                if (owner != null) {
+                    parent[find(parent, entry.getValue())] = find(parent, owner);
+                }
+                ancestor = ancestor.getParentFile();
+            }
+        }
+
+        Map<Integer, Lane> byRoot = new LinkedHashMap<>();
+        for (Item item : items) {
+            if (item.isDone()) {
+                continue;
+            }
+            int root = find(parent, item.index);
+            Lane lane = byRoot.get(root);
+            if (lane == null) {
+                lane = new Lane();
+                byRoot.put(root, lane);
+            }
+            lane.items.add(item);
+        }
+        lanes.clear();
+        lanes.addAll(byRoot.values());
+    }
+
+    private static int find(int[] parent, int index) {
+        while (parent[index] != index) {
+            parent[index] = parent[parent[index]];
+            index = parent[index];
+        }
+        return index;
+    }
+
+    int getProcessed() {
+        return successful + failed + skipped;
+    }
+
+    long getElapsedMillis() {
+        return runningMillis + (RUNNING.equals(status) && runningSince > 0
+            ? System.currentTimeMillis() - runningSince : 0);
+    }
+
+    boolean isFinished() {
+        return CANCELLED.equals(status) || COMPLETED.equals(status);
+    }
+
+    /**
+     * 进度（不含逐项结果）
+     */
+    JSObject toProgress() {
+        int total = items.size();
+        int processed = getProcessed();
+        long elapsed = getElapsedMillis();
+
+        JSObject progress = new JSObject();
+        progress.put("batchId", batchId);
+        progress.put("status", status);
+        progress.put("total", total);
+        progress.put("completed", successful);
+        progress.put("failed", failed);
+        progress.put("skipped", skipped);
+        progress.put("processed", processed);
+        progress.put("percentage", total == 0 ? 100 : processed * 100.0 / total);
+        if (currentFile != null) {
+            progress.put("currentFile", currentFile);
+            progress.put("currentOperation", currentOperation);
+        }
+        progress.put("bytesProcessed", bytesProcessed);
+        progress.put("elapsed", elapsed);
+        if (elapsed > 0) {
+            progress.put("itemsPerSecond", processed * 1000.0 / elapsed);
+            progress.put("bytesPerSecond", bytesProcessed * 1000 / elapsed);
+            if (processed > 0 && processed < total) {
+                progress.put("estimatedTimeRemaining", elapsed * (total - processed) / processed);
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * 完整结果（含逐项结果）
+     */
+    JSObject toResult() {
+        JSArray results = new JSArray();
+        for (Item item : items) {
+            results.put(item.toJSObject());
+        }
+
+        JSObject result = toProgress();
+        result.put("successful", successful);
+        result.put("results", results);
+        result.put("totalTime", getElapsedMillis());
+        result.put("createdAt", createdAt);
+        if (finishedAt > 0) {
+            result.put("finishedAt", finishedAt);
+        }
+        return result;
+    }
+}
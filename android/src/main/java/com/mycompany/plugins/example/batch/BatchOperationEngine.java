@@ -0,0 +1,639 @@
+package com.mycompany.plugins.example.batch;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.mycompany.plugins.example.core.DirectoryOperations;
+import com.mycompany.plugins.example.core.DirectoryScanner;
+import com.mycompany.plugins.example.core.FileOperations;
+import com.mycompany.plugins.example.core.FileUtils;
+import com.mycompany.plugins.example.executor.IoDispatcher;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * 批量操作引擎
+ * 一次调用提交整个操作列表（copy、move、delete、rename），在工作线程池中执行：
+ * 涉及同一路径的操作按提交顺序串行，其余并行；每个操作通过 IoDispatcher 的路径队列执行，
+ * 与插件其他写操作保持顺序。支持按 batchId 暂停、恢复、取消，
+ * 进度和吞吐量通过回调推送；状态持久化到应用私有目录，进程被杀后以暂停状态恢复
+ */
+public class BatchOperationEngine {
+    private static final String TAG = "BatchOperationEngine";
+    private static final String STATE_DIR = "afm-batches";
+
+    // 默认配置
+    public static final int DEFAULT_CONCURRENCY = 4;
+    private static final int MAX_CONCURRENCY = 16;
+    private static final long PROGRESS_INTERVAL_MS = 200;
+    private static final int MAX_FINISHED_BATCHES = 16;
+    private static final Pattern BATCH_ID_PATTERN = Pattern.compile("[A-Za-z0-9._-]{1,128}");
+
+    /**
+     * 进度回调
+     */
+    public interface ProgressListener {
+        void onProgress(JSObject progress, boolean done);
+    }
+
+    /**
+     * 任务结束回调（在执行任务的工作线程中调用）
+     */
+    public interface ResultListener {
+        void onFinished(JSObject result);
+    }
+
+    private final FileOperations fileOps;
+    private final DirectoryOperations dirOps;
+    private final IoDispatcher dispatcher;
+    private final BatchStore store;
+    private final ExecutorService workers;
+    // 上次未完成的任务恢复完成前，其他方法等待
+    private final CountDownLatch restored = new CountDownLatch(1);
+
+    private final Map<String, BatchJob> active = new ConcurrentHashMap<>();
+    // 已结束的任务（LRU），供 getBatchResult 查询
+    private final Map<String, BatchJob> finished =
+        new LinkedHashMap<String, BatchJob>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BatchJob> eldest) {
+                return size() > MAX_FINISHED_BATCHES;
+            }
+        };
+    private volatile ProgressListener listener;
+
+    public BatchOperationEngine(Context context, FileOperations fileOps, DirectoryOperations dirOps,
+                                IoDispatcher dispatcher) {
+        this.fileOps = fileOps;
+        this.dirOps = dirOps;
+        this.dispatcher = dispatcher;
+        this.store = new BatchStore(new File(context.getFilesDir(), STATE_DIR));
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        this.workers = Executors.newFixedThreadPool(MAX_CONCURRENCY, r -> {
+            Thread thread = new Thread(r, "AFM-batch-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void setListener(ProgressListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * 在工作线程中恢复上次进程退出时未完成的任务（暂停状态，需调用 resume 继续）
+     */
+    public void restorePendingBatches() {
+        workers.execute(() -> {
+            try {
+                restore();
+            } finally {
+                restored.countDown();
+            }
+        });
+    }
+
+    private void restore() {
+        for (BatchJob job : store.loadPending()) {
+            if (active.containsKey(job.batchId)) {
+                store.closeJournal(job);
+                continue;
+            }
+            job.status = BatchJob.PAUSED;
+            job.buildLanes();
+            active.put(job.batchId, job);
+            if (job.lanes.isEmpty()) {
+                // 所有操作都已完成，只是进程在结束前退出
+                job.status = BatchJob.COMPLETED;
+                finish(job);
+                continue;
+            }
+            Log.d(TAG, "Restored batch " + job.batchId + ": " + job.getProcessed() + "/" + job.items.size() + " done");
+        }
+    }
+
+    /**
+     * 提交批量操作并立即返回
+     * @param operations 每项包含 type、sourcePath，copy/move 需要 destinationPath，rename 需要 newName
+     */
+    public JSObject start(String batchId, JSONArray operations, boolean overwrite,
+                          boolean continueOnError, int concurrency) throws Exception {
+        BatchJob job = submit(batchId, operations, overwrite, continueOnError, concurrency, null);
+        synchronized (job) {
+            return job.toProgress();
+        }
+    }
+
+    /**
+     * 提交批量操作，结束后通过 onFinished 返回完整结果（调用方不必等待）
+     */
+    public void run(String batchId, JSONArray operations, boolean overwrite,
+                    boolean continueOnError, int concurrency, ResultListener onFinished) throws Exception {
+        submit(batchId, operations, overwrite, continueOnError, concurrency, onFinished);
+    }
+
+    public boolean pause(String batchId) {
+        awaitRestored();
+        BatchJob job = active.get(batchId);
+        if (job == null) {
+            return false;
+        }
+        synchronized (job) {
+            if (!BatchJob.RUNNING.equals(job.status)) {
+                return BatchJob.PAUSED.equals(job.status);
+            }
+            job.runningMillis = job.getElapsedMillis();
+            job.status = BatchJob.PAUSED;
+        }
+        notifyProgress(job, false);
+        return true;
+    }
+
+    public boolean resume(String batchId) {
+        awaitRestored();
+        BatchJob job = active.get(batchId);
+        if (job == null) {
+            return false;
+        }
+        synchronized (job) {
+            if (!BatchJob.PAUSED.equals(job.status)) {
+                return BatchJob.RUNNING.equals(job.status);
+            }
+            job.status = BatchJob.RUNNING;
+            job.runningSince = System.currentTimeMillis();
+            startWorkers(job);
+        }
+        notifyProgress(job, false);
+        return true;
+    }
+
+    /**
+     * 取消任务：正在执行的操作完成后停止，剩余操作标记为跳过
+     */
+    public boolean cancel(String batchId) {
+        awaitRestored();
+        BatchJob job = active.get(batchId);
+        if (job == null) {
+            return false;
+        }
+        boolean finishNow;
+        synchronized (job) {
+            if (job.isFinished()) {
+                return false;
+            }
+            job.runningMillis = job.getElapsedMillis();
+            job.status = BatchJob.CANCELLED;
+            finishNow = job.activeWorkers == 0;
+        }
+        if (finishNow) {
+            finish(job);
+        }
+        return true;
+    }
+
+    /**
+     * 获取任务结果（进行中的任务返回当前结果）
+     */
+    public JSObject getResult(String batchId) throws Exception {
+        awaitRestored();
+        BatchJob job = active.get(batchId);
+        if (job == null) {
+            synchronized (finished) {
+                job = finished.get(batchId);
+            }
+        }
+        if (job == null) {
+            throw new Exception("Batch not found: " + batchId);
+        }
+        synchronized (job) {
+            return job.toResult();
+        }
+    }
+
+    /**
+     * 获取未结束的任务（含进程重启后恢复的任务）
+     */
+    public JSObject getPendingBatches() {
+        awaitRestored();
+        JSArray batches = new JSArray();
+        for (BatchJob job : active.values()) {
+            synchronized (job) {
+                batches.put(job.toProgress());
+            }
+        }
+        JSObject result = new JSObject();
+        result.put("batches", batches);
+        return result;
+    }
+
+    /**
+     * 停止工作线程；未完成的任务保留状态，下次启动时恢复
+     */
+    public void shutdown() {
+        workers.shutdownNow();
+        for (BatchJob job : active.values()) {
+            store.closeJournal(job);
+        }
+    }
+
+    /**
+     * 按正则替换文件名生成 rename 操作列表（名称不变的文件不生成操作）
+     * @param fileTypes 只处理这些扩展名的文件，为空时处理所有文件
+     */
+    public static JSONArray collectRenameOperations(String directory, String pattern, String replacement,
+                                                    boolean recursive, String[] fileTypes) throws Exception {
+        File root = new File(directory);
+        if (!root.isDirectory()) {
+            throw new Exception("Directory does not exist: " + directory);
+        }
+        Pattern regex = Pattern.compile(pattern);
+        JSONArray operations = new JSONArray();
+        collectRenames(root, regex, replacement, recursive, fileTypes, operations);
+        return operations;
+    }
+
+    private static void collectRenames(File directory, Pattern regex, String replacement, boolean recursive,
+                                       String[] fileTypes, JSONArray operations) throws Exception {
+        List<DirectoryScanner.Entry> entries = DirectoryScanner.scan(directory);
+        if (entries == null) {
+            return;
+        }
+        for (DirectoryScanner.Entry entry : entries) {
+            if (entry.isHidden()) {
+                continue;
+            }
+            if (entry.isDirectory) {
+                if (recursive && !entry.isSymbolicLink) {
+                    collectRenames(entry.toFile(), regex, replacement, true, fileTypes, operations);
+                }
+                continue;
+            }
+            if (!matchesFileType(entry.name, fileTypes)) {
+                continue;
+            }
+            String newName = regex.matcher(entry.name).replaceAll(replacement);
+            if (newName.isEmpty() || newName.equals(entry.name)) {
+                continue;
+            }
+            JSONObject operation = new JSONObject();
+            operation.put("type", "rename");
+            operation.put("sourcePath", entry.path);
+            operation.put("newName", newName);
+            operations.put(operation);
+        }
+    }
+
+    private static boolean matchesFileType(String name, String[] fileTypes) {
+        if (fileTypes == null || fileTypes.length == 0) {
+            return true;
+        }
+        String ext = FileUtils.getFileExtension(name);
+        for (String type : fileTypes) {
+            if (type.equalsIgnoreCase(ext) || type.equalsIgnoreCase("." + ext)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ============ 辅助方法 ============
+
+    private BatchJob submit(String batchId, JSONArray operations, boolean overwrite,
+                            boolean continueOnError, int concurrency,
+                            ResultListener onFinished) throws Exception {
+        awaitRestored();
+        if (batchId == null) {
+            batchId = UUID.randomUUID().toString();
+        } else if (!BATCH_ID_PATTERN.matcher(batchId).matches()) {
+            throw new Exception("Invalid batchId: " + batchId);
+        }
+        if (active.containsKey(batchId)) {
+            throw new Exception("Batch already exists: " + batchId);
+        }
+
+        List<BatchJob.Item> items = parseOperations(operations);
+        BatchJob job = new BatchJob(batchId, items, overwrite, continueOnError,
+                                    Math.max(1, Math.min(MAX_CONCURRENCY, concurrency)),
+                                    System.currentTimeMillis());
+        job.resultListener = onFinished;
+        job.buildLanes();
+        if (active.putIfAbsent(batchId, job) != null) {
+            throw new Exception("Batch already exists: " + batchId);
+        }
+        try {
+            store.create(job);
+        } catch (Exception e) {
+            active.remove(batchId, job);
+            throw e;
+        }
+
+        synchronized (job) {
+            job.runningSince = System.currentTimeMillis();
+            startWorkers(job);
+        }
+        return job;
+    }
+
+    private void awaitRestored() {
+        try {
+            restored.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<BatchJob.Item> parseOperations(JSONArray operations) throws Exception {
+        if (operations == null || operations.length() == 0) {
+            throw new Exception("operations is required");
+        }
+        List<BatchJob.Item> items = new ArrayList<>(operations.length());
+        for (int i = 0; i < operations.length(); i++) {
+            JSONObject operation = operations.getJSONObject(i);
+            String type = operation.optString("type", "");
+            String sourcePath = operation.isNull("sourcePath") ? null : operation.optString("sourcePath");
+            String destinationPath = operation.isNull("destinationPath") ? null : operation.optString("destinationPath");
+            String newName = operation.isNull("newName") ? null : operation.optString("newName");
+
+            if (sourcePath == null || sourcePath.isEmpty()) {
+                throw new Exception("Operation #" + (i + 1) + ": sourcePath is required");
+            }
+            switch (type) {
+                case "copy":
+                case "move":
+                    if (destinationPath == null || destinationPath.isEmpty()) {
+                        throw new Exception("Operation #" + (i + 1) + ": destinationPath is required for " + type);
+                    }
+                    break;
+                case "rename":
+                    if (newName == null || newName.isEmpty() || newName.contains("/")) {
+                        throw new Exception("Operation #" + (i + 1) + ": invalid newName for rename");
+                    }
+                    break;
+                case "delete":
+                    break;
+                default:
+                    throw new Exception("Operation #" + (i + 1) + ": unknown type " + type);
+            }
+            items.add(new BatchJob.Item(i, operation.optString("id", String.valueOf(i)), type,
+                                        sourcePath, destinationPath, newName));
+        }
+        return items;
+    }
+
+    /**
+     * 为任务启动工作线程（调用方持有 job 锁）
+     */
+    private void startWorkers(BatchJob job) {
+        int count = Math.min(job.concurrency, job.lanes.size()) - job.activeWorkers;
+        for (int i = 0; i < count; i++) {
+            job.activeWorkers++;
+            workers.execute(() -> drain(job));
+        }
+    }
+
+    /**
+     * 工作线程：依次领取通道并按顺序执行其中的操作，任务暂停或取消时把未完成的通道放回
+     */
+    private void drain(BatchJob job) {
+        boolean finishJob = false;
+        try {
+            while (true) {
+                BatchJob.Lane lane;
+                synchronized (job) {
+                    lane = BatchJob.RUNNING.equals(job.status) ? job.lanes.poll() : null;
+                    if (lane == null) {
+                        break;
+                    }
+                }
+
+                while (lane.hasNext()) {
+                    synchronized (job) {
+                        if (!BatchJob.RUNNING.equals(job.status)) {
+                            job.lanes.addFirst(lane);
+                            break;
+                        }
+                    }
+                    BatchJob.Item item = lane.items.get(lane.next++);
+                    execute(job, item);
+                }
+            }
+        } finally {
+            synchronized (job) {
+                job.activeWorkers--;
+                if (BatchJob.RUNNING.equals(job.status) && !job.lanes.isEmpty()) {
+                    // 暂停后很快恢复时，已退出的线程由新线程补上
+                    startWorkers(job);
+                } else if (job.activeWorkers == 0) {
+                    if (BatchJob.RUNNING.equals(job.status) && job.lanes.isEmpty()) {
+                        job.runningMillis = job.getElapsedMillis();
+                        job.status = BatchJob.COMPLETED;
+                    }
+                    finishJob = job.isFinished();
+                }
+            }
+        }
+
+        if (finishJob) {
+            finish(job);
+        } else {
+            notifyProgress(job, false);
+        }
+    }
+
+    private void execute(BatchJob job, BatchJob.Item item) {
+        synchronized (job) {
+            job.currentFile = item.sourcePath;
+            job.currentOperation = item.type;
+        }
+        store.recordStarted(job, item);
+
+        long startTime = System.currentTimeMillis();
+        String status;
+        String error = null;
+        long bytes = 0;
+        String targetPath = item.getTargetPath();
+        String[] paths = targetPath != null ? new String[]{item.sourcePath, targetPath}
+                                            : new String[]{item.sourcePath};
+        try {
+            bytes = dispatcher.runWrite(paths, () -> perform(job, item));
+            status = BatchJob.SUCCESS;
+        } catch (InterruptedException e) {
+            // 引擎关闭：不记录结果，下次启动时作为中断的操作恢复
+            Thread.currentThread().interrupt();
+            return;
+        } catch (SkipException e) {
+            status = BatchJob.SKIPPED;
+            error = e.getMessage();
+        } catch (Exception e) {
+            status = BatchJob.FAILED;
+            error = e.getMessage();
+            Log.w(TAG, "Batch " + job.batchId + " " + item.type + " failed: " + item.sourcePath + " - " + error);
+        }
+
+        boolean emit;
+        synchronized (job) {
+            item.status = status;
+            item.error = error;
+            item.bytes = bytes;
+            item.duration = System.currentTimeMillis() - startTime;
+            item.interrupted = false;
+            job.bytesProcessed += bytes;
+            if (BatchJob.SUCCESS.equals(status)) {
+                job.successful++;
+            } else if (BatchJob.SKIPPED.equals(status)) {
+                job.skipped++;
+            } else {
+                job.failed++;
+                if (!job.continueOnError && BatchJob.RUNNING.equals(job.status)) {
+                    // 遇错停止：剩余操作在结束时标记为跳过
+                    job.runningMillis = job.getElapsedMillis();
+                    job.status = BatchJob.CANCELLED;
+                    job.stoppedOnError = true;
+                }
+            }
+
+            long now = System.currentTimeMillis();
+            emit = now - job.lastProgressAt >= PROGRESS_INTERVAL_MS;
+            if (emit) {
+                job.lastProgressAt = now;
+            }
+        }
+        store.recordFinished(job, item);
+        if (emit) {
+            notifyProgress(job, false);
+        }
+    }
+
+    /**
+     * 执行单个操作
+     * @return 处理的字节数
+     */
+    private long perform(BatchJob job, BatchJob.Item item) throws Exception {
+        File source = new File(item.sourcePath);
+        String targetPath = item.getTargetPath();
+        File target = targetPath != null ? new File(targetPath) : null;
+
+        if (!source.exists()) {
+            // 进程退出前已完成的操作
+            if (item.interrupted && ("delete".equals(item.type) || (target != null && target.exists()))) {
+                return 0;
+            }
+            throw new Exception("Source does not exist: " + item.sourcePath);
+        }
+        // 上次中断的复制可能留下不完整的目标，允许覆盖
+        boolean overwrite = job.overwrite || (item.interrupted && "copy".equals(item.type));
+        if (target != null && target.exists() && !overwrite) {
+            throw new SkipException("Destination already exists: " + targetPath);
+        }
+
+        long size = source.isFile() ? source.length() : 0;
+        switch (item.type) {
+            case "copy": {
+                JSObject result = fileOps.copyFile(item.sourcePath, targetPath, true, null, 1, null);
+                int errorCount = result.optInt("errorCount", 0);
+                if (errorCount > 0) {
+                    throw new Exception("Failed to copy " + errorCount + " entries");
+                }
+                return result.optLong("bytesCopied", size);
+            }
+            case "move":
+                fileOps.moveFile(item.sourcePath, targetPath);
+                return size;
+            case "rename":
+                if (target.exists()) {
+                    if (target.isDirectory()) {
+                        throw new Exception("A directory with that name already exists: " + targetPath);
+                    }
+                    fileOps.deleteFile(targetPath);
+                }
+                fileOps.renameFile(item.sourcePath, item.newName);
+                return size;
+            case "delete":
+            default:
+                if (source.isDirectory()) {
+                    dirOps.deleteDirectory(item.sourcePath);
+                } else {
+                    fileOps.deleteFile(item.sourcePath);
+                }
+                return size;
+        }
+    }
+
+    /**
+     * 结束任务：未执行的操作标记为跳过，删除持久化状态并推送完成事件
+     */
+    private void finish(BatchJob job) {
+        synchronized (job) {
+            if (job.finishedAt > 0) {
+                return;
+            }
+            String reason = job.stoppedOnError ? "Stopped after error" : "Cancelled";
+            if (job.stoppedOnError) {
+                job.status = BatchJob.COMPLETED;
+            }
+            for (BatchJob.Item item : job.items) {
+                if (!item.isDone()) {
+                    item.status = BatchJob.SKIPPED;
+                    item.error = reason;
+                    job.skipped++;
+                }
+            }
+            job.lanes.clear();
+            job.currentFile = null;
+            job.finishedAt = System.currentTimeMillis();
+        }
+        store.remove(job);
+        active.remove(job.batchId, job);
+        synchronized (finished) {
+            finished.put(job.batchId, job);
+        }
+        notifyProgress(job, true);
+        Log.d(TAG, "Batch " + job.batchId + " " + job.status + ": " + job.successful + " ok, "
+                   + job.failed + " failed, " + job.skipped + " skipped");
+
+        if (job.resultListener != null) {
+            JSObject result;
+            synchronized (job) {
+                result = job.toResult();
+            }
+            job.resultListener.onFinished(result);
+        }
+    }
+
+    private void notifyProgress(BatchJob job, boolean done) {
+        ProgressListener current = listener;
+        if (current == null) {
+            return;
+        }
+        JSObject progress;
+        synchronized (job) {
+            progress = job.toProgress();
+        }
+        current.onProgress(progress, done);
+    }
+
+    /**
+     * 操作被跳过（不计为失败）
+     */
+    private static class SkipException extends Exception {
+        SkipException(String message) {
+            super(message);
+        }
+    }
+}
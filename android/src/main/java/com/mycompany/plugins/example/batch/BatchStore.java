@@ -0,0 +1,238 @@
+package com.mycompany.plugins.example.batch;
+
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量操作持久化
+ * 每个任务一个 JSON 头文件（操作列表和选项）和一个只追加的日志（每个操作开始和结束各一行），
+ * 进程被杀后据此恢复未完成的操作
+ */
+class BatchStore {
+    private static final String TAG = "BatchStore";
+    private static final String HEADER_SUFFIX = ".json";
+    private static final String JOURNAL_SUFFIX = ".log";
+
+    private final File directory;
+
+    BatchStore(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * 写入任务头并打开日志
+     */
+    void create(BatchJob job) throws Exception {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new Exception("Failed to create batch state directory");
+        }
+
+        JSONObject header = new JSONObject();
+        JSONArray operations = new JSONArray();
+        for (BatchJob.Item item : job.items) {
+            JSONObject operation = new JSONObject();
+            operation.put("id", item.id);
+            operation.put("type", item.type);
+            operation.put("sourcePath", item.sourcePath);
+            operation.put("destinationPath", item.destinationPath);
+            operation.put("newName", item.newName);
+            operations.put(operation);
+        }
+        header.put("batchId", job.batchId);
+        header.put("overwrite", job.overwrite);
+        header.put("continueOnError", job.continueOnError);
+        header.put("concurrency", job.concurrency);
+        header.put("createdAt", job.createdAt);
+        header.put("operations", operations);
+
+        File headerFile = headerFile(job.batchId);
+        File tempFile = new File(headerFile.getPath() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8)) {
+            writer.write(header.toString());
+        }
+        if (!tempFile.renameTo(headerFile)) {
+            tempFile.delete();
+            throw new IOException("Failed to save batch state: " + headerFile.getPath());
+        }
+        openJournal(job);
+    }
+
+    /**
+     * 记录操作开始
+     */
+    void recordStarted(BatchJob job, BatchJob.Item item) {
+        append(job, "S\t" + item.index);
+    }
+
+    /**
+     * 记录操作结果
+     */
+    void recordFinished(BatchJob job, BatchJob.Item item) {
+        String error = item.error != null ? item.error.replace('\t', ' ').replace('\n', ' ') : "";
+        append(job, "D\t" + item.index + "\t" + item.status + "\t" + item.duration + "\t" + item.bytes
+                    + "\t" + error);
+    }
+
+    /**
+     * 任务结束后删除状态文件
+     */
+    void remove(BatchJob job) {
+        closeJournal(job);
+        headerFile(job.batchId).delete();
+        journalFile(job.batchId).delete();
+    }
+
+    void closeJournal(BatchJob job) {
+        synchronized (job) {
+            if (job.journal != null) {
+                try {
+                    job.journal.close();
+                } catch (IOException e) {
+                    // 忽略
+                }
+                job.journal = null;
+            }
+        }
+    }
+
+    /**
+     * 读取上次未完成的任务（已完成的操作按日志恢复结果）
+     */
+    List<BatchJob> loadPending() {
+        List<BatchJob> jobs = new ArrayList<>();
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return jobs;
+        }
+        for (File file : files) {
+            if (!file.getName().endsWith(HEADER_SUFFIX)) {
+                continue;
+            }
+            try {
+                BatchJob job = load(file);
+                openJournal(job);
+                jobs.add(job);
+            } catch (Exception e) {
+                Log.w(TAG, "Dropping unreadable batch state " + file.getName() + ": " + e.getMessage());
+                String batchId = file.getName().substring(0, file.getName().length() - HEADER_SUFFIX.length());
+                file.delete();
+                journalFile(batchId).delete();
+            }
+        }
+        return jobs;
+    }
+
+    // ============ 辅助方法 ============
+
+    private BatchJob load(File headerFile) throws Exception {
+        StringBuilder content = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new FileReader(headerFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                content.append(line);
+            }
+        }
+
+        JSONObject header = new JSONObject(content.toString());
+        JSONArray operations = header.getJSONArray("operations");
+        List<BatchJob.Item> items = new ArrayList<>(operations.length());
+        for (int i = 0; i < operations.length(); i++) {
+            JSONObject operation = operations.getJSONObject(i);
+            items.add(new BatchJob.Item(i, operation.optString("id", String.valueOf(i)),
+                                        operation.getString("type"), operation.getString("sourcePath"),
+                                        optString(operation, "destinationPath"), optString(operation, "newName")));
+        }
+        BatchJob job = new BatchJob(header.getString("batchId"), items, header.optBoolean("overwrite"),
+                                    header.optBoolean("continueOnError", true), header.optInt("concurrency", 1),
+                                    header.optLong("createdAt"));
+        replayJournal(job);
+        return job;
+    }
+
+    private void replayJournal(BatchJob job) {
+        File journalFile = journalFile(job.batchId);
+        if (!journalFile.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(journalFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\t", -1);
+                try {
+                    BatchJob.Item item = job.items.get(Integer.parseInt(parts[1]));
+                    if ("S".equals(parts[0])) {
+                        item.interrupted = true;
+                    } else if ("D".equals(parts[0]) && parts.length == 6) {
+                        item.interrupted = false;
+                        item.status = parts[2];
+                        item.duration = Long.parseLong(parts[3]);
+                        item.bytes = Long.parseLong(parts[4]);
+                        item.error = parts[5].isEmpty() ? null : parts[5];
+                        job.bytesProcessed += item.bytes;
+                        if (BatchJob.SUCCESS.equals(item.status)) {
+                            job.successful++;
+                        } else if (BatchJob.FAILED.equals(item.status)) {
+                            job.failed++;
+                        } else {
+                            job.skipped++;
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    // 进程退出时写了一半的行
+                    Log.w(TAG, "Ignoring malformed journal line in " + journalFile.getName());
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to read batch journal: " + e.getMessage());
+        }
+    }
+
+    private void openJournal(BatchJob job) throws IOException {
+        synchronized (job) {
+            job.journal = new BufferedWriter(new FileWriter(journalFile(job.batchId), true));
+        }
+    }
+
+    private void append(BatchJob job, String line) {
+        synchronized (job) {
+            if (job.journal == null) {
+                return;
+            }
+            try {
+                job.journal.write(line);
+                job.journal.write('\n');
+                job.journal.flush();
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to write batch journal: " + e.getMessage());
+            }
+        }
+    }
+
+    private File headerFile(String batchId) {
+        return new File(directory, batchId + HEADER_SUFFIX);
+    }
+
+    private File journalFile(String batchId) {
+        return new File(directory, batchId + JOURNAL_SUFFIX);
+    }
+
+    private static String optString(JSONObject object, String key) {
+        return object.isNull(key) ? null : object.optString(key, null);
+    }
+}
@@ -0,0 +1,428 @@
+package com.mycompany.plugins.example.core;
+
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.OsConstants;
+import android.system.StructStat;
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 原子写入
+ * 内容先写入同目录的临时文件，fdatasync 后重命名覆盖目标文件，写入中途崩溃时目标文件保持旧内容。
+ * always 策略重命名后立即同步目录；batch 策略把目录同步延迟到后台按批执行（同一目录只同步一次），
+ * 崩溃时最多丢失最近的重命名，不会留下空文件或半写的文件。
+ * batch 只合并目录同步：每个文件的数据仍在重命名前各自 fdatasync，单次写入的数据同步开销不变
+ * （见 androidTest 中的 AtomicFileWriterBenchmark）。
+ * 目标为符号链接时替换链接指向的文件并保留原文件的权限位；目标有多个硬链接时重命名会使其脱离其他链接，
+ * 这时退回为把已落盘的临时文件内容原地写回（不再是原子的），保持与原地写入相同的文件身份
+ */
+public class AtomicFileWriter {
+    private static final String TAG = "AtomicFileWriter";
+
+    // 同步策略
+    public static final String SYNC_ALWAYS = "always";
+    public static final String SYNC_BATCH = "batch";
+    public static final String SYNC_NONE = "none";
+
+    // 批量同步配置
+    private static final long BATCH_INTERVAL_MS = 500;
+    private static final int BATCH_MAX_FILES = 64;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 流式写入内容
+     */
+    public interface Content {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * 按原内容生成新内容，返回 false 时放弃写入（内容未变化）
+     */
+    public interface Transform {
+        boolean writeTo(OutputStream out) throws IOException;
+    }
+
+    // 已重命名但目录项尚未同步的文件
+    private final Set<File> pendingFiles = new LinkedHashSet<>();
+    private final ScheduledExecutorService syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "AFM-atomic-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public AtomicFileWriter() {
+        syncer.scheduleWithFixedDelay(this::syncPending, BATCH_INTERVAL_MS, BATCH_INTERVAL_MS,
+                                      TimeUnit.MILLISECONDS);
+    }
+
+    public static boolean isValidSyncPolicy(String syncPolicy) {
+        return SYNC_ALWAYS.equals(syncPolicy) || SYNC_BATCH.equals(syncPolicy) || SYNC_NONE.equals(syncPolicy);
+    }
+
+    /**
+     * 原子写入字节数组
+     */
+    public void write(File file, byte[] data, String syncPolicy) throws IOException {
+        write(file, out -> out.write(data), syncPolicy);
+    }
+
+    /**
+     * 原子写入流式内容（写入失败时删除临时文件，目标文件不变）
+     */
+    public void write(File file, Content content, String syncPolicy) throws IOException {
+        rewrite(file, out -> {
+            content.writeTo(out);
+            return true;
+        }, syncPolicy);
+    }
+
+    /**
+     * 原子改写文件，transform 返回 false 时删除临时文件，目标文件保持不变
+     * @return 是否替换了目标文件
+     */
+    public boolean rewrite(File file, Transform transform, String syncPolicy) throws IOException {
+        File target = file.getCanonicalFile();
+        File temp = createTempFile(target);
+        boolean completed = false;
+        try {
+            try (FileOutputStream fos = new FileOutputStream(temp)) {
+                OutputStream out = new BufferedOutputStream(fos, BUFFER_SIZE);
+                if (!transform.writeTo(out)) {
+                    return false;
+                }
+                out.flush();
+                // 数据必须在重命名前落盘，否则崩溃后目标文件可能为空或只写了一部分
+                if (!SYNC_NONE.equals(syncPolicy)) {
+                    fos.getChannel().force(false);
+                }
+            }
+            replace(temp, target, stat(target), syncPolicy);
+            completed = true;
+        } finally {
+            if (!completed) {
+                temp.delete();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 在目标文件同目录创建临时文件，由调用方写入后通过 commit 提交
+     * 目标为符号链接时临时文件创建在链接指向的文件旁边，保证重命名不跨文件系统
+     */
+    public File createTempFile(File file) throws IOException {
+        File target = file.getCanonicalFile();
+        return File.createTempFile("." + target.getName() + ".", ".tmp", target.getParentFile());
+    }
+
+    /**
+     * 提交调用方写好的临时文件：按同步策略落盘后重命名覆盖目标文件，失败时临时文件保留给调用方清理
+     */
+    public void commit(File temp, File file, String syncPolicy) throws IOException {
+        syncData(temp, syncPolicy);
+        File target = file.getCanonicalFile();
+        replace(temp, target, stat(target), syncPolicy);
+    }
+
+    /**
+     * 开始多文件提交
+     */
+    public Transaction beginTransaction(String syncPolicy) {
+        return new Transaction(syncPolicy);
+    }
+
+    /**
+     * 多文件提交
+     * 逐个提交临时文件，原文件先硬链接为备份（文件系统不支持硬链接时改为重命名，有多个硬链接时复制）；
+     * 任一文件失败时调用 rollback 按相反顺序还原已提交的文件，全部成功后调用 finish 删除备份。
+     * 调用方需保证提交期间没有其他写操作修改这些文件
+     */
+    public final class Transaction {
+        private final String syncPolicy;
+        private final String token = UUID.randomUUID().toString().substring(0, 8);
+        private final List<Entry> entries = new ArrayList<>();
+
+        private Transaction(String syncPolicy) {
+            this.syncPolicy = syncPolicy;
+        }
+
+        /**
+         * 用临时文件替换（或创建）目标文件，失败时该文件保持原状，临时文件保留给调用方清理
+         */
+        public void replace(File temp, File file) throws IOException {
+            syncData(temp, syncPolicy);
+            File target = file.getCanonicalFile();
+            StructStat stat = stat(target);
+            Entry entry = new Entry(target);
+            if (stat != null) {
+                entry.backup = backupFile(target);
+                if (stat.st_nlink > 1) {
+                    // 目标会被原地写回，和它共享 inode 的硬链接备份也会被改写，只能复制一份
+                    FileCopier.copyFile(target, entry.backup, null);
+                    entry.inPlace = true;
+                } else if (!link(target, entry.backup) && !target.renameTo(entry.backup)) {
+                    throw new IOException("Failed to back up file: " + target.getPath());
+                }
+            }
+            try {
+                AtomicFileWriter.this.replace(temp, target, stat, syncPolicy);
+            } catch (IOException e) {
+                if (entry.backup != null && !restore(entry)) {
+                    Log.w(TAG, "Failed to restore " + target.getPath() + " from " + entry.backup.getPath());
+                }
+                throw e;
+            }
+            entries.add(entry);
+        }
+
+        /**
+         * 删除文件（移为备份，finish 时才真正删除）
+         */
+        public void delete(File file) throws IOException {
+            Entry entry = new Entry(file.getAbsoluteFile());
+            entry.backup = backupFile(entry.target);
+            if (!entry.target.renameTo(entry.backup)) {
+                throw new IOException("Failed to delete file: " + entry.target.getPath());
+            }
+            afterRename(entry.target, syncPolicy);
+            entries.add(entry);
+        }
+
+        /**
+         * 按相反顺序还原已提交的文件：有备份的恢复原内容，新建的文件删除
+         * @return 未能还原的文件数（备份保留在原文件旁边）
+         */
+        public int rollback() {
+            int unrestored = 0;
+            for (int i = entries.size() - 1; i >= 0; i--) {
+                Entry entry = entries.get(i);
+                boolean restored = entry.backup != null ? restore(entry)
+                                                        : entry.target.delete() || !entry.target.exists();
+                if (!restored) {
+                    unrestored++;
+                    Log.w(TAG, "Failed to restore " + entry.target.getPath());
+                }
+            }
+            entries.clear();
+            return unrestored;
+        }
+
+        /**
+         * 全部提交成功，删除备份
+         */
+        public void finish() {
+            for (Entry entry : entries) {
+                if (entry.backup != null) {
+                    entry.backup.delete();
+                }
+            }
+            entries.clear();
+        }
+
+        private File backupFile(File target) {
+            return new File(target.getParentFile(), "." + target.getName() + "." + token + ".bak");
+        }
+
+        private boolean restore(Entry entry) {
+            if (entry.inPlace) {
+                try {
+                    overwrite(entry.backup, entry.target, syncPolicy);
+                    return true;
+                } catch (IOException e) {
+                    return false;
+                }
+            }
+            return entry.backup.renameTo(entry.target);
+        }
+    }
+
+    /**
+     * 多文件提交中的一个文件
+     */
+    private static final class Entry {
+        final File target;
+        // 原文件备份，新建的文件为 null
+        File backup;
+        // 目标有多个硬链接，已原地写回，备份为副本
+        boolean inPlace;
+
+        Entry(File target) {
+            this.target = target;
+        }
+    }
+
+    /**
+     * 提交前让临时文件数据落盘
+     */
+    private static void syncData(File temp, String syncPolicy) throws IOException {
+        if (SYNC_NONE.equals(syncPolicy)) {
+            return;
+        }
+        try {
+            FileDescriptor fd = Os.open(temp.getPath(), OsConstants.O_RDONLY, 0);
+            try {
+                Os.fdatasync(fd);
+            } finally {
+                Os.close(fd);
+            }
+        } catch (ErrnoException e) {
+            throw new IOException("Failed to sync file: " + temp.getPath() + " (" + e.getMessage() + ")");
+        }
+    }
+
+    /**
+     * 用临时文件替换已解析符号链接的目标文件
+     * @param stat 目标文件原来的属性，不存在时为 null
+     */
+    private void replace(File temp, File file, StructStat stat, String syncPolicy) throws IOException {
+        if (stat != null && stat.st_nlink > 1) {
+            overwrite(temp, file, syncPolicy);
+            return;
+        }
+        if (stat != null) {
+            // 临时文件创建时为 0600，重命名前改为原文件的权限
+            try {
+                Os.chmod(temp.getPath(), stat.st_mode & 07777);
+            } catch (ErrnoException e) {
+                throw new IOException("Failed to copy file mode: " + file.getPath() + " (" + e.getMessage() + ")");
+            }
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Failed to replace file: " + file.getPath());
+        }
+        afterRename(file, syncPolicy);
+    }
+
+    private void afterRename(File file, String syncPolicy) {
+        if (SYNC_ALWAYS.equals(syncPolicy)) {
+            syncDirectory(file.getAbsoluteFile().getParentFile());
+        } else if (SYNC_BATCH.equals(syncPolicy)) {
+            syncLater(file);
+        }
+    }
+
+    /**
+     * 把临时文件内容原地写回有多个硬链接的目标文件，成功后删除临时文件
+     * 临时文件已经落盘，写回中途崩溃时目标文件可能不完整
+     */
+    private static void overwrite(File temp, File file, String syncPolicy) throws IOException {
+        try (FileInputStream fis = new FileInputStream(temp);
+             FileOutputStream fos = new FileOutputStream(file);
+             FileChannel in = fis.getChannel();
+             FileChannel out = fos.getChannel()) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                long transferred = in.transferTo(position, size - position, out);
+                if (transferred <= 0) {
+                    throw new IOException("Failed to overwrite file: " + file.getPath());
+                }
+                position += transferred;
+            }
+            if (!SYNC_NONE.equals(syncPolicy)) {
+                out.force(false);
+            }
+        }
+        temp.delete();
+    }
+
+    private static boolean link(File file, File link) {
+        try {
+            Os.link(file.getPath(), link.getPath());
+            return true;
+        } catch (ErrnoException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return 文件不存在或无法读取属性时返回 null
+     */
+    private static StructStat stat(File file) {
+        try {
+            return Os.stat(file.getPath());
+        } catch (ErrnoException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 把已重命名的文件加入批量同步队列（文件数据必须已经落盘，这里只同步目录项）
+     */
+    public void syncLater(File file) {
+        boolean flush;
+        synchronized (pendingFiles) {
+            pendingFiles.add(file);
+            flush = pendingFiles.size() >= BATCH_MAX_FILES;
+        }
+        if (flush && !syncer.isShutdown()) {
+            syncer.execute(this::syncPending);
+        }
+    }
+
+    /**
+     * 立即同步所有延迟的写入
+     * @return 同步的文件数
+     */
+    public int syncPending() {
+        List<File> files;
+        synchronized (pendingFiles) {
+            if (pendingFiles.isEmpty()) {
+                return 0;
+            }
+            files = new ArrayList<>(pendingFiles);
+            pendingFiles.clear();
+        }
+
+        Set<File> directories = new LinkedHashSet<>();
+        for (File file : files) {
+            directories.add(file.getAbsoluteFile().getParentFile());
+        }
+        for (File directory : directories) {
+            syncDirectory(directory);
+        }
+        return files.size();
+    }
+
+    public void shutdown() {
+        syncer.shutdownNow();
+        syncPending();
+    }
+
+    /**
+     * 同步目录项，确保重命名落盘（部分文件系统不支持同步目录，忽略失败）
+     */
+    private static void syncDirectory(File directory) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            FileDescriptor fd = Os.open(directory.getPath(), OsConstants.O_RDONLY, 0);
+            try {
+                Os.fsync(fd);
+            } finally {
+                Os.close(fd);
+            }
+        } catch (ErrnoException e) {
+            // 忽略
+        }
+    }
+}
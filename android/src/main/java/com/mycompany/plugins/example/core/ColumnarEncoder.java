@@ -0,0 +1,94 @@
+package com.mycompany.plugins.example.core;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 列式文件列表编码
+ * 把文件信息对象数组编码为并列数组（names、sizes、mtimes、flags），父目录只写一次，
+ * 避免每个条目重复键名和完整路径，大列表经桥接传输的数据量和序列化时间明显减少
+ */
+public final class ColumnarEncoder {
+    public static final String FORMAT = "columnar";
+
+    // flags 位定义
+    public static final int FLAG_DIRECTORY = 1;
+    public static final int FLAG_HIDDEN = 1 << 1;
+    public static final int FLAG_SYMLINK = 1 << 2;
+
+    private ColumnarEncoder() {
+    }
+
+    /**
+     * 编码条目列表的 [start, end) 区间
+     * 所有条目父目录相同时输出 parent，否则输出目录表 directories 和每个条目的目录下标 parents
+     */
+    public static JSObject encode(List<DirectoryScanner.Entry> entries, int start, int end) {
+        JSArray names = new JSArray();
+        JSArray sizes = new JSArray();
+        JSArray mtimes = new JSArray();
+        JSArray flags = new JSArray();
+        JSArray parents = new JSArray();
+        JSArray directories = new JSArray();
+        Map<String, Integer> directoryIndex = new HashMap<>();
+
+        for (int i = start; i < end; i++) {
+            DirectoryScanner.Entry entry = entries.get(i);
+            String parent = getParent(entry);
+            Integer index = directoryIndex.get(parent);
+            if (index == null) {
+                index = directoryIndex.size();
+                directoryIndex.put(parent, index);
+                directories.put(parent);
+            }
+            parents.put(index);
+            names.put(entry.name);
+            sizes.put(entry.size);
+            mtimes.put(entry.lastModified);
+            flags.put(getFlags(entry));
+        }
+
+        JSObject columns = new JSObject();
+        if (directoryIndex.size() == 1) {
+            columns.put("parent", directories.optString(0));
+        } else {
+            columns.put("directories", directories);
+            columns.put("parents", parents);
+        }
+        columns.put("names", names);
+        columns.put("sizes", sizes);
+        columns.put("mtimes", mtimes);
+        columns.put("flags", flags);
+        return columns;
+    }
+
+    public static int getFlags(DirectoryScanner.Entry entry) {
+        int flags = 0;
+        if (entry.isDirectory) {
+            flags |= FLAG_DIRECTORY;
+        }
+        if (entry.isHidden()) {
+            flags |= FLAG_HIDDEN;
+        }
+        if (entry.isSymbolicLink) {
+            flags |= FLAG_SYMLINK;
+        }
+        return flags;
+    }
+
+    private static String getParent(DirectoryScanner.Entry entry) {
+        // 扫描得到的路径都是 父目录 + "/" + 名称，避免逐个创建 File
+        int parentLength = entry.path.length() - entry.name.length() - 1;
+        if (parentLength > 0 && entry.path.endsWith(entry.name)
+            && entry.path.charAt(parentLength) == File.separatorChar) {
+            return entry.path.substring(0, parentLength);
+        }
+        String parent = new File(entry.path).getParent();
+        return parent != null ? parent : "";
+    }
+}
@@ -0,0 +1,281 @@
+package com.mycompany.plugins.example.core;
+
+import android.util.Log;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 目录复制引擎
+ * 基于 ForkJoinPool 的工作窃取调度：目录任务扫描一层并一次性创建子目录，小文件各自成为任务并发复制，
+ * 大文件按区间拆分为多个任务。单个条目失败只记录错误，不中断整个复制
+ */
+public class DirectoryCopier {
+    private static final String TAG = "DirectoryCopier";
+
+    // 默认配置
+    public static final int DEFAULT_PARALLELISM = 4;
+    private static final long LARGE_FILE_THRESHOLD = 64 * 1024 * 1024; // 64MB
+    private static final long RANGE_SIZE = 32 * 1024 * 1024; // 32MB
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final FileCopier.Operation operation;
+    private final AtomicInteger errorCount = new AtomicInteger();
+    private final ConcurrentLinkedQueue<JSObject> errors = new ConcurrentLinkedQueue<>();
+
+    public DirectoryCopier(FileCopier.Operation operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * 复制目录树
+     * @return 复制统计和错误列表（最多 100 条）
+     */
+    public JSObject copy(File source, File dest, int parallelism) throws Exception {
+        if (parallelism <= 0) {
+            parallelism = DEFAULT_PARALLELISM;
+        }
+
+        // 预先统计总量用于进度计算
+        long[] totals = new long[2];
+        countTree(source, totals);
+        operation.setTotals(totals[0], (int) totals[1]);
+
+        if (!dest.isDirectory() && !dest.mkdirs()) {
+            throw new Exception("Failed to create destination directory: " + dest.getPath());
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new DirectoryTask(source, dest));
+        } finally {
+            pool.shutdown();
+        }
+
+        if (operation.isCancelled()) {
+            throw new Exception("Operation cancelled: " + operation.getId());
+        }
+
+        Log.d(TAG, "Copied " + operation.getFilesCopied() + " files with " + errorCount.get() + " errors");
+
+        JSArray errorsArray = new JSArray();
+        for (JSObject error : errors) {
+            errorsArray.put(error);
+        }
+
+        JSObject result = new JSObject();
+        result.put("filesCopied", operation.getFilesCopied());
+        result.put("bytesCopied", operation.getBytesCopied());
+        result.put("errorCount", errorCount.get());
+        result.put("errors", errorsArray);
+        return result;
+    }
+
+    public int getErrorCount() {
+        return errorCount.get();
+    }
+
+    private void countTree(File directory, long[] totals) {
+        List<DirectoryScanner.Entry> entries = DirectoryScanner.scan(directory);
+        if (entries == null) {
+            return;
+        }
+        for (DirectoryScanner.Entry entry : entries) {
+            if (entry.isDirectory) {
+                if (!entry.isSymbolicLink) {
+                    countTree(entry.toFile(), totals);
+                }
+            } else {
+                totals[0] += entry.size;
+                totals[1]++;
+            }
+        }
+    }
+
+    private void recordError(String path, String message) {
+        if (errorCount.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+            JSObject error = new JSObject();
+            error.put("path", path);
+            error.put("error", message);
+            errors.add(error);
+        }
+        Log.w(TAG, "Failed to copy " + path + ": " + message);
+    }
+
+    /**
+     * 目录任务：扫描一层目录，创建子目录后为子目录和文件分别创建子任务
+     */
+    private class DirectoryTask extends RecursiveAction {
+        private final File source;
+        private final File dest;
+
+        DirectoryTask(File source, File dest) {
+            this.source = source;
+            this.dest = dest;
+        }
+
+        @Override
+        protected void compute() {
+            if (operation.isCancelled()) {
+                return;
+            }
+
+            List<DirectoryScanner.Entry> entries = DirectoryScanner.scan(source);
+            if (entries == null) {
+                recordError(source.getPath(), "Cannot read directory");
+                return;
+            }
+
+            List<RecursiveAction> subtasks = new ArrayList<>();
+            for (DirectoryScanner.Entry entry : entries) {
+                File target = new File(dest, entry.name);
+                if (entry.isDirectory) {
+                    // 不跟随目录符号链接，避免循环
+                    if (entry.isSymbolicLink) {
+                        recordError(entry.path, "Skipped symbolic link to directory");
+                        continue;
+                    }
+                    if (!target.isDirectory() && !target.mkdir()) {
+                        recordError(entry.path, "Failed to create directory: " + target.getPath());
+                        continue;
+                    }
+                    subtasks.add(new DirectoryTask(entry.toFile(), target));
+                } else if (entry.size >= LARGE_FILE_THRESHOLD) {
+                    subtasks.add(new LargeFileTask(entry, target));
+                } else {
+                    subtasks.add(new FileTask(entry, target));
+                }
+            }
+
+            if (!subtasks.isEmpty()) {
+                invokeAll(subtasks);
+            }
+        }
+    }
+
+    /**
+     * 文件任务：完整复制一个小文件
+     */
+    private class FileTask extends RecursiveAction {
+        private final DirectoryScanner.Entry entry;
+        private final File target;
+
+        FileTask(DirectoryScanner.Entry entry, File target) {
+            this.entry = entry;
+            this.target = target;
+        }
+
+        @Override
+        protected void compute() {
+            if (operation.isCancelled()) {
+                return;
+            }
+            try {
+                FileCopier.copyFile(entry.toFile(), target, operation);
+                operation.fileCompleted();
+            } catch (IOException e) {
+                if (!operation.isCancelled()) {
+                    recordError(entry.path, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 大文件任务：预分配目标文件后按区间拆分为并行任务
+     */
+    private class LargeFileTask extends RecursiveAction {
+        private final DirectoryScanner.Entry entry;
+        private final File target;
+        private final AtomicReference<IOException> failure = new AtomicReference<>();
+
+        LargeFileTask(DirectoryScanner.Entry entry, File target) {
+            this.entry = entry;
+            this.target = target;
+        }
+
+        @Override
+        protected void compute() {
+            if (operation.isCancelled()) {
+                return;
+            }
+            try (RandomAccessFile raf = new RandomAccessFile(target, "rw")) {
+                raf.setLength(entry.size);
+                FileChannel out = raf.getChannel();
+
+                List<RangeTask> ranges = new ArrayList<>();
+                for (long start = 0; start < entry.size; start += RANGE_SIZE) {
+                    ranges.add(new RangeTask(this, out, start, Math.min(RANGE_SIZE, entry.size - start)));
+                }
+                invokeAll(ranges);
+            } catch (IOException e) {
+                failure.compareAndSet(null, e);
+            }
+
+            IOException error = failure.get();
+            if (error == null && !operation.isCancelled()) {
+                operation.fileCompleted();
+                return;
+            }
+            target.delete();
+            if (error != null && !operation.isCancelled()) {
+                recordError(entry.path, error.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 区间任务：使用独立的源通道复制大文件的一段，目标通道按位置并发写入
+     */
+    private class RangeTask extends RecursiveAction {
+        private final LargeFileTask parent;
+        private final FileChannel out;
+        private final long start;
+        private final long length;
+
+        RangeTask(LargeFileTask parent, FileChannel out, long start, long length) {
+            this.parent = parent;
+            this.out = out;
+            this.start = start;
+            this.length = length;
+        }
+
+        @Override
+        protected void compute() {
+            if (parent.failure.get() != null) {
+                return;
+            }
+            try (FileInputStream fis = new FileInputStream(parent.entry.path);
+                 FileChannel in = fis.getChannel()) {
+                in.position(start);
+                long position = start;
+                long end = start + length;
+                while (position < end) {
+                    operation.checkCancelled();
+                    long transferred = out.transferFrom(in, position,
+                                                        Math.min(FileCopier.TRANSFER_CHUNK_SIZE, end - position));
+                    if (transferred <= 0) {
+                        throw new IOException("Source file truncated during copy");
+                    }
+                    position += transferred;
+                    operation.addProgress(transferred);
+                }
+            } catch (IOException e) {
+                parent.failure.compareAndSet(null, e);
+            }
+        }
+    }
+}
@@ -5,17 +5,21 @@ import android.content.Context;
 import android.database.Cursor;
 import android.net.Uri;
 import android.provider.DocumentsContract;
+import android.util.Base64;
 import android.util.Log;
 
 import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * 目录操作模块
@@ -23,70 +27,165 @@ import java.util.List;
  */
 public class DirectoryOperations {
     private static final String TAG = "DirectoryOperations";
+
+    // 默认配置
+    private static final int DEFAULT_PAGE_SIZE = 200;
+    private static final int DEFAULT_CHUNK_SIZE = 200;
+    private static final int MAX_SNAPSHOTS = 8;
+    private static final long SNAPSHOT_TTL_MS = 60 * 1000;
+
     private final Context context;
+    private final TrashReaper trashReaper;
+    private final DirectorySizeCalculator sizeCalculator = new DirectorySizeCalculator();
+
+    // 分页快照缓存（LRU）
+    private final Map<String, ListingSnapshot> snapshots =
+        new LinkedHashMap<String, ListingSnapshot>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ListingSnapshot> eldest) {
+                return size() > MAX_SNAPSHOTS;
+            }
+        };
+
+    /**
+     * 流式列表回调
+     * 列式格式时 files 为空数组，条目在 columns 中；否则 columns 为 null
+     */
+    public interface ChunkListener {
+        void onChunk(JSArray files, JSObject columns, int chunkIndex, int offset, int totalCount, boolean done);
+    }
 
     public DirectoryOperations(Context context) {
         this.context = context;
+        this.trashReaper = new TrashReaper(context);
     }
 
     /**
      * 列出目录内容
+     * @param columnar 为 true 时以列式格式返回（content:// URI 不支持，仍返回对象数组）
      */
-    public JSObject listDirectory(String path, boolean showHidden, String sortBy, String sortOrder) throws Exception {
+    public JSObject listDirectory(String path, boolean showHidden, String sortBy, String sortOrder,
+                                  boolean columnar) throws Exception {
         // 处理 content:// URI
         if (path.startsWith("content://")) {
             return listDirectoryFromUri(path, showHidden, sortBy, sortOrder);
         }
 
-        File directory = new File(path);
+        List<DirectoryScanner.Entry> entries = loadSortedEntries(path, showHidden, sortBy, sortOrder);
 
-        Log.d(TAG, "Listing directory: " + path);
-        Log.d(TAG, "Directory exists: " + directory.exists());
-        Log.d(TAG, "Is directory: " + directory.isDirectory());
-        Log.d(TAG, "Can read: " + directory.canRead());
+        if (columnar) {
+            JSObject result = createColumnarResult(entries, 0, entries.size());
+            result.put("totalCount", entries.size());
+            return result;
+        }
 
-        if (!directory.exists()) {
-            throw new Exception("Directory does not exist: " + path);
+        JSArray filesArray = new JSArray();
+        for (DirectoryScanner.Entry entry : entries) {
+            JSObject fileInfo = FileUtils.createFileInfo(entry);
+            filesArray.put(fileInfo);
         }
 
-        if (!directory.isDirectory()) {
-            throw new Exception("Path is not a directory: " + path);
+        JSObject result = new JSObject();
+        result.put("files", filesArray);
+        result.put("totalCount", filesArray.length());
+
+        return result;
+    }
+
+    /**
+     * 分页列出目录内容
+     * 只对当前页的条目创建文件信息，排序后的列表快照会缓存以供后续页复用
+     */
+    public JSObject listDirectoryPage(String path, boolean showHidden, String sortBy, String sortOrder,
+                                      int offset, int limit, String cursor, boolean columnar) throws Exception {
+        if (limit <= 0) {
+            limit = DEFAULT_PAGE_SIZE;
         }
 
-        if (!directory.canRead()) {
-            throw new Exception("No read permission for directory: " + path);
+        // 处理 content:// URI
+        if (path.startsWith("content://")) {
+            return listDirectoryPageFromUri(path, showHidden, offset, cursor, limit);
         }
 
-        File[] files = directory.listFiles();
-        Log.d(TAG, "listFiles() returned: " + (files != null ? files.length + " files" : "null"));
+        ListingSnapshot snapshot = null;
+        int start = Math.max(0, offset);
+        String options = listingOptions(showHidden, sortBy, sortOrder);
 
-        if (files == null) {
-            Log.w(TAG, "listFiles() returned null for: " + path + ". Returning empty list.");
-            JSObject result = new JSObject();
-            result.put("files", new JSArray());
-            result.put("totalCount", 0);
-            return result;
+        if (cursor != null) {
+            CursorToken token = decodeCursor(cursor);
+            snapshot = getSnapshot(token.snapshotId, path, options);
+            start = token.position;
         }
 
-        List<File> fileList = new ArrayList<>(Arrays.asList(files));
+        // 快照失效或列表选项与游标不一致时重新读取目录并从游标位置继续
+        if (snapshot == null) {
+            List<DirectoryScanner.Entry> entries = loadSortedEntries(path, showHidden, sortBy, sortOrder);
+            snapshot = putSnapshot(path, options, entries, null);
+        }
 
-        // 过滤隐藏文件
-        if (!showHidden) {
-            fileList.removeIf(file -> file.getName().startsWith("."));
+        List<DirectoryScanner.Entry> entries = snapshot.entries;
+        int end = Math.min(entries.size(), start + limit);
+
+        JSObject result;
+        if (columnar) {
+            result = createColumnarResult(entries, start, Math.max(start, end));
+        } else {
+            JSArray filesArray = new JSArray();
+            for (int i = start; i < end; i++) {
+                filesArray.put(FileUtils.createFileInfo(entries.get(i)));
+            }
+            result = new JSObject();
+            result.put("files", filesArray);
         }
 
-        // 排序
-        sortFiles(fileList, sortBy, sortOrder);
+        boolean hasMore = end < entries.size();
 
-        JSArray filesArray = new JSArray();
-        for (File file : fileList) {
-            JSObject fileInfo = FileUtils.createFileInfo(file);
-            filesArray.put(fileInfo);
+        result.put("totalCount", entries.size());
+        result.put("offset", start);
+        result.put("hasMore", hasMore);
+        if (hasMore) {
+            result.put("nextCursor", encodeCursor(snapshot.id, end));
+        }
+
+        return result;
+    }
+
+    /**
+     * 流式列出目录内容
+     * 边读取目录边按 chunkSize 推送，块按目录读取顺序发出，sortBy/sortOrder 只在块内排序；
+     * 目录读取完成前无法得知总数，中间块的 totalCount 为 -1
+     * @param columnar 为 true 时每块以列式格式推送（content:// URI 不支持，仍推送对象数组）
+     */
+    public JSObject listDirectoryStream(String path, boolean showHidden, String sortBy, String sortOrder,
+                                        int chunkSize, boolean columnar, ChunkListener listener) throws Exception {
+        if (chunkSize <= 0) {
+            chunkSize = DEFAULT_CHUNK_SIZE;
         }
 
+        // 处理 content:// URI
+        if (path.startsWith("content://")) {
+            return listDirectoryStreamFromUri(path, showHidden, chunkSize, listener);
+        }
+
+        File directory = checkReadableDirectory(path);
+        ChunkStream stream = new ChunkStream(chunkSize, sortBy, sortOrder, columnar, listener);
+        boolean complete = DirectoryScanner.scan(directory, entry -> {
+            if (showHidden || !entry.isHidden()) {
+                stream.add(entry);
+            }
+        });
+        if (!complete) {
+            throw new Exception("Failed to read directory: " + path);
+        }
+        stream.finish();
+
         JSObject result = new JSObject();
-        result.put("files", filesArray);
-        result.put("totalCount", filesArray.length());
+        result.put("files", new JSArray());
+        result.put("totalCount", stream.emitted);
+        result.put("chunks", stream.chunkIndex);
+        if (columnar) {
+            result.put("format", ColumnarEncoder.FORMAT);
+        }
 
         return result;
     }
@@ -120,6 +219,15 @@ public class DirectoryOperations {
      * 删除目录
      */
     public void deleteDirectory(String path) throws Exception {
+        deleteDirectory(path, false, null);
+    }
+
+    /**
+     * 删除目录
+     * fast 为 true 时先移入回收区并立即返回，内容由后台并行清理；
+     * 否则同步并行删除，有条目删除失败时抛出异常
+     */
+    public JSObject deleteDirectory(String path, boolean fast, String deleteId) throws Exception {
         File directory = new File(path);
 
         if (!directory.exists()) {
@@ -130,9 +238,64 @@ public class DirectoryOperations {
             throw new Exception("Path is not a directory: " + path);
         }
 
-        if (!FileUtils.deleteRecursively(directory)) {
-            throw new Exception("Failed to delete directory: " + path);
+        if (fast) {
+            return trashReaper.deleteInBackground(directory, deleteId != null ? deleteId : UUID.randomUUID().toString());
         }
+
+        JSObject result = trashReaper.deleteNow(directory, deleteId);
+        int errorCount = result.optInt("errorCount", 0);
+        if (errorCount > 0) {
+            throw new Exception("Failed to delete directory: " + path + " (" + errorCount + " entries failed)");
+        }
+        return result;
+    }
+
+    /**
+     * 设置删除进度回调，并继续清理上次未完成的快速删除
+     */
+    public void startTrashReaper(TrashReaper.ProgressListener listener) {
+        trashReaper.setListener(listener);
+        trashReaper.resumePendingDeletes();
+    }
+
+    /**
+     * 获取正在后台清理的删除
+     */
+    public JSObject getPendingDeletes() {
+        return trashReaper.getPendingDeletes();
+    }
+
+    /**
+     * 取消删除
+     */
+    public boolean cancelDelete(String deleteId) {
+        return trashReaper.cancel(deleteId);
+    }
+
+    /**
+     * 计算目录大小
+     * 并行遍历，目录修改时间未变化时使用缓存的统计
+     */
+    public JSObject calculateDirectorySize(String path, boolean includeHidden, boolean useCache,
+                                           String operationId,
+                                           DirectorySizeCalculator.ProgressListener listener) throws Exception {
+        return sizeCalculator.calculate(path, includeHidden, useCache, operationId, listener);
+    }
+
+    public void shutdown() {
+        trashReaper.shutdown();
+        sizeCalculator.shutdown();
+    }
+
+    /**
+     * 列式结果：files 为空数组，条目在 columns 中
+     */
+    private JSObject createColumnarResult(List<DirectoryScanner.Entry> entries, int start, int end) {
+        JSObject result = new JSObject();
+        result.put("files", new JSArray());
+        result.put("format", ColumnarEncoder.FORMAT);
+        result.put("columns", ColumnarEncoder.encode(entries, start, end));
+        return result;
     }
 
     /**
@@ -140,76 +303,109 @@ public class DirectoryOperations {
      */
     private JSObject listDirectoryFromUri(String uriString, boolean showHidden, String sortBy, String sortOrder) throws Exception {
         Uri uri = Uri.parse(uriString);
-        ContentResolver contentResolver = context.getContentResolver();
-
-        try {
-            // 判断是 Document URI 还是 Tree URI，并获取正确的 document ID
-            String documentId;
-            if (DocumentsContract.isDocumentUri(context, uri)) {
-                // Document URI - 使用 getDocumentId
-                documentId = DocumentsContract.getDocumentId(uri);
-                Log.d(TAG, "Processing as Document URI with docId: " + documentId);
-            } else {
-                // Tree URI - 使用 getTreeDocumentId
-                documentId = DocumentsContract.getTreeDocumentId(uri);
-                Log.d(TAG, "Processing as Tree URI with docId: " + documentId);
-            }
-
-            // 获取目录的子文档
-            Uri childrenUri = DocumentsContract.buildChildDocumentsUriUsingTree(uri, documentId);
-
-            Cursor cursor = contentResolver.query(
-                childrenUri,
-                new String[]{
-                    DocumentsContract.Document.COLUMN_DOCUMENT_ID,
-                    DocumentsContract.Document.COLUMN_DISPLAY_NAME,
-                    DocumentsContract.Document.COLUMN_SIZE,
-                    DocumentsContract.Document.COLUMN_MIME_TYPE,
-                    DocumentsContract.Document.COLUMN_LAST_MODIFIED
-                },
-                null,
-                null,
-                null
-            );
-
-            if (cursor == null) {
-                throw new Exception("Cannot access directory: " + uriString);
-            }
 
+        try (Cursor cursor = queryChildDocuments(uri, uriString)) {
             JSArray filesArray = new JSArray();
 
             while (cursor.moveToNext()) {
-                String docId = cursor.getString(0);
                 String displayName = cursor.getString(1);
-                long size = cursor.getLong(2);
-                String mimeType = cursor.getString(3);
-                long lastModified = cursor.getLong(4);
 
                 // 过滤隐藏文件
                 if (!showHidden && displayName != null && displayName.startsWith(".")) {
                     continue;
                 }
 
-                boolean isDirectory = DocumentsContract.Document.MIME_TYPE_DIR.equals(mimeType);
+                filesArray.put(createFileInfoFromCursor(uri, cursor));
+            }
+
+            JSObject result = new JSObject();
+            result.put("files", filesArray);
+            result.put("totalCount", filesArray.length());
+
+            return result;
+
+        } catch (Exception e) {
+            throw new Exception("Failed to list directory from URI: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 从 content:// URI 分页列出目录内容
+     * 首页查询一次子文档并缓存可见行的快照，后续页从快照读取，不再重新查询和计数
+     */
+    private JSObject listDirectoryPageFromUri(String uriString, boolean showHidden,
+                                              int offset, String cursor, int limit) throws Exception {
+        Uri uri = Uri.parse(uriString);
+
+        ListingSnapshot snapshot = null;
+        int start = Math.max(0, offset);
+        // content:// 列表不排序，只有 showHidden 影响快照内容
+        String options = listingOptions(showHidden, null, null);
+
+        if (cursor != null) {
+            CursorToken token = decodeCursor(cursor);
+            snapshot = getSnapshot(token.snapshotId, uriString, options);
+            start = token.position;
+        }
+
+        if (snapshot == null) {
+            snapshot = putSnapshot(uriString, options, null, loadDocuments(uri, uriString, showHidden));
+        }
+
+        List<DocumentRow> documents = snapshot.documents;
+        int end = Math.min(documents.size(), start + limit);
+
+        JSArray filesArray = new JSArray();
+        for (int i = start; i < end; i++) {
+            filesArray.put(createFileInfo(uri, documents.get(i)));
+        }
+
+        boolean hasMore = end < documents.size();
+
+        JSObject result = new JSObject();
+        result.put("files", filesArray);
+        result.put("totalCount", documents.size());
+        result.put("offset", start);
+        result.put("hasMore", hasMore);
+        if (hasMore) {
+            result.put("nextCursor", encodeCursor(snapshot.id, end));
+        }
+
+        return result;
+    }
+
+    /**
+     * 从 content:// URI 流式列出目录内容（单次遍历游标，不预先计数）
+     */
+    private JSObject listDirectoryStreamFromUri(String uriString, boolean showHidden,
+                                                int chunkSize, ChunkListener listener) throws Exception {
+        Uri uri = Uri.parse(uriString);
 
-                JSObject fileInfo = new JSObject();
-                fileInfo.put("name", displayName != null ? displayName : "unknown");
-                fileInfo.put("path", DocumentsContract.buildDocumentUriUsingTree(uri, docId).toString());
-                fileInfo.put("size", size);
-                fileInfo.put("type", isDirectory ? "directory" : "file");
-                fileInfo.put("mtime", lastModified);
-                fileInfo.put("ctime", lastModified);
-                fileInfo.put("isHidden", displayName != null && displayName.startsWith("."));
-                fileInfo.put("permissions", "rw-");
+        try (Cursor cursor = queryChildDocuments(uri, uriString)) {
+            int chunkIndex = 0;
+            int emitted = 0;
 
-                filesArray.put(fileInfo);
+            JSArray chunk = new JSArray();
+            while (cursor.moveToNext()) {
+                String displayName = cursor.getString(1);
+                if (!showHidden && displayName != null && displayName.startsWith(".")) {
+                    continue;
+                }
+                chunk.put(createFileInfoFromCursor(uri, cursor));
+                if (chunk.length() >= chunkSize) {
+                    listener.onChunk(chunk, null, chunkIndex++, emitted, -1, false);
+                    emitted += chunk.length();
+                    chunk = new JSArray();
+                }
             }
 
-            cursor.close();
+            listener.onChunk(chunk, null, chunkIndex++, emitted, emitted + chunk.length(), true);
+            emitted += chunk.length();
 
             JSObject result = new JSObject();
-            result.put("files", filesArray);
-            result.put("totalCount", filesArray.length());
+            result.put("files", new JSArray());
+            result.put("totalCount", emitted);
+            result.put("chunks", chunkIndex);
 
             return result;
 
@@ -219,28 +415,219 @@ public class DirectoryOperations {
     }
 
     /**
-     * 排序文件列表
+     * 读取 content:// 目录的可见子文档（只保存游标列，不创建文件信息）
+     */
+    private List<DocumentRow> loadDocuments(Uri uri, String uriString, boolean showHidden) throws Exception {
+        try (Cursor cursor = queryChildDocuments(uri, uriString)) {
+            List<DocumentRow> documents = new ArrayList<>(cursor.getCount());
+            while (cursor.moveToNext()) {
+                String displayName = cursor.getString(1);
+                if (!showHidden && displayName != null && displayName.startsWith(".")) {
+                    continue;
+                }
+                documents.add(new DocumentRow(cursor.getString(0), displayName, cursor.getLong(2),
+                                              cursor.getString(3), cursor.getLong(4)));
+            }
+            return documents;
+        } catch (Exception e) {
+            throw new Exception("Failed to list directory from URI: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 查询 content:// 目录的子文档
+     */
+    private Cursor queryChildDocuments(Uri uri, String uriString) throws Exception {
+        ContentResolver contentResolver = context.getContentResolver();
+
+        // 判断是 Document URI 还是 Tree URI，并获取正确的 document ID
+        String documentId;
+        if (DocumentsContract.isDocumentUri(context, uri)) {
+            // Document URI - 使用 getDocumentId
+            documentId = DocumentsContract.getDocumentId(uri);
+            Log.d(TAG, "Processing as Document URI with docId: " + documentId);
+        } else {
+            // Tree URI - 使用 getTreeDocumentId
+            documentId = DocumentsContract.getTreeDocumentId(uri);
+            Log.d(TAG, "Processing as Tree URI with docId: " + documentId);
+        }
+
+        // 获取目录的子文档
+        Uri childrenUri = DocumentsContract.buildChildDocumentsUriUsingTree(uri, documentId);
+
+        Cursor cursor = contentResolver.query(
+            childrenUri,
+            new String[]{
+                DocumentsContract.Document.COLUMN_DOCUMENT_ID,
+                DocumentsContract.Document.COLUMN_DISPLAY_NAME,
+                DocumentsContract.Document.COLUMN_SIZE,
+                DocumentsContract.Document.COLUMN_MIME_TYPE,
+                DocumentsContract.Document.COLUMN_LAST_MODIFIED
+            },
+            null,
+            null,
+            null
+        );
+
+        if (cursor == null) {
+            throw new Exception("Cannot access directory: " + uriString);
+        }
+
+        return cursor;
+    }
+
+    /**
+     * 从游标当前行创建文件信息对象
+     */
+    private JSObject createFileInfoFromCursor(Uri uri, Cursor cursor) {
+        return createFileInfo(uri, cursor.getString(0), cursor.getString(1), cursor.getLong(2),
+                              cursor.getString(3), cursor.getLong(4));
+    }
+
+    private JSObject createFileInfo(Uri uri, DocumentRow row) {
+        return createFileInfo(uri, row.docId, row.displayName, row.size, row.mimeType, row.lastModified);
+    }
+
+    private JSObject createFileInfo(Uri uri, String docId, String displayName, long size,
+                                    String mimeType, long lastModified) {
+        boolean isDirectory = DocumentsContract.Document.MIME_TYPE_DIR.equals(mimeType);
+
+        JSObject fileInfo = new JSObject();
+        fileInfo.put("name", displayName != null ? displayName : "unknown");
+        fileInfo.put("path", DocumentsContract.buildDocumentUriUsingTree(uri, docId).toString());
+        fileInfo.put("size", size);
+        fileInfo.put("type", isDirectory ? "directory" : "file");
+        fileInfo.put("mtime", lastModified);
+        fileInfo.put("ctime", lastModified);
+        fileInfo.put("isHidden", displayName != null && displayName.startsWith("."));
+        fileInfo.put("permissions", "rw-");
+        return fileInfo;
+    }
+
+    /**
+     * 读取并排序目录条目（不创建文件信息）
+     */
+    private List<DirectoryScanner.Entry> loadSortedEntries(String path, boolean showHidden, String sortBy, String sortOrder) throws Exception {
+        File directory = checkReadableDirectory(path);
+
+        List<DirectoryScanner.Entry> entries = DirectoryScanner.scan(directory);
+        Log.d(TAG, "scan() returned: " + (entries != null ? entries.size() + " entries" : "null"));
+
+        if (entries == null) {
+            Log.w(TAG, "scan() returned null for: " + path + ". Returning empty list.");
+            return new ArrayList<>();
+        }
+
+        // 过滤隐藏文件
+        if (!showHidden) {
+            entries.removeIf(DirectoryScanner.Entry::isHidden);
+        }
+
+        // 排序
+        sortEntries(entries, sortBy, sortOrder);
+
+        return entries;
+    }
+
+    /**
+     * 检查目录存在且可读
+     */
+    private File checkReadableDirectory(String path) throws Exception {
+        File directory = new File(path);
+
+        Log.d(TAG, "Listing directory: " + path);
+
+        if (!directory.exists()) {
+            throw new Exception("Directory does not exist: " + path);
+        }
+
+        if (!directory.isDirectory()) {
+            throw new Exception("Path is not a directory: " + path);
+        }
+
+        if (!directory.canRead()) {
+            throw new Exception("No read permission for directory: " + path);
+        }
+
+        return directory;
+    }
+
+    // ============ 分页快照 ============
+
+    /**
+     * 决定快照内容和顺序的列表选项，游标只能在相同选项的请求之间复用
+     */
+    private String listingOptions(boolean showHidden, String sortBy, String sortOrder) {
+        return showHidden + "|" + sortBy + "|" + sortOrder;
+    }
+
+    private ListingSnapshot putSnapshot(String path, String options, List<DirectoryScanner.Entry> entries,
+                                        List<DocumentRow> documents) {
+        ListingSnapshot snapshot = new ListingSnapshot(
+            UUID.randomUUID().toString(), path, options, new File(path).lastModified(), entries, documents);
+        synchronized (snapshots) {
+            snapshots.put(snapshot.id, snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * 获取仍然有效的快照（目录被修改或已过期则失效；路径或列表选项不同时不复用）
      */
-    private void sortFiles(List<File> files, String sortBy, String sortOrder) {
-        Comparator<File> comparator;
+    private ListingSnapshot getSnapshot(String snapshotId, String path, String options) {
+        ListingSnapshot snapshot;
+        synchronized (snapshots) {
+            snapshot = snapshots.get(snapshotId);
+        }
+        if (snapshot == null || !snapshot.path.equals(path) || !snapshot.options.equals(options)) {
+            return null;
+        }
+        boolean expired = System.currentTimeMillis() - snapshot.createdAt > SNAPSHOT_TTL_MS;
+        boolean modified = !path.startsWith("content://") && new File(path).lastModified() != snapshot.dirMtime;
+        if (expired || modified) {
+            synchronized (snapshots) {
+                snapshots.remove(snapshotId);
+            }
+            return null;
+        }
+        return snapshot;
+    }
+
+    private String encodeCursor(String snapshotId, int position) {
+        String raw = snapshotId + ":" + position;
+        return Base64.encodeToString(raw.getBytes(StandardCharsets.UTF_8),
+                                     Base64.NO_WRAP | Base64.URL_SAFE);
+    }
+
+    private CursorToken decodeCursor(String cursor) throws Exception {
+        try {
+            String raw = new String(Base64.decode(cursor, Base64.NO_WRAP | Base64.URL_SAFE),
+                                    StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf(':');
+            return new CursorToken(raw.substring(0, sep), Integer.parseInt(raw.substring(sep + 1)));
+        } catch (Exception e) {
+            throw new Exception("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * 排序文件列表（使用扫描时读取的属性，比较过程中不再访问文件系统）
+     */
+    private void sortEntries(List<DirectoryScanner.Entry> entries, String sortBy, String sortOrder) {
+        Comparator<DirectoryScanner.Entry> comparator;
 
         switch (sortBy) {
             case "size":
-                comparator = Comparator.comparingLong(File::length);
+                comparator = Comparator.comparingLong(e -> e.size);
                 break;
             case "mtime":
-                comparator = Comparator.comparingLong(File::lastModified);
+                comparator = Comparator.comparingLong(e -> e.lastModified);
                 break;
             case "type":
-                comparator = (f1, f2) -> {
-                    if (f1.isDirectory() && !f2.isDirectory()) return -1;
-                    if (!f1.isDirectory() && f2.isDirectory()) return 1;
-                    return f1.getName().compareToIgnoreCase(f2.getName());
-                };
-                break;
             case "name":
             default:
-                comparator = (f1, f2) -> f1.getName().compareToIgnoreCase(f2.getName());
+                // 目录已统一排在前面，type 排序退化为按名称排序
+                comparator = (e1, e2) -> e1.name.compareToIgnoreCase(e2.name);
                 break;
         }
 
@@ -249,11 +636,121 @@ public class DirectoryOperations {
         }
 
         // 保持目录在前
-        Comparator<File> finalComparator = comparator;
-        files.sort((f1, f2) -> {
-            if (f1.isDirectory() && !f2.isDirectory()) return -1;
-            if (!f1.isDirectory() && f2.isDirectory()) return 1;
-            return finalComparator.compare(f1, f2);
+        Comparator<DirectoryScanner.Entry> finalComparator = comparator;
+        entries.sort((e1, e2) -> {
+            if (e1.isDirectory != e2.isDirectory) return e1.isDirectory ? -1 : 1;
+            return finalComparator.compare(e1, e2);
         });
     }
+
+    /**
+     * 排序后的目录列表快照（content:// URI 时为可见子文档，只按过期时间失效）
+     */
+    private static class ListingSnapshot {
+        final String id;
+        final String path;
+        // 生成快照时的 showHidden / sortBy / sortOrder
+        final String options;
+        final long dirMtime;
+        final List<DirectoryScanner.Entry> entries;
+        final List<DocumentRow> documents;
+        final long createdAt;
+
+        ListingSnapshot(String id, String path, String options, long dirMtime,
+                        List<DirectoryScanner.Entry> entries, List<DocumentRow> documents) {
+            this.id = id;
+            this.path = path;
+            this.options = options;
+            this.dirMtime = dirMtime;
+            this.entries = entries;
+            this.documents = documents;
+            this.createdAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * content:// 子文档的游标行
+     */
+    private static class DocumentRow {
+        final String docId;
+        final String displayName;
+        final long size;
+        final String mimeType;
+        final long lastModified;
+
+        DocumentRow(String docId, String displayName, long size, String mimeType, long lastModified) {
+            this.docId = docId;
+            this.displayName = displayName;
+            this.size = size;
+            this.mimeType = mimeType;
+            this.lastModified = lastModified;
+        }
+    }
+
+    /**
+     * 流式列表的分块缓冲：攒满 chunkSize 个条目后块内排序并推送
+     */
+    private class ChunkStream {
+        final int chunkSize;
+        final String sortBy;
+        final String sortOrder;
+        final boolean columnar;
+        final ChunkListener listener;
+        List<DirectoryScanner.Entry> chunk;
+        int chunkIndex;
+        int emitted;
+
+        ChunkStream(int chunkSize, String sortBy, String sortOrder, boolean columnar, ChunkListener listener) {
+            this.chunkSize = chunkSize;
+            this.sortBy = sortBy;
+            this.sortOrder = sortOrder;
+            this.columnar = columnar;
+            this.listener = listener;
+            this.chunk = new ArrayList<>(chunkSize);
+        }
+
+        void add(DirectoryScanner.Entry entry) {
+            chunk.add(entry);
+            if (chunk.size() >= chunkSize) {
+                emit(false);
+            }
+        }
+
+        /**
+         * 推送剩余条目作为最后一块（可能为空）
+         */
+        void finish() {
+            emit(true);
+        }
+
+        private void emit(boolean done) {
+            sortEntries(chunk, sortBy, sortOrder);
+            JSArray files = new JSArray();
+            JSObject columns = null;
+            if (columnar) {
+                columns = ColumnarEncoder.encode(chunk, 0, chunk.size());
+            } else {
+                for (DirectoryScanner.Entry entry : chunk) {
+                    files.put(FileUtils.createFileInfo(entry));
+                }
+            }
+            int offset = emitted;
+            emitted += chunk.size();
+            listener.onChunk(files, columns, chunkIndex++, offset, done ? emitted : -1, done);
+            chunk = new ArrayList<>(chunkSize);
+        }
+    }
+
+    /**
+     * 分页游标
+     */
+    private static class CursorToken {
+        final String snapshotId;
+        final int position;
+
+        CursorToken(String snapshotId, int position) {
+            this.snapshotId = snapshotId;
+            this.position = position;
+        }
+    }
 }
@@ -0,0 +1,168 @@
+package com.mycompany.plugins.example.core;
+
+import android.os.Build;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 目录扫描器
+ * 单次遍历目录，每个条目只读取一次属性（Android 8.0+ 使用 NIO DirectoryStream，
+ * 低版本回退到 File.listFiles）
+ */
+public final class DirectoryScanner {
+    private static final String TAG = "DirectoryScanner";
+
+    private DirectoryScanner() {
+    }
+
+    /**
+     * 目录条目（属性在扫描时一次性读取）
+     */
+    public static final class Entry {
+        public final String name;
+        public final String path;
+        public final boolean isDirectory;
+        public final boolean isSymbolicLink;
+        public final long size;
+        public final long lastModified;
+
+        Entry(String name, String path, boolean isDirectory, boolean isSymbolicLink,
+              long size, long lastModified) {
+            this.name = name;
+            this.path = path;
+            this.isDirectory = isDirectory;
+            this.isSymbolicLink = isSymbolicLink;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public boolean isHidden() {
+            return name.startsWith(".");
+        }
+
+        public File toFile() {
+            return new File(path);
+        }
+    }
+
+    /**
+     * 逐个条目的扫描回调
+     */
+    public interface Visitor {
+        void onEntry(Entry entry) throws Exception;
+    }
+
+    /**
+     * 扫描目录，返回所有子条目
+     * 目录无法读取时返回 null（与 File.listFiles 语义一致）
+     */
+    public static List<Entry> scan(File directory) {
+        List<Entry> entries = new ArrayList<>();
+        try {
+            return scan(directory, entries::add) ? entries : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 扫描目录，按目录顺序逐个回调子条目（Android 8.0+ 边读取目录边回调）
+     * @return 目录无法读取时返回 false，此时可能已经回调了部分条目
+     */
+    public static boolean scan(File directory, Visitor visitor) throws Exception {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            return scanNio(directory, visitor);
+        }
+        return scanLegacy(directory, visitor);
+    }
+
+    /**
+     * 读取单个文件的属性
+     */
+    public static Entry stat(File file) {
+        File absolute = file.getAbsoluteFile();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            Entry entry = readEntry(absolute.toPath(), absolute.getName());
+            if (entry != null) {
+                return entry;
+            }
+        }
+        return legacyEntry(absolute);
+    }
+
+    // ============ 辅助方法 ============
+
+    private static boolean scanNio(File directory, Visitor visitor) throws Exception {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory.getAbsoluteFile().toPath())) {
+            for (Path child : stream) {
+                Entry entry = readEntry(child, child.getFileName().toString());
+                if (entry != null) {
+                    visitor.onEntry(entry);
+                }
+            }
+        } catch (IOException | DirectoryIteratorException | SecurityException e) {
+            Log.w(TAG, "Failed to scan directory: " + directory.getPath() + " - " + e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    private static Entry readEntry(Path path, String name) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class,
+                                                             LinkOption.NOFOLLOW_LINKS);
+            boolean isSymbolicLink = attrs.isSymbolicLink();
+            if (isSymbolicLink) {
+                // 符号链接按目标属性展示，但保留链接标记以免递归操作越界
+                try {
+                    attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    // 失效的链接，保留链接自身属性
+                }
+            }
+            return new Entry(name, path.toString(), attrs.isDirectory(), isSymbolicLink,
+                             attrs.size(), attrs.lastModifiedTime().toMillis());
+        } catch (IOException | SecurityException e) {
+            return null;
+        }
+    }
+
+    private static boolean scanLegacy(File directory, Visitor visitor) throws Exception {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return false;
+        }
+        for (File file : files) {
+            visitor.onEntry(legacyEntry(file));
+        }
+        return true;
+    }
+
+    private static Entry legacyEntry(File file) {
+        boolean isDirectory = file.isDirectory();
+        boolean isSymbolicLink = false;
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (isDirectory && parent != null) {
+            // 只有目录需要判断链接（避免递归操作越界）
+            try {
+                File canonicalParent = parent.getCanonicalFile();
+                File resolved = new File(canonicalParent, file.getName());
+                isSymbolicLink = !resolved.getCanonicalFile().equals(resolved);
+            } catch (IOException e) {
+                // 无法判断时按普通目录处理
+            }
+        }
+        return new Entry(file.getName(), file.getAbsolutePath(), isDirectory, isSymbolicLink,
+                         file.length(), file.lastModified());
+    }
+}
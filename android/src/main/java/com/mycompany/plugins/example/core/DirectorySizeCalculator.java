@@ -0,0 +1,294 @@
+package com.mycompany.plugins.example.core;
+
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 目录大小计算器
+ * 并行遍历子目录，每个条目只读取一次属性；每个目录的直接文件统计和子目录列表按修改时间缓存，
+ * 目录修改时间未变化时不再列出其内容，只检查子目录。
+ * 注意：目录修改时间只在增删、重命名条目时变化，原地修改已有文件的大小需要 useCache=false 重新统计
+ */
+public class DirectorySizeCalculator {
+    private static final String TAG = "DirectorySizeCalculator";
+
+    // 默认配置
+    private static final int DEFAULT_PARALLELISM = 4;
+    private static final long PROGRESS_INTERVAL_MS = 200;
+    private static final int MAX_CACHED_DIRECTORIES = 100000;
+    // 修改时间距扫描时间太近的目录不缓存（同一毫秒内的后续修改无法通过修改时间发现）
+    private static final long RACY_WINDOW_MS = 2000;
+
+    /**
+     * 进度回调
+     */
+    public interface ProgressListener {
+        void onProgress(JSObject progress, boolean done);
+    }
+
+    /**
+     * 缓存节点：目录的直接文件统计和子目录列表
+     */
+    private static final class Node {
+        final long lastModified;
+        final long fileSize;
+        final int fileCount;
+        final long largestFileSize;
+        final String largestFilePath;
+        final String[] children;
+
+        Node(long lastModified, long fileSize, int fileCount, long largestFileSize,
+             String largestFilePath, String[] children) {
+            this.lastModified = lastModified;
+            this.fileSize = fileSize;
+            this.fileCount = fileCount;
+            this.largestFileSize = largestFileSize;
+            this.largestFilePath = largestFilePath;
+            this.children = children;
+        }
+    }
+
+    /**
+     * 子树统计
+     */
+    private static final class Totals {
+        long totalSize;
+        int fileCount;
+        int directoryCount;
+        long largestFileSize = -1;
+        String largestFilePath;
+        int cachedDirectories;
+        int scannedDirectories;
+        int skippedDirectories;
+
+        void addFiles(long size, int count, long largestSize, String largestPath) {
+            totalSize += size;
+            fileCount += count;
+            if (largestPath != null && largestSize > largestFileSize) {
+                largestFileSize = largestSize;
+                largestFilePath = largestPath;
+            }
+        }
+
+        void merge(Totals other) {
+            addFiles(other.totalSize, other.fileCount, other.largestFileSize, other.largestFilePath);
+            directoryCount += other.directoryCount;
+            cachedDirectories += other.cachedDirectories;
+            scannedDirectories += other.scannedDirectories;
+            skippedDirectories += other.skippedDirectories;
+        }
+    }
+
+    private final ForkJoinPool pool = new ForkJoinPool(DEFAULT_PARALLELISM);
+    // key 为 (是否包含隐藏文件) + 目录路径
+    private final Map<String, Node> nodes = new ConcurrentHashMap<>();
+
+    /**
+     * 计算目录大小
+     * @param useCache 为 false 时重新列出所有目录（结果仍写入缓存）
+     */
+    public JSObject calculate(String path, boolean includeHidden, boolean useCache,
+                              String operationId, ProgressListener listener) throws Exception {
+        File directory = new File(path).getAbsoluteFile();
+        if (!directory.exists()) {
+            throw new Exception("Directory does not exist: " + path);
+        }
+        DirectoryScanner.Entry root = DirectoryScanner.stat(directory);
+        if (!root.isDirectory) {
+            throw new Exception("Path is not a directory: " + path);
+        }
+
+        if (nodes.size() > MAX_CACHED_DIRECTORIES) {
+            Log.d(TAG, "Directory size cache is full, clearing " + nodes.size() + " entries");
+            nodes.clear();
+        }
+
+        long startTime = System.currentTimeMillis();
+        Walk walk = new Walk(path, includeHidden, useCache, operationId, listener);
+        Totals totals = pool.invoke(new SizeTask(root.path, root.lastModified, walk));
+
+        JSObject result = new JSObject();
+        result.put("path", path);
+        result.put("totalSize", totals.totalSize);
+        result.put("fileCount", totals.fileCount);
+        result.put("directoryCount", totals.directoryCount);
+        result.put("largestFileSize", Math.max(0, totals.largestFileSize));
+        result.put("largestFilePath", totals.largestFilePath);
+        result.put("cachedDirectories", totals.cachedDirectories);
+        result.put("scannedDirectories", totals.scannedDirectories);
+        result.put("skippedDirectories", totals.skippedDirectories);
+        result.put("calculationTime", System.currentTimeMillis() - startTime);
+
+        walk.notifyProgress(path, true);
+        return result;
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clearCache() {
+        nodes.clear();
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * 一次计算的配置和进度
+     */
+    private static final class Walk {
+        final String path;
+        final boolean includeHidden;
+        final boolean useCache;
+        final String keyPrefix;
+        final String operationId;
+        final ProgressListener listener;
+        final AtomicInteger filesScanned = new AtomicInteger();
+        final AtomicInteger directoriesScanned = new AtomicInteger();
+        final AtomicLong currentSize = new AtomicLong();
+        private long lastProgressAt = System.currentTimeMillis();
+
+        Walk(String path, boolean includeHidden, boolean useCache, String operationId,
+             ProgressListener listener) {
+            this.path = path;
+            this.includeHidden = includeHidden;
+            this.useCache = useCache;
+            this.keyPrefix = includeHidden ? "h:" : "v:";
+            this.operationId = operationId;
+            this.listener = listener;
+        }
+
+        void recordDirectory(String directory, int files, long size) {
+            filesScanned.addAndGet(files);
+            directoriesScanned.incrementAndGet();
+            currentSize.addAndGet(size);
+            synchronized (this) {
+                long now = System.currentTimeMillis();
+                if (now - lastProgressAt < PROGRESS_INTERVAL_MS) {
+                    return;
+                }
+                lastProgressAt = now;
+            }
+            notifyProgress(directory, false);
+        }
+
+        void notifyProgress(String currentPath, boolean done) {
+            if (listener == null || operationId == null) {
+                return;
+            }
+            JSObject progress = new JSObject();
+            progress.put("operationId", operationId);
+            progress.put("path", path);
+            progress.put("currentPath", currentPath);
+            progress.put("filesScanned", filesScanned.get());
+            progress.put("directoriesScanned", directoriesScanned.get());
+            progress.put("currentSize", currentSize.get());
+            listener.onProgress(progress, done);
+        }
+    }
+
+    /**
+     * 目录任务：统计一层目录的文件（优先使用缓存），为子目录创建子任务并汇总
+     */
+    private class SizeTask extends RecursiveTask<Totals> {
+        private final String path;
+        private final long lastModified;
+        private final Walk walk;
+
+        SizeTask(String path, long lastModified, Walk walk) {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.walk = walk;
+        }
+
+        @Override
+        protected Totals compute() {
+            Totals totals = new Totals();
+            String key = walk.keyPrefix + path;
+            Node node = walk.useCache ? nodes.get(key) : null;
+
+            List<SizeTask> subtasks = new ArrayList<>();
+            if (node != null && node.lastModified == lastModified) {
+                // 目录内容未增删：沿用直接文件统计，子目录需要各自检查修改时间
+                totals.cachedDirectories = 1;
+                totals.addFiles(node.fileSize, node.fileCount, node.largestFileSize, node.largestFilePath);
+                for (String child : node.children) {
+                    DirectoryScanner.Entry entry = DirectoryScanner.stat(new File(child));
+                    if (entry.isDirectory) {
+                        subtasks.add(new SizeTask(child, entry.lastModified, walk));
+                    }
+                }
+            } else {
+                node = scan(totals, subtasks);
+                if (node == null) {
+                    totals.skippedDirectories = 1;
+                    return totals;
+                }
+                totals.scannedDirectories = 1;
+            }
+            walk.recordDirectory(path, node.fileCount, node.fileSize);
+
+            if (!subtasks.isEmpty()) {
+                invokeAll(subtasks);
+                totals.directoryCount += subtasks.size();
+                for (SizeTask subtask : subtasks) {
+                    totals.merge(subtask.join());
+                }
+            }
+            return totals;
+        }
+
+        /**
+         * 列出目录内容，统计直接文件并写入缓存，为子目录创建子任务
+         */
+        private Node scan(Totals totals, List<SizeTask> subtasks) {
+            List<DirectoryScanner.Entry> entries = DirectoryScanner.scan(new File(path));
+            if (entries == null) {
+                return null;
+            }
+
+            long fileSize = 0;
+            int fileCount = 0;
+            long largestFileSize = -1;
+            String largestFilePath = null;
+            List<String> children = new ArrayList<>();
+            for (DirectoryScanner.Entry entry : entries) {
+                // 不跟随符号链接，避免重复统计或递归越界
+                if (entry.isSymbolicLink || (!walk.includeHidden && entry.isHidden())) {
+                    continue;
+                }
+                if (entry.isDirectory) {
+                    children.add(entry.path);
+                    subtasks.add(new SizeTask(entry.path, entry.lastModified, walk));
+                } else {
+                    fileSize += entry.size;
+                    fileCount++;
+                    if (entry.size > largestFileSize) {
+                        largestFileSize = entry.size;
+                        largestFilePath = entry.path;
+                    }
+                }
+            }
+            totals.addFiles(fileSize, fileCount, largestFileSize, largestFilePath);
+
+            Node node = new Node(lastModified, fileSize, fileCount, largestFileSize, largestFilePath,
+                                 children.toArray(new String[0]));
+            if (System.currentTimeMillis() - lastModified >= RACY_WINDOW_MS) {
+                nodes.put(walk.keyPrefix + path, node);
+            }
+            return node;
+        }
+    }
+}
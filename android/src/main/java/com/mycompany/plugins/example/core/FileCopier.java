@@ -0,0 +1,162 @@
+package com.mycompany.plugins.example.core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 文件复制模块
+ * 使用 FileChannel.transferTo 在内核中完成数据传输（Android 上走 sendfile），
+ * 按块复制以便推送进度和响应取消
+ */
+public class FileCopier {
+    // 每次 transferTo 的块大小，兼顾吞吐和取消/进度的响应速度
+    static final long TRANSFER_CHUNK_SIZE = 8 * 1024 * 1024; // 8MB
+    // 两次进度推送的最小间隔
+    private static final long PROGRESS_INTERVAL_MS = 200;
+
+    /**
+     * 进度回调
+     */
+    public interface ProgressListener {
+        void onProgress(long bytesCopied, long totalBytes, long bytesPerSecond,
+                        int filesCopied, int totalFiles, boolean done);
+    }
+
+    /**
+     * 复制操作
+     * 记录总量和已完成量，可被多个复制线程共享，支持跨线程取消
+     */
+    public static final class Operation {
+        private final String id;
+        private final ProgressListener listener;
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+        private final AtomicLong bytesCopied = new AtomicLong();
+        private final AtomicInteger filesCopied = new AtomicInteger();
+        private final long startTime = System.currentTimeMillis();
+        private volatile long totalBytes;
+        private volatile int totalFiles;
+        private long lastProgressAt;
+
+        public Operation(String id, ProgressListener listener) {
+            this.id = id;
+            this.listener = listener;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public void setTotals(long totalBytes, int totalFiles) {
+            this.totalBytes = totalBytes;
+            this.totalFiles = totalFiles;
+        }
+
+        public long getBytesCopied() {
+            return bytesCopied.get();
+        }
+
+        public int getFilesCopied() {
+            return filesCopied.get();
+        }
+
+        public void cancel() {
+            cancelled.set(true);
+        }
+
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+
+        void checkCancelled() throws IOException {
+            if (cancelled.get()) {
+                throw new IOException("Operation cancelled: " + id);
+            }
+        }
+
+        void addProgress(long bytes) {
+            bytesCopied.addAndGet(bytes);
+            maybeNotify();
+        }
+
+        void fileCompleted() {
+            filesCopied.incrementAndGet();
+            maybeNotify();
+        }
+
+        private void maybeNotify() {
+            if (listener == null) {
+                return;
+            }
+            synchronized (this) {
+                long now = System.currentTimeMillis();
+                if (now - lastProgressAt < PROGRESS_INTERVAL_MS) {
+                    return;
+                }
+                lastProgressAt = now;
+            }
+            notifyListener(false);
+        }
+
+        /**
+         * 推送最终进度
+         */
+        public void finish() {
+            if (listener != null) {
+                notifyListener(true);
+            }
+        }
+
+        private void notifyListener(boolean done) {
+            long copied = bytesCopied.get();
+            listener.onProgress(copied, totalBytes, throughput(copied), filesCopied.get(), totalFiles, done);
+        }
+
+        private long throughput(long copied) {
+            long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+            return copied * 1000 / elapsed;
+        }
+    }
+
+    private FileCopier() {
+    }
+
+    /**
+     * 复制单个文件
+     * operation 为空时不推送进度也不可取消；取消或失败时删除未完成的目标文件
+     */
+    public static void copyFile(File source, File dest, Operation operation) throws IOException {
+        boolean completed = false;
+        try (FileInputStream fis = new FileInputStream(source);
+             FileOutputStream fos = new FileOutputStream(dest);
+             FileChannel in = fis.getChannel();
+             FileChannel out = fos.getChannel()) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                if (operation != null) {
+                    operation.checkCancelled();
+                }
+                long transferred = in.transferTo(position, Math.min(TRANSFER_CHUNK_SIZE, size - position), out);
+                if (transferred <= 0) {
+                    // 源文件在复制过程中被截断，不把不完整的目标文件当作成功
+                    throw new IOException("Source file truncated during copy: " + source.getPath());
+                }
+                position += transferred;
+                if (operation != null) {
+                    operation.addProgress(transferred);
+                }
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                dest.delete();
+            }
+        }
+    }
+}
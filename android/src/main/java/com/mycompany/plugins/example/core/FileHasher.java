@@ -0,0 +1,255 @@
+package com.mycompany.plugins.example.core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * 文件哈希模块
+ * 直接对原始字节计算哈希：从线程内复用的直接缓冲区流式读取，一次读取同时更新所有请求的算法
+ */
+public final class FileHasher {
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final long PROGRESS_INTERVAL_MS = 200;
+
+    public static final String DEFAULT_ALGORITHM = "md5";
+
+    // 每个线程复用一个直接缓冲区和一个数组：通道读入直接缓冲区后只复制一次，所有算法共用
+    private static final ThreadLocal<ByteBuffer> BUFFERS = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+    };
+    private static final ThreadLocal<byte[]> ARRAYS = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[BUFFER_SIZE];
+        }
+    };
+
+    /**
+     * 进度回调
+     */
+    public interface ProgressListener {
+        void onProgress(long bytesHashed, long totalBytes, boolean done);
+    }
+
+    private FileHasher() {
+    }
+
+    /**
+     * 计算文件哈希
+     * @param algorithms md5、sha1、sha256、crc32，为空时使用 md5
+     * @return 算法名到十六进制哈希值的映射，顺序与请求一致
+     */
+    public static Map<String, String> hash(File file, List<String> algorithms,
+                                           ProgressListener listener) throws Exception {
+        List<String> names = normalize(algorithms);
+        Hasher[] hashers = new Hasher[names.size()];
+        for (int i = 0; i < hashers.length; i++) {
+            hashers[i] = createHasher(names.get(i));
+        }
+
+        ByteBuffer buffer = BUFFERS.get();
+        byte[] bytes = ARRAYS.get();
+        long hashed = 0;
+        long total;
+        long lastProgressAt = System.currentTimeMillis();
+
+        try (FileInputStream fis = new FileInputStream(file);
+             FileChannel channel = fis.getChannel()) {
+            total = channel.size();
+            while (true) {
+                buffer.clear();
+                int read = channel.read(buffer);
+                if (read < 0) {
+                    break;
+                }
+                buffer.flip();
+                buffer.get(bytes, 0, read);
+                for (Hasher hasher : hashers) {
+                    hasher.update(bytes, 0, read);
+                }
+                hashed += read;
+
+                if (listener != null) {
+                    long now = System.currentTimeMillis();
+                    if (now - lastProgressAt >= PROGRESS_INTERVAL_MS) {
+                        lastProgressAt = now;
+                        listener.onProgress(hashed, total, false);
+                    }
+                }
+            }
+        }
+
+        if (listener != null) {
+            listener.onProgress(hashed, total, true);
+        }
+
+        Map<String, String> result = new LinkedHashMap<>();
+        for (int i = 0; i < hashers.length; i++) {
+            result.put(names.get(i), hashers[i].digest());
+        }
+        return result;
+    }
+
+    /**
+     * 计算单个算法的文件哈希
+     */
+    public static String hash(File file, String algorithm) throws Exception {
+        List<String> algorithms = new ArrayList<>();
+        algorithms.add(algorithm);
+        return hash(file, algorithms, null).values().iterator().next();
+    }
+
+    /**
+     * 计算内存中字节的哈希（用于文件片段）
+     */
+    public static String hash(byte[] bytes, int length, String algorithm) throws Exception {
+        Hasher hasher = createHasher(normalizeAlgorithm(algorithm));
+        hasher.update(bytes, 0, length);
+        return hasher.digest();
+    }
+
+    /**
+     * 创建单个算法的增量哈希（配合 HashingOutputStream 边写边计算）
+     */
+    public static Hasher newHasher(String algorithm) throws Exception {
+        return createHasher(normalizeAlgorithm(algorithm));
+    }
+
+    public static String toHex(byte[] digest) {
+        StringBuilder hexString = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            String hex = Integer.toHexString(0xff & b);
+            if (hex.length() == 1) {
+                hexString.append('0');
+            }
+            hexString.append(hex);
+        }
+        return hexString.toString();
+    }
+
+    /**
+     * 统一算法名：小写并去掉连字符（SHA-256 → sha256）
+     */
+    public static String normalizeAlgorithm(String algorithm) {
+        return algorithm.toLowerCase(Locale.ROOT).replace("-", "");
+    }
+
+    // ============ 辅助方法 ============
+
+    private static List<String> normalize(List<String> algorithms) {
+        List<String> names = new ArrayList<>();
+        if (algorithms != null) {
+            for (String algorithm : algorithms) {
+                String name = normalizeAlgorithm(algorithm);
+                if (!names.contains(name)) {
+                    names.add(name);
+                }
+            }
+        }
+        if (names.isEmpty()) {
+            names.add(DEFAULT_ALGORITHM);
+        }
+        return names;
+    }
+
+    private static Hasher createHasher(String name) throws Exception {
+        try {
+            switch (name) {
+                case "md5":
+                    return new DigestHasher(MessageDigest.getInstance("MD5"));
+                case "sha1":
+                    return new DigestHasher(MessageDigest.getInstance("SHA-1"));
+                case "sha256":
+                    return new DigestHasher(MessageDigest.getInstance("SHA-256"));
+                case "crc32":
+                    return new Crc32Hasher();
+                default:
+                    break;
+            }
+        } catch (NoSuchAlgorithmException e) {
+            // 与不支持的算法一并处理
+        }
+        throw new Exception("Hash algorithm not supported: " + name);
+    }
+
+    /**
+     * 增量哈希，digest 返回十六进制字符串
+     */
+    public interface Hasher {
+        void update(byte[] bytes, int offset, int length);
+
+        String digest();
+    }
+
+    /**
+     * 写入时同时更新哈希的输出流
+     */
+    public static final class HashingOutputStream extends FilterOutputStream {
+        private final Hasher hasher;
+
+        public HashingOutputStream(OutputStream out, Hasher hasher) {
+            super(out);
+            this.hasher = hasher;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            hasher.update(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            hasher.update(b, off, len);
+        }
+    }
+
+    private static final class DigestHasher implements Hasher {
+        private final MessageDigest digest;
+
+        DigestHasher(MessageDigest digest) {
+            this.digest = digest;
+        }
+
+        @Override
+        public void update(byte[] bytes, int offset, int length) {
+            digest.update(bytes, offset, length);
+        }
+
+        @Override
+        public String digest() {
+            return toHex(digest.digest());
+        }
+    }
+
+    private static final class Crc32Hasher implements Hasher {
+        private final CRC32 crc = new CRC32();
+
+        @Override
+        public void update(byte[] bytes, int offset, int length) {
+            crc.update(bytes, offset, length);
+        }
+
+        @Override
+        public String digest() {
+            return String.format(Locale.ROOT, "%08x", crc.getValue());
+        }
+    }
+}
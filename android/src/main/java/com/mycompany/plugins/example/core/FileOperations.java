@@ -4,6 +4,7 @@ import android.content.Context;
 import android.util.Base64;
 import android.util.Log;
 
+import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
 import com.getcapacitor.PluginCall;
 
@@ -11,7 +12,11 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 文件操作模块
@@ -20,35 +25,70 @@ import java.nio.charset.StandardCharsets;
 public class FileOperations {
     private static final String TAG = "FileOperations";
     private final Context context;
+    private final HashCache hashCache;
+    private final AtomicFileWriter atomicWriter;
 
-    public FileOperations(Context context) {
+    // 分块读取配置
+    private static final int DEFAULT_CHUNK_SIZE = 512 * 1024; // 512KB
+    private static final int MAX_CHUNK_SIZE = 16 * 1024 * 1024; // 16MB
+    private static final int MIN_UTF8_CHUNK_SIZE = 4; // 一个 UTF-8 字符的最大字节数
+
+    // 正在进行的可取消操作（key 为 operationId）
+    private final Map<String, FileCopier.Operation> activeOperations = new ConcurrentHashMap<>();
+
+    /**
+     * 流式读取回调
+     */
+    public interface ReadChunkListener {
+        void onChunk(String content, int chunkIndex, long offset, int length, long totalSize, boolean done);
+    }
+
+    public FileOperations(Context context, HashCache hashCache, AtomicFileWriter atomicWriter) {
         this.context = context;
+        this.hashCache = hashCache;
+        this.atomicWriter = atomicWriter;
     }
 
     /**
      * 创建文件
      */
     public void createFile(String path, String content, String encoding) throws Exception {
+        createFile(path, content, encoding, false, AtomicFileWriter.SYNC_ALWAYS);
+    }
+
+    /**
+     * 创建文件
+     * @param atomic 是否先写临时文件再重命名覆盖
+     * @param syncPolicy 原子模式下的同步策略（always / batch / none）
+     */
+    public void createFile(String path, String content, String encoding, boolean atomic,
+                           String syncPolicy) throws Exception {
         File file = new File(path);
 
         // 确保父目录存在
         File parentDir = file.getParentFile();
-        if (parentDir != null && !parentDir.exists()) {
-            if (!parentDir.mkdirs()) {
-                throw new Exception("Failed to create parent directories for: " + path);
-            }
+        if (parentDir != null && !parentDir.exists() && !parentDir.mkdirs() && !parentDir.isDirectory()) {
+            throw new Exception("Failed to create parent directories for: " + path);
         }
 
-        try (FileOutputStream fos = new FileOutputStream(file)) {
-            byte[] data;
-            if ("base64".equals(encoding)) {
-                data = Base64.decode(content, Base64.DEFAULT);
+        byte[] data;
+        if ("base64".equals(encoding)) {
+            data = Base64.decode(content, Base64.DEFAULT);
+        } else {
+            data = content.getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            if (atomic) {
+                atomicWriter.write(file, data, syncPolicy);
             } else {
-                data = content.getBytes(StandardCharsets.UTF_8);
+                try (FileOutputStream fos = new FileOutputStream(file)) {
+                    fos.write(data);
+                }
             }
-            fos.write(data);
         } catch (IOException e) {
             throw new Exception("Failed to create file: " + e.getMessage());
+        } finally {
+            hashCache.invalidate(file);
         }
     }
 
@@ -66,15 +106,20 @@ public class FileOperations {
             throw new Exception("Path is not a file: " + path);
         }
 
-        try (FileInputStream fis = new FileInputStream(file)) {
-            byte[] data = new byte[(int) file.length()];
-            fis.read(data);
+        try (FileInputStream fis = new FileInputStream(file);
+             FileChannel channel = fis.getChannel()) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new IOException("File too large to read at once, use readFileChunk or stream mode");
+            }
+            byte[] data = new byte[(int) size];
+            int length = readFully(channel, data, data.length, 0);
 
             String content;
             if ("base64".equals(encoding)) {
-                content = Base64.encodeToString(data, Base64.DEFAULT);
+                content = Base64.encodeToString(data, 0, length, Base64.DEFAULT);
             } else {
-                content = new String(data, StandardCharsets.UTF_8);
+                content = new String(data, 0, length, StandardCharsets.UTF_8);
             }
 
             JSObject result = new JSObject();
@@ -87,30 +132,170 @@ public class FileOperations {
         }
     }
 
+    /**
+     * 读取文件的指定字节区间
+     * utf8 编码时去掉末尾被截断的多字节字符，bytesRead 为实际消费的字节数，下一块应从 offset + bytesRead 开始
+     */
+    public JSObject readFileChunk(String path, long offset, int length, String encoding) throws Exception {
+        File file = new File(path);
+
+        if (!file.exists()) {
+            throw new Exception("File does not exist: " + path);
+        }
+
+        if (!file.isFile()) {
+            throw new Exception("Path is not a file: " + path);
+        }
+
+        if (offset < 0 || length <= 0) {
+            throw new Exception("Invalid range: offset=" + offset + ", length=" + length);
+        }
+
+        if (length > MAX_CHUNK_SIZE) {
+            throw new Exception("Chunk length exceeds limit of " + MAX_CHUNK_SIZE + " bytes");
+        }
+
+        // utf8 至少要能容纳一个完整字符，否则 bytesRead 可能为 0，调用方无法前进
+        if (!"base64".equals(encoding) && length < MIN_UTF8_CHUNK_SIZE) {
+            throw new Exception("Chunk length must be at least " + MIN_UTF8_CHUNK_SIZE + " bytes for utf8");
+        }
+
+        try (FileInputStream fis = new FileInputStream(file);
+             FileChannel channel = fis.getChannel()) {
+            long totalSize = channel.size();
+            int count = (int) Math.max(0, Math.min(length, totalSize - offset));
+            byte[] data = new byte[count];
+            count = readFully(channel, data, count, offset);
+
+            boolean reachedEnd = offset + count >= totalSize;
+            int usable = "base64".equals(encoding) || reachedEnd ? count : completeUtf8Length(data, count);
+
+            JSObject result = new JSObject();
+            result.put("content", encodeBytes(data, usable, encoding));
+            result.put("encoding", encoding);
+            result.put("offset", offset);
+            result.put("bytesRead", usable);
+            result.put("totalSize", totalSize);
+            result.put("eof", offset + usable >= totalSize);
+            return result;
+        } catch (IOException e) {
+            throw new Exception("Failed to read file chunk: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 流式读取文件
+     * 使用固定大小的缓冲区逐块读取并通过回调推送，内存占用与文件大小无关。
+     * base64 编码时块大小对齐到 3 字节，各块内容可直接拼接
+     */
+    public JSObject readFileStream(String path, String encoding, int chunkSize,
+                                   ReadChunkListener listener) throws Exception {
+        File file = new File(path);
+
+        if (!file.exists()) {
+            throw new Exception("File does not exist: " + path);
+        }
+
+        if (!file.isFile()) {
+            throw new Exception("Path is not a file: " + path);
+        }
+
+        boolean base64 = "base64".equals(encoding);
+        if (chunkSize <= 0) {
+            chunkSize = DEFAULT_CHUNK_SIZE;
+        }
+        chunkSize = Math.max(MIN_UTF8_CHUNK_SIZE, Math.min(chunkSize, MAX_CHUNK_SIZE));
+        if (base64) {
+            chunkSize -= chunkSize % 3;
+        }
+
+        try (FileInputStream fis = new FileInputStream(file);
+             FileChannel channel = fis.getChannel()) {
+            long totalSize = channel.size();
+            byte[] buffer = new byte[chunkSize];
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+
+            long offset = 0;
+            int chunkIndex = 0;
+            int carried = 0;
+            boolean done;
+            do {
+                // 读满缓冲区（保留上一块末尾被截断的 UTF-8 字节）
+                byteBuffer.clear();
+                byteBuffer.position(carried);
+                boolean eof = false;
+                while (byteBuffer.hasRemaining()) {
+                    if (channel.read(byteBuffer) < 0) {
+                        eof = true;
+                        break;
+                    }
+                }
+                int filled = byteBuffer.position();
+                int usable = base64 || eof ? filled : completeUtf8Length(buffer, filled);
+
+                done = eof || offset + usable >= totalSize;
+                listener.onChunk(encodeBytes(buffer, usable, encoding), chunkIndex, offset, usable, totalSize, done);
+
+                offset += usable;
+                chunkIndex++;
+                carried = filled - usable;
+                System.arraycopy(buffer, usable, buffer, 0, carried);
+            } while (!done);
+
+            JSObject result = new JSObject();
+            result.put("content", "");
+            result.put("encoding", encoding);
+            result.put("totalSize", totalSize);
+            result.put("chunks", chunkIndex);
+            return result;
+        } catch (IOException e) {
+            throw new Exception("Failed to read file: " + e.getMessage());
+        }
+    }
+
     /**
      * 写入文件
      */
     public void writeFile(String path, String content, String encoding, boolean append) throws Exception {
+        writeFile(path, content, encoding, append, false, AtomicFileWriter.SYNC_ALWAYS);
+    }
+
+    /**
+     * 写入文件
+     * @param atomic 是否先写临时文件再重命名覆盖（不支持追加）
+     * @param syncPolicy 原子模式下的同步策略（always / batch / none）
+     */
+    public void writeFile(String path, String content, String encoding, boolean append, boolean atomic,
+                          String syncPolicy) throws Exception {
+        if (atomic && append) {
+            throw new Exception("Atomic write does not support append");
+        }
         File file = new File(path);
 
         // 确保父目录存在
         File parentDir = file.getParentFile();
-        if (parentDir != null && !parentDir.exists()) {
-            if (!parentDir.mkdirs()) {
-                throw new Exception("Failed to create parent directories for: " + path);
-            }
+        if (parentDir != null && !parentDir.exists() && !parentDir.mkdirs() && !parentDir.isDirectory()) {
+            throw new Exception("Failed to create parent directories for: " + path);
         }
 
-        try (FileOutputStream fos = new FileOutputStream(file, append)) {
-            byte[] data;
-            if ("base64".equals(encoding)) {
-                data = Base64.decode(content, Base64.DEFAULT);
+        byte[] data;
+        if ("base64".equals(encoding)) {
+            data = Base64.decode(content, Base64.DEFAULT);
+        } else {
+            data = content.getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            if (atomic) {
+                atomicWriter.write(file, data, syncPolicy);
             } else {
-                data = content.getBytes(StandardCharsets.UTF_8);
+                try (FileOutputStream fos = new FileOutputStream(file, append)) {
+                    fos.write(data);
+                }
             }
-            fos.write(data);
         } catch (IOException e) {
             throw new Exception("Failed to write file: " + e.getMessage());
+        } finally {
+            hashCache.invalidate(file);
         }
     }
 
@@ -128,6 +313,7 @@ public class FileOperations {
             throw new Exception("Path is not a file: " + path);
         }
 
+        hashCache.invalidate(file);
         if (!file.delete()) {
             throw new Exception("Failed to delete file: " + path);
         }
@@ -154,6 +340,7 @@ public class FileOperations {
             throw new Exception("A file or directory with that name already exists: " + newFile.getPath());
         }
 
+        hashCache.invalidateTree(file);
         if (!file.renameTo(newFile)) {
             throw new Exception("Failed to rename: " + path + " to " + newName);
         }
@@ -163,6 +350,15 @@ public class FileOperations {
      * 移动文件
      */
     public void moveFile(String sourcePath, String destinationPath) throws Exception {
+        moveFile(sourcePath, destinationPath, null, DirectoryCopier.DEFAULT_PARALLELISM, null);
+    }
+
+    /**
+     * 移动文件
+     * operationId 不为空时，跨文件系统的复制过程推送进度并可通过 cancelOperation 取消
+     */
+    public void moveFile(String sourcePath, String destinationPath, String operationId,
+                         int parallelism, FileCopier.ProgressListener listener) throws Exception {
         File sourceFile = new File(sourcePath);
         File destFile = new File(destinationPath);
 
@@ -173,15 +369,24 @@ public class FileOperations {
         // 确保目标父目录存在
         File destParent = destFile.getParentFile();
         if (destParent != null && !destParent.exists()) {
-            if (!destParent.mkdirs()) {
+            // 并发写入同一新目录时 mkdirs 可能因其他线程已创建而返回 false
+            if (!destParent.mkdirs() && !destParent.isDirectory()) {
                 throw new Exception("Failed to create destination directory");
             }
         }
 
+        hashCache.invalidateTree(sourceFile);
+        hashCache.invalidateTree(destFile);
+
         // 尝试直接重命名（同一文件系统内更快）
         if (!sourceFile.renameTo(destFile)) {
             // 如果重命名失败，尝试复制后删除
-            copyFileInternal(sourceFile, destFile);
+            JSObject copyResult = runCopy(sourceFile, destFile, operationId, parallelism, listener);
+            // 有条目复制失败时保留源文件，避免数据丢失
+            int errorCount = copyResult.optInt("errorCount", 0);
+            if (errorCount > 0) {
+                throw new Exception("Failed to copy " + errorCount + " entries, source was kept");
+            }
             if (!FileUtils.deleteRecursively(sourceFile)) {
                 throw new Exception("Failed to delete source after copy");
             }
@@ -192,6 +397,17 @@ public class FileOperations {
      * 复制文件
      */
     public void copyFile(String sourcePath, String destinationPath, boolean overwrite) throws Exception {
+        copyFile(sourcePath, destinationPath, overwrite, null, DirectoryCopier.DEFAULT_PARALLELISM, null);
+    }
+
+    /**
+     * 复制文件或目录
+     * 目录使用并行复制，单个条目失败不会中断复制，错误在结果中返回；
+     * operationId 不为空时推送进度并可通过 cancelOperation 取消
+     */
+    public JSObject copyFile(String sourcePath, String destinationPath, boolean overwrite,
+                             String operationId, int parallelism,
+                             FileCopier.ProgressListener listener) throws Exception {
         File sourceFile = new File(sourcePath);
         File destFile = new File(destinationPath);
 
@@ -206,12 +422,27 @@ public class FileOperations {
         // 确保目标父目录存在
         File destParent = destFile.getParentFile();
         if (destParent != null && !destParent.exists()) {
-            if (!destParent.mkdirs()) {
+            // 并发写入同一新目录时 mkdirs 可能因其他线程已创建而返回 false
+            if (!destParent.mkdirs() && !destParent.isDirectory()) {
                 throw new Exception("Failed to create destination directory");
             }
         }
 
-        copyFileInternal(sourceFile, destFile);
+        hashCache.invalidateTree(destFile);
+        return runCopy(sourceFile, destFile, operationId, parallelism, listener);
+    }
+
+    /**
+     * 取消正在进行的复制或移动操作
+     * @return 操作是否存在且已标记取消
+     */
+    public boolean cancelOperation(String operationId) {
+        FileCopier.Operation operation = activeOperations.get(operationId);
+        if (operation == null) {
+            return false;
+        }
+        operation.cancel();
+        return true;
     }
 
     /**
@@ -236,27 +467,71 @@ public class FileOperations {
     }
 
     /**
-     * 内部复制方法
+     * 从指定位置读取最多 length 字节，返回实际读取的字节数
      */
-    private void copyFileInternal(File source, File dest) throws Exception {
-        if (source.isDirectory()) {
-            if (!dest.exists()) {
-                dest.mkdirs();
+    private int readFully(FileChannel channel, byte[] data, int length, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data, 0, length);
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + buffer.position());
+            if (n < 0) {
+                break;
             }
-            File[] children = source.listFiles();
-            if (children != null) {
-                for (File child : children) {
-                    copyFileInternal(child, new File(dest, child.getName()));
-                }
+        }
+        return buffer.position();
+    }
+
+    /**
+     * 计算不含末尾不完整 UTF-8 字符的字节长度
+     */
+    private int completeUtf8Length(byte[] data, int length) {
+        // 从末尾向前最多检查 3 个字节，找到最后一个字符的起始字节
+        for (int i = length - 1; i >= 0 && i >= length - 4; i--) {
+            int b = data[i] & 0xff;
+            if ((b & 0xC0) == 0x80) {
+                continue;
             }
-        } else {
-            try (FileInputStream fis = new FileInputStream(source);
-                 FileOutputStream fos = new FileOutputStream(dest)) {
-                byte[] buffer = new byte[8192];
-                int length;
-                while ((length = fis.read(buffer)) > 0) {
-                    fos.write(buffer, 0, length);
-                }
+            int expected = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : b >= 0xC0 ? 2 : 1;
+            return length - i >= expected ? length : i;
+        }
+        return length;
+    }
+
+    private String encodeBytes(byte[] data, int length, String encoding) {
+        if ("base64".equals(encoding)) {
+            return Base64.encodeToString(data, 0, length, Base64.NO_WRAP);
+        }
+        return new String(data, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 执行复制，operationId 不为空时注册为可取消操作
+     */
+    private JSObject runCopy(File source, File dest, String operationId, int parallelism,
+                             FileCopier.ProgressListener listener) throws Exception {
+        FileCopier.Operation operation = new FileCopier.Operation(operationId, listener);
+        if (operationId != null) {
+            activeOperations.put(operationId, operation);
+        }
+        try {
+            JSObject result;
+            if (source.isDirectory()) {
+                result = new DirectoryCopier(operation).copy(source, dest, parallelism);
+            } else {
+                operation.setTotals(source.length(), 1);
+                FileCopier.copyFile(source, dest, operation);
+                operation.fileCompleted();
+
+                result = new JSObject();
+                result.put("filesCopied", 1);
+                result.put("bytesCopied", operation.getBytesCopied());
+                result.put("errorCount", 0);
+                result.put("errors", new JSArray());
+            }
+            operation.finish();
+            return result;
+        } finally {
+            if (operationId != null) {
+                activeOperations.remove(operationId, operation);
             }
         }
     }
@@ -5,6 +5,16 @@ import android.webkit.MimeTypeMap;
 import com.getcapacitor.JSObject;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 /**
  * 文件工具类
@@ -16,34 +26,56 @@ public class FileUtils {
      * 递归删除文件或目录
      */
     public static boolean deleteRecursively(File file) {
-        if (file.isDirectory()) {
-            File[] children = file.listFiles();
-            if (children != null) {
-                for (File child : children) {
-                    if (!deleteRecursively(child)) {
-                        return false;
-                    }
-                }
-            }
+        DirectoryScanner.Entry entry = DirectoryScanner.stat(file);
+        if (entry.isDirectory && !entry.isSymbolicLink) {
+            return deleteChildren(file) && file.delete();
         }
         return file.delete();
     }
 
+    /**
+     * 删除目录下所有子条目（使用扫描时读取的属性，不再逐个 stat）
+     */
+    private static boolean deleteChildren(File directory) {
+        List<DirectoryScanner.Entry> children = DirectoryScanner.scan(directory);
+        if (children == null) {
+            return true;
+        }
+        for (DirectoryScanner.Entry child : children) {
+            File childFile = child.toFile();
+            // 符号链接只删除链接本身，不进入目标目录
+            if (child.isDirectory && !child.isSymbolicLink && !deleteChildren(childFile)) {
+                return false;
+            }
+            if (!childFile.delete()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * 创建文件信息对象
      */
     public static JSObject createFileInfo(File file) {
+        return createFileInfo(DirectoryScanner.stat(file));
+    }
+
+    /**
+     * 从扫描条目创建文件信息对象
+     */
+    public static JSObject createFileInfo(DirectoryScanner.Entry entry) {
         JSObject fileInfo = new JSObject();
-        fileInfo.put("name", file.getName());
-        fileInfo.put("path", file.getAbsolutePath());
-        fileInfo.put("size", file.length());
-        fileInfo.put("type", file.isDirectory() ? "directory" : "file");
-        fileInfo.put("mtime", file.lastModified());
-        fileInfo.put("ctime", file.lastModified()); // Java无法获取创建时间，使用修改时间
-        fileInfo.put("isHidden", file.isHidden());
+        fileInfo.put("name", entry.name);
+        fileInfo.put("path", entry.path);
+        fileInfo.put("size", entry.size);
+        fileInfo.put("type", entry.isDirectory ? "directory" : "file");
+        fileInfo.put("mtime", entry.lastModified);
+        fileInfo.put("ctime", entry.lastModified); // Java无法获取创建时间，使用修改时间
+        fileInfo.put("isHidden", entry.isHidden());
         
-        if (!file.isDirectory()) {
-            String mimeType = getMimeType(file.getName());
+        if (!entry.isDirectory) {
+            String mimeType = getMimeType(entry.name);
             fileInfo.put("mimeType", mimeType);
         }
         
@@ -83,6 +115,28 @@ public class FileUtils {
         return directory.mkdirs();
     }
 
+    /**
+     * 以严格的 UTF-8 解码打开文件
+     * 遇到非法字节时读取抛出 CharacterCodingException，而不是替换为 U+FFFD；
+     * 解码后要写回的场景用它避免把匹配之外的字节改坏
+     */
+    public static Reader openUtf8Reader(File file) throws IOException {
+        return new InputStreamReader(new FileInputStream(file), newStrictUtf8Decoder());
+    }
+
+    /**
+     * 以严格的 UTF-8 解码内存中的字节，遇到非法字节时抛出 CharacterCodingException
+     */
+    public static String decodeUtf8(byte[] bytes) throws CharacterCodingException {
+        return newStrictUtf8Decoder().decode(ByteBuffer.wrap(bytes)).toString();
+    }
+
+    private static CharsetDecoder newStrictUtf8Decoder() {
+        return StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+    }
+
     /**
      * 获取可读的文件大小
      */
@@ -0,0 +1,402 @@
+package com.mycompany.plugins.example.core;
+
+import android.content.Context;
+import android.system.ErrnoException;
+import android.system.Os;
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文件哈希缓存
+ * 以路径为键，记录文件大小、修改时间和 inode；三者都未变化时直接返回缓存的哈希，不读取文件。
+ * 内存中按 LRU 淘汰，变更后延迟写入应用私有目录下的二进制文件
+ */
+public class HashCache {
+    private static final String TAG = "HashCache";
+    private static final String CACHE_FILE = "afm-hash-cache.bin";
+    private static final int MAGIC = 0x41464843; // "AFHC"
+    private static final int VERSION = 1;
+
+    public static final int DEFAULT_MAX_ENTRIES = 20000;
+    // 变更后延迟写盘，合并短时间内的多次变更
+    private static final long FLUSH_DELAY_MS = 2000;
+
+    /**
+     * 查询结果
+     */
+    public static final class Result {
+        public final Map<String, String> hashes;
+        public final boolean cached;
+
+        Result(Map<String, String> hashes, boolean cached) {
+            this.hashes = hashes;
+            this.cached = cached;
+        }
+    }
+
+    /**
+     * 缓存条目：文件状态和各算法的哈希值
+     */
+    private static final class Entry {
+        final long size;
+        final long lastModified;
+        final long inode;
+        final Map<String, String> hashes;
+
+        Entry(long size, long lastModified, long inode, Map<String, String> hashes) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.inode = inode;
+            this.hashes = hashes;
+        }
+
+        boolean matches(long size, long lastModified, long inode) {
+            return this.size == size && this.lastModified == lastModified && this.inode == inode;
+        }
+    }
+
+    private final File cacheFile;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "afm-hash-cache");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 串行化写盘（后台定时写入与 shutdown 可能同时发生）
+    private final Object flushLock = new Object();
+
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+    private boolean loaded;
+    private boolean dirty;
+    private boolean flushScheduled;
+
+    // 统计
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public HashCache(Context context) {
+        this.cacheFile = new File(context.getFilesDir(), CACHE_FILE);
+    }
+
+    /**
+     * 获取文件哈希
+     * 文件未变化且缓存中包含所有请求的算法时不读取文件，否则只计算缺少的算法并写入缓存
+     */
+    public Result getHashes(File file, List<String> algorithms, FileHasher.ProgressListener listener) throws Exception {
+        String key = file.getAbsolutePath();
+        long[] stat = stat(file);
+
+        Map<String, String> known = null;
+        synchronized (this) {
+            ensureLoaded();
+            Entry entry = entries.get(key);
+            if (entry != null && entry.matches(stat[0], stat[1], stat[2])) {
+                known = entry.hashes;
+            } else if (entry != null) {
+                entries.remove(key);
+                invalidations++;
+            }
+
+            if (known != null && containsAll(known, algorithms)) {
+                hits++;
+                return new Result(select(known, algorithms), true);
+            }
+            misses++;
+        }
+
+        // 只计算缓存中缺少的算法
+        List<String> missing = new ArrayList<>();
+        for (String algorithm : normalize(algorithms)) {
+            if (known == null || !known.containsKey(algorithm)) {
+                missing.add(algorithm);
+            }
+        }
+        Map<String, String> computed = FileHasher.hash(file, missing, listener);
+
+        Map<String, String> merged = new LinkedHashMap<>();
+        if (known != null) {
+            merged.putAll(known);
+        }
+        merged.putAll(computed);
+
+        // 计算过程中文件被修改时不写入缓存
+        long[] after = stat(file);
+        if (after[0] == stat[0] && after[1] == stat[1] && after[2] == stat[2]) {
+            synchronized (this) {
+                entries.put(key, new Entry(stat[0], stat[1], stat[2], merged));
+                evictOverflow();
+                markDirty();
+            }
+        }
+        return new Result(select(merged, algorithms), false);
+    }
+
+    /**
+     * 只查询缓存，不读取文件
+     * @return 文件未变化且缓存中有该算法时返回哈希值，否则返回 null
+     */
+    public String peek(File file, String algorithm) {
+        long[] stat;
+        try {
+            stat = stat(file);
+        } catch (Exception e) {
+            return null;
+        }
+        String name = FileHasher.normalizeAlgorithm(algorithm);
+        synchronized (this) {
+            ensureLoaded();
+            Entry entry = entries.get(file.getAbsolutePath());
+            if (entry == null || !entry.matches(stat[0], stat[1], stat[2]) || !entry.hashes.containsKey(name)) {
+                return null;
+            }
+            hits++;
+            return entry.hashes.get(name);
+        }
+    }
+
+    /**
+     * 使文件的缓存失效
+     */
+    public synchronized void invalidate(File file) {
+        ensureLoaded();
+        if (entries.remove(file.getAbsolutePath()) != null) {
+            invalidations++;
+            markDirty();
+        }
+    }
+
+    /**
+     * 使文件或目录下所有文件的缓存失效（用于目录的移动、复制目标）
+     */
+    public synchronized void invalidateTree(File root) {
+        ensureLoaded();
+        String path = root.getAbsolutePath();
+        String prefix = path.endsWith(File.separator) ? path : path + File.separator;
+        Iterator<String> keys = entries.keySet().iterator();
+        boolean removed = false;
+        while (keys.hasNext()) {
+            String key = keys.next();
+            if (key.equals(path) || key.startsWith(prefix)) {
+                keys.remove();
+                invalidations++;
+                removed = true;
+            }
+        }
+        if (removed) {
+            markDirty();
+        }
+    }
+
+    public synchronized void setMaxEntries(int maxEntries) {
+        ensureLoaded();
+        this.maxEntries = Math.max(0, maxEntries);
+        evictOverflow();
+        markDirty();
+    }
+
+    public synchronized void clear() {
+        ensureLoaded();
+        invalidations += entries.size();
+        entries.clear();
+        markDirty();
+    }
+
+    public synchronized JSObject getStats() {
+        ensureLoaded();
+        JSObject stats = new JSObject();
+        stats.put("entries", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        stats.put("invalidations", invalidations);
+        long lookups = hits + misses;
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hits / lookups);
+        return stats;
+    }
+
+    /**
+     * 立即写盘并停止后台写入线程
+     */
+    public void shutdown() {
+        flusher.shutdownNow();
+        flush();
+    }
+
+    // ============ 辅助方法 ============
+
+    /**
+     * @return {大小, 修改时间, inode}
+     */
+    private static long[] stat(File file) throws Exception {
+        if (!file.isFile()) {
+            throw new Exception("File does not exist: " + file.getPath());
+        }
+        long inode = 0;
+        try {
+            inode = Os.stat(file.getPath()).st_ino;
+        } catch (ErrnoException e) {
+            // 取不到 inode 时只比较大小和修改时间
+        }
+        return new long[]{file.length(), file.lastModified(), inode};
+    }
+
+    private static List<String> normalize(List<String> algorithms) {
+        List<String> names = new ArrayList<>();
+        if (algorithms != null) {
+            for (String algorithm : algorithms) {
+                String name = FileHasher.normalizeAlgorithm(algorithm);
+                if (!names.contains(name)) {
+                    names.add(name);
+                }
+            }
+        }
+        if (names.isEmpty()) {
+            names.add(FileHasher.DEFAULT_ALGORITHM);
+        }
+        return names;
+    }
+
+    private static boolean containsAll(Map<String, String> hashes, List<String> algorithms) {
+        for (String algorithm : normalize(algorithms)) {
+            if (!hashes.containsKey(algorithm)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, String> select(Map<String, String> hashes, List<String> algorithms) {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String algorithm : normalize(algorithms)) {
+            result.put(algorithm, hashes.get(algorithm));
+        }
+        return result;
+    }
+
+    private void evictOverflow() {
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() > maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            evictions++;
+        }
+    }
+
+    private void markDirty() {
+        dirty = true;
+        if (!flushScheduled && !flusher.isShutdown()) {
+            flushScheduled = true;
+            flusher.schedule(this::flush, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!cacheFile.exists()) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(cacheFile), 64 * 1024))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                Log.w(TAG, "Ignoring hash cache with unknown format");
+                return;
+            }
+            maxEntries = in.readInt();
+            int count = in.readInt();
+            // 文件按 LRU 顺序保存，依次插入即可恢复访问顺序
+            for (int i = 0; i < count; i++) {
+                String path = in.readUTF();
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                long inode = in.readLong();
+                int algorithmCount = in.readUnsignedByte();
+                Map<String, String> hashes = new LinkedHashMap<>();
+                for (int j = 0; j < algorithmCount; j++) {
+                    hashes.put(in.readUTF(), in.readUTF());
+                }
+                entries.put(path, new Entry(size, lastModified, inode, hashes));
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to load hash cache: " + e.getMessage());
+            entries.clear();
+        }
+    }
+
+    private void flush() {
+        synchronized (flushLock) {
+            writeSnapshot();
+        }
+    }
+
+    private void writeSnapshot() {
+        List<Map.Entry<String, Entry>> snapshot;
+        int max;
+        synchronized (this) {
+            flushScheduled = false;
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+            snapshot = new ArrayList<>(entries.entrySet());
+            max = maxEntries;
+        }
+
+        File tempFile = new File(cacheFile.getPath() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tempFile), 64 * 1024))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(max);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<String, Entry> item : snapshot) {
+                    Entry entry = item.getValue();
+                    out.writeUTF(item.getKey());
+                    out.writeLong(entry.size);
+                    out.writeLong(entry.lastModified);
+                    out.writeLong(entry.inode);
+                    out.writeByte(entry.hashes.size());
+                    for (Map.Entry<String, String> hash : entry.hashes.entrySet()) {
+                        out.writeUTF(hash.getKey());
+                        out.writeUTF(hash.getValue());
+                    }
+                }
+            }
+            if (!tempFile.renameTo(cacheFile)) {
+                throw new IOException("Failed to replace " + cacheFile.getPath());
+            }
+        } catch (IOException e) {
+            tempFile.delete();
+            Log.w(TAG, "Failed to save hash cache: " + e.getMessage());
+            synchronized (this) {
+                dirty = true;
+            }
+        }
+    }
+}
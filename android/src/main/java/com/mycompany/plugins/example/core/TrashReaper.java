@@ -0,0 +1,396 @@
+package com.mycompany.plugins.example.core;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+
+import org.json.JSONException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 目录删除模块
+ * 按子树并行删除目录，单个条目失败只记录错误。快速删除模式先把目录重命名到插件的回收区（O(1)），
+ * 再由后台任务清理；未完成的清理记录在清单文件中（每行一个 JSON 对象），插件重启后继续。
+ * 回收区内的条目名随机生成，deleteId 只用于清单和查询
+ */
+public class TrashReaper {
+    private static final String TAG = "TrashReaper";
+    private static final String TRASH_DIR = "afm-trash";
+    private static final String SIBLING_TRASH_DIR = ".afm-trash";
+    private static final String MANIFEST_FILE = "afm-trash.list";
+
+    // 默认配置
+    private static final int DEFAULT_PARALLELISM = 4;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final long PROGRESS_INTERVAL_MS = 200;
+
+    /**
+     * 删除进度回调
+     */
+    public interface ProgressListener {
+        void onProgress(JSObject progress, boolean done);
+    }
+
+    private final File internalTrash;
+    private final File manifestFile;
+    private final ForkJoinPool pool = new ForkJoinPool(DEFAULT_PARALLELISM);
+
+    // 正在进行的删除（key 为 deleteId）
+    private final Map<String, PendingDelete> pending = new ConcurrentHashMap<>();
+    private volatile ProgressListener listener;
+
+    public TrashReaper(Context context) {
+        this.internalTrash = new File(context.getFilesDir(), TRASH_DIR);
+        this.manifestFile = new File(context.getFilesDir(), MANIFEST_FILE);
+    }
+
+    public void setListener(ProgressListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * 同步并行删除目录
+     * @return 删除统计和错误列表
+     */
+    public JSObject deleteNow(File directory, String deleteId) throws Exception {
+        PendingDelete delete = new PendingDelete(deleteId, directory.getPath(), directory, false);
+        if (deleteId != null) {
+            pending.put(deleteId, delete);
+        }
+        try {
+            pool.invoke(new DeleteTask(directory, delete));
+        } finally {
+            if (deleteId != null) {
+                pending.remove(deleteId, delete);
+            }
+        }
+
+        if (delete.cancelled.get()) {
+            throw new Exception("Operation cancelled: " + deleteId);
+        }
+        delete.notifyProgress(true);
+        return delete.toJSObject();
+    }
+
+    /**
+     * 快速删除：把目录移入回收区后立即返回，后台并行清理
+     * 无法重命名到回收区时（如跨文件系统且父目录不可写）退回同步删除
+     */
+    public JSObject deleteInBackground(File directory, String deleteId) throws Exception {
+        File trashPath = moveToTrash(directory);
+        if (trashPath == null) {
+            Log.w(TAG, "Cannot move to trash, deleting in place: " + directory.getPath());
+            return deleteNow(directory, deleteId);
+        }
+
+        PendingDelete delete = new PendingDelete(deleteId, directory.getPath(), trashPath, true);
+        pending.put(deleteId, delete);
+        saveManifest();
+        pool.execute(new ReapTask(delete));
+
+        JSObject result = delete.toJSObject();
+        result.put("trashPath", trashPath.getPath());
+        return result;
+    }
+
+    /**
+     * 继续清理上次未完成的删除
+     */
+    public void resumePendingDeletes() {
+        if (!manifestFile.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(manifestFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JSObject entry;
+                try {
+                    entry = new JSObject(line);
+                } catch (JSONException e) {
+                    Log.w(TAG, "Skipping invalid trash manifest entry");
+                    continue;
+                }
+                String deleteId = entry.optString("deleteId", null);
+                String originalPath = entry.optString("originalPath", null);
+                String trashPath = entry.optString("trashPath", null);
+                if (deleteId == null || originalPath == null || trashPath == null
+                    || pending.containsKey(deleteId) || !isInTrash(new File(trashPath))
+                    || !new File(trashPath).exists()) {
+                    continue;
+                }
+                PendingDelete delete = new PendingDelete(deleteId, originalPath, new File(trashPath), true);
+                pending.put(delete.deleteId, delete);
+                pool.execute(new ReapTask(delete));
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to read trash manifest: " + e.getMessage());
+        }
+        saveManifest();
+    }
+
+    /**
+     * 取消删除
+     * 快速删除模式下剩余内容会移回原位置
+     */
+    public boolean cancel(String deleteId) {
+        PendingDelete delete = pending.get(deleteId);
+        if (delete == null) {
+            return false;
+        }
+        delete.cancelled.set(true);
+        return true;
+    }
+
+    /**
+     * 获取正在进行的删除
+     */
+    public JSObject getPendingDeletes() {
+        JSArray deletes = new JSArray();
+        for (PendingDelete delete : pending.values()) {
+            deletes.put(delete.toJSObject());
+        }
+        JSObject result = new JSObject();
+        result.put("deletes", deletes);
+        return result;
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // ============ 辅助方法 ============
+
+    private File moveToTrash(File directory) {
+        // 优先使用应用私有回收区，跨文件系统时使用同级的隐藏回收区
+        List<File> trashRoots = new ArrayList<>();
+        trashRoots.add(internalTrash);
+        File parent = directory.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            trashRoots.add(new File(parent, SIBLING_TRASH_DIR));
+        }
+
+        for (File trashRoot : trashRoots) {
+            if (!trashRoot.isDirectory() && !trashRoot.mkdirs()) {
+                continue;
+            }
+            File target = new File(trashRoot, UUID.randomUUID().toString());
+            if (!target.exists() && directory.renameTo(target)) {
+                return target;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 清单中的路径必须位于回收区内，避免被改写的清单删除任意目录
+     */
+    private boolean isInTrash(File trashPath) {
+        File trashRoot = trashPath.getParentFile();
+        return trashRoot != null
+               && (trashRoot.equals(internalTrash) || SIBLING_TRASH_DIR.equals(trashRoot.getName()));
+    }
+
+    private synchronized void saveManifest() {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(manifestFile))) {
+            for (PendingDelete delete : pending.values()) {
+                if (delete.background) {
+                    JSObject entry = new JSObject();
+                    entry.put("deleteId", delete.deleteId);
+                    entry.put("originalPath", delete.originalPath);
+                    entry.put("trashPath", delete.target.getPath());
+                    writer.write(entry.toString());
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write trash manifest: " + e.getMessage());
+        }
+    }
+
+    private void finishBackground(PendingDelete delete) {
+        if (delete.cancelled.get()) {
+            // 取消时把剩余内容移回原位置
+            File original = new File(delete.originalPath);
+            if (delete.target.exists() && !original.exists() && !delete.target.renameTo(original)) {
+                delete.recordError(delete.target.getPath(), "Failed to restore to " + delete.originalPath);
+            }
+        }
+
+        // 同级回收区为空时一并删除
+        File trashRoot = delete.target.getParentFile();
+        if (trashRoot != null && SIBLING_TRASH_DIR.equals(trashRoot.getName())) {
+            trashRoot.delete();
+        }
+
+        pending.remove(delete.deleteId, delete);
+        saveManifest();
+        delete.notifyProgress(true);
+        Log.d(TAG, "Reaped " + delete.originalPath + ": " + delete.filesDeleted.get() + " files, "
+              + delete.errorCount.get() + " errors");
+    }
+
+    /**
+     * 删除记录
+     */
+    private class PendingDelete {
+        final String deleteId;
+        final String originalPath;
+        final File target;
+        final boolean background;
+        final long startedAt = System.currentTimeMillis();
+        final AtomicBoolean cancelled = new AtomicBoolean(false);
+        final AtomicInteger filesDeleted = new AtomicInteger();
+        final AtomicLong bytesFreed = new AtomicLong();
+        final AtomicInteger errorCount = new AtomicInteger();
+        final ConcurrentLinkedQueue<JSObject> errors = new ConcurrentLinkedQueue<>();
+        private long lastProgressAt;
+
+        PendingDelete(String deleteId, String originalPath, File target, boolean background) {
+            this.deleteId = deleteId;
+            this.originalPath = originalPath;
+            this.target = target;
+            this.background = background;
+        }
+
+        void recordDeleted(long size) {
+            filesDeleted.incrementAndGet();
+            bytesFreed.addAndGet(size);
+            synchronized (this) {
+                long now = System.currentTimeMillis();
+                if (now - lastProgressAt < PROGRESS_INTERVAL_MS) {
+                    return;
+                }
+                lastProgressAt = now;
+            }
+            notifyProgress(false);
+        }
+
+        void recordError(String path, String message) {
+            if (errorCount.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+                JSObject error = new JSObject();
+                error.put("path", path);
+                error.put("error", message);
+                errors.add(error);
+            }
+            Log.w(TAG, "Failed to delete " + path + ": " + message);
+        }
+
+        void notifyProgress(boolean done) {
+            ProgressListener current = listener;
+            if (current != null && deleteId != null) {
+                current.onProgress(toJSObject(), done);
+            }
+        }
+
+        JSObject toJSObject() {
+            JSArray errorsArray = new JSArray();
+            for (JSObject error : errors) {
+                errorsArray.put(error);
+            }
+
+            JSObject result = new JSObject();
+            if (deleteId != null) {
+                result.put("deleteId", deleteId);
+            }
+            result.put("path", originalPath);
+            result.put("filesDeleted", filesDeleted.get());
+            result.put("bytesFreed", bytesFreed.get());
+            result.put("errorCount", errorCount.get());
+            result.put("errors", errorsArray);
+            result.put("startedAt", startedAt);
+            result.put("cancelled", cancelled.get());
+            return result;
+        }
+    }
+
+    /**
+     * 后台清理任务
+     */
+    private class ReapTask extends RecursiveAction {
+        private final PendingDelete delete;
+
+        ReapTask(PendingDelete delete) {
+            this.delete = delete;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                new DeleteTask(delete.target, delete).invoke();
+            } finally {
+                finishBackground(delete);
+            }
+        }
+    }
+
+    /**
+     * 删除任务：删除一层目录中的文件，为子目录创建子任务，子树完成后删除目录本身
+     */
+    private class DeleteTask extends RecursiveAction {
+        private final File directory;
+        private final PendingDelete delete;
+
+        DeleteTask(File directory, PendingDelete delete) {
+            this.directory = directory;
+            this.delete = delete;
+        }
+
+        @Override
+        protected void compute() {
+            if (delete.cancelled.get()) {
+                return;
+            }
+
+            List<DirectoryScanner.Entry> entries = DirectoryScanner.scan(directory);
+            if (entries == null) {
+                delete.recordError(directory.getPath(), "Cannot read directory");
+                return;
+            }
+
+            List<DeleteTask> subtasks = new ArrayList<>();
+            for (DirectoryScanner.Entry entry : entries) {
+                if (delete.cancelled.get()) {
+                    return;
+                }
+                // 符号链接只删除链接本身，不进入目标目录
+                if (entry.isDirectory && !entry.isSymbolicLink) {
+                    subtasks.add(new DeleteTask(entry.toFile(), delete));
+                } else if (entry.toFile().delete()) {
+                    delete.recordDeleted(entry.size);
+                } else {
+                    delete.recordError(entry.path, "Failed to delete file");
+                }
+            }
+
+            if (!subtasks.isEmpty()) {
+                invokeAll(subtasks);
+            }
+
+            if (delete.cancelled.get()) {
+                return;
+            }
+            if (!directory.delete() && directory.exists()) {
+                delete.recordError(directory.getPath(), "Failed to delete directory");
+            }
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.mycompany.plugins.example.core;
+
+import android.util.Base64;
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 写入会话管理
+ * 会话期间保持文件通道打开，分块追加时不再重复打开文件；按会话配置的策略同步到磁盘，
+ * 进程崩溃后可从已确认的偏移重新打开继续写入。空闲超时的会话由后台线程自动关闭
+ */
+public class WriteSessionManager {
+    private static final String TAG = "WriteSessionManager";
+
+    // 同步策略
+    public static final String SYNC_NONE = "none";
+    public static final String SYNC_CHUNK = "chunk";
+    public static final String SYNC_CLOSE = "close";
+
+    // 默认配置
+    private static final long DEFAULT_IDLE_TIMEOUT_MS = 60 * 1000;
+    private static final long REAPER_INTERVAL_MS = 15 * 1000;
+    private static final int MAX_SESSIONS = 64;
+
+    /**
+     * 写入会话
+     */
+    private static final class Session {
+        final String handle;
+        final File file;
+        final String syncPolicy;
+        final long idleTimeout;
+        final RandomAccessFile output;
+        final FileChannel channel;
+        long position;
+        long bytesWritten;
+        int chunks;
+        long lastAccess = System.currentTimeMillis();
+        boolean closed;
+
+        Session(String handle, File file, String syncPolicy, long idleTimeout, RandomAccessFile output) {
+            this.handle = handle;
+            this.file = file;
+            this.syncPolicy = syncPolicy;
+            this.idleTimeout = idleTimeout;
+            this.output = output;
+            this.channel = output.getChannel();
+        }
+    }
+
+    private final HashCache hashCache;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "AFM-write-session-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public WriteSessionManager(HashCache hashCache) {
+        this.hashCache = hashCache;
+        reaper.scheduleWithFixedDelay(this::closeIdleSessions, REAPER_INTERVAL_MS, REAPER_INTERVAL_MS,
+                                      TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 打开写入会话
+     * @param offset 从该偏移继续写入并丢弃之后的内容（崩溃后按已确认的偏移续写），为 null 时由 append 决定
+     * @param append offset 为 null 时是否从文件末尾追加（否则清空文件）
+     * @param idleTimeout 空闲超时（毫秒），小于等于 0 时使用默认值
+     */
+    public JSObject open(String path, Long offset, boolean append, String syncPolicy,
+                         long idleTimeout) throws Exception {
+        if (!SYNC_NONE.equals(syncPolicy) && !SYNC_CHUNK.equals(syncPolicy) && !SYNC_CLOSE.equals(syncPolicy)) {
+            throw new Exception("Invalid syncPolicy: " + syncPolicy);
+        }
+        if (sessions.size() >= MAX_SESSIONS) {
+            throw new Exception("Too many open write sessions");
+        }
+
+        File file = new File(path);
+        File parentDir = file.getParentFile();
+        if (parentDir != null && !parentDir.exists() && !parentDir.mkdirs() && !parentDir.isDirectory()) {
+            throw new Exception("Failed to create parent directories for: " + path);
+        }
+
+        RandomAccessFile output = new RandomAccessFile(file, "rw");
+        Session session = new Session(UUID.randomUUID().toString(), file, syncPolicy,
+                                      idleTimeout > 0 ? idleTimeout : DEFAULT_IDLE_TIMEOUT_MS, output);
+        try {
+            long size = session.channel.size();
+            if (offset != null) {
+                if (offset < 0 || offset > size) {
+                    throw new Exception("Offset " + offset + " is beyond file size " + size);
+                }
+                session.channel.truncate(offset);
+                session.position = offset;
+            } else if (append) {
+                session.position = size;
+            } else {
+                session.channel.truncate(0);
+                session.position = 0;
+            }
+        } catch (Exception e) {
+            closeChannel(session);
+            throw e;
+        } finally {
+            hashCache.invalidate(file);
+        }
+        sessions.put(session.handle, session);
+
+        JSObject result = new JSObject();
+        result.put("handle", session.handle);
+        result.put("path", path);
+        result.put("offset", session.position);
+        result.put("syncPolicy", syncPolicy);
+        return result;
+    }
+
+    /**
+     * 获取会话对应的文件路径（用于按路径串行调度）
+     */
+    public String getPath(String handle) throws Exception {
+        return getSession(handle).file.getPath();
+    }
+
+    /**
+     * 追加一块数据
+     * @param expectedOffset 不为 null 时必须等于当前写入位置，用于重试时避免重复写入
+     */
+    public JSObject append(String handle, String data, String encoding, Long expectedOffset) throws Exception {
+        Session session = getSession(handle);
+        byte[] bytes = "base64".equals(encoding)
+            ? Base64.decode(data, Base64.DEFAULT)
+            : data.getBytes(StandardCharsets.UTF_8);
+
+        synchronized (session) {
+            if (session.closed) {
+                throw new Exception("Write session closed: " + handle);
+            }
+            if (expectedOffset != null && expectedOffset != session.position) {
+                throw new Exception("Offset mismatch: expected " + session.position + ", got " + expectedOffset);
+            }
+            long offset = session.position;
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                long writePosition = offset;
+                while (buffer.hasRemaining()) {
+                    writePosition += session.channel.write(buffer, writePosition);
+                }
+                if (SYNC_CHUNK.equals(session.syncPolicy)) {
+                    session.channel.force(false);
+                }
+            } catch (IOException e) {
+                throw new Exception("Failed to write chunk: " + e.getMessage());
+            } finally {
+                hashCache.invalidate(session.file);
+            }
+            session.position = offset + bytes.length;
+            session.bytesWritten += bytes.length;
+            session.chunks++;
+            session.lastAccess = System.currentTimeMillis();
+
+            JSObject result = new JSObject();
+            result.put("offset", offset);
+            result.put("bytesWritten", bytes.length);
+            result.put("position", session.position);
+            return result;
+        }
+    }
+
+    /**
+     * 关闭会话（on-close 策略在此同步到磁盘）
+     */
+    public JSObject close(String handle) throws Exception {
+        Session session = sessions.remove(handle);
+        if (session == null) {
+            throw new Exception("Write session not found: " + handle);
+        }
+        synchronized (session) {
+            IOException syncError = closeSession(session);
+            if (syncError != null) {
+                throw new Exception("Failed to sync file: " + syncError.getMessage());
+            }
+
+            JSObject result = new JSObject();
+            result.put("path", session.file.getPath());
+            result.put("size", session.position);
+            result.put("bytesWritten", session.bytesWritten);
+            result.put("chunks", session.chunks);
+            return result;
+        }
+    }
+
+    public void shutdown() {
+        reaper.shutdownNow();
+        for (Session session : sessions.values()) {
+            synchronized (session) {
+                closeSession(session);
+            }
+        }
+        sessions.clear();
+    }
+
+    // ============ 辅助方法 ============
+
+    private Session getSession(String handle) throws Exception {
+        Session session = sessions.get(handle);
+        if (session == null) {
+            throw new Exception("Write session not found: " + handle);
+        }
+        return session;
+    }
+
+    private void closeIdleSessions() {
+        long now = System.currentTimeMillis();
+        Iterator<Session> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            Session session = iterator.next();
+            synchronized (session) {
+                if (now - session.lastAccess > session.idleTimeout) {
+                    Log.d(TAG, "Closing idle write session for " + session.file.getPath());
+                    iterator.remove();
+                    closeSession(session);
+                }
+            }
+        }
+    }
+
+    /**
+     * 按策略同步并关闭文件，返回同步失败的异常（调用方持有会话锁）
+     */
+    private IOException closeSession(Session session) {
+        if (session.closed) {
+            return null;
+        }
+        IOException syncError = null;
+        if (!SYNC_NONE.equals(session.syncPolicy)) {
+            try {
+                session.channel.force(true);
+            } catch (IOException e) {
+                syncError = e;
+            }
+        }
+        closeChannel(session);
+        hashCache.invalidate(session.file);
+        return syncError;
+    }
+
+    private void closeChannel(Session session) {
+        session.closed = true;
+        try {
+            session.output.close();
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to close " + session.file.getPath() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package com.mycompany.plugins.example.executor;
+
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * I/O 调度模块
+ * 将插件方法的阻塞文件操作从 bridge 线程转移到有界线程池执行：
+ * 读操作可并行，针对同一路径的写操作按提交顺序串行执行；
+ * 涉及多个路径的写操作（移动、复制）在所有路径上一次性排队，等每个路径上之前的写操作都完成后执行
+ */
+public class IoDispatcher {
+    private static final String TAG = "IoDispatcher";
+
+    // 默认配置
+    private static final int QUEUE_CAPACITY = 256;
+    private static final long KEEP_ALIVE_SECONDS = 30L;
+
+    private final ThreadPoolExecutor executor;
+
+    // 同一路径的写操作队列（key 为规范化路径，队首为正在执行的任务）
+    private final Map<String, ArrayDeque<DispatchedTask>> writeLanes = new HashMap<>();
+    // 在队列中等待的写操作数，与线程池队列一样受 QUEUE_CAPACITY 限制
+    private final AtomicInteger laneBacklog = new AtomicInteger();
+
+    // 统计数据
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public IoDispatcher() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public IoDispatcher(int cpuCount) {
+        int poolSize = Math.max(2, cpuCount);
+        this.executor = new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(QUEUE_CAPACITY),
+            new IoThreadFactory(),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 提交读操作（不同路径之间可并行执行）
+     */
+    public void read(PluginCall call, Runnable work) {
+        DispatchedTask task = new DispatchedTask(call, work);
+        submittedCount.incrementAndGet();
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            reject(task);
+        }
+    }
+
+    /**
+     * 提交写操作（同一路径按提交顺序执行）
+     */
+    public void write(String path, PluginCall call, Runnable work) {
+        write(new String[]{path}, call, work);
+    }
+
+    /**
+     * 提交涉及多个路径的写操作，所有路径上之前提交的写操作完成后才执行
+     */
+    public void write(String[] paths, PluginCall call, Runnable work) {
+        DispatchedTask task = new DispatchedTask(call, work, normalizeKeys(paths));
+        submittedCount.incrementAndGet();
+
+        synchronized (writeLanes) {
+            if (laneBacklog.get() >= QUEUE_CAPACITY) {
+                reject(task);
+                return;
+            }
+            if (!enqueue(task)) {
+                // 排队等待，由之前的写操作完成后调度
+                return;
+            }
+        }
+
+        List<DispatchedTask> ready = new ArrayList<>();
+        ready.add(task);
+        dispatch(ready);
+    }
+
+    /**
+     * 在调用线程中执行写操作，与 write 提交的操作共用路径队列
+     * 供使用自己线程池的模块（如批量操作）与插件的写操作保持顺序；等待期间被中断时放弃执行
+     */
+    public <T> T runWrite(String[] paths, Callable<T> work) throws Exception {
+        DispatchedTask task = new DispatchedTask(null, null, normalizeKeys(paths));
+        task.waiter = new CountDownLatch(1);
+        synchronized (writeLanes) {
+            if (enqueue(task)) {
+                task.waiter.countDown();
+            }
+        }
+
+        try {
+            task.waiter.await();
+        } catch (InterruptedException e) {
+            abandon(task);
+            throw e;
+        }
+        try {
+            return work.call();
+        } finally {
+            dispatch(release(task));
+        }
+    }
+
+    /**
+     * 获取执行器统计信息
+     */
+    public JSObject getStats() {
+        long completed = completedCount.get();
+        long totalWait = totalWaitNanos.get();
+
+        JSObject stats = new JSObject();
+        stats.put("poolSize", executor.getPoolSize());
+        stats.put("maxPoolSize", executor.getMaximumPoolSize());
+        stats.put("activeCount", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size() + laneBacklog.get());
+        stats.put("queueCapacity", QUEUE_CAPACITY);
+        stats.put("pendingWrites", laneBacklog.get());
+        stats.put("submitted", submittedCount.get());
+        stats.put("completed", completed);
+        stats.put("rejected", rejectedCount.get());
+        stats.put("avgWaitMs", completed > 0 ? (totalWait / completed) / 1_000_000.0 : 0.0);
+        stats.put("maxWaitMs", maxWaitNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    /**
+     * 关闭执行器
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(2, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ============ 辅助方法 ============
+
+    /**
+     * 在锁内一次性加入所有路径的队列，多路径任务之间不会互相等待（调用方持有 writeLanes 锁）
+     * @return 是否可以立即开始
+     */
+    private boolean enqueue(DispatchedTask task) {
+        boolean ready = true;
+        for (String key : task.keys) {
+            ArrayDeque<DispatchedTask> lane = writeLanes.get(key);
+            if (lane == null) {
+                lane = new ArrayDeque<>();
+                writeLanes.put(key, lane);
+            } else {
+                ready = false;
+            }
+            lane.add(task);
+        }
+        if (ready) {
+            task.started = true;
+        } else {
+            laneBacklog.incrementAndGet();
+        }
+        return ready;
+    }
+
+    /**
+     * 调度可以开始的写操作，线程池拒绝时拒绝该调用并继续调度它之后的写操作
+     */
+    private void dispatch(List<DispatchedTask> ready) {
+        for (DispatchedTask task : ready) {
+            if (task.waiter != null) {
+                // runWrite 的调用线程自己执行
+                task.waiter.countDown();
+                continue;
+            }
+            try {
+                executor.execute(() -> drainLanes(task));
+            } catch (RejectedExecutionException e) {
+                reject(task);
+                dispatch(release(task));
+            }
+        }
+    }
+
+    /**
+     * 执行写操作，完成后在同一工作线程中继续执行接下来可以开始的写操作
+     */
+    private void drainLanes(DispatchedTask first) {
+        DispatchedTask task = first;
+        while (task != null) {
+            task.run();
+            List<DispatchedTask> ready = release(task);
+            task = null;
+            for (int i = 0; i < ready.size(); i++) {
+                if (ready.get(i).waiter == null) {
+                    task = ready.remove(i);
+                    break;
+                }
+            }
+            dispatch(ready);
+        }
+    }
+
+    /**
+     * 放弃尚未开始的 runWrite，已经轮到它时按完成处理
+     */
+    private void abandon(DispatchedTask task) {
+        synchronized (writeLanes) {
+            if (!task.started) {
+                // 与递减在同一把锁内标记，之后并发的 release 不会再把它当作可开始的任务再递减一次
+                task.started = true;
+                laneBacklog.decrementAndGet();
+            }
+        }
+        dispatch(release(task));
+    }
+
+    /**
+     * 把已完成（或放弃）的写操作移出队列
+     * @return 因此到达所有路径队首、可以开始的写操作
+     */
+    private List<DispatchedTask> release(DispatchedTask task) {
+        List<DispatchedTask> ready = new ArrayList<>();
+        synchronized (writeLanes) {
+            for (String key : task.keys) {
+                ArrayDeque<DispatchedTask> lane = writeLanes.get(key);
+                lane.remove(task);
+                if (lane.isEmpty()) {
+                    writeLanes.remove(key);
+                }
+            }
+            for (String key : task.keys) {
+                ArrayDeque<DispatchedTask> lane = writeLanes.get(key);
+                DispatchedTask next = lane != null ? lane.peek() : null;
+                if (next != null && !next.started && isAtHead(next)) {
+                    next.started = true;
+                    laneBacklog.decrementAndGet();
+                    ready.add(next);
+                }
+            }
+        }
+        return ready;
+    }
+
+    private boolean isAtHead(DispatchedTask task) {
+        for (String key : task.keys) {
+            if (writeLanes.get(key).peek() != task) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void reject(DispatchedTask task) {
+        rejectedCount.incrementAndGet();
+        Log.w(TAG, "I/O queue is full, rejecting call: " + task.call.getMethodName());
+        task.call.reject("I/O executor is busy, please retry later");
+    }
+
+    private String[] normalizeKeys(String[] paths) {
+        TreeSet<String> keys = new TreeSet<>();
+        for (String path : paths) {
+            keys.add(normalizeKey(path));
+        }
+        return keys.toArray(new String[0]);
+    }
+
+    private String normalizeKey(String path) {
+        if (path == null) {
+            return "";
+        }
+        if (path.startsWith("content://")) {
+            return path;
+        }
+        return new File(path).getAbsolutePath();
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.addAndGet(waitNanos);
+        long currentMax;
+        do {
+            currentMax = maxWaitNanos.get();
+        } while (waitNanos > currentMax && !maxWaitNanos.compareAndSet(currentMax, waitNanos));
+    }
+
+    /**
+     * 已调度的插件调用
+     */
+    private class DispatchedTask implements Runnable {
+        final PluginCall call;
+        final Runnable work;
+        final String[] keys;
+        final long enqueuedAt;
+        // 已离开等待队列（由 writeLanes 的锁保护）
+        boolean started;
+        // runWrite 的调用线程在此等待轮到自己
+        CountDownLatch waiter;
+
+        DispatchedTask(PluginCall call, Runnable work) {
+            this(call, work, new String[0]);
+        }
+
+        DispatchedTask(PluginCall call, Runnable work, String[] keys) {
+            this.call = call;
+            this.work = work;
+            this.keys = keys;
+            this.enqueuedAt = System.nanoTime();
+        }
+
+        @Override
+        public void run() {
+            recordWait(System.nanoTime() - enqueuedAt);
+            try {
+                work.run();
+            } catch (Exception e) {
+                Log.e(TAG, "Unhandled error in " + call.getMethodName(), e);
+                call.reject("Unexpected error: " + e.getMessage());
+            } finally {
+                completedCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * I/O 线程工厂
+     */
+    private static class IoThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "AFM-io-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
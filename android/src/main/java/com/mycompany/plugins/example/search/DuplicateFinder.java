@@ -0,0 +1,462 @@
+package com.mycompany.plugins.example.search;
+
+import android.util.Log;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.mycompany.plugins.example.core.DirectoryScanner;
+import com.mycompany.plugins.example.core.FileHasher;
+import com.mycompany.plugins.example.core.HashCache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 重复文件查找引擎
+ * 先按大小分组，同大小的文件比较首尾各 4KB 的哈希，首尾都相同时才计算完整哈希（优先使用哈希缓存）。
+ * 遍历和哈希都在 ForkJoinPool 中并行执行，每确认一组重复文件就推送到会话
+ */
+class DuplicateFinder {
+    private static final String TAG = "DuplicateFinder";
+    // 首尾各读取的字节数，不超过两倍该值的文件首尾哈希即完整哈希
+    static final int PARTIAL_SIZE = 4 * 1024;
+
+    private static final ThreadLocal<byte[]> PARTIAL_BUFFERS = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[PARTIAL_SIZE * 2];
+        }
+    };
+
+    /**
+     * 一组内容相同的文件
+     */
+    static final class Group {
+        final long size;
+        final String hash;
+        final List<String> files;
+
+        Group(long size, String hash, List<String> files) {
+            this.size = size;
+            this.hash = hash;
+            this.files = files;
+        }
+
+        /**
+         * 保留一份后可节省的空间
+         */
+        long getWastedSpace() {
+            return size * (files.size() - 1);
+        }
+
+        JSObject toJSObject() {
+            JSObject group = new JSObject();
+            group.put("size", size);
+            group.put("hash", hash);
+            JSArray paths = new JSArray();
+            for (String file : files) {
+                paths.put(file);
+            }
+            group.put("files", paths);
+            group.put("wastedSpace", getWastedSpace());
+            return group;
+        }
+    }
+
+    /**
+     * 候选文件，各阶段的哈希依次填入
+     */
+    private static final class Candidate {
+        final String path;
+        final long size;
+        String partialHash;
+        String hash;
+
+        Candidate(String path, long size) {
+            this.path = path;
+            this.size = size;
+        }
+    }
+
+    private interface KeyFunction {
+        String keyOf(Candidate candidate);
+    }
+
+    private final FileSearcher searcher;
+    private final HashCache hashCache;
+    private final String algorithm;
+    private final long minSize;
+    private final boolean recursive;
+    private final boolean includeHidden;
+    private final String[] fileExtensions;
+    private final SearchSession session;
+
+    private final ConcurrentLinkedQueue<Candidate> scanned = new ConcurrentLinkedQueue<>();
+    private final List<Group> groups = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger partialHashed = new AtomicInteger();
+    private final AtomicInteger fullHashed = new AtomicInteger();
+    private final AtomicInteger cachedHashes = new AtomicInteger();
+    private final AtomicInteger skippedFiles = new AtomicInteger();
+    private int scannedFiles;
+
+    DuplicateFinder(FileSearcher searcher, HashCache hashCache, String algorithm, long minSize,
+                    boolean recursive, boolean includeHidden, String[] fileExtensions,
+                    SearchSession session) {
+        this.searcher = searcher;
+        this.hashCache = hashCache;
+        this.algorithm = FileHasher.normalizeAlgorithm(algorithm);
+        this.minSize = minSize;
+        this.recursive = recursive;
+        this.includeHidden = includeHidden;
+        this.fileExtensions = fileExtensions;
+        this.session = session;
+    }
+
+    /**
+     * 查找重复文件，返回按可节省空间降序排列的分组
+     */
+    List<Group> run(List<File> roots, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<RecursiveAction> scans = new ArrayList<>();
+            for (File root : roots) {
+                scans.add(new DirectoryTask(root));
+            }
+            pool.invoke(new AllTask(scans));
+
+            // 按大小分组（根目录互相包含时同一路径只计一次）
+            Map<Long, List<Candidate>> bySize = new HashMap<>();
+            Set<String> seen = new HashSet<>();
+            for (Candidate candidate : scanned) {
+                if (seen.add(candidate.path)) {
+                    List<Candidate> members = bySize.get(candidate.size);
+                    if (members == null) {
+                        members = new ArrayList<>(2);
+                        bySize.put(candidate.size, members);
+                    }
+                    members.add(candidate);
+                }
+            }
+            scannedFiles = seen.size();
+
+            List<RecursiveAction> sizeTasks = new ArrayList<>();
+            for (Map.Entry<Long, List<Candidate>> entry : bySize.entrySet()) {
+                if (entry.getValue().size() > 1) {
+                    sizeTasks.add(new SizeGroupTask(entry.getKey(), entry.getValue()));
+                }
+            }
+            pool.invoke(new AllTask(sizeTasks));
+        } finally {
+            pool.shutdown();
+        }
+        Log.d(TAG, "Scanned " + scannedFiles + " files, " + partialHashed.get() + " partial and "
+                   + fullHashed.get() + " full hashes, " + cachedHashes.get() + " from cache");
+
+        List<Group> result = new ArrayList<>(groups);
+        Collections.sort(result, (a, b) -> Long.compare(b.getWastedSpace(), a.getWastedSpace()));
+        return result;
+    }
+
+    int getScannedFiles() {
+        return scannedFiles;
+    }
+
+    int getPartialHashed() {
+        return partialHashed.get();
+    }
+
+    int getFullHashed() {
+        return fullHashed.get();
+    }
+
+    int getCachedHashes() {
+        return cachedHashes.get();
+    }
+
+    int getSkippedFiles() {
+        return skippedFiles.get();
+    }
+
+    /**
+     * 并行执行一组任务
+     */
+    private static class AllTask extends RecursiveAction {
+        private final List<RecursiveAction> tasks;
+
+        AllTask(List<RecursiveAction> tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected void compute() {
+            if (!tasks.isEmpty()) {
+                invokeAll(tasks);
+            }
+        }
+    }
+
+    /**
+     * 目录任务：扫描一层目录，收集候选文件，为子目录创建子任务
+     */
+    private class DirectoryTask extends RecursiveAction {
+        private final File directory;
+
+        DirectoryTask(File directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected void compute() {
+            if (FileSearcher.isCancelled(session)) {
+                return;
+            }
+
+            List<DirectoryScanner.Entry> entries = DirectoryScanner.scan(directory);
+            if (entries == null) {
+                return;
+            }
+
+            List<RecursiveAction> subtasks = new ArrayList<>();
+            for (DirectoryScanner.Entry entry : entries) {
+                // 跳过符号链接，避免同一文件被重复统计或递归越界
+                if (entry.isSymbolicLink || (!includeHidden && entry.isHidden())) {
+                    continue;
+                }
+
+                if (entry.isDirectory) {
+                    if (recursive) {
+                        subtasks.add(new DirectoryTask(entry.toFile()));
+                    }
+                } else if (entry.size >= minSize && searcher.matchesExtension(entry.name, fileExtensions)) {
+                    scanned.add(new Candidate(entry.path, entry.size));
+                }
+            }
+
+            if (!subtasks.isEmpty()) {
+                invokeAll(subtasks);
+            }
+        }
+    }
+
+    /**
+     * 大小相同的一组文件：依次按首尾哈希和完整哈希细分
+     */
+    private class SizeGroupTask extends RecursiveAction {
+        private final long size;
+        private final List<Candidate> members;
+
+        SizeGroupTask(long size, List<Candidate> members) {
+            this.size = size;
+            this.members = members;
+        }
+
+        @Override
+        protected void compute() {
+            if (FileSearcher.isCancelled(session)) {
+                return;
+            }
+
+            // 所有文件都有缓存的完整哈希时不读取文件
+            if (hashCache != null && peekAll()) {
+                cachedHashes.addAndGet(members.size());
+                emitGroups(members, candidate -> candidate.hash);
+                return;
+            }
+
+            List<RecursiveAction> partialTasks = new ArrayList<>(members.size());
+            for (Candidate candidate : members) {
+                partialTasks.add(new PartialHashTask(candidate));
+            }
+            invokeAll(partialTasks);
+
+            boolean partialIsFull = size <= PARTIAL_SIZE * 2;
+            List<List<Candidate>> needFull = new ArrayList<>();
+            List<RecursiveAction> fullTasks = new ArrayList<>();
+            for (List<Candidate> subgroup : groupBy(members, candidate -> candidate.partialHash)) {
+                if (partialIsFull) {
+                    // 小文件的首尾哈希覆盖了全部内容
+                    for (Candidate candidate : subgroup) {
+                        candidate.hash = candidate.partialHash;
+                    }
+                    emitGroups(subgroup, candidate -> candidate.hash);
+                } else {
+                    needFull.add(subgroup);
+                    for (Candidate candidate : subgroup) {
+                        fullTasks.add(new FullHashTask(candidate));
+                    }
+                }
+            }
+
+            if (fullTasks.isEmpty() || FileSearcher.isCancelled(session)) {
+                return;
+            }
+            invokeAll(fullTasks);
+            for (List<Candidate> subgroup : needFull) {
+                emitGroups(subgroup, candidate -> candidate.hash);
+            }
+        }
+
+        private boolean peekAll() {
+            for (Candidate candidate : members) {
+                candidate.hash = hashCache.peek(new File(candidate.path), algorithm);
+                if (candidate.hash == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void emitGroups(List<Candidate> candidates, KeyFunction key) {
+            for (List<Candidate> subgroup : groupBy(candidates, key)) {
+                List<String> files = new ArrayList<>(subgroup.size());
+                for (Candidate candidate : subgroup) {
+                    files.add(candidate.path);
+                }
+                Collections.sort(files);
+                Group group = new Group(size, subgroup.get(0).hash, files);
+                groups.add(group);
+                if (session != null) {
+                    session.emit(group.toJSObject());
+                }
+            }
+        }
+    }
+
+    /**
+     * 首尾哈希任务
+     */
+    private class PartialHashTask extends RecursiveAction {
+        private final Candidate candidate;
+
+        PartialHashTask(Candidate candidate) {
+            this.candidate = candidate;
+        }
+
+        @Override
+        protected void compute() {
+            if (FileSearcher.isCancelled(session)) {
+                return;
+            }
+            try {
+                candidate.partialHash = partialHash(candidate);
+                partialHashed.incrementAndGet();
+            } catch (Exception e) {
+                skippedFiles.incrementAndGet();
+                Log.w(TAG, "Failed to read " + candidate.path + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 完整哈希任务（文件未变化时直接使用哈希缓存）
+     */
+    private class FullHashTask extends RecursiveAction {
+        private final Candidate candidate;
+
+        FullHashTask(Candidate candidate) {
+            this.candidate = candidate;
+        }
+
+        @Override
+        protected void compute() {
+            if (candidate.hash != null || FileSearcher.isCancelled(session)) {
+                return;
+            }
+            File file = new File(candidate.path);
+            try {
+                if (hashCache != null) {
+                    HashCache.Result result = hashCache.getHashes(file, Collections.singletonList(algorithm), null);
+                    candidate.hash = result.hashes.get(algorithm);
+                    if (result.cached) {
+                        cachedHashes.incrementAndGet();
+                    } else {
+                        fullHashed.incrementAndGet();
+                    }
+                } else {
+                    candidate.hash = FileHasher.hash(file, algorithm);
+                    fullHashed.incrementAndGet();
+                }
+            } catch (Exception e) {
+                skippedFiles.incrementAndGet();
+                Log.w(TAG, "Failed to hash " + candidate.path + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // ============ 辅助方法 ============
+
+    /**
+     * 读取文件首尾各 PARTIAL_SIZE 字节计算哈希，小文件读取全部内容
+     */
+    private String partialHash(Candidate candidate) throws Exception {
+        byte[] bytes = PARTIAL_BUFFERS.get();
+        int length;
+        try (FileInputStream fis = new FileInputStream(candidate.path);
+             FileChannel channel = fis.getChannel()) {
+            if (channel.size() != candidate.size) {
+                throw new IOException("File changed during scan");
+            }
+            if (candidate.size <= PARTIAL_SIZE * 2) {
+                length = (int) candidate.size;
+                readFully(channel, bytes, 0, length, 0);
+            } else {
+                length = PARTIAL_SIZE * 2;
+                readFully(channel, bytes, 0, PARTIAL_SIZE, 0);
+                readFully(channel, bytes, PARTIAL_SIZE, PARTIAL_SIZE, candidate.size - PARTIAL_SIZE);
+            }
+        }
+        return FileHasher.hash(bytes, length, algorithm);
+    }
+
+    private static void readFully(FileChannel channel, byte[] bytes, int offset, int length,
+                                  long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + (buffer.position() - offset));
+            if (read < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+    }
+
+    /**
+     * 按键分组，只保留至少两个文件的组（键为空的文件已读取失败，直接丢弃）
+     */
+    private static List<List<Candidate>> groupBy(List<Candidate> candidates, KeyFunction key) {
+        Map<String, List<Candidate>> byKey = new LinkedHashMap<>();
+        for (Candidate candidate : candidates) {
+            String value = key.keyOf(candidate);
+            if (value == null) {
+                continue;
+            }
+            List<Candidate> members = byKey.get(value);
+            if (members == null) {
+                members = new ArrayList<>(2);
+                byKey.put(value, members);
+            }
+            members.add(candidate);
+        }
+        List<List<Candidate>> result = new ArrayList<>();
+        for (List<Candidate> members : byKey.values()) {
+            if (members.size() > 1) {
+                result.add(members);
+            }
+        }
+        return result;
+    }
+}
@@ -5,7 +5,11 @@ import android.util.Log;
 
 import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
+import com.mycompany.plugins.example.core.ColumnarEncoder;
+import com.mycompany.plugins.example.core.DirectoryScanner;
+import com.mycompany.plugins.example.core.FileHasher;
 import com.mycompany.plugins.example.core.FileUtils;
+import com.mycompany.plugins.example.core.HashCache;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -15,6 +19,9 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -25,6 +32,11 @@ import java.util.regex.Pattern;
 public class FileSearcher {
     private static final String TAG = "FileSearcher";
     private final Context context;
+    private final SearchIndexManager indexManager;
+    private final HashCache hashCache;
+    
+    // 正在进行的流式搜索（key 为 searchId）
+    private final Map<String, SearchSession> activeSearches = new ConcurrentHashMap<>();
     
     // 默认配置
     private static final int DEFAULT_MAX_FILES = 100;
@@ -32,35 +44,54 @@ public class FileSearcher {
     private static final int DEFAULT_MAX_MATCHES_PER_FILE = 10;
     private static final int DEFAULT_CONTEXT_LENGTH = 40;
     private static final int DEFAULT_MAX_DEPTH = 5;
+    private static final int DEFAULT_INDEX_MAX_FILE_SIZE = 1024 * 1024; // 1MB
 
-    public FileSearcher(Context context) {
+    public FileSearcher(Context context, HashCache hashCache) {
         this.context = context;
+        this.hashCache = hashCache;
+        this.indexManager = new SearchIndexManager(context, this);
     }
 
     /**
      * 搜索文件
+     * @param columnar 为 true 时以列式格式返回结果
      */
     public JSObject searchFiles(String directory, String query, String searchType, 
-                                 String[] fileTypes, int maxResults, boolean recursive) throws Exception {
+                                 String[] fileTypes, int maxResults, boolean recursive,
+                                 boolean columnar) throws Exception {
+        return runSearchFiles(directory, query, searchType, fileTypes, maxResults, recursive, columnar, null);
+    }
+
+    /**
+     * 执行文件搜索，session 不为空时每个匹配结果同时推送到会话
+     */
+    private JSObject runSearchFiles(String directory, String query, String searchType,
+                                    String[] fileTypes, int maxResults, boolean recursive,
+                                    boolean columnar, SearchSession session) throws Exception {
         File dir = new File(directory);
         
         if (!dir.exists() || !dir.isDirectory()) {
             throw new Exception("Invalid directory: " + directory);
         }
 
-        List<File> results = new ArrayList<>();
+        List<DirectoryScanner.Entry> results = new ArrayList<>();
         Pattern pattern = createSearchPattern(query);
         
-        searchInDirectory(dir, pattern, searchType, fileTypes, maxResults, recursive, results);
-
-        JSArray filesArray = new JSArray();
-        for (File file : results) {
-            filesArray.put(FileUtils.createFileInfo(file));
-        }
+        searchInDirectory(dir, pattern, searchType, fileTypes, maxResults, recursive, session, results);
 
         JSObject result = new JSObject();
-        result.put("files", filesArray);
-        result.put("totalFound", filesArray.length());
+        if (session == null && columnar) {
+            result.put("files", new JSArray());
+            result.put("format", ColumnarEncoder.FORMAT);
+            result.put("columns", ColumnarEncoder.encode(results, 0, results.size()));
+        } else if (session == null) {
+            JSArray filesArray = new JSArray();
+            for (DirectoryScanner.Entry entry : results) {
+                filesArray.put(FileUtils.createFileInfo(entry));
+            }
+            result.put("files", filesArray);
+        }
+        result.put("totalFound", results.size());
 
         return result;
     }
@@ -70,34 +101,35 @@ public class FileSearcher {
      */
     private void searchInDirectory(File directory, Pattern pattern, String searchType,
                                     String[] fileTypes, int maxResults, boolean recursive,
-                                    List<File> results) {
-        if (results.size() >= maxResults) {
+                                    SearchSession session, List<DirectoryScanner.Entry> results) {
+        if (results.size() >= maxResults || isCancelled(session)) {
             return;
         }
 
-        File[] files = directory.listFiles();
-        if (files == null) {
+        List<DirectoryScanner.Entry> entries = DirectoryScanner.scan(directory);
+        if (entries == null) {
             return;
         }
 
-        for (File file : files) {
-            if (results.size() >= maxResults) {
+        for (DirectoryScanner.Entry entry : entries) {
+            if (results.size() >= maxResults || isCancelled(session)) {
                 break;
             }
 
             // 跳过隐藏文件
-            if (file.getName().startsWith(".")) {
+            if (entry.isHidden()) {
                 continue;
             }
 
-            if (file.isDirectory()) {
+            if (entry.isDirectory) {
                 if (recursive) {
-                    searchInDirectory(file, pattern, searchType, fileTypes, maxResults, true, results);
+                    searchInDirectory(entry.toFile(), pattern, searchType, fileTypes, maxResults, true,
+                                      session, results);
                 }
             } else {
                 // 检查文件类型过滤
                 if (fileTypes != null && fileTypes.length > 0) {
-                    String ext = FileUtils.getFileExtension(file.getName());
+                    String ext = FileUtils.getFileExtension(entry.name);
                     boolean matches = false;
                     for (String type : fileTypes) {
                         if (type.equalsIgnoreCase(ext) || type.equals("." + ext)) {
@@ -114,19 +146,22 @@ public class FileSearcher {
                 boolean matched = false;
                 switch (searchType) {
                     case "content":
-                        matched = searchInFileContent(file, pattern);
+                        matched = searchInFileContent(entry, pattern);
                         break;
                     case "both":
-                        matched = matchFileName(file, pattern) || searchInFileContent(file, pattern);
+                        matched = matchFileName(entry, pattern) || searchInFileContent(entry, pattern);
                         break;
                     case "name":
                     default:
-                        matched = matchFileName(file, pattern);
+                        matched = matchFileName(entry, pattern);
                         break;
                 }
 
                 if (matched) {
-                    results.add(file);
+                    results.add(entry);
+                    if (session != null) {
+                        session.emit(FileUtils.createFileInfo(entry));
+                    }
                 }
             }
         }
@@ -135,26 +170,26 @@ public class FileSearcher {
     /**
      * 匹配文件名
      */
-    private boolean matchFileName(File file, Pattern pattern) {
-        return pattern.matcher(file.getName()).find();
+    private boolean matchFileName(DirectoryScanner.Entry entry, Pattern pattern) {
+        return pattern.matcher(entry.name).find();
     }
 
     /**
      * 在文件内容中搜索
      */
-    private boolean searchInFileContent(File file, Pattern pattern) {
+    private boolean searchInFileContent(DirectoryScanner.Entry entry, Pattern pattern) {
         // 只搜索文本文件
-        String mimeType = FileUtils.getMimeType(file.getName());
-        if (!mimeType.startsWith("text/") && !isTextFile(file.getName())) {
+        String mimeType = FileUtils.getMimeType(entry.name);
+        if (!mimeType.startsWith("text/") && !isTextFile(entry.name)) {
             return false;
         }
 
         // 限制文件大小（避免搜索大文件）
-        if (file.length() > 10 * 1024 * 1024) { // 10MB
+        if (entry.size > 10 * 1024 * 1024) { // 10MB
             return false;
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+        try (BufferedReader reader = new BufferedReader(new FileReader(entry.path))) {
             String line;
             while ((line = reader.readLine()) != null) {
                 if (pattern.matcher(line).find()) {
@@ -162,7 +197,7 @@ public class FileSearcher {
                 }
             }
         } catch (IOException e) {
-            Log.w(TAG, "Failed to read file for content search: " + file.getPath());
+            Log.w(TAG, "Failed to read file for content search: " + entry.path);
         }
 
         return false;
@@ -171,7 +206,7 @@ public class FileSearcher {
     /**
      * 判断是否为文本文件
      */
-    private boolean isTextFile(String fileName) {
+    boolean isTextFile(String fileName) {
         String ext = FileUtils.getFileExtension(fileName).toLowerCase();
         return ext.equals("txt") || ext.equals("md") || ext.equals("json") ||
                ext.equals("xml") || ext.equals("html") || ext.equals("css") ||
@@ -195,6 +230,40 @@ public class FileSearcher {
         return Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
     }
     
+    // ==================== 搜索索引 API ====================
+    
+    /**
+     * 为指定根目录构建或增量更新 trigram 索引
+     */
+    public JSObject buildIndex(String[] roots, int maxFileSize) throws Exception {
+        if (maxFileSize <= 0) maxFileSize = DEFAULT_INDEX_MAX_FILE_SIZE;
+        
+        JSArray rootResults = new JSArray();
+        for (String root : roots) {
+            rootResults.put(indexManager.buildIndex(root, maxFileSize));
+        }
+        
+        JSObject result = new JSObject();
+        result.put("roots", rootResults);
+        return result;
+    }
+    
+    /**
+     * 获取索引状态
+     */
+    public JSObject getIndexStatus() {
+        return indexManager.getIndexStatus();
+    }
+    
+    /**
+     * 删除指定根目录的索引
+     */
+    public JSObject dropIndex(String root) {
+        JSObject result = new JSObject();
+        result.put("dropped", indexManager.dropIndex(root));
+        return result;
+    }
+    
     // ==================== 原生内容搜索 API ====================
     
     /**
@@ -204,7 +273,21 @@ public class FileSearcher {
     public JSObject searchContent(String directory, String keyword,
                                    boolean caseSensitive, String[] fileExtensions,
                                    int maxFiles, int maxFileSize, int maxMatchesPerFile,
-                                   int contextLength, int maxDepth, boolean recursive) throws Exception {
+                                   int contextLength, int maxDepth, boolean recursive,
+                                   int parallelism) throws Exception {
+        return runSearchContent(directory, keyword, caseSensitive, fileExtensions, maxFiles,
+                                maxFileSize, maxMatchesPerFile, contextLength, maxDepth,
+                                recursive, parallelism, null);
+    }
+    
+    /**
+     * 执行内容搜索，session 不为空时每个匹配文件同时推送到会话，返回值只包含统计信息
+     */
+    private JSObject runSearchContent(String directory, String keyword,
+                                      boolean caseSensitive, String[] fileExtensions,
+                                      int maxFiles, int maxFileSize, int maxMatchesPerFile,
+                                      int contextLength, int maxDepth, boolean recursive,
+                                      int parallelism, SearchSession session) throws Exception {
         long startTime = System.currentTimeMillis();
         
         File dir = new File(directory);
@@ -222,40 +305,57 @@ public class FileSearcher {
         // 创建搜索模式
         int flags = caseSensitive ? 0 : Pattern.CASE_INSENSITIVE;
         Pattern pattern = Pattern.compile(Pattern.quote(keyword), flags);
+        // 字面量关键词直接在字节上匹配，只在命中处解码
+        LiteralMatcher literal = LiteralMatcher.compile(keyword, caseSensitive);
         
         // 收集结果
         List<JSObject> results = new ArrayList<>();
         int[] skippedCount = {0};
         int[] totalMatches = {0};
         
-        // 执行搜索
-        searchContentInDirectory(dir, keyword, pattern, fileExtensions, 
-                                  maxFiles, maxFileSize, maxMatchesPerFile, 
-                                  contextLength, maxDepth, recursive, 0,
-                                  results, skippedCount, totalMatches);
-        
-        // 按评分排序
-        Collections.sort(results, new Comparator<JSObject>() {
-            @Override
-            public int compare(JSObject a, JSObject b) {
-                return Integer.compare(b.optInt("score", 0), a.optInt("score", 0));
-            }
-        });
-        
-        long duration = System.currentTimeMillis() - startTime;
+        // 如果有覆盖该目录的索引，先查询索引排除不可能匹配的文件
+        Predicate<DirectoryScanner.Entry> scanFilter = indexManager.createScanFilter(dir, keyword);
         
-        // 构建结果
-        JSArray resultsArray = new JSArray();
-        for (JSObject r : results) {
-            resultsArray.put(r);
+        // 执行搜索（parallelism 为 1 时单线程遍历，0 表示使用全部 CPU 核心）
+        if (parallelism == 1) {
+            searchContentInDirectory(dir, keyword, pattern, literal, fileExtensions, 
+                                      maxFiles, maxFileSize, maxMatchesPerFile, 
+                                      contextLength, maxDepth, recursive, 0,
+                                      scanFilter, session, results, skippedCount, totalMatches);
+        } else {
+            int threads = parallelism > 1 ? parallelism : Runtime.getRuntime().availableProcessors();
+            ParallelContentSearch parallelSearch = new ParallelContentSearch(
+                this, keyword, pattern, literal, fileExtensions, maxFiles, maxFileSize,
+                maxMatchesPerFile, contextLength, maxDepth, recursive, scanFilter, session);
+            results = parallelSearch.run(dir, threads);
+            skippedCount[0] = parallelSearch.getSkippedCount();
+            totalMatches[0] = parallelSearch.getTotalMatches();
         }
         
+        long duration = System.currentTimeMillis() - startTime;
+        
+        // 构建结果（流式模式下结果已通过会话推送）
         JSObject result = new JSObject();
-        result.put("results", resultsArray);
+        if (session == null) {
+            // 按评分排序
+            Collections.sort(results, new Comparator<JSObject>() {
+                @Override
+                public int compare(JSObject a, JSObject b) {
+                    return Integer.compare(b.optInt("score", 0), a.optInt("score", 0));
+                }
+            });
+            
+            JSArray resultsArray = new JSArray();
+            for (JSObject r : results) {
+                resultsArray.put(r);
+            }
+            result.put("results", resultsArray);
+        }
         result.put("totalFiles", results.size());
         result.put("totalMatches", totalMatches[0]);
         result.put("duration", duration);
         result.put("skippedFiles", skippedCount[0]);
+        result.put("indexed", scanFilter != null);
         
         Log.d(TAG, "searchContent completed: " + results.size() + " files, " + 
               totalMatches[0] + " matches in " + duration + "ms");
@@ -267,122 +367,341 @@ public class FileSearcher {
      * 在目录中递归搜索内容
      */
     private void searchContentInDirectory(File directory, String keyword, Pattern pattern,
-                                           String[] fileExtensions, int maxFiles, int maxFileSize,
+                                           LiteralMatcher literal, String[] fileExtensions, int maxFiles, int maxFileSize,
                                            int maxMatchesPerFile, int contextLength, int maxDepth,
                                            boolean recursive, int currentDepth,
+                                           Predicate<DirectoryScanner.Entry> scanFilter, SearchSession session,
                                            List<JSObject> results, int[] skippedCount, int[] totalMatches) {
         // 检查深度限制
         if (currentDepth >= maxDepth) {
             return;
         }
         
-        // 检查结果数量限制
-        if (results.size() >= maxFiles) {
+        // 检查结果数量限制和取消状态
+        if (results.size() >= maxFiles || isCancelled(session)) {
             return;
         }
         
-        File[] files = directory.listFiles();
-        if (files == null) {
+        List<DirectoryScanner.Entry> entries = DirectoryScanner.scan(directory);
+        if (entries == null) {
             return;
         }
         
-        for (File file : files) {
-            if (results.size() >= maxFiles) {
+        for (DirectoryScanner.Entry entry : entries) {
+            if (results.size() >= maxFiles || isCancelled(session)) {
                 break;
             }
             
             // 跳过隐藏文件
-            if (file.getName().startsWith(".")) {
+            if (entry.isHidden()) {
                 continue;
             }
             
-            if (file.isDirectory()) {
+            if (entry.isDirectory) {
                 if (recursive) {
-                    searchContentInDirectory(file, keyword, pattern, fileExtensions,
+                    searchContentInDirectory(entry.toFile(), keyword, pattern, literal, fileExtensions,
                                               maxFiles, maxFileSize, maxMatchesPerFile,
                                               contextLength, maxDepth, recursive, currentDepth + 1,
-                                              results, skippedCount, totalMatches);
+                                              scanFilter, session, results, skippedCount, totalMatches);
                 }
             } else {
                 // 检查文件扩展名
-                if (fileExtensions != null && fileExtensions.length > 0) {
-                    String ext = FileUtils.getFileExtension(file.getName());
-                    boolean matches = false;
-                    for (String filterExt : fileExtensions) {
-                        String cleanExt = filterExt.startsWith(".") ? filterExt.substring(1) : filterExt;
-                        if (cleanExt.equalsIgnoreCase(ext)) {
-                            matches = true;
-                            break;
-                        }
-                    }
-                    if (!matches) {
-                        continue;
-                    }
+                if (!matchesExtension(entry.name, fileExtensions)) {
+                    continue;
                 }
                 
                 // 检查是否为文本文件
-                if (!isTextFile(file.getName())) {
+                if (!isTextFile(entry.name)) {
                     continue;
                 }
                 
                 // 检查文件大小
-                if (file.length() > maxFileSize) {
+                if (entry.size > maxFileSize) {
                     skippedCount[0]++;
-                    Log.d(TAG, "Skipped large file: " + file.getPath() + " (" + file.length() + " bytes)");
+                    Log.d(TAG, "Skipped large file: " + entry.path + " (" + entry.size + " bytes)");
+                    continue;
+                }
+                
+                // 索引确认不包含关键词的文件直接跳过
+                if (scanFilter != null && !scanFilter.test(entry)) {
                     continue;
                 }
                 
                 // 搜索文件内容
-                JSObject fileResult = searchInSingleFile(file, keyword, pattern, 
+                JSObject fileResult = searchInSingleFile(entry.toFile(), keyword, pattern, literal,
                                                           maxMatchesPerFile, contextLength);
                 if (fileResult != null) {
                     results.add(fileResult);
                     totalMatches[0] += fileResult.optInt("matchCount", 0);
+                    if (session != null) {
+                        session.emit(fileResult);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * 收集内容替换的候选文件
+     * 遍历规则与 searchContent 相同（跳过隐藏文件，按扩展名、文本类型、大小和深度过滤，另外跳过符号链接），
+     * keyword 不为空时用覆盖该目录的索引排除不可能包含它的文件
+     * @param skippedCount 输出因文件过大被跳过的文件数
+     */
+    public List<File> collectContentFiles(String directory, String keyword, String[] fileExtensions,
+                                          int maxFileSize, int maxDepth, boolean recursive,
+                                          int[] skippedCount) throws Exception {
+        File dir = new File(directory);
+        if (!dir.exists() || !dir.isDirectory()) {
+            throw new Exception("Invalid directory: " + directory);
+        }
+        
+        if (maxFileSize <= 0) maxFileSize = DEFAULT_MAX_FILE_SIZE;
+        if (maxDepth <= 0) maxDepth = DEFAULT_MAX_DEPTH;
+        
+        Predicate<DirectoryScanner.Entry> scanFilter = keyword != null
+            ? indexManager.createScanFilter(dir, keyword) : null;
+        List<File> files = new ArrayList<>();
+        collectContentFiles(dir, fileExtensions, maxFileSize, maxDepth, recursive, 0, scanFilter,
+                            files, skippedCount);
+        return files;
+    }
+    
+    private void collectContentFiles(File directory, String[] fileExtensions, int maxFileSize, int maxDepth,
+                                     boolean recursive, int currentDepth,
+                                     Predicate<DirectoryScanner.Entry> scanFilter,
+                                     List<File> files, int[] skippedCount) {
+        if (currentDepth >= maxDepth) {
+            return;
+        }
+        
+        List<DirectoryScanner.Entry> entries = DirectoryScanner.scan(directory);
+        if (entries == null) {
+            return;
+        }
+        
+        for (DirectoryScanner.Entry entry : entries) {
+            // 替换通过重命名覆盖文件，跳过符号链接以免把链接变成普通文件
+            if (entry.isHidden() || entry.isSymbolicLink) {
+                continue;
+            }
+            
+            if (entry.isDirectory) {
+                if (recursive) {
+                    collectContentFiles(entry.toFile(), fileExtensions, maxFileSize, maxDepth, recursive,
+                                        currentDepth + 1, scanFilter, files, skippedCount);
                 }
+            } else if (matchesExtension(entry.name, fileExtensions) && isTextFile(entry.name)) {
+                if (entry.size > maxFileSize) {
+                    skippedCount[0]++;
+                    continue;
+                }
+                if (scanFilter != null && !scanFilter.test(entry)) {
+                    continue;
+                }
+                files.add(entry.toFile());
             }
         }
     }
     
+    // ==================== 重复文件 ====================
+    
+    /**
+     * 查找重复文件
+     * 按大小、首尾 4KB 哈希、完整哈希逐级筛选，完整哈希优先使用哈希缓存
+     */
+    public JSObject findDuplicateFiles(String[] directories, long minSize, boolean recursive,
+                                       boolean includeHidden, String[] fileExtensions, String algorithm,
+                                       int parallelism) throws Exception {
+        return runFindDuplicates(directories, minSize, recursive, includeHidden, fileExtensions,
+                                 algorithm, parallelism, null);
+    }
+    
+    /**
+     * 执行重复文件查找，session 不为空时每组结果同时推送到会话，返回值只包含统计信息
+     */
+    private JSObject runFindDuplicates(String[] directories, long minSize, boolean recursive,
+                                       boolean includeHidden, String[] fileExtensions, String algorithm,
+                                       int parallelism, SearchSession session) throws Exception {
+        long startTime = System.currentTimeMillis();
+        
+        List<File> roots = new ArrayList<>();
+        for (String directory : directories) {
+            File dir = new File(directory);
+            if (!dir.exists() || !dir.isDirectory()) {
+                throw new Exception("Invalid directory: " + directory);
+            }
+            roots.add(dir);
+        }
+        // 提前校验算法，避免遍历完成后才失败
+        FileHasher.hash(new byte[0], 0, algorithm);
+        
+        // parallelism 为 0 时使用全部 CPU 核心
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        DuplicateFinder finder = new DuplicateFinder(this, hashCache, algorithm, minSize, recursive,
+                                                     includeHidden, fileExtensions, session);
+        List<DuplicateFinder.Group> groups = finder.run(roots, threads);
+        
+        int duplicateFiles = 0;
+        long wastedSpace = 0;
+        JSArray groupsArray = new JSArray();
+        for (DuplicateFinder.Group group : groups) {
+            duplicateFiles += group.files.size() - 1;
+            wastedSpace += group.getWastedSpace();
+            if (session == null) {
+                groupsArray.put(group.toJSObject());
+            }
+        }
+        
+        JSObject result = new JSObject();
+        if (session == null) {
+            result.put("groups", groupsArray);
+        }
+        result.put("totalGroups", groups.size());
+        result.put("duplicateFiles", duplicateFiles);
+        result.put("wastedSpace", wastedSpace);
+        result.put("scannedFiles", finder.getScannedFiles());
+        result.put("partialHashed", finder.getPartialHashed());
+        result.put("fullHashed", finder.getFullHashed());
+        result.put("cachedHashes", finder.getCachedHashes());
+        result.put("skippedFiles", finder.getSkippedFiles());
+        result.put("duration", System.currentTimeMillis() - startTime);
+        return result;
+    }
+    
+    // ==================== 流式搜索 API ====================
+    
+    /**
+     * 流式文件名搜索
+     * 匹配结果分批通过 listener 推送，结束后发送包含统计信息的完成事件
+     */
+    public void streamSearchFiles(String searchId, String directory, String query, String searchType,
+                                  String[] fileTypes, int maxResults, boolean recursive,
+                                  int batchSize, long emitIntervalMs, SearchSession.Listener listener) {
+        SearchSession session = openSession(searchId, listener, batchSize, emitIntervalMs);
+        long startTime = System.currentTimeMillis();
+        JSObject summary;
+        try {
+            summary = runSearchFiles(directory, query, searchType, fileTypes, maxResults, recursive, false, session);
+        } catch (Exception e) {
+            summary = new JSObject();
+            summary.put("error", e.getMessage());
+        } finally {
+            activeSearches.remove(searchId, session);
+        }
+        summary.put("duration", System.currentTimeMillis() - startTime);
+        session.complete(summary);
+    }
+    
+    /**
+     * 流式内容搜索
+     * 匹配文件分批通过 listener 推送（不排序），结束后发送包含统计信息的完成事件
+     */
+    public void streamSearchContent(String searchId, String directory, String keyword,
+                                    boolean caseSensitive, String[] fileExtensions,
+                                    int maxFiles, int maxFileSize, int maxMatchesPerFile,
+                                    int contextLength, int maxDepth, boolean recursive, int parallelism,
+                                    int batchSize, long emitIntervalMs, SearchSession.Listener listener) {
+        SearchSession session = openSession(searchId, listener, batchSize, emitIntervalMs);
+        long startTime = System.currentTimeMillis();
+        JSObject summary;
+        try {
+            summary = runSearchContent(directory, keyword, caseSensitive, fileExtensions, maxFiles,
+                                       maxFileSize, maxMatchesPerFile, contextLength, maxDepth,
+                                       recursive, parallelism, session);
+        } catch (Exception e) {
+            summary = new JSObject();
+            summary.put("error", e.getMessage());
+        } finally {
+            activeSearches.remove(searchId, session);
+        }
+        summary.put("duration", System.currentTimeMillis() - startTime);
+        session.complete(summary);
+    }
+    
+    /**
+     * 流式查找重复文件
+     * 每确认一组重复文件就通过 listener 推送，结束后发送包含统计信息的完成事件
+     */
+    public void streamFindDuplicates(String searchId, String[] directories, long minSize, boolean recursive,
+                                     boolean includeHidden, String[] fileExtensions, String algorithm,
+                                     int parallelism, int batchSize, long emitIntervalMs,
+                                     SearchSession.Listener listener) {
+        SearchSession session = openSession(searchId, listener, batchSize, emitIntervalMs);
+        long startTime = System.currentTimeMillis();
+        JSObject summary;
+        try {
+            summary = runFindDuplicates(directories, minSize, recursive, includeHidden, fileExtensions,
+                                        algorithm, parallelism, session);
+        } catch (Exception e) {
+            summary = new JSObject();
+            summary.put("error", e.getMessage());
+        } finally {
+            activeSearches.remove(searchId, session);
+        }
+        summary.put("duration", System.currentTimeMillis() - startTime);
+        session.complete(summary);
+    }
+    
+    /**
+     * 取消流式搜索
+     * @return 搜索是否存在且已标记取消
+     */
+    public boolean cancelSearch(String searchId) {
+        SearchSession session = activeSearches.get(searchId);
+        if (session == null) {
+            return false;
+        }
+        session.cancel();
+        return true;
+    }
+    
+    private SearchSession openSession(String searchId, SearchSession.Listener listener,
+                                      int batchSize, long emitIntervalMs) {
+        SearchSession session = new SearchSession(searchId, listener, batchSize, emitIntervalMs);
+        SearchSession previous = activeSearches.put(searchId, session);
+        if (previous != null) {
+            // 相同 searchId 的旧搜索直接取消
+            previous.cancel();
+        }
+        return session;
+    }
+    
+    static boolean isCancelled(SearchSession session) {
+        return session != null && session.isCancelled();
+    }
+    
+    /**
+     * 检查文件扩展名是否在过滤列表中（列表为空时全部通过）
+     */
+    boolean matchesExtension(String fileName, String[] fileExtensions) {
+        if (fileExtensions == null || fileExtensions.length == 0) {
+            return true;
+        }
+        String ext = FileUtils.getFileExtension(fileName);
+        for (String filterExt : fileExtensions) {
+            String cleanExt = filterExt.startsWith(".") ? filterExt.substring(1) : filterExt;
+            if (cleanExt.equalsIgnoreCase(ext)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     /**
      * 在单个文件中搜索
+     * literal 不为空时使用字节匹配，否则逐行使用正则匹配
      */
-    private JSObject searchInSingleFile(File file, String keyword, Pattern pattern,
+    JSObject searchInSingleFile(File file, String keyword, Pattern pattern, LiteralMatcher literal,
                                          int maxMatchesPerFile, int contextLength) {
         boolean nameMatch = file.getName().toLowerCase().contains(keyword.toLowerCase());
         List<JSObject> matches = new ArrayList<>();
         
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            int lineNumber = 0;
-            
-            while ((line = reader.readLine()) != null && matches.size() < maxMatchesPerFile) {
-                lineNumber++;
-                Matcher matcher = pattern.matcher(line);
-                
-                while (matcher.find() && matches.size() < maxMatchesPerFile) {
-                    int matchStart = matcher.start();
-                    int matchEnd = matcher.end();
-                    
-                    // 构建上下文
-                    int contextStart = Math.max(0, matchStart - 2);
-                    int contextEnd = Math.min(line.length(), matchEnd + contextLength);
-                    
-                    String prefix = contextStart > 0 ? "..." : "";
-                    String context = prefix + line.substring(contextStart, contextEnd);
-                    
-                    // 调整匹配位置（考虑前缀）
-                    int adjustedStart = matchStart - contextStart + prefix.length();
-                    int adjustedEnd = adjustedStart + (matchEnd - matchStart);
-                    
-                    JSObject match = new JSObject();
-                    match.put("lineNumber", lineNumber);
-                    match.put("lineContent", line.length() > 200 ? line.substring(0, 200) + "..." : line);
-                    match.put("context", context);
-                    match.put("matchStart", adjustedStart);
-                    match.put("matchEnd", adjustedEnd);
-                    
-                    matches.add(match);
-                }
+        try {
+            if (literal != null) {
+                literal.search(file, maxMatchesPerFile, (lineNumber, line, matchStart, matchEnd) ->
+                    matches.add(createMatch(lineNumber, line, matchStart, matchEnd, contextLength)));
+            } else {
+                searchLinesWithPattern(file, pattern, maxMatchesPerFile, contextLength, matches);
             }
         } catch (IOException e) {
             Log.w(TAG, "Failed to search in file: " + file.getPath() + " - " + e.getMessage());
@@ -415,6 +734,50 @@ public class FileSearcher {
         return result;
     }
     
+    /**
+     * 逐行正则匹配
+     */
+    private void searchLinesWithPattern(File file, Pattern pattern, int maxMatchesPerFile,
+                                        int contextLength, List<JSObject> matches) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            int lineNumber = 0;
+            
+            while ((line = reader.readLine()) != null && matches.size() < maxMatchesPerFile) {
+                lineNumber++;
+                Matcher matcher = pattern.matcher(line);
+                
+                while (matcher.find() && matches.size() < maxMatchesPerFile) {
+                    matches.add(createMatch(lineNumber, line, matcher.start(), matcher.end(), contextLength));
+                }
+            }
+        }
+    }
+    
+    /**
+     * 构建单个匹配项
+     */
+    private JSObject createMatch(int lineNumber, String line, int matchStart, int matchEnd, int contextLength) {
+        // 构建上下文
+        int contextStart = Math.max(0, matchStart - 2);
+        int contextEnd = Math.min(line.length(), matchEnd + contextLength);
+        
+        String prefix = contextStart > 0 ? "..." : "";
+        String context = prefix + line.substring(contextStart, contextEnd);
+        
+        // 调整匹配位置（考虑前缀）
+        int adjustedStart = matchStart - contextStart + prefix.length();
+        int adjustedEnd = adjustedStart + (matchEnd - matchStart);
+        
+        JSObject match = new JSObject();
+        match.put("lineNumber", lineNumber);
+        match.put("lineContent", line.length() > 200 ? line.substring(0, 200) + "..." : line);
+        match.put("context", context);
+        match.put("matchStart", adjustedStart);
+        match.put("matchEnd", adjustedEnd);
+        return match;
+    }
+    
     /**
      * 计算相关性评分
      */
@@ -0,0 +1,205 @@
+package com.mycompany.plugins.example.search;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 字面量字节匹配器
+ * 基于 Boyer-Moore-Horspool 算法直接在 UTF-8 字节上查找关键词，只在命中处解码所在行。
+ * 忽略大小写时只折叠 ASCII 字母，与 Pattern.CASE_INSENSITIVE 的默认行为一致
+ */
+final class LiteralMatcher {
+    // 小文件读入线程内复用的直接缓冲区，大文件使用内存映射
+    private static final int BUFFER_SIZE = 256 * 1024;
+    // ThreadLocal.withInitial 需要 API 26，minSdk 为 24，这里用子类覆写 initialValue
+    private static final ThreadLocal<ByteBuffer> BUFFERS = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+    };
+
+    /**
+     * 命中回调
+     * matchStart / matchEnd 为匹配在行内的字符位置
+     */
+    interface MatchConsumer {
+        void onMatch(int lineNumber, String line, int matchStart, int matchEnd);
+    }
+
+    private final byte[] needle;
+    private final boolean ignoreCase;
+    private final int[] skip = new int[256];
+
+    private LiteralMatcher(byte[] needle, boolean ignoreCase) {
+        this.needle = needle;
+        this.ignoreCase = ignoreCase;
+
+        // 构建坏字符跳转表，忽略大小写时大小写字母共用同一跳转距离
+        int last = needle.length - 1;
+        Arrays.fill(skip, needle.length);
+        for (int i = 0; i < last; i++) {
+            int b = needle[i] & 0xff;
+            skip[b] = last - i;
+            if (ignoreCase && b >= 'a' && b <= 'z') {
+                skip[b - ('a' - 'A')] = last - i;
+            }
+        }
+    }
+
+    /**
+     * 为关键词创建匹配器
+     * 关键词为空或包含换行符时返回 null，调用方应使用逐行正则匹配
+     */
+    static LiteralMatcher compile(String keyword, boolean caseSensitive) {
+        if (keyword.isEmpty() || keyword.indexOf('\n') >= 0 || keyword.indexOf('\r') >= 0) {
+            return null;
+        }
+        byte[] bytes = keyword.getBytes(StandardCharsets.UTF_8);
+        if (!caseSensitive) {
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = toLower(bytes[i]);
+            }
+        }
+        return new LiteralMatcher(bytes, !caseSensitive);
+    }
+
+    /**
+     * 在文件中查找关键词，最多回调 maxMatches 次
+     */
+    void search(File file, int maxMatches, MatchConsumer consumer) throws IOException {
+        try (FileInputStream in = new FileInputStream(file);
+             FileChannel channel = in.getChannel()) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large: " + file.getPath());
+            }
+
+            ByteBuffer buffer;
+            int limit;
+            if (size > BUFFER_SIZE) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                limit = (int) size;
+            } else {
+                buffer = BUFFERS.get();
+                buffer.clear();
+                while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                    // 读满缓冲区或到达文件末尾
+                }
+                limit = buffer.position();
+            }
+
+            scan(buffer, limit, maxMatches, consumer);
+        }
+    }
+
+    /**
+     * 扫描缓冲区 [0, limit) 中的所有非重叠命中
+     */
+    private void scan(ByteBuffer buffer, int limit, int maxMatches, MatchConsumer consumer) {
+        int lineNumber = 1;
+        int lineStart = 0;
+        int counted = 0;
+        int decodedLineStart = -1;
+        String line = null;
+
+        int pos = 0;
+        int found = 0;
+        while (found < maxMatches) {
+            int hit = indexOf(buffer, pos, limit);
+            if (hit < 0) {
+                break;
+            }
+
+            // 统计命中之前的换行符，确定行号和行首
+            for (int i = counted; i < hit; i++) {
+                if (buffer.get(i) == '\n') {
+                    lineNumber++;
+                    lineStart = i + 1;
+                }
+            }
+            counted = hit;
+
+            // 同一行的多个命中只解码一次
+            if (decodedLineStart != lineStart) {
+                line = decodeLine(buffer, lineStart, hit + needle.length, limit);
+                decodedLineStart = lineStart;
+            }
+
+            int matchStart = Math.min(utf16Length(buffer, lineStart, hit), line.length());
+            int matchEnd = Math.min(matchStart + utf16Length(buffer, hit, hit + needle.length), line.length());
+            consumer.onMatch(lineNumber, line, matchStart, matchEnd);
+
+            found++;
+            pos = hit + needle.length;
+        }
+    }
+
+    /**
+     * Boyer-Moore-Horspool 查找，返回命中起始位置，未找到返回 -1
+     */
+    int indexOf(ByteBuffer buffer, int from, int limit) {
+        int last = needle.length - 1;
+        byte lastByte = needle[last];
+        int i = from;
+        while (i <= limit - needle.length) {
+            byte b = buffer.get(i + last);
+            if (fold(b) == lastByte) {
+                int j = last - 1;
+                while (j >= 0 && fold(buffer.get(i + j)) == needle[j]) {
+                    j--;
+                }
+                if (j < 0) {
+                    return i;
+                }
+            }
+            i += skip[b & 0xff];
+        }
+        return -1;
+    }
+
+    private byte fold(byte b) {
+        return ignoreCase ? toLower(b) : b;
+    }
+
+    private static byte toLower(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    /**
+     * 解码 lineStart 开始、包含 from 位置的整行（不含行尾换行符）
+     */
+    private static String decodeLine(ByteBuffer buffer, int lineStart, int from, int limit) {
+        int lineEnd = from;
+        while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+            lineEnd++;
+        }
+        if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+            lineEnd--;
+        }
+
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(lineEnd);
+        slice.position(lineStart);
+        return StandardCharsets.UTF_8.decode(slice).toString();
+    }
+
+    /**
+     * 计算 UTF-8 字节区间解码后的 UTF-16 长度（四字节序列对应代理对）
+     */
+    private static int utf16Length(ByteBuffer buffer, int from, int to) {
+        int length = 0;
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if ((b & 0xC0) != 0x80) {
+                length += (b & 0xF8) == 0xF0 ? 2 : 1;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,205 @@
+package com.mycompany.plugins.example.search;
+
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+import com.mycompany.plugins.example.core.DirectoryScanner;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * 并行内容搜索引擎
+ * 基于 ForkJoinPool，按目录和文件拆分任务并发扫描，结果数达到 maxFiles 后提前停止
+ */
+class ParallelContentSearch {
+    private static final String TAG = "ParallelContentSearch";
+
+    private final FileSearcher searcher;
+    private final String keyword;
+    private final Pattern pattern;
+    private final LiteralMatcher literal;
+    private final String[] fileExtensions;
+    private final int maxFileSize;
+    private final int maxMatchesPerFile;
+    private final int contextLength;
+    private final int maxDepth;
+    private final boolean recursive;
+    private final Predicate<DirectoryScanner.Entry> scanFilter;
+    private final SearchSession session;
+
+    private final ResultCollector collector;
+    private final AtomicInteger skippedCount = new AtomicInteger();
+    private final AtomicInteger totalMatches = new AtomicInteger();
+
+    ParallelContentSearch(FileSearcher searcher, String keyword, Pattern pattern,
+                          LiteralMatcher literal, String[] fileExtensions, int maxFiles, int maxFileSize,
+                          int maxMatchesPerFile, int contextLength, int maxDepth,
+                          boolean recursive, Predicate<DirectoryScanner.Entry> scanFilter,
+                          SearchSession session) {
+        this.searcher = searcher;
+        this.keyword = keyword;
+        this.pattern = pattern;
+        this.literal = literal;
+        this.fileExtensions = fileExtensions;
+        this.maxFileSize = maxFileSize;
+        this.maxMatchesPerFile = maxMatchesPerFile;
+        this.contextLength = contextLength;
+        this.maxDepth = maxDepth;
+        this.recursive = recursive;
+        this.scanFilter = scanFilter;
+        this.session = session;
+        this.collector = new ResultCollector(maxFiles);
+    }
+
+    /**
+     * 执行搜索，返回未排序的结果
+     */
+    List<JSObject> run(File directory, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new DirectoryTask(directory, 0));
+        } finally {
+            pool.shutdown();
+        }
+        Log.d(TAG, "Parallel search finished with parallelism " + parallelism);
+        return collector.toList();
+    }
+
+    int getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    int getTotalMatches() {
+        return totalMatches.get();
+    }
+
+    /**
+     * 目录任务：扫描一层目录，为子目录和候选文件分别创建子任务
+     */
+    private class DirectoryTask extends RecursiveAction {
+        private final File directory;
+        private final int depth;
+
+        DirectoryTask(File directory, int depth) {
+            this.directory = directory;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (depth >= maxDepth || collector.isFull() || FileSearcher.isCancelled(session)) {
+                return;
+            }
+
+            List<DirectoryScanner.Entry> entries = DirectoryScanner.scan(directory);
+            if (entries == null) {
+                return;
+            }
+
+            List<RecursiveAction> subtasks = new ArrayList<>();
+            for (DirectoryScanner.Entry entry : entries) {
+                // 跳过隐藏文件
+                if (entry.isHidden()) {
+                    continue;
+                }
+
+                if (entry.isDirectory) {
+                    if (recursive) {
+                        subtasks.add(new DirectoryTask(entry.toFile(), depth + 1));
+                    }
+                } else if (searcher.matchesExtension(entry.name, fileExtensions)
+                           && searcher.isTextFile(entry.name)) {
+                    if (entry.size > maxFileSize) {
+                        skippedCount.incrementAndGet();
+                        continue;
+                    }
+                    // 索引确认不包含关键词的文件直接跳过
+                    if (scanFilter != null && !scanFilter.test(entry)) {
+                        continue;
+                    }
+                    subtasks.add(new FileTask(entry));
+                }
+            }
+
+            if (!subtasks.isEmpty()) {
+                invokeAll(subtasks);
+            }
+        }
+    }
+
+    /**
+     * 文件任务：扫描单个文件
+     */
+    private class FileTask extends RecursiveAction {
+        private final DirectoryScanner.Entry entry;
+
+        FileTask(DirectoryScanner.Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        protected void compute() {
+            if (collector.isFull() || FileSearcher.isCancelled(session)) {
+                return;
+            }
+
+            JSObject fileResult = searcher.searchInSingleFile(entry.toFile(), keyword, pattern, literal,
+                                                              maxMatchesPerFile, contextLength);
+            if (fileResult != null && collector.offer(fileResult)) {
+                totalMatches.addAndGet(fileResult.optInt("matchCount", 0));
+                if (session != null) {
+                    session.emit(fileResult);
+                }
+            }
+        }
+    }
+
+    /**
+     * 无锁结果收集器
+     * 通过原子计数器领取槽位，容量满后拒绝新结果；排序在搜索结束后按评分进行
+     */
+    private static class ResultCollector {
+        private final AtomicReferenceArray<JSObject> slots;
+        private final AtomicInteger nextSlot = new AtomicInteger();
+
+        ResultCollector(int capacity) {
+            this.slots = new AtomicReferenceArray<>(capacity);
+        }
+
+        boolean isFull() {
+            return nextSlot.get() >= slots.length();
+        }
+
+        boolean offer(JSObject result) {
+            if (isFull()) {
+                return false;
+            }
+            int slot = nextSlot.getAndIncrement();
+            if (slot >= slots.length()) {
+                return false;
+            }
+            slots.set(slot, result);
+            return true;
+        }
+
+        List<JSObject> toList() {
+            int count = Math.min(nextSlot.get(), slots.length());
+            List<JSObject> results = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                JSObject result = slots.get(i);
+                if (result != null) {
+                    results.add(result);
+                }
+            }
+            return results;
+        }
+    }
+}
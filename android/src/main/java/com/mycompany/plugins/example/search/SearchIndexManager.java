@@ -0,0 +1,220 @@
+package com.mycompany.plugins.example.search;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.mycompany.plugins.example.core.DirectoryScanner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * 搜索索引管理模块
+ * 负责按根目录构建、加载、查询和删除 trigram 索引，索引文件保存在应用私有目录
+ */
+class SearchIndexManager {
+    private static final String TAG = "SearchIndexManager";
+    private static final String INDEX_DIR = "afm-search-index";
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private final File indexDir;
+    private final FileSearcher searcher;
+
+    // 已加载的索引（key 为根目录绝对路径）
+    private final Map<String, TrigramIndex> loaded = new ConcurrentHashMap<>();
+
+    SearchIndexManager(Context context, FileSearcher searcher) {
+        this.indexDir = new File(context.getFilesDir(), INDEX_DIR);
+        this.searcher = searcher;
+    }
+
+    /**
+     * 构建或增量更新指定根目录的索引
+     */
+    synchronized JSObject buildIndex(String rootPath, int maxFileSize) throws Exception {
+        long startTime = System.currentTimeMillis();
+        File root = new File(rootPath).getAbsoluteFile();
+        if (!root.isDirectory()) {
+            throw new Exception("Invalid directory: " + rootPath);
+        }
+        if (!indexDir.exists() && !indexDir.mkdirs()) {
+            throw new Exception("Failed to create index directory");
+        }
+
+        String rootKey = root.getPath();
+        List<DirectoryScanner.Entry> files = new ArrayList<>();
+        collectIndexableFiles(root, maxFileSize, files);
+
+        File indexFile = indexFileFor(rootKey);
+        TrigramIndex previous = getIndex(rootKey);
+        TrigramIndex.BuildStats stats = TrigramIndex.build(indexFile, rootKey, files, previous, maxFileSize);
+        loaded.put(rootKey, TrigramIndex.open(indexFile));
+
+        long duration = System.currentTimeMillis() - startTime;
+        Log.d(TAG, "Index built for " + rootKey + ": " + stats.files + " files in " + duration + "ms");
+
+        JSObject result = new JSObject();
+        result.put("root", rootKey);
+        result.put("files", stats.files);
+        result.put("trigrams", stats.trigrams);
+        result.put("indexed", stats.indexed);
+        result.put("reused", stats.reused);
+        result.put("removed", stats.removed);
+        result.put("sizeBytes", indexFile.length());
+        result.put("duration", duration);
+        return result;
+    }
+
+    /**
+     * 获取所有索引的状态
+     */
+    JSObject getIndexStatus() {
+        JSArray indexes = new JSArray();
+        File[] indexFiles = indexDir.listFiles((dir, name) -> name.endsWith(INDEX_SUFFIX));
+        if (indexFiles != null) {
+            for (File indexFile : indexFiles) {
+                try {
+                    TrigramIndex index = getIndex(TrigramIndex.readRoot(indexFile));
+                    if (index == null) {
+                        continue;
+                    }
+                    JSObject status = new JSObject();
+                    status.put("root", index.getRoot());
+                    status.put("files", index.getFileCount());
+                    status.put("trigrams", index.getTrigramCount());
+                    status.put("sizeBytes", index.getSizeBytes());
+                    status.put("builtAt", index.getBuiltAt());
+                    indexes.put(status);
+                } catch (IOException e) {
+                    Log.w(TAG, "Unreadable index file: " + indexFile.getPath() + " - " + e.getMessage());
+                }
+            }
+        }
+
+        JSObject result = new JSObject();
+        result.put("indexes", indexes);
+        return result;
+    }
+
+    /**
+     * 删除指定根目录的索引
+     */
+    synchronized boolean dropIndex(String rootPath) {
+        String rootKey = new File(rootPath).getAbsolutePath();
+        loaded.remove(rootKey);
+        File indexFile = indexFileFor(rootKey);
+        return indexFile.exists() && indexFile.delete();
+    }
+
+    /**
+     * 创建内容搜索的文件过滤器
+     * 索引中未变化且不含全部 trigram 的文件会被跳过；新增或已修改的文件始终需要扫描。
+     * 没有覆盖该目录的索引或关键词过短时返回 null
+     */
+    Predicate<DirectoryScanner.Entry> createScanFilter(File directory, String keyword) {
+        TrigramIndex index = findIndexCovering(directory.getAbsolutePath());
+        if (index == null) {
+            return null;
+        }
+
+        BitSet candidates = index.query(keyword);
+        if (candidates == null) {
+            return null;
+        }
+
+        String lowerKeyword = keyword.toLowerCase();
+        return entry -> {
+            TrigramIndex.FileRecord record = index.getRecord(entry.path);
+            if (record == null || record.size != entry.size || record.mtime != entry.lastModified) {
+                return true;
+            }
+            // 文件名匹配的文件也需要返回结果
+            return candidates.get(record.id) || entry.name.toLowerCase().contains(lowerKeyword);
+        };
+    }
+
+    // ============ 辅助方法 ============
+
+    private TrigramIndex findIndexCovering(String path) {
+        File candidate = new File(path);
+        while (candidate != null) {
+            TrigramIndex index = getIndex(candidate.getPath());
+            if (index != null) {
+                return index;
+            }
+            candidate = candidate.getParentFile();
+        }
+        return null;
+    }
+
+    private TrigramIndex getIndex(String rootKey) {
+        TrigramIndex index = loaded.get(rootKey);
+        if (index != null) {
+            return index;
+        }
+        File indexFile = indexFileFor(rootKey);
+        if (!indexFile.exists()) {
+            return null;
+        }
+        try {
+            index = TrigramIndex.open(indexFile);
+            loaded.put(rootKey, index);
+            return index;
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to open index: " + indexFile.getPath() + " - " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void collectIndexableFiles(File directory, int maxFileSize, List<DirectoryScanner.Entry> files) {
+        List<DirectoryScanner.Entry> entries = DirectoryScanner.scan(directory);
+        if (entries == null) {
+            return;
+        }
+        for (DirectoryScanner.Entry entry : entries) {
+            // 跳过隐藏文件
+            if (entry.isHidden()) {
+                continue;
+            }
+            if (entry.isDirectory) {
+                if (!entry.isSymbolicLink) {
+                    collectIndexableFiles(entry.toFile(), maxFileSize, files);
+                }
+            } else if (searcher.isTextFile(entry.name) && entry.size <= maxFileSize) {
+                files.add(entry);
+            }
+        }
+    }
+
+    private File indexFileFor(String rootKey) {
+        return new File(indexDir, hashRoot(rootKey) + INDEX_SUFFIX);
+    }
+
+    private String hashRoot(String rootKey) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            byte[] digest = md.digest(rootKey.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hexString = new StringBuilder();
+            for (byte b : digest) {
+                String hex = Integer.toHexString(0xff & b);
+                if (hex.length() == 1) {
+                    hexString.append('0');
+                }
+                hexString.append(hex);
+            }
+            return hexString.toString();
+        } catch (Exception e) {
+            return Integer.toHexString(rootKey.hashCode());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.mycompany.plugins.example.search;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 流式搜索会话
+ * 将匹配结果分批推送，批次按数量和时间间隔限制，避免频繁的 bridge 调用；支持取消。
+ * 未满一批的结果在时间间隔到达时由定时任务推送，不必等到下一个结果或搜索结束
+ */
+public class SearchSession {
+    // 默认配置
+    static final int DEFAULT_BATCH_SIZE = 20;
+    static final long DEFAULT_EMIT_INTERVAL_MS = 100;
+
+    // 所有会话共用的定时推送线程
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "afm-search-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 流式搜索回调
+     */
+    public interface Listener {
+        void onResults(String searchId, JSArray results);
+
+        void onComplete(String searchId, JSObject summary);
+    }
+
+    private final String searchId;
+    private final Listener listener;
+    private final int batchSize;
+    private final long emitIntervalMs;
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+    // 串行化推送，保证完成事件在所有结果之后发出
+    private final Object deliveryLock = new Object();
+
+    private JSArray pending = new JSArray();
+    private long lastEmitAt;
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean completed;
+
+    SearchSession(String searchId, Listener listener, int batchSize, long emitIntervalMs) {
+        this.searchId = searchId;
+        this.listener = listener;
+        this.batchSize = batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+        this.emitIntervalMs = emitIntervalMs > 0 ? emitIntervalMs : DEFAULT_EMIT_INTERVAL_MS;
+        this.lastEmitAt = System.currentTimeMillis();
+    }
+
+    boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * 取消搜索，遍历和文件扫描在下一次检查时停止
+     */
+    void cancel() {
+        cancelled.set(true);
+    }
+
+    /**
+     * 添加一个匹配结果，达到批次大小或时间间隔时推送；否则在时间间隔到达时由定时任务推送
+     */
+    void emit(JSObject result) {
+        JSArray batch = null;
+        synchronized (this) {
+            pending.put(result);
+            long now = System.currentTimeMillis();
+            if (pending.length() >= batchSize || now - lastEmitAt >= emitIntervalMs) {
+                batch = takePending(now);
+            } else if (scheduledFlush == null) {
+                scheduledFlush = FLUSHER.schedule(this::flushPending,
+                    lastEmitAt + emitIntervalMs - now, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (batch != null) {
+            synchronized (deliveryLock) {
+                listener.onResults(searchId, batch);
+            }
+        }
+    }
+
+    /**
+     * 推送剩余结果并发送完成事件
+     */
+    void complete(JSObject summary) {
+        synchronized (deliveryLock) {
+            JSArray batch;
+            synchronized (this) {
+                completed = true;
+                batch = takePending(System.currentTimeMillis());
+            }
+            if (batch.length() > 0) {
+                listener.onResults(searchId, batch);
+            }
+            summary.put("cancelled", isCancelled());
+            listener.onComplete(searchId, summary);
+        }
+    }
+
+    /**
+     * 定时推送：距上次推送已满时间间隔，把未满一批的结果发出去
+     */
+    private void flushPending() {
+        synchronized (deliveryLock) {
+            JSArray batch;
+            synchronized (this) {
+                scheduledFlush = null;
+                if (completed || pending.length() == 0) {
+                    return;
+                }
+                batch = takePending(System.currentTimeMillis());
+            }
+            listener.onResults(searchId, batch);
+        }
+    }
+
+    /**
+     * 取出待推送的结果并取消尚未执行的定时推送（调用方持有 this 锁）
+     */
+    private JSArray takePending(long now) {
+        JSArray batch = pending;
+        pending = new JSArray();
+        lastEmitAt = now;
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+}
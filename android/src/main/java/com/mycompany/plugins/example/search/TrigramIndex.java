@@ -0,0 +1,470 @@
+package com.mycompany.plugins.example.search;
+
+import android.util.Log;
+
+import com.mycompany.plugins.example.core.DirectoryScanner;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 三元组（trigram）倒排索引
+ * 索引文件通过内存映射读取，查询时直接在映射区上二分查找，几乎不产生对象分配
+ *
+ * 文件格式：
+ * header | 文件表 | trigram 表（按 trigram 排序，每项 12 字节）| posting 列表 | 正排列表
+ */
+class TrigramIndex {
+    private static final String TAG = "TrigramIndex";
+
+    private static final int MAGIC = 0x41464D54; // "AFMT"
+    private static final int VERSION = 1;
+    private static final int TRIGRAM_ENTRY_SIZE = 12;
+
+    private final File indexFile;
+    private final String root;
+    private final long builtAt;
+    private final int fileCount;
+    private final int trigramCount;
+    private final long trigramTableOffset;
+    private final long postingsOffset;
+    private final MappedByteBuffer buffer;
+    private final Map<String, FileRecord> records;
+
+    /**
+     * 索引中的文件记录
+     */
+    static class FileRecord {
+        final int id;
+        final String path;
+        final long size;
+        final long mtime;
+        final long forwardOffset;
+        final int forwardCount;
+
+        FileRecord(int id, String path, long size, long mtime, long forwardOffset, int forwardCount) {
+            this.id = id;
+            this.path = path;
+            this.size = size;
+            this.mtime = mtime;
+            this.forwardOffset = forwardOffset;
+            this.forwardCount = forwardCount;
+        }
+    }
+
+    /**
+     * 构建统计
+     */
+    static class BuildStats {
+        int files;
+        int reused;
+        int indexed;
+        int removed;
+        int trigrams;
+    }
+
+    private TrigramIndex(File indexFile, String root, long builtAt, int fileCount, int trigramCount,
+                         long trigramTableOffset, long postingsOffset, MappedByteBuffer buffer,
+                         Map<String, FileRecord> records) {
+        this.indexFile = indexFile;
+        this.root = root;
+        this.builtAt = builtAt;
+        this.fileCount = fileCount;
+        this.trigramCount = trigramCount;
+        this.trigramTableOffset = trigramTableOffset;
+        this.postingsOffset = postingsOffset;
+        this.buffer = buffer;
+        this.records = records;
+    }
+
+    String getRoot() {
+        return root;
+    }
+
+    long getBuiltAt() {
+        return builtAt;
+    }
+
+    int getFileCount() {
+        return fileCount;
+    }
+
+    int getTrigramCount() {
+        return trigramCount;
+    }
+
+    long getSizeBytes() {
+        return indexFile.length();
+    }
+
+    FileRecord getRecord(String path) {
+        return records.get(path);
+    }
+
+    // ==================== 读取 ====================
+
+    /**
+     * 打开索引文件（内存映射）
+     */
+    static TrigramIndex open(File indexFile) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(indexFile, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Unsupported index file: " + indexFile.getPath());
+            }
+            long builtAt = buffer.getLong();
+            String root = readString(buffer);
+            int fileCount = buffer.getInt();
+            int trigramCount = buffer.getInt();
+            long trigramTableOffset = buffer.getLong();
+            long postingsOffset = buffer.getLong();
+
+            Map<String, FileRecord> records = new HashMap<>(fileCount * 2);
+            for (int id = 0; id < fileCount; id++) {
+                String path = readString(buffer);
+                long size = buffer.getLong();
+                long mtime = buffer.getLong();
+                long forwardOffset = buffer.getLong();
+                int forwardCount = buffer.getInt();
+                records.put(path, new FileRecord(id, path, size, mtime, forwardOffset, forwardCount));
+            }
+
+            return new TrigramIndex(indexFile, root, builtAt, fileCount, trigramCount,
+                                    trigramTableOffset, postingsOffset, buffer, records);
+        }
+    }
+
+    /**
+     * 只读取索引头信息中的根目录
+     */
+    static String readRoot(File indexFile) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(indexFile, "r")) {
+            if (raf.readInt() != MAGIC || raf.readInt() != VERSION) {
+                throw new IOException("Unsupported index file: " + indexFile.getPath());
+            }
+            raf.readLong();
+            byte[] bytes = new byte[raf.readInt()];
+            raf.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 查询可能包含关键词的文件
+     * 返回候选文件 ID 集合；关键词不足 3 字节无法使用索引时返回 null
+     */
+    BitSet query(String keyword) {
+        int[] trigrams = extractTrigrams(keyword.getBytes(StandardCharsets.UTF_8));
+        if (trigrams.length == 0) {
+            return null;
+        }
+
+        // 先找到最短的 posting 列表，减少后续求交集的工作量
+        int smallest = -1;
+        int smallestCount = Integer.MAX_VALUE;
+        int[] slots = new int[trigrams.length];
+        for (int i = 0; i < trigrams.length; i++) {
+            slots[i] = findTrigram(trigrams[i]);
+            if (slots[i] < 0) {
+                return new BitSet(0);
+            }
+            int count = postingCount(slots[i]);
+            if (count < smallestCount) {
+                smallestCount = count;
+                smallest = i;
+            }
+        }
+
+        BitSet candidates = new BitSet(fileCount);
+        readPostings(slots[smallest], candidates);
+
+        BitSet other = new BitSet(fileCount);
+        for (int i = 0; i < slots.length && !candidates.isEmpty(); i++) {
+            if (i == smallest) {
+                continue;
+            }
+            other.clear();
+            readPostings(slots[i], other);
+            candidates.and(other);
+        }
+
+        return candidates;
+    }
+
+    private int findTrigram(int trigram) {
+        int low = 0;
+        int high = trigramCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = buffer.getInt((int) (trigramTableOffset + (long) mid * TRIGRAM_ENTRY_SIZE));
+            if (value < trigram) {
+                low = mid + 1;
+            } else if (value > trigram) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int postingCount(int slot) {
+        return buffer.getInt((int) (trigramTableOffset + (long) slot * TRIGRAM_ENTRY_SIZE + 8));
+    }
+
+    private void readPostings(int slot, BitSet target) {
+        long entry = trigramTableOffset + (long) slot * TRIGRAM_ENTRY_SIZE;
+        int start = buffer.getInt((int) (entry + 4));
+        int count = buffer.getInt((int) (entry + 8));
+        long base = postingsOffset + (long) start * 4;
+        for (int i = 0; i < count; i++) {
+            target.set(buffer.getInt((int) (base + (long) i * 4)));
+        }
+    }
+
+    private int[] readForward(FileRecord record) {
+        int[] trigrams = new int[record.forwardCount];
+        for (int i = 0; i < record.forwardCount; i++) {
+            trigrams[i] = buffer.getInt((int) (record.forwardOffset + (long) i * 4));
+        }
+        return trigrams;
+    }
+
+    // ==================== 构建 ====================
+
+    /**
+     * 构建或增量更新索引
+     * 大小和修改时间未变化的文件直接复用旧索引中的 trigram，不再读取文件内容
+     */
+    static BuildStats build(File indexFile, String root, List<DirectoryScanner.Entry> files,
+                            TrigramIndex previous, int maxFileSize) throws IOException {
+        BuildStats stats = new BuildStats();
+        List<String> paths = new ArrayList<>(files.size());
+        List<long[]> meta = new ArrayList<>(files.size());
+        List<int[]> forwards = new ArrayList<>(files.size());
+        byte[] readBuffer = new byte[Math.max(1, maxFileSize)];
+
+        for (DirectoryScanner.Entry entry : files) {
+            int[] trigrams = null;
+            FileRecord old = previous != null ? previous.getRecord(entry.path) : null;
+            if (old != null && old.size == entry.size && old.mtime == entry.lastModified) {
+                trigrams = previous.readForward(old);
+                stats.reused++;
+            } else {
+                try {
+                    trigrams = extractFileTrigrams(entry, readBuffer);
+                    stats.indexed++;
+                } catch (IOException e) {
+                    Log.w(TAG, "Failed to index file: " + entry.path + " - " + e.getMessage());
+                    continue;
+                }
+            }
+            paths.add(entry.path);
+            meta.add(new long[]{entry.size, entry.lastModified});
+            forwards.add(trigrams);
+        }
+
+        if (previous != null) {
+            Set<String> current = new HashSet<>(paths);
+            for (String path : previous.records.keySet()) {
+                if (!current.contains(path)) {
+                    stats.removed++;
+                }
+            }
+        }
+
+        // 构建倒排表：文件按 ID 顺序加入，因此每个 posting 列表天然有序
+        Map<Integer, IntList> postings = new HashMap<>();
+        for (int id = 0; id < forwards.size(); id++) {
+            for (int trigram : forwards.get(id)) {
+                IntList list = postings.get(trigram);
+                if (list == null) {
+                    list = new IntList();
+                    postings.put(trigram, list);
+                }
+                list.add(id);
+            }
+        }
+        int[] sortedTrigrams = new int[postings.size()];
+        int n = 0;
+        for (Integer trigram : postings.keySet()) {
+            sortedTrigrams[n++] = trigram;
+        }
+        Arrays.sort(sortedTrigrams);
+
+        // 计算各区段偏移
+        byte[] rootBytes = root.getBytes(StandardCharsets.UTF_8);
+        long headerSize = 4 + 4 + 8 + 4 + rootBytes.length + 4 + 4 + 8 + 8;
+        List<byte[]> pathBytes = new ArrayList<>(paths.size());
+        long fileTableSize = 0;
+        long totalPostings = 0;
+        for (String path : paths) {
+            byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+            pathBytes.add(bytes);
+            fileTableSize += 4 + bytes.length + 8 + 8 + 8 + 4;
+        }
+        for (int[] forward : forwards) {
+            totalPostings += forward.length;
+        }
+        long trigramTableOffset = headerSize + fileTableSize;
+        long postingsOffset = trigramTableOffset + (long) sortedTrigrams.length * TRIGRAM_ENTRY_SIZE;
+        long forwardOffset = postingsOffset + totalPostings * 4;
+        if (forwardOffset + totalPostings * 4 > Integer.MAX_VALUE) {
+            throw new IOException("Index too large for root: " + root);
+        }
+
+        File tempFile = new File(indexFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tempFile), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(rootBytes.length);
+            out.write(rootBytes);
+            out.writeInt(paths.size());
+            out.writeInt(sortedTrigrams.length);
+            out.writeLong(trigramTableOffset);
+            out.writeLong(postingsOffset);
+
+            long nextForward = forwardOffset;
+            for (int i = 0; i < paths.size(); i++) {
+                byte[] bytes = pathBytes.get(i);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                out.writeLong(meta.get(i)[0]);
+                out.writeLong(meta.get(i)[1]);
+                out.writeLong(nextForward);
+                out.writeInt(forwards.get(i).length);
+                nextForward += (long) forwards.get(i).length * 4;
+            }
+
+            int postingStart = 0;
+            for (int trigram : sortedTrigrams) {
+                IntList list = postings.get(trigram);
+                out.writeInt(trigram);
+                out.writeInt(postingStart);
+                out.writeInt(list.size);
+                postingStart += list.size;
+            }
+
+            for (int trigram : sortedTrigrams) {
+                IntList list = postings.get(trigram);
+                for (int i = 0; i < list.size; i++) {
+                    out.writeInt(list.values[i]);
+                }
+            }
+
+            for (int[] forward : forwards) {
+                for (int trigram : forward) {
+                    out.writeInt(trigram);
+                }
+            }
+        }
+
+        if (!tempFile.renameTo(indexFile)) {
+            tempFile.delete();
+            throw new IOException("Failed to write index file: " + indexFile.getPath());
+        }
+
+        stats.files = paths.size();
+        stats.trigrams = sortedTrigrams.length;
+        return stats;
+    }
+
+    // ============ 辅助方法 ============
+
+    private static int[] extractFileTrigrams(DirectoryScanner.Entry entry, byte[] readBuffer) throws IOException {
+        int length = (int) Math.min(entry.size, readBuffer.length);
+        int total = 0;
+        try (FileInputStream fis = new FileInputStream(entry.path)) {
+            int read;
+            while (total < length && (read = fis.read(readBuffer, total, length - total)) > 0) {
+                total += read;
+            }
+        }
+        return extractTrigrams(readBuffer, total);
+    }
+
+    private static int[] extractTrigrams(byte[] data) {
+        return extractTrigrams(data, data.length);
+    }
+
+    /**
+     * 提取去重排序后的 trigram（ASCII 转小写，跨行的 trigram 不收录）
+     */
+    private static int[] extractTrigrams(byte[] data, int length) {
+        if (length < 3) {
+            return new int[0];
+        }
+        int[] trigrams = new int[length - 2];
+        int count = 0;
+        for (int i = 0; i + 2 < length; i++) {
+            byte b0 = data[i];
+            byte b1 = data[i + 1];
+            byte b2 = data[i + 2];
+            if (b0 == '\n' || b1 == '\n' || b2 == '\n') {
+                continue;
+            }
+            trigrams[count++] = (toLower(b0) << 16) | (toLower(b1) << 8) | toLower(b2);
+        }
+        if (count == 0) {
+            return new int[0];
+        }
+        Arrays.sort(trigrams, 0, count);
+        int unique = 1;
+        for (int i = 1; i < count; i++) {
+            if (trigrams[i] != trigrams[unique - 1]) {
+                trigrams[unique++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, unique);
+    }
+
+    private static int toLower(byte b) {
+        int value = b & 0xff;
+        if (value >= 'A' && value <= 'Z') {
+            value += 32;
+        }
+        return value;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 简单的 int 动态数组（避免装箱）
+     */
+    private static class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
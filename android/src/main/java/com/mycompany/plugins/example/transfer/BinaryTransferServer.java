@@ -0,0 +1,741 @@
+package com.mycompany.plugins.example.transfer;
+
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+import com.mycompany.plugins.example.core.FileUtils;
+import com.mycompany.plugins.example.core.HashCache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 二进制传输服务
+ * 在 127.0.0.1 的随机端口上提供极简 HTTP 服务，WebView 通过 fetch 直接读写文件字节，
+ * 不经过 base64 编码和桥接消息。每个通道由随机句柄标识，只能访问打开时指定的文件：
+ * GET 读取（支持 Range），PUT 按 offset 写入一块数据，空闲超时后自动关闭。
+ * 跨域响应只允许 WebView 自身的源，其他源的请求直接拒绝
+ */
+public class BinaryTransferServer {
+    private static final String TAG = "BinaryTransferServer";
+
+    public static final String MODE_READ = "read";
+    public static final String MODE_WRITE = "write";
+
+    // 默认配置
+    private static final int MAX_CONNECTIONS = 8;
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_HEADER_SIZE = 16 * 1024;
+    private static final int SOCKET_TIMEOUT_MS = 30 * 1000;
+    private static final long CHANNEL_TTL_MS = 5 * 60 * 1000;
+    private static final long REAPER_INTERVAL_MS = 30 * 1000;
+
+    /**
+     * 传输通道
+     */
+    private static final class Channel {
+        final String handle;
+        final File file;
+        final boolean writable;
+        // 写通道在打开期间保持文件打开
+        RandomAccessFile output;
+        long bytesTransferred;
+        long lastAccess = System.currentTimeMillis();
+        int activeRequests;
+        // 是否有写请求正在复制请求体（复制期间不持有通道锁）
+        boolean writing;
+        volatile boolean closed;
+
+        Channel(String handle, File file, boolean writable) {
+            this.handle = handle;
+            this.file = file;
+            this.writable = writable;
+        }
+    }
+
+    /**
+     * 解析后的请求行和请求头
+     */
+    private static final class Request {
+        String method;
+        String path;
+        final Map<String, String> query = new HashMap<>();
+        final Map<String, String> headers = new HashMap<>();
+
+        long getContentLength() {
+            String value = headers.get("content-length");
+            try {
+                return value != null ? Long.parseLong(value.trim()) : -1;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+
+    private final HashCache hashCache;
+    // 允许访问的 WebView 源（scheme://host[:port]），为 null 时不返回跨域响应头
+    private final String allowedOrigin;
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final ScheduledExecutorService reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "AFM-transfer-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ServerSocket serverSocket;
+    private ExecutorService connections;
+
+    /**
+     * @param webViewUrl WebView 加载的本地地址，跨域只允许它的源
+     */
+    public BinaryTransferServer(HashCache hashCache, String webViewUrl) {
+        this.hashCache = hashCache;
+        this.allowedOrigin = toOrigin(webViewUrl);
+        if (allowedOrigin == null) {
+            Log.w(TAG, "Unknown WebView origin, cross-origin access to binary channels is disabled");
+        }
+        reaper.scheduleWithFixedDelay(this::expireIdleChannels, REAPER_INTERVAL_MS, REAPER_INTERVAL_MS,
+                                      TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 打开传输通道
+     * @param truncate 写通道是否先清空文件（否则从已有内容之后继续写入）
+     */
+    public JSObject open(String path, String mode, boolean truncate) throws Exception {
+        if (path.startsWith("content://")) {
+            throw new Exception("content:// URIs are not supported by binary channels");
+        }
+        boolean writable = MODE_WRITE.equals(mode);
+        if (!writable && !MODE_READ.equals(mode)) {
+            throw new Exception("Invalid mode: " + mode);
+        }
+
+        File file = new File(path);
+        Channel channel = new Channel(newHandle(), file, writable);
+        if (writable) {
+            File parentDir = file.getParentFile();
+            if (parentDir != null && !parentDir.exists() && !parentDir.mkdirs() && !parentDir.isDirectory()) {
+                throw new Exception("Failed to create parent directories for: " + path);
+            }
+            channel.output = new RandomAccessFile(file, "rw");
+            if (truncate) {
+                channel.output.setLength(0);
+                hashCache.invalidate(file);
+            }
+        } else if (!file.isFile()) {
+            throw new Exception(file.exists() ? "Path is not a file: " + path : "File does not exist: " + path);
+        }
+
+        int port;
+        try {
+            port = ensureStarted();
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw e;
+        }
+        channels.put(channel.handle, channel);
+
+        JSObject result = new JSObject();
+        result.put("handle", channel.handle);
+        result.put("url", "http://127.0.0.1:" + port + "/" + channel.handle);
+        result.put("mode", mode);
+        result.put("size", file.length());
+        if (!writable) {
+            result.put("mimeType", FileUtils.getMimeType(file.getName()));
+        }
+        return result;
+    }
+
+    /**
+     * 关闭传输通道
+     * 写通道关闭前先 fdatasync，已完成的写请求的数据在返回时均已落盘；
+     * 关闭时仍在复制请求体的写请求由该请求结束时关闭文件，不在此同步
+     */
+    public JSObject close(String handle) throws Exception {
+        Channel channel = channels.remove(handle);
+        if (channel == null) {
+            throw new Exception("Binary channel not found: " + handle);
+        }
+        long bytesTransferred;
+        IOException syncError = null;
+        synchronized (channel) {
+            bytesTransferred = channel.bytesTransferred;
+            if (channel.output != null && !channel.writing) {
+                try {
+                    channel.output.getChannel().force(false);
+                } catch (IOException e) {
+                    syncError = e;
+                }
+            }
+            closeQuietly(channel);
+        }
+        if (syncError != null) {
+            throw new Exception("Failed to sync " + channel.file.getPath() + ": " + syncError.getMessage());
+        }
+
+        JSObject result = new JSObject();
+        result.put("bytesTransferred", bytesTransferred);
+        result.put("size", channel.file.length());
+        return result;
+    }
+
+    public synchronized void shutdown() {
+        reaper.shutdownNow();
+        for (Channel channel : channels.values()) {
+            synchronized (channel) {
+                closeQuietly(channel);
+            }
+        }
+        channels.clear();
+        if (serverSocket != null) {
+            try {
+                serverSocket.close();
+            } catch (IOException e) {
+                // 忽略
+            }
+            serverSocket = null;
+        }
+        if (connections != null) {
+            connections.shutdownNow();
+            connections = null;
+        }
+    }
+
+    // ============ 连接处理 ============
+
+    /**
+     * 首次使用时启动服务，返回端口
+     */
+    private synchronized int ensureStarted() throws IOException {
+        if (serverSocket != null && !serverSocket.isClosed()) {
+            return serverSocket.getLocalPort();
+        }
+        ServerSocket socket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        ExecutorService pool = Executors.newFixedThreadPool(MAX_CONNECTIONS, r -> {
+            Thread thread = new Thread(r, "AFM-transfer-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Thread acceptThread = new Thread(() -> acceptLoop(socket, pool), "AFM-transfer-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+
+        serverSocket = socket;
+        connections = pool;
+        Log.d(TAG, "Binary transfer server listening on port " + socket.getLocalPort());
+        return socket.getLocalPort();
+    }
+
+    private void acceptLoop(ServerSocket socket, ExecutorService pool) {
+        while (!socket.isClosed()) {
+            try {
+                Socket client = socket.accept();
+                pool.execute(() -> serve(client));
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    Log.w(TAG, "Accept failed: " + e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                // 服务已关闭，线程池拒绝任务
+                break;
+            }
+        }
+    }
+
+    /**
+     * 处理一个连接上的请求（支持 keep-alive，分块上传时复用连接）
+     */
+    private void serve(Socket socket) {
+        try (Socket client = socket) {
+            client.setSoTimeout(SOCKET_TIMEOUT_MS);
+            client.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(client.getInputStream(), BUFFER_SIZE);
+            OutputStream out = new BufferedOutputStream(client.getOutputStream(), BUFFER_SIZE);
+            while (handle(in, out)) {
+                out.flush();
+            }
+            out.flush();
+        } catch (SocketTimeoutException | EOFException e) {
+            // 空闲连接超时或客户端断开
+        } catch (IOException e) {
+            Log.d(TAG, "Connection closed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 处理单个请求，返回是否继续读取同一连接上的下一个请求
+     */
+    private boolean handle(InputStream in, OutputStream out) throws IOException {
+        Request request = readRequest(in);
+        if (request == null) {
+            return false;
+        }
+        boolean keepAlive = !"close".equalsIgnoreCase(request.headers.get("connection"));
+
+        String origin = request.headers.get("origin");
+        if (origin != null && !origin.equals(allowedOrigin)) {
+            skipBody(in, request);
+            writeError(out, 403, "Forbidden", "Origin not allowed");
+            return keepAlive;
+        }
+
+        if ("OPTIONS".equals(request.method)) {
+            // CORS 预检
+            writeHead(out, 204, "No Content", null, 0,
+                      "Access-Control-Allow-Methods: GET, PUT, POST, OPTIONS\r\n"
+                      + "Access-Control-Allow-Headers: Content-Type, Range\r\n"
+                      + "Access-Control-Allow-Private-Network: true\r\n"
+                      + "Access-Control-Max-Age: 600\r\n");
+            return keepAlive;
+        }
+
+        Channel channel = acquire(request.path.startsWith("/") ? request.path.substring(1) : request.path);
+        if (channel == null) {
+            skipBody(in, request);
+            writeError(out, 404, "Not Found", "Binary channel not found or expired");
+            return keepAlive;
+        }
+        try {
+            switch (request.method) {
+                case "GET":
+                case "HEAD":
+                    if (channel.writable) {
+                        writeError(out, 405, "Method Not Allowed", "Channel is write-only");
+                        return keepAlive;
+                    }
+                    return serveRead(channel, request, out) && keepAlive;
+                case "PUT":
+                case "POST":
+                    if (!channel.writable) {
+                        skipBody(in, request);
+                        writeError(out, 405, "Method Not Allowed", "Channel is read-only");
+                        return keepAlive;
+                    }
+                    return serveWrite(channel, request, in, out) && keepAlive;
+                default:
+                    skipBody(in, request);
+                    writeError(out, 405, "Method Not Allowed", "Unsupported method: " + request.method);
+                    return keepAlive;
+            }
+        } finally {
+            release(channel);
+        }
+    }
+
+    /**
+     * 读取文件内容（支持单个 Range）
+     */
+    private boolean serveRead(Channel channel, Request request, OutputStream out) throws IOException {
+        try (RandomAccessFile input = new RandomAccessFile(channel.file, "r")) {
+            long size = input.length();
+            long start = 0;
+            long end = size - 1;
+            String range = request.headers.get("range");
+            boolean partial = range != null;
+            if (partial) {
+                long[] bounds = parseRange(range, size);
+                if (bounds == null) {
+                    writeHead(out, 416, "Range Not Satisfiable", null, 0, "Content-Range: bytes */" + size + "\r\n");
+                    return true;
+                }
+                start = bounds[0];
+                end = bounds[1];
+            }
+            long length = Math.max(0, end - start + 1);
+
+            String extraHeaders = "Accept-Ranges: bytes\r\n";
+            if (partial) {
+                extraHeaders += "Content-Range: bytes " + start + "-" + end + "/" + size + "\r\n";
+            }
+            writeHead(out, partial ? 206 : 200, partial ? "Partial Content" : "OK",
+                      FileUtils.getMimeType(channel.file.getName()), length, extraHeaders);
+            if ("HEAD".equals(request.method)) {
+                return true;
+            }
+
+            input.seek(start);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long remaining = length;
+            while (remaining > 0) {
+                int read = input.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    // 文件在传输期间被截断，无法补足 Content-Length，只能断开
+                    return false;
+                }
+                out.write(buffer, 0, read);
+                remaining -= read;
+            }
+            synchronized (channel) {
+                channel.bytesTransferred += length;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 写入一块数据：offset 默认为文件当前大小（追加），不能超过当前大小
+     * 请求体在通道锁之外复制，慢速客户端不会阻塞关闭通道和空闲回收；同一通道同时只允许一个写请求
+     */
+    private boolean serveWrite(Channel channel, Request request, InputStream in, OutputStream out)
+            throws IOException {
+        long contentLength = request.getContentLength();
+        if (contentLength < 0) {
+            // 不支持 chunked 传输编码，无法确定请求体边界，只能断开
+            JSObject error = new JSObject();
+            error.put("error", "Content-Length is required");
+            writeJson(out, 411, "Length Required", error, "Connection: close\r\n");
+            return false;
+        }
+
+        long size;
+        long offset;
+        String conflict = null;
+        RandomAccessFile output;
+        synchronized (channel) {
+            if (channel.closed) {
+                output = null;
+                size = 0;
+                offset = 0;
+            } else {
+                output = channel.output;
+                size = output.length();
+                String offsetParam = request.query.get("offset");
+                try {
+                    offset = offsetParam != null ? Long.parseLong(offsetParam) : size;
+                } catch (NumberFormatException e) {
+                    offset = -1;
+                }
+                if (channel.writing) {
+                    conflict = "Another write is in progress on this channel";
+                } else if (offset < 0 || offset > size) {
+                    conflict = "Invalid offset " + offsetParam + ", file size is " + size;
+                } else {
+                    channel.writing = true;
+                }
+            }
+        }
+        if (output == null) {
+            skipBody(in, request);
+            writeError(out, 404, "Not Found", "Binary channel closed");
+            return true;
+        }
+        if (conflict != null) {
+            // 客户端据返回的 size 从断点继续
+            skipBody(in, request);
+            JSObject error = new JSObject();
+            error.put("error", conflict);
+            error.put("size", size);
+            writeJson(out, 409, "Conflict", error, null);
+            return true;
+        }
+
+        long remaining = contentLength;
+        try {
+            output.seek(offset);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    throw new EOFException("Request body ended early");
+                }
+                if (channel.closed) {
+                    throw new IOException("Binary channel closed during write");
+                }
+                output.write(buffer, 0, read);
+                remaining -= read;
+            }
+            size = output.length();
+        } finally {
+            synchronized (channel) {
+                channel.writing = false;
+                channel.bytesTransferred += contentLength - remaining;
+                hashCache.invalidate(channel.file);
+                if (channel.closed) {
+                    // 写入期间通道被关闭，由写请求关闭文件
+                    closeOutput(channel);
+                }
+            }
+        }
+
+        JSObject result = new JSObject();
+        result.put("offset", offset);
+        result.put("bytesWritten", contentLength);
+        result.put("size", size);
+        writeJson(out, 200, "OK", result, null);
+        return true;
+    }
+
+    // ============ 通道管理 ============
+
+    private Channel acquire(String handle) {
+        Channel channel = channels.get(handle);
+        if (channel == null) {
+            return null;
+        }
+        synchronized (channel) {
+            if (channel.closed) {
+                return null;
+            }
+            channel.activeRequests++;
+            channel.lastAccess = System.currentTimeMillis();
+        }
+        return channel;
+    }
+
+    private void release(Channel channel) {
+        synchronized (channel) {
+            channel.activeRequests--;
+            channel.lastAccess = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * 关闭空闲超时的通道（由后台线程定期执行，写通道不会因为不再打开新通道而一直占用文件）
+     */
+    private void expireIdleChannels() {
+        long now = System.currentTimeMillis();
+        Iterator<Channel> iterator = channels.values().iterator();
+        while (iterator.hasNext()) {
+            Channel channel = iterator.next();
+            synchronized (channel) {
+                if (channel.activeRequests == 0 && now - channel.lastAccess > CHANNEL_TTL_MS) {
+                    Log.d(TAG, "Closing idle binary channel for " + channel.file.getPath());
+                    closeQuietly(channel);
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private void closeQuietly(Channel channel) {
+        channel.closed = true;
+        if (!channel.writing) {
+            closeOutput(channel);
+        }
+    }
+
+    private void closeOutput(Channel channel) {
+        if (channel.output != null) {
+            try {
+                channel.output.close();
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to close " + channel.file.getPath() + ": " + e.getMessage());
+            }
+            channel.output = null;
+            hashCache.invalidate(channel.file);
+        }
+    }
+
+    private String newHandle() {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        StringBuilder handle = new StringBuilder(32);
+        for (byte b : bytes) {
+            handle.append(String.format(Locale.US, "%02x", b));
+        }
+        return handle.toString();
+    }
+
+    // ============ HTTP 辅助方法 ============
+
+    /**
+     * 读取请求行和请求头，连接上没有更多请求时返回 null
+     */
+    private static Request readRequest(InputStream in) throws IOException {
+        String requestLine = readLine(in, true);
+        if (requestLine == null) {
+            return null;
+        }
+        String[] parts = requestLine.split(" ");
+        if (parts.length < 2) {
+            throw new IOException("Malformed request line");
+        }
+
+        Request request = new Request();
+        request.method = parts[0].toUpperCase(Locale.US);
+        String target = parts[1];
+        int queryStart = target.indexOf('?');
+        request.path = queryStart >= 0 ? target.substring(0, queryStart) : target;
+        if (queryStart >= 0) {
+            for (String pair : target.substring(queryStart + 1).split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    request.query.put(pair.substring(0, eq), pair.substring(eq + 1));
+                }
+            }
+        }
+
+        int headerBytes = requestLine.length();
+        String line;
+        while ((line = readLine(in, false)) != null && !line.isEmpty()) {
+            headerBytes += line.length();
+            if (headerBytes > MAX_HEADER_SIZE) {
+                throw new IOException("Request headers too large");
+            }
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                request.headers.put(line.substring(0, colon).trim().toLowerCase(Locale.US),
+                                    line.substring(colon + 1).trim());
+            }
+        }
+        return request;
+    }
+
+    /**
+     * 读取一行（ASCII，去掉 CRLF）
+     * @param allowEof 行首遇到连接结束时返回 null
+     */
+    private static String readLine(InputStream in, boolean allowEof) throws IOException {
+        StringBuilder line = new StringBuilder();
+        while (true) {
+            int b = in.read();
+            if (b < 0) {
+                if (allowEof && line.length() == 0) {
+                    return null;
+                }
+                throw new EOFException("Connection closed while reading headers");
+            }
+            if (b == '\n') {
+                int length = line.length();
+                if (length > 0 && line.charAt(length - 1) == '\r') {
+                    line.setLength(length - 1);
+                }
+                return line.toString();
+            }
+            if (line.length() >= MAX_HEADER_SIZE) {
+                throw new IOException("Request line too long");
+            }
+            line.append((char) b);
+        }
+    }
+
+    /**
+     * 取 URL 的源（scheme://host[:port]），无法解析时返回 null
+     */
+    private static String toOrigin(String url) {
+        if (url == null) {
+            return null;
+        }
+        try {
+            URI uri = new URI(url);
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                return null;
+            }
+            String origin = uri.getScheme().toLowerCase(Locale.US) + "://" + uri.getHost().toLowerCase(Locale.US);
+            return uri.getPort() >= 0 ? origin + ":" + uri.getPort() : origin;
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 解析 Range 头（bytes=start-end、bytes=start-、bytes=-suffix），无法满足时返回 null
+     */
+    private static long[] parseRange(String range, long size) {
+        if (!range.startsWith("bytes=") || range.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = range.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            }
+            if (start >= size || start > end) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void writeHead(OutputStream out, int status, String reason, String contentType,
+                                  long contentLength, String extraHeaders) throws IOException {
+        StringBuilder head = new StringBuilder();
+        head.append("HTTP/1.1 ").append(status).append(' ').append(reason).append("\r\n");
+        if (allowedOrigin != null) {
+            head.append("Access-Control-Allow-Origin: ").append(allowedOrigin).append("\r\n");
+            head.append("Access-Control-Expose-Headers: Content-Length, Content-Range\r\n");
+        }
+        head.append("Cache-Control: no-store\r\n");
+        if (contentType != null) {
+            head.append("Content-Type: ").append(contentType).append("\r\n");
+        }
+        head.append("Content-Length: ").append(contentLength).append("\r\n");
+        if (extraHeaders != null) {
+            head.append(extraHeaders);
+        }
+        head.append("\r\n");
+        out.write(head.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void writeJson(OutputStream out, int status, String reason, JSObject body,
+                                  String extraHeaders) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        writeHead(out, status, reason, "application/json", bytes.length, extraHeaders);
+        out.write(bytes);
+    }
+
+    private void writeError(OutputStream out, int status, String reason, String message) throws IOException {
+        JSObject error = new JSObject();
+        error.put("error", message);
+        writeJson(out, status, reason, error, null);
+    }
+
+    /**
+     * 丢弃未处理的请求体，保持连接可复用（提前断开会让仍在发送的客户端收不到错误响应）
+     */
+    private static void skipBody(InputStream in, Request request) throws IOException {
+        long remaining = request.getContentLength();
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException("Request body ended early");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+}
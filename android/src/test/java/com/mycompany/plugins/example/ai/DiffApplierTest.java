@@ -0,0 +1,239 @@
+package com.mycompany.plugins.example.ai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.getcapacitor.JSObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * 随机生成编辑和对应的 unified diff，检查应用结果与预期文本一致
+ */
+public class DiffApplierTest {
+    private static final int CONTEXT = 3;
+
+    @Test
+    public void randomPatchesApplyExactly() throws Exception {
+        Random random = new Random(1);
+        for (int round = 0; round < 500; round++) {
+            List<String> original = randomLines(random, 1 + random.nextInt(200), true);
+            Patch patch = randomPatch(random, original);
+
+            JSObject stats = new JSObject();
+            String result = new DiffApplier(0, false, null).applyToText(join(original, "\n"), patch.diff, stats);
+            assertEquals("round " + round + "\n" + patch.diff, join(patch.expected, "\n"), result);
+            assertEquals(patch.added, stats.getInt("linesAdded"));
+            assertEquals(patch.deleted, stats.getInt("linesDeleted"));
+        }
+    }
+
+    @Test
+    public void hunksAreFoundAtAnOffset() throws Exception {
+        Random random = new Random(2);
+        for (int round = 0; round < 200; round++) {
+            List<String> original = randomLines(random, 20 + random.nextInt(200), false);
+            Patch patch = randomPatch(random, original);
+
+            // 在文件开头插入补丁不知道的行，所有 hunk 都需要按偏移查找
+            List<String> shifted = randomLines(random, 1 + random.nextInt(50), false);
+            List<String> actual = new ArrayList<>(shifted);
+            actual.addAll(original);
+            List<String> expected = new ArrayList<>(shifted);
+            expected.addAll(patch.expected);
+
+            String result = new DiffApplier(0, false, null).applyToText(join(actual, "\n"), patch.diff, new JSObject());
+            assertEquals(join(expected, "\n"), result);
+        }
+    }
+
+    @Test
+    public void fuzzIgnoresChangedOuterContext() throws Exception {
+        String original = "a\nb\nc\nd\ne\nf\ng\n";
+        String diff = "--- a/f\n+++ b/f\n@@ -1,7 +1,7 @@\n a\n b\n c\n-d\n+D\n e\n f\n g\n";
+        String drifted = "A\nb\nc\nd\ne\nf\nG\n";
+
+        JSObject stats = new JSObject();
+        String result = new DiffApplier(1, false, null).applyToText(drifted, diff, stats);
+        // 被忽略的上下文行保留文件中的内容
+        assertEquals("A\nb\nc\nD\ne\nf\nG\n", result);
+        assertEquals(1, stats.getJSONArray("hunks").getJSONObject(0).getInt("fuzz"));
+
+        try {
+            new DiffApplier(0, false, null).applyToText(drifted, diff, new JSObject());
+            fail("Expected context mismatch without fuzz");
+        } catch (Exception e) {
+            assertTrue(e.getMessage().contains("context does not match"));
+        }
+        assertEquals("a\nb\nc\nD\ne\nf\ng\n",
+                     new DiffApplier(0, false, null).applyToText(original, diff, new JSObject()));
+    }
+
+    @Test
+    public void rejectsMismatchedDeletedLine() throws Exception {
+        String diff = "--- a/f\n+++ b/f\n@@ -2,1 +2,1 @@\n-b\n+B\n";
+        try {
+            new DiffApplier(DiffApplier.DEFAULT_FUZZ, false, null).applyToText("a\nx\nc\n", diff, new JSObject());
+            fail("Expected context mismatch");
+        } catch (Exception e) {
+            assertTrue(e.getMessage().contains("Hunk #1"));
+        }
+    }
+
+    @Test
+    public void keepsCrlfLineEndings() throws Exception {
+        String diff = "--- a/f\n+++ b/f\n@@ -1,3 +1,4 @@\n a\n-b\n+B\n+B2\n c\n";
+        String result = new DiffApplier(0, false, null).applyToText("a\r\nb\r\nc\r\n", diff, new JSObject());
+        assertEquals("a\r\nB\r\nB2\r\nc\r\n", result);
+    }
+
+    @Test
+    public void handlesMissingNewlineAtEndOfFile() throws Exception {
+        String diff = "--- a/f\n+++ b/f\n@@ -1,2 +1,2 @@\n a\n-b\n\\ No newline at end of file\n+c\n\\ No newline at end of file\n";
+        assertEquals("a\nc", new DiffApplier(0, false, null).applyToText("a\nb", diff, new JSObject()));
+
+        String addEol = "--- a/f\n+++ b/f\n@@ -1,2 +1,2 @@\n a\n-b\n\\ No newline at end of file\n+b\n";
+        assertEquals("a\nb\n", new DiffApplier(0, false, null).applyToText("a\nb", addEol, new JSObject()));
+    }
+
+    @Test
+    public void parsesMultiFilePatches() throws Exception {
+        String diff = "diff --git a/x b/x\n--- a/x\n+++ b/x\n@@ -1 +1 @@\n-1\n+2\n"
+            + "diff --git a/y b/y\n--- /dev/null\n+++ b/y\n@@ -0,0 +1,2 @@\n+new\n+file\n";
+        List<DiffApplier.FilePatch> patches = DiffApplier.parse(diff);
+        assertEquals(2, patches.size());
+        assertEquals("a/x", patches.get(0).oldPath);
+        assertTrue(patches.get(1).isCreate());
+        assertEquals(2, patches.get(1).hunks.get(0).kinds.size());
+
+        try {
+            new DiffApplier(0, false, null).applyToText("1\n", diff, new JSObject());
+            fail("Expected single-file patch error");
+        } catch (Exception e) {
+            assertTrue(e.getMessage().contains("single-file"));
+        }
+    }
+
+    @Test
+    public void rejectsCreationPatchOnExistingContent() throws Exception {
+        String diff = "--- /dev/null\n+++ b/y\n@@ -0,0 +1,2 @@\n+new\n+file\n";
+        assertEquals("new\nfile\n", new DiffApplier(0, false, null).applyToText("", diff, new JSObject()));
+        try {
+            new DiffApplier(0, false, null).applyToText("new\nfile\n", diff, new JSObject());
+            fail("Expected already exists error");
+        } catch (Exception e) {
+            assertTrue(e.getMessage().contains("already exists"));
+        }
+    }
+
+    @Test
+    public void rejectsMalformedHunks() {
+        String[] diffs = {
+            "@@ -1,3 +1,3 @@\n a\n",
+            "@@ -x +1 @@\n a\n",
+            "@@ -1 +1 @@\n?a\n",
+            "no hunks here\n",
+        };
+        for (String diff : diffs) {
+            try {
+                DiffApplier.parse(diff);
+                fail("Expected parse error for: " + diff);
+            } catch (Exception e) {
+                // 预期
+            }
+        }
+    }
+
+    // ============ 补丁生成 ============
+
+    private static final class Patch {
+        String diff;
+        List<String> expected;
+        int added;
+        int deleted;
+    }
+
+    /**
+     * 在原文中选取互不重叠、相距足够远的编辑点，按 diff -U3 的格式生成补丁（每个编辑一个 hunk）
+     */
+    private static Patch randomPatch(Random random, List<String> original) {
+        Patch patch = new Patch();
+        patch.expected = new ArrayList<>();
+        StringBuilder diff = new StringBuilder("--- a/file.txt\n+++ b/file.txt\n");
+        int n = original.size();
+        int copied = 0;
+        int delta = 0;
+
+        int at = random.nextInt(Math.min(n, 10) + 1);
+        while (at <= n) {
+            int deleted = Math.min(random.nextInt(4), n - at);
+            List<String> inserted = randomLines(random, random.nextInt(4), false);
+            if (deleted + inserted.size() == 0) {
+                inserted.add("inserted " + random.nextInt());
+            }
+
+            int before = Math.min(CONTEXT, at);
+            int after = Math.min(CONTEXT, n - at - deleted);
+            int oldCount = before + deleted + after;
+            int newCount = before + inserted.size() + after;
+            int oldStart = oldCount == 0 ? at : at - before + 1;
+            int newStart = newCount == 0 ? at + delta : at - before + 1 + delta;
+            diff.append("@@ -").append(oldStart).append(',').append(oldCount)
+                .append(" +").append(newStart).append(',').append(newCount).append(" @@\n");
+            for (int i = at - before; i < at; i++) {
+                diff.append(' ').append(original.get(i)).append('\n');
+            }
+            for (int i = at; i < at + deleted; i++) {
+                diff.append('-').append(original.get(i)).append('\n');
+            }
+            for (String line : inserted) {
+                diff.append('+').append(line).append('\n');
+            }
+            for (int i = at + deleted; i < at + deleted + after; i++) {
+                diff.append(' ').append(original.get(i)).append('\n');
+            }
+
+            patch.expected.addAll(original.subList(copied, at));
+            patch.expected.addAll(inserted);
+            copied = at + deleted;
+            delta += inserted.size() - deleted;
+            patch.added += inserted.size();
+            patch.deleted += deleted;
+
+            // 保证相邻 hunk 的上下文不重叠
+            at = copied + 2 * CONTEXT + 1 + random.nextInt(20);
+        }
+        patch.expected.addAll(original.subList(copied, n));
+        patch.diff = diff.toString();
+        return patch;
+    }
+
+    /**
+     * @param repetitive 是否大量使用重复行（如空行、右括号），检验按声明位置优先匹配
+     */
+    private static List<String> randomLines(Random random, int count, boolean repetitive) {
+        String[] common = {"", "}", "    return null;", "// TODO"};
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (repetitive && random.nextInt(3) == 0) {
+                lines.add(common[random.nextInt(common.length)]);
+            } else {
+                lines.add("line " + Long.toHexString(random.nextLong()));
+            }
+        }
+        return lines;
+    }
+
+    private static String join(List<String> lines, String eol) {
+        StringBuilder builder = new StringBuilder();
+        for (String line : lines) {
+            builder.append(line).append(eol);
+        }
+        return builder.toString();
+    }
+}
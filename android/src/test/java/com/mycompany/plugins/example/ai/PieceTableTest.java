@@ -0,0 +1,150 @@
+package com.mycompany.plugins.example.ai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringWriter;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PieceTableTest {
+    @Test
+    public void emptyTable() {
+        PieceTable table = new PieceTable("");
+        assertEquals(0, table.length());
+        assertEquals(0, table.getLineCount());
+        assertFalse(table.endsWithNewline());
+        assertEquals(0, table.offsetOfLine(1));
+        assertEquals("", table.getText());
+    }
+
+    @Test
+    public void lineCountMatchesReadLine() {
+        assertEquals(1, new PieceTable("a").getLineCount());
+        assertEquals(1, new PieceTable("a\n").getLineCount());
+        assertEquals(2, new PieceTable("a\nb").getLineCount());
+        assertEquals(3, new PieceTable("\n\n\n").getLineCount());
+    }
+
+    @Test
+    public void insertAndDeleteAcrossPieces() throws Exception {
+        PieceTable table = new PieceTable("line1\nline2\nline3\n");
+        table.insert(6, "inserted\n");
+        table.insert(0, "head\n");
+        table.delete(5, 6);
+        assertEquals("head\ninserted\nline2\nline3\n", table.getText());
+        assertEquals(4, table.getLineCount());
+        assertEquals(14, table.offsetOfLine(3));
+        assertEquals(table.length(), table.offsetOfLine(10));
+        assertEquals(table.getText(), writeOut(table));
+    }
+
+    @Test
+    public void setTextReplacesOnlyTheDifference() {
+        PieceTable table = new PieceTable("alpha\nbeta\ngamma\n");
+        table.setText("alpha\nBETA\ngamma\n");
+        assertEquals("alpha\nBETA\ngamma\n", table.getText());
+        assertEquals(3, table.getLineCount());
+        assertEquals(11, table.offsetOfLine(3));
+    }
+
+    @Test
+    public void rejectsOffsetsOutsideText() {
+        PieceTable table = new PieceTable("abc");
+        try {
+            table.insert(4, "x");
+            fail("Expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException e) {
+            // 预期
+        }
+        try {
+            table.delete(2, 5);
+            fail("Expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException e) {
+            // 预期
+        }
+    }
+
+    @Test
+    public void randomEditsMatchStringBuilder() throws Exception {
+        Random random = new Random(3);
+        for (int round = 0; round < 100; round++) {
+            String initial = randomText(random, random.nextInt(200));
+            PieceTable table = new PieceTable(initial);
+            StringBuilder model = new StringBuilder(initial);
+
+            for (int step = 0; step < 200; step++) {
+                int op = random.nextInt(10);
+                if (op < 5) {
+                    int offset = random.nextInt(model.length() + 1);
+                    String content = randomText(random, random.nextInt(20));
+                    table.insert(offset, content);
+                    model.insert(offset, content);
+                } else if (op < 9) {
+                    int offset = random.nextInt(model.length() + 1);
+                    int count = random.nextInt(model.length() - offset + 1);
+                    table.delete(offset, count);
+                    model.delete(offset, offset + count);
+                } else {
+                    String content = mutate(random, model.toString());
+                    table.setText(content);
+                    model.setLength(0);
+                    model.append(content);
+                }
+
+                if (random.nextInt(4) == 0) {
+                    assertMatches(model.toString(), table);
+                }
+            }
+            assertMatches(model.toString(), table);
+            assertEquals(model.toString(), writeOut(table));
+        }
+    }
+
+    // ============ 辅助方法 ============
+
+    private static void assertMatches(String expected, PieceTable table) {
+        assertEquals(expected.length(), table.length());
+        assertEquals(expected.endsWith("\n"), table.endsWithNewline());
+
+        int breaks = 0;
+        assertEquals(0, table.offsetOfLine(1));
+        for (int i = 0; i < expected.length(); i++) {
+            if (expected.charAt(i) == '\n') {
+                breaks++;
+                assertEquals("line " + (breaks + 1), i + 1, table.offsetOfLine(breaks + 1));
+            }
+        }
+        assertEquals(expected.length(), table.offsetOfLine(breaks + 2));
+
+        int lines = expected.isEmpty() ? 0 : (expected.endsWith("\n") ? breaks : breaks + 1);
+        assertEquals(lines, table.getLineCount());
+        assertEquals(expected, table.getText());
+    }
+
+    private static String writeOut(PieceTable table) throws Exception {
+        StringWriter writer = new StringWriter();
+        table.writeTo(writer);
+        return writer.toString();
+    }
+
+    private static String mutate(Random random, String text) {
+        StringBuilder builder = new StringBuilder(text);
+        int offset = random.nextInt(builder.length() + 1);
+        int count = random.nextInt(Math.min(10, builder.length() - offset) + 1);
+        builder.replace(offset, offset + count, randomText(random, random.nextInt(10)));
+        return builder.toString();
+    }
+
+    private static String randomText(Random random, int length) {
+        String alphabet = "abc\n\n中";
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,243 @@
+package com.mycompany.plugins.example.ai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class StreamingReplacerTest {
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyLiteral() {
+        new StreamingReplacer("", "x", false, true, true, 1);
+    }
+
+    @Test
+    public void literalMatchesStringReplace() throws Exception {
+        Random random = new Random(4);
+        for (int round = 0; round < 300; round++) {
+            // 部分输入超过 64K 缓冲区，匹配可能跨越块边界
+            String input = randomText(random, round % 10 == 0 ? 150_000 : random.nextInt(2000));
+            String search = randomText(random, 1 + random.nextInt(4));
+            String replace = randomText(random, random.nextInt(5));
+
+            Result all = run(new StreamingReplacer(search, replace, false, true, true, 1), input, random);
+            assertEquals(input.replace(search, replace), all.output);
+            assertEquals(countOccurrences(input, search), all.replacements);
+            assertEquals(!all.output.equals(input), all.changed);
+
+            Result first = run(new StreamingReplacer(search, replace, false, false, true, 1), input, random);
+            int hit = input.indexOf(search);
+            String expected = hit < 0 ? input
+                : input.substring(0, hit) + replace + input.substring(hit + search.length());
+            assertEquals(expected, first.output);
+            assertEquals(hit < 0 ? 0 : 1, first.replacements);
+        }
+    }
+
+    @Test
+    public void caseInsensitiveLiteralMatchesRegionMatches() throws Exception {
+        Random random = new Random(5);
+        for (int round = 0; round < 300; round++) {
+            String input = randomText(random, round % 10 == 0 ? 150_000 : random.nextInt(2000));
+            String search = randomText(random, 1 + random.nextInt(4));
+            Result result = run(new StreamingReplacer(search, "#", false, true, false, 1), input, random);
+            assertEquals(ignoreCaseReplace(input, search, "#"), result.output);
+        }
+    }
+
+    @Test
+    public void caseFoldingKeepsLengthAndIgnoresLocale() throws Exception {
+        // ß 的大写是 "SS"，按字符折叠时不会与 "ss" 匹配，也不会改变模式长度
+        Result sharpS = run(new StreamingReplacer("straße", "X", false, true, false, 1),
+                            "STRASSE straße STRAßE Straße", null);
+        assertEquals("STRASSE X X X", sharpS.output);
+        assertEquals(3, sharpS.replacements);
+
+        Locale previous = Locale.getDefault();
+        try {
+            // 土耳其语环境下 "TITLE".toLowerCase() 会得到无点的 ı
+            Locale.setDefault(new Locale("tr", "TR"));
+            Result turkish = run(new StreamingReplacer("TITLE", "name", false, true, false, 1),
+                                 "title Title TITLE", null);
+            assertEquals("name name name", turkish.output);
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+
+    @Test
+    public void regexMatchesPerLineReplaceAll() throws Exception {
+        String[][] cases = {
+            {"\\d+", "<$0>"},
+            {"(\\w+)@(\\w+)", "$2 at $1"},
+            {"^\\s+", ""},
+            {"b$", "B"},
+            {"(?<word>a+)", "${word}!"},
+            {"x*", "-"},
+            {"\\$", "\\$\\$"},
+        };
+        Random random = new Random(6);
+        for (String[] c : cases) {
+            for (boolean caseSensitive : new boolean[]{true, false}) {
+                Pattern pattern = Pattern.compile(c[0], Pattern.MULTILINE
+                    | (caseSensitive ? 0 : Pattern.CASE_INSENSITIVE));
+                for (int round = 0; round < 40; round++) {
+                    String input = randomText(random, round % 10 == 0 ? 150_000 : random.nextInt(1000));
+                    Result result = run(new StreamingReplacer(c[0], c[1], true, true, caseSensitive, 1),
+                                        input, random);
+                    assertEquals("pattern " + c[0], perLineReplace(input, pattern, c[1]), result.output);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void regexWindowSpansLines() throws Exception {
+        String input = "a\nfoo\nbar\nfoo\nbaz\nfoo\r\nbar\r\n";
+        Result single = run(new StreamingReplacer("foo\\r?\\nbar", "X", true, true, true, 1), input, null);
+        assertEquals(0, single.replacements);
+
+        Result window = run(new StreamingReplacer("foo\\r?\\nbar", "X", true, true, true, 2), input, null);
+        assertEquals("a\nX\nfoo\nbaz\nX\r\n", window.output);
+        assertEquals(2, window.replacements);
+    }
+
+    @Test
+    public void reportsMatchLines() throws Exception {
+        StringBuilder input = new StringBuilder();
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(8);
+        for (int line = 1; line <= 20_000; line++) {
+            int hits = random.nextInt(20) == 0 ? 1 + random.nextInt(2) : 0;
+            input.append("line ").append(line);
+            for (int i = 0; i < hits; i++) {
+                input.append(" needle");
+                expected.add(line);
+            }
+            input.append('\n');
+        }
+
+        for (boolean isRegex : new boolean[]{false, true}) {
+            List<Integer> lines = new ArrayList<>();
+            StreamingReplacer replacer = new StreamingReplacer("needle", "pin", isRegex, true, true, 1);
+            replacer.setMatchListener((line, matched, replacement) -> {
+                assertEquals("needle", matched);
+                assertEquals("pin", replacement);
+                lines.add(line);
+            });
+            run(replacer, input.toString(), random);
+            assertEquals(expected, lines);
+        }
+    }
+
+    @Test
+    public void unchangedWhenReplacementEqualsMatch() throws Exception {
+        Result result = run(new StreamingReplacer("abc", "abc", false, true, true, 1), "abc abc", null);
+        assertEquals(2, result.replacements);
+        assertFalse(result.changed);
+
+        Result regex = run(new StreamingReplacer("a(b)c", "a$1c", true, true, true, 1), "abc", null);
+        assertFalse(regex.changed);
+        assertTrue(run(new StreamingReplacer("a(b)c", "$1", true, true, true, 1), "abc", null).changed);
+    }
+
+    // ============ 辅助方法 ============
+
+    private static final class Result {
+        String output;
+        int replacements;
+        boolean changed;
+    }
+
+    /**
+     * @param random 不为 null 时按随机大小分块读取，检验块边界处理
+     */
+    private static Result run(StreamingReplacer replacer, String input, Random random) throws IOException {
+        Reader reader = new StringReader(input);
+        if (random != null) {
+            reader = new ChunkedReader(reader, random);
+        }
+        StringWriter writer = new StringWriter();
+        Result result = new Result();
+        result.changed = replacer.run(reader, writer);
+        result.output = writer.toString();
+        result.replacements = replacer.getReplacements();
+        return result;
+    }
+
+    private static int countOccurrences(String text, String search) {
+        int count = 0;
+        for (int i = text.indexOf(search); i >= 0; i = text.indexOf(search, i + search.length())) {
+            count++;
+        }
+        return count;
+    }
+
+    private static String ignoreCaseReplace(String text, String search, String replace) {
+        StringBuilder builder = new StringBuilder();
+        int i = 0;
+        while (i < text.length()) {
+            if (text.regionMatches(true, i, search, 0, search.length())) {
+                builder.append(replace);
+                i += search.length();
+            } else {
+                builder.append(text.charAt(i++));
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String perLineReplace(String text, Pattern pattern, String replace) {
+        StringBuilder builder = new StringBuilder();
+        int start = 0;
+        while (start < text.length()) {
+            int newline = text.indexOf('\n', start);
+            int end = newline < 0 ? text.length() : newline;
+            int contentEnd = end > start && text.charAt(end - 1) == '\r' ? end - 1 : end;
+            Matcher matcher = pattern.matcher(text.substring(start, contentEnd));
+            builder.append(matcher.replaceAll(replace));
+            builder.append(text, contentEnd, newline < 0 ? end : end + 1);
+            start = newline < 0 ? end : end + 1;
+        }
+        return builder.toString();
+    }
+
+    private static String randomText(Random random, int length) {
+        String[] tokens = {"a", "b", "A", "B", "x", "1", "23", " ", "\n", "\r\n", "@", "$", "ß", "ǅ"};
+        StringBuilder builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            builder.append(tokens[random.nextInt(tokens.length)]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 每次最多返回随机个数字符的 Reader
+     */
+    private static final class ChunkedReader extends FilterReader {
+        private final Random random;
+
+        ChunkedReader(Reader in, Random random) {
+            super(in);
+            this.random = random;
+        }
+
+        @Override
+        public int read(char[] buf, int off, int len) throws IOException {
+            return super.read(buf, off, Math.max(1, Math.min(len, 1 + random.nextInt(5000))));
+        }
+    }
+}
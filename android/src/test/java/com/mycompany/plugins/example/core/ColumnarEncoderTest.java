@@ -0,0 +1,143 @@
+package com.mycompany.plugins.example.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.getcapacitor.JSObject;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.json.JSONArray;
+import org.junit.Test;
+
+public class ColumnarEncoderTest {
+    @Test
+    public void singleParentIsFactoredOut() throws Exception {
+        List<DirectoryScanner.Entry> entries = new ArrayList<>();
+        entries.add(entry("/data/files", "a.txt", false, false, 10, 1000));
+        entries.add(entry("/data/files", ".hidden", false, false, 0, 2000));
+        entries.add(entry("/data/files", "sub", true, true, 4096, 3000));
+
+        JSObject columns = ColumnarEncoder.encode(entries, 0, entries.size());
+        assertEquals("/data/files", columns.getString("parent"));
+        assertFalse(columns.has("directories"));
+        assertFalse(columns.has("parents"));
+
+        JSONArray flags = columns.getJSONArray("flags");
+        assertEquals(0, flags.getInt(0));
+        assertEquals(ColumnarEncoder.FLAG_HIDDEN, flags.getInt(1));
+        assertEquals(ColumnarEncoder.FLAG_DIRECTORY | ColumnarEncoder.FLAG_SYMLINK, flags.getInt(2));
+        assertEquals(entries, decode(columns, entries));
+    }
+
+    @Test
+    public void multipleParentsUseDirectoryTable() throws Exception {
+        List<DirectoryScanner.Entry> entries = new ArrayList<>();
+        entries.add(entry("/a", "1", false, false, 1, 1));
+        entries.add(entry("/b", "2", false, false, 2, 2));
+        entries.add(entry("/a", "3", false, false, 3, 3));
+
+        JSObject columns = ColumnarEncoder.encode(entries, 0, entries.size());
+        assertFalse(columns.has("parent"));
+        assertEquals(2, columns.getJSONArray("directories").length());
+        assertEquals(0, columns.getJSONArray("parents").getInt(2));
+        assertEquals(entries, decode(columns, entries));
+    }
+
+    @Test
+    public void encodesOnlyTheRequestedRange() throws Exception {
+        List<DirectoryScanner.Entry> entries = randomEntries(new Random(5), 100);
+        JSObject columns = ColumnarEncoder.encode(entries, 40, 60);
+        assertEquals(20, columns.getJSONArray("names").length());
+        assertEquals(entries.subList(40, 60), decode(columns, entries));
+
+        JSObject empty = ColumnarEncoder.encode(entries, 10, 10);
+        assertEquals(0, empty.getJSONArray("names").length());
+    }
+
+    @Test
+    public void pathsNotBuiltFromParentAndName() throws Exception {
+        // 路径不是 父目录 + "/" + 名称 时按 File.getParent 处理
+        List<DirectoryScanner.Entry> entries = new ArrayList<>();
+        entries.add(new DirectoryScanner.Entry("alias", "/x/y/real", false, false, 1, 1));
+        JSObject columns = ColumnarEncoder.encode(entries, 0, 1);
+        assertEquals("/x/y", columns.getString("parent"));
+    }
+
+    @Test
+    public void randomListingsRoundTrip() throws Exception {
+        Random random = new Random(9);
+        for (int round = 0; round < 50; round++) {
+            List<DirectoryScanner.Entry> entries = randomEntries(random, random.nextInt(500));
+            int start = entries.isEmpty() ? 0 : random.nextInt(entries.size());
+            int end = start + random.nextInt(entries.size() - start + 1);
+            JSObject columns = ColumnarEncoder.encode(entries, start, end);
+            assertEquals(entries.subList(start, end), decode(columns, entries));
+            assertTrue(columns.toString().length() > 0);
+        }
+    }
+
+    // ============ 辅助方法 ============
+
+    /**
+     * 按 definitions.ts 中描述的规则把列式数据还原为条目，再在原列表中按相同字段找回对应条目
+     */
+    private static List<DirectoryScanner.Entry> decode(JSObject columns, List<DirectoryScanner.Entry> source)
+            throws Exception {
+        JSONArray names = columns.getJSONArray("names");
+        JSONArray sizes = columns.getJSONArray("sizes");
+        JSONArray mtimes = columns.getJSONArray("mtimes");
+        JSONArray flags = columns.getJSONArray("flags");
+        JSONArray directories = columns.optJSONArray("directories");
+        JSONArray parents = columns.optJSONArray("parents");
+
+        List<DirectoryScanner.Entry> decoded = new ArrayList<>();
+        for (int i = 0; i < names.length(); i++) {
+            String parent = directories != null
+                ? directories.getString(parents.getInt(i))
+                : columns.getString("parent");
+            String name = names.getString(i);
+            int flag = flags.getInt(i);
+            DirectoryScanner.Entry match = find(source, parent, name);
+            assertEquals(match.size, sizes.getLong(i));
+            assertEquals(match.lastModified, mtimes.getLong(i));
+            assertEquals(match.isDirectory, (flag & ColumnarEncoder.FLAG_DIRECTORY) != 0);
+            assertEquals(match.isHidden(), (flag & ColumnarEncoder.FLAG_HIDDEN) != 0);
+            assertEquals(match.isSymbolicLink, (flag & ColumnarEncoder.FLAG_SYMLINK) != 0);
+            decoded.add(match);
+        }
+        return decoded;
+    }
+
+    private static DirectoryScanner.Entry find(List<DirectoryScanner.Entry> source, String parent, String name) {
+        String path = new File(parent, name).getPath();
+        for (DirectoryScanner.Entry entry : source) {
+            if (entry.path.equals(path)) {
+                return entry;
+            }
+        }
+        throw new AssertionError("No entry for " + path);
+    }
+
+    private static List<DirectoryScanner.Entry> randomEntries(Random random, int count) {
+        String[] parents = {"/storage/emulated/0", "/storage/emulated/0/DCIM", "/sdcard/下载"};
+        List<DirectoryScanner.Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = (random.nextInt(5) == 0 ? "." : "") + "file-" + i + (random.nextBoolean() ? ".jpg" : "");
+            entries.add(entry(parents[random.nextInt(parents.length)], name, random.nextInt(4) == 0,
+                              random.nextInt(10) == 0, random.nextLong() & Long.MAX_VALUE >>> 11,
+                              1_600_000_000_000L + random.nextInt(1_000_000_000)));
+        }
+        return entries;
+    }
+
+    private static DirectoryScanner.Entry entry(String parent, String name, boolean isDirectory,
+                                                boolean isSymbolicLink, long size, long lastModified) {
+        return new DirectoryScanner.Entry(name, parent + "/" + name, isDirectory, isSymbolicLink,
+                                          size, lastModified);
+    }
+}
@@ -0,0 +1,176 @@
+package com.mycompany.plugins.example.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LiteralMatcherTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void compileRejectsKeywordsItCannotHandle() {
+        assertNull(LiteralMatcher.compile("", true));
+        assertNull(LiteralMatcher.compile("a\nb", true));
+        assertNull(LiteralMatcher.compile("a\rb", false));
+    }
+
+    @Test
+    public void reportsLineNumberAndCharacterRange() throws Exception {
+        File file = write("a.txt", "first line\r\nsecond 中文 needle here\nneedle needle\n");
+        List<String> matches = search(LiteralMatcher.compile("needle", true), file, 100);
+
+        List<String> expected = new ArrayList<>();
+        expected.add("2:10-16:second 中文 needle here");
+        expected.add("3:0-6:needle needle");
+        expected.add("3:7-13:needle needle");
+        assertEquals(expected, matches);
+    }
+
+    @Test
+    public void stripsCarriageReturnFromReportedLine() throws Exception {
+        File file = write("a.txt", "needle\r\n");
+        assertEquals("1:0-6:needle", search(LiteralMatcher.compile("needle", true), file, 10).get(0));
+    }
+
+    @Test
+    public void surrogatePairsCountAsTwoCharacters() throws Exception {
+        File file = write("a.txt", "😀😀 key\n");
+        assertEquals("1:5-8:😀😀 key", search(LiteralMatcher.compile("key", true), file, 10).get(0));
+    }
+
+    @Test
+    public void ignoreCaseFoldsAsciiOnly() throws Exception {
+        File file = write("a.txt", "NeEdLe\nÉCOLE école\n");
+        assertEquals(1, search(LiteralMatcher.compile("needle", false), file, 10).size());
+        // 非 ASCII 字母不折叠，与 Pattern.CASE_INSENSITIVE 一致
+        assertEquals(1, search(LiteralMatcher.compile("école", false), file, 10).size());
+    }
+
+    @Test
+    public void stopsAfterMaxMatches() throws Exception {
+        File file = write("a.txt", "aa aa aa aa\naa\n");
+        assertEquals(3, search(LiteralMatcher.compile("aa", true), file, 3).size());
+    }
+
+    @Test
+    public void matchesAreNonOverlapping() throws Exception {
+        File file = write("a.txt", "aaaaa\n");
+        assertEquals(2, search(LiteralMatcher.compile("aa", true), file, 10).size());
+    }
+
+    @Test
+    public void indexOfRespectsBounds() {
+        LiteralMatcher matcher = LiteralMatcher.compile("abc", true);
+        ByteBuffer buffer = ByteBuffer.wrap("xxabcxxabc".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(2, matcher.indexOf(buffer, 0, 10));
+        assertEquals(7, matcher.indexOf(buffer, 3, 10));
+        assertEquals(-1, matcher.indexOf(buffer, 3, 9));
+    }
+
+    @Test
+    public void agreesWithReferenceOnRandomSmallFiles() throws Exception {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            compareWithReference(random, 1 + random.nextInt(4000));
+        }
+    }
+
+    @Test
+    public void agreesWithReferenceOnMappedFiles() throws Exception {
+        // 超过 256KB 的文件走内存映射
+        Random random = new Random(11);
+        for (int round = 0; round < 3; round++) {
+            compareWithReference(random, 300_000 + random.nextInt(100_000));
+        }
+    }
+
+    // ============ 辅助方法 ============
+
+    private void compareWithReference(Random random, int length) throws Exception {
+        String content = randomText(random, length);
+        String keyword;
+        if (random.nextBoolean() && content.length() > 8) {
+            int start = random.nextInt(content.length() - 4);
+            keyword = content.substring(start, start + 1 + random.nextInt(4));
+        } else {
+            keyword = randomText(random, 1 + random.nextInt(3));
+        }
+        keyword = keyword.replace("\n", "").replace("\r", "");
+        if (keyword.isEmpty() || Character.isLowSurrogate(keyword.charAt(0))
+            || Character.isHighSurrogate(keyword.charAt(keyword.length() - 1))) {
+            return;
+        }
+        boolean caseSensitive = random.nextBoolean();
+
+        File file = write("random.txt", content);
+        List<String> actual = search(LiteralMatcher.compile(keyword, caseSensitive), file, Integer.MAX_VALUE);
+        assertEquals("keyword \"" + keyword + "\"", reference(content, keyword, caseSensitive), actual);
+    }
+
+    private static List<String> reference(String content, String keyword, boolean caseSensitive) {
+        List<String> matches = new ArrayList<>();
+        String needle = caseSensitive ? keyword : foldAscii(keyword);
+        String[] lines = content.split("\n", -1);
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            if (line.endsWith("\r")) {
+                line = line.substring(0, line.length() - 1);
+            }
+            String haystack = caseSensitive ? lines[i] : foldAscii(lines[i]);
+            int from = 0;
+            int hit;
+            while ((hit = haystack.indexOf(needle, from)) >= 0) {
+                int end = Math.min(hit + needle.length(), line.length());
+                matches.add((i + 1) + ":" + Math.min(hit, line.length()) + "-" + end + ":" + line);
+                from = hit + needle.length();
+            }
+        }
+        return matches;
+    }
+
+    private static String foldAscii(String text) {
+        StringBuilder builder = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            builder.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+        }
+        return builder.toString();
+    }
+
+    private static List<String> search(LiteralMatcher matcher, File file, int maxMatches) throws IOException {
+        List<String> matches = new ArrayList<>();
+        matcher.search(file, maxMatches, (lineNumber, line, matchStart, matchEnd) ->
+            matches.add(lineNumber + ":" + matchStart + "-" + matchEnd + ":" + line));
+        return matches;
+    }
+
+    private File write(String name, String content) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    private static String randomText(Random random, int length) {
+        String[] tokens = {"a", "b", "A", "B", "ab", "AB", " ", "\n", "\r\n", "é", "中", "😀"};
+        StringBuilder builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            builder.append(tokens[random.nextInt(tokens.length)]);
+        }
+        return builder.toString();
+    }
+}
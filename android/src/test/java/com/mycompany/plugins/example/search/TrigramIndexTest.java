@@ -0,0 +1,172 @@
+package com.mycompany.plugins.example.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.mycompany.plugins.example.core.DirectoryScanner;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TrigramIndexTest {
+    private static final int MAX_FILE_SIZE = 1024 * 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void queryReturnsFilesContainingKeyword() throws Exception {
+        File root = folder.newFolder("root");
+        File a = write(root, "a.txt", "the quick brown fox\njumps over the lazy dog\n");
+        File b = write(root, "b.txt", "nothing to see here\n");
+        write(root, "c.txt", "Quick Brown Fox in mixed case\n");
+
+        TrigramIndex index = buildAndOpen(root, null);
+        assertEquals(3, index.getFileCount());
+
+        BitSet candidates = index.query("brown fox");
+        assertNotNull(candidates);
+        assertTrue(candidates.get(idOf(index, a)));
+        assertFalse(candidates.get(idOf(index, b)));
+        assertEquals(2, candidates.cardinality());
+    }
+
+    @Test
+    public void queryFoldsAsciiCase() throws Exception {
+        File root = folder.newFolder("root");
+        File a = write(root, "a.txt", "CamelCaseIdentifier\n");
+
+        TrigramIndex index = buildAndOpen(root, null);
+        BitSet candidates = index.query("camelcase");
+        assertTrue(candidates.get(idOf(index, a)));
+    }
+
+    @Test
+    public void shortKeywordCannotUseIndex() throws Exception {
+        File root = folder.newFolder("root");
+        write(root, "a.txt", "ab\n");
+
+        TrigramIndex index = buildAndOpen(root, null);
+        assertNull(index.query("ab"));
+    }
+
+    @Test
+    public void trigramsDoNotSpanLines() throws Exception {
+        File root = folder.newFolder("root");
+        write(root, "a.txt", "xy\nz\n");
+
+        TrigramIndex index = buildAndOpen(root, null);
+        // "xyz" 只在跨行时出现，不应成为候选
+        assertTrue(index.query("xyz").isEmpty());
+    }
+
+    @Test
+    public void candidatesAreSupersetOfActualMatches() throws Exception {
+        File root = folder.newFolder("root");
+        Random random = new Random(42);
+        List<File> files = new ArrayList<>();
+        List<String> contents = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            String content = randomText(random, 2000);
+            contents.add(content);
+            files.add(write(root, "f" + i + ".txt", content));
+        }
+
+        TrigramIndex index = buildAndOpen(root, null);
+        for (int q = 0; q < 200; q++) {
+            String source = contents.get(random.nextInt(contents.size()));
+            int start = random.nextInt(source.length() - 8);
+            String keyword = source.substring(start, start + 3 + random.nextInt(5));
+            if (keyword.indexOf('\n') >= 0) {
+                continue;
+            }
+            BitSet candidates = index.query(keyword);
+            for (int i = 0; i < files.size(); i++) {
+                if (contents.get(i).contains(keyword)) {
+                    assertTrue("missing candidate for \"" + keyword + "\"",
+                               candidates.get(idOf(index, files.get(i))));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void rebuildReusesUnchangedFiles() throws Exception {
+        File root = folder.newFolder("root");
+        File a = write(root, "a.txt", "alpha beta\n");
+        File b = write(root, "b.txt", "gamma delta\n");
+        File c = write(root, "c.txt", "epsilon\n");
+
+        File indexFile = new File(folder.getRoot(), "index.bin");
+        TrigramIndex.build(indexFile, root.getPath(), entries(root), null, MAX_FILE_SIZE);
+        TrigramIndex previous = TrigramIndex.open(indexFile);
+
+        write(root, "b.txt", "gamma omega zeta\n");
+        assertTrue(b.setLastModified(b.lastModified() + 10_000));
+        assertTrue(c.delete());
+
+        TrigramIndex.BuildStats stats =
+            TrigramIndex.build(indexFile, root.getPath(), entries(root), previous, MAX_FILE_SIZE);
+        assertEquals(2, stats.files);
+        assertEquals(1, stats.reused);
+        assertEquals(1, stats.indexed);
+        assertEquals(1, stats.removed);
+
+        TrigramIndex index = TrigramIndex.open(indexFile);
+        assertTrue(index.query("alpha").get(idOf(index, a)));
+        assertTrue(index.query("omega").get(idOf(index, b)));
+        assertTrue(index.query("delta").isEmpty());
+        assertTrue(index.query("epsilon").isEmpty());
+        assertEquals(root.getPath(), TrigramIndex.readRoot(indexFile));
+    }
+
+    // ============ 辅助方法 ============
+
+    private TrigramIndex buildAndOpen(File root, TrigramIndex previous) throws IOException {
+        File indexFile = new File(folder.getRoot(), "index.bin");
+        TrigramIndex.build(indexFile, root.getPath(), entries(root), previous, MAX_FILE_SIZE);
+        return TrigramIndex.open(indexFile);
+    }
+
+    private static List<DirectoryScanner.Entry> entries(File root) {
+        List<DirectoryScanner.Entry> entries = new ArrayList<>();
+        for (File file : root.listFiles()) {
+            entries.add(DirectoryScanner.stat(file));
+        }
+        return entries;
+    }
+
+    private static int idOf(TrigramIndex index, File file) {
+        return index.getRecord(DirectoryScanner.stat(file).path).id;
+    }
+
+    private static File write(File directory, String name, String content) throws IOException {
+        File file = new File(directory, name);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    private static String randomText(Random random, int length) {
+        String alphabet = "abcdefghij ABC\n";
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+}
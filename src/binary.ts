@@ -0,0 +1,48 @@
+import type { AdvancedFileManagerPlugin } from './definitions';
+
+// 默认上传块大小（4MB）
+const DEFAULT_UPLOAD_CHUNK_SIZE = 4 * 1024 * 1024;
+
+/**
+ * 通过二进制通道读取整个文件为 ArrayBuffer
+ */
+export async function readFileBinary(plugin: AdvancedFileManagerPlugin, path: string): Promise<ArrayBuffer> {
+  const channel = await plugin.openBinaryChannel({ path, mode: 'read' });
+  try {
+    const response = await fetch(channel.url);
+    if (!response.ok) {
+      throw new Error(`Failed to read ${path}: HTTP ${response.status}`);
+    }
+    return await response.arrayBuffer();
+  } finally {
+    await plugin.closeBinaryChannel({ handle: channel.handle });
+  }
+}
+
+/**
+ * 通过二进制通道分块写入文件，返回写入的字节数
+ */
+export async function writeFileBinary(
+  plugin: AdvancedFileManagerPlugin,
+  path: string,
+  data: ArrayBuffer | Blob,
+  chunkSize: number = DEFAULT_UPLOAD_CHUNK_SIZE,
+): Promise<number> {
+  const blob = data instanceof Blob ? data : new Blob([data]);
+  const channel = await plugin.openBinaryChannel({ path, mode: 'write', truncate: true });
+  try {
+    for (let offset = 0; offset < blob.size; offset += chunkSize) {
+      const response = await fetch(`${channel.url}?offset=${offset}`, {
+        method: 'PUT',
+        body: blob.slice(offset, Math.min(blob.size, offset + chunkSize)),
+      });
+      if (!response.ok) {
+        const result = await response.json().catch(() => ({}));
+        throw new Error(`Failed to write ${path}: ${result.error ?? `HTTP ${response.status}`}`);
+      }
+    }
+  } finally {
+    await plugin.closeBinaryChannel({ handle: channel.handle });
+  }
+  return blob.size;
+}
@@ -0,0 +1,29 @@
+import type { ColumnarFileList, FileInfo } from './definitions';
+
+// flags 位定义（与原生层 ColumnarEncoder 一致）
+export const COLUMNAR_FLAG_DIRECTORY = 1;
+export const COLUMNAR_FLAG_HIDDEN = 2;
+export const COLUMNAR_FLAG_SYMLINK = 4;
+
+/**
+ * 把列式文件列表展开为 FileInfo 数组
+ * 只在需要对象形式时调用；虚拟列表等场景可直接按下标读取各列
+ */
+export function expandColumnarFiles(columns: ColumnarFileList): FileInfo[] {
+  const files: FileInfo[] = new Array(columns.names.length);
+  for (let i = 0; i < columns.names.length; i++) {
+    const parent = columns.parent ?? columns.directories?.[columns.parents?.[i] ?? 0] ?? '';
+    const name = columns.names[i];
+    const flags = columns.flags[i];
+    files[i] = {
+      name,
+      path: parent.endsWith('/') ? parent + name : parent + '/' + name,
+      size: columns.sizes[i],
+      type: flags & COLUMNAR_FLAG_DIRECTORY ? 'directory' : 'file',
+      mtime: columns.mtimes[i],
+      ctime: columns.mtimes[i],
+      isHidden: (flags & COLUMNAR_FLAG_HIDDEN) !== 0,
+    };
+  }
+  return files;
+}
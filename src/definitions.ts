@@ -1,3 +1,5 @@
+import type { PluginListenerHandle } from '@capacitor/core';
+
 // 文件/目录信息接口
 export interface FileInfo {
   name: string;
@@ -16,12 +18,75 @@ export interface ListDirectoryOptions {
   showHidden?: boolean;
   sortBy?: 'name' | 'size' | 'mtime' | 'type';
   sortOrder?: 'asc' | 'desc';
+  /** 分页起始位置（与 limit 一起使用） */
+  offset?: number;
+  /** 每页条目数，设置后启用分页模式 */
+  limit?: number;
+  /** 上一页返回的 nextCursor，用于继续读取下一页 */
+  cursor?: string;
+  /** 是否以 listDirectoryChunk 事件分块推送结果（边读取目录边推送，sortBy/sortOrder 只在块内排序） */
+  stream?: boolean;
+  /** 流式模式下每块的条目数（默认 200） */
+  chunkSize?: number;
+  /** 流式模式下的列表 ID，用于匹配事件（默认由原生层生成） */
+  listingId?: string;
+  /** 结果格式（默认 objects），columnar 时条目（流式模式下为每块的条目）以并列数组放在 columns 中，不支持 content:// URI */
+  format?: 'objects' | 'columnar';
+}
+
+// 列式文件列表：第 i 个条目由各数组的第 i 项组成
+export interface ColumnarFileList {
+  /** 所有条目的父目录（所有条目在同一目录时） */
+  parent?: string;
+  /** 父目录表（条目来自多个目录时） */
+  directories?: string[];
+  /** 每个条目的父目录在 directories 中的下标 */
+  parents?: number[];
+  names: string[];
+  sizes: number[];
+  mtimes: number[];
+  /** 位标记：1 目录，2 隐藏，4 符号链接 */
+  flags: number[];
 }
 
 // 目录列表结果
 export interface ListDirectoryResult {
+  /** 流式模式和列式格式下为空数组 */
+  files: FileInfo[];
+  totalCount: number;
+  /** 列式格式时为 'columnar' */
+  format?: 'columnar';
+  /** 列式格式的条目 */
+  columns?: ColumnarFileList;
+  /** 分页模式：当前页起始位置 */
+  offset?: number;
+  /** 分页模式：是否还有更多条目 */
+  hasMore?: boolean;
+  /** 分页模式：下一页游标 */
+  nextCursor?: string;
+  /** 流式模式：列表 ID */
+  listingId?: string;
+  /** 流式模式：推送的块数 */
+  chunks?: number;
+}
+
+// 流式目录列表事件
+export interface ListDirectoryChunkEvent {
+  listingId: string;
+  path: string;
+  /** 列式格式时为空数组 */
   files: FileInfo[];
+  /** 列式格式时为 'columnar' */
+  format?: 'columnar';
+  /** 列式格式时本块的条目 */
+  columns?: ColumnarFileList;
+  chunkIndex: number;
+  /** 本块第一个条目在列表中的位置 */
+  offset: number;
+  /** 条目总数，目录读取完成前（done 为 false）为 -1 */
   totalCount: number;
+  /** 是否为最后一块 */
+  done: boolean;
 }
 
 // 文件操作选项
@@ -29,23 +94,83 @@ export interface FileOperationOptions {
   path: string;
 }
 
+// 原子写入的同步策略
+// always: 重命名前 fdatasync，重命名后同步目录；batch: 重命名前 fdatasync，目录后台按批同步；none: 不主动同步
+export type AtomicSyncPolicy = 'always' | 'batch' | 'none';
+
 // 文件创建选项
 export interface CreateFileOptions {
   path: string;
   content?: string;
   encoding?: 'utf8' | 'base64';
+  /** 是否先写入临时文件再重命名覆盖，中途崩溃不会损坏原文件（默认 false） */
+  atomic?: boolean;
+  /** 原子模式下的同步策略（默认 'always'） */
+  syncPolicy?: AtomicSyncPolicy;
 }
 
 // 文件读取选项
 export interface ReadFileOptions {
   path: string;
   encoding?: 'utf8' | 'base64';
+  /** 是否以 readFileChunk 事件分块推送内容 */
+  stream?: boolean;
+  /** 流式模式下每块的字节数（默认 512KB，最大 16MB） */
+  chunkSize?: number;
+  /** 流式模式下的读取 ID，用于匹配事件（默认由原生层生成） */
+  readId?: string;
 }
 
 // 文件读取结果
 export interface ReadFileResult {
+  /** 流式模式下为空字符串，内容通过事件推送 */
   content: string;
   encoding: string;
+  /** 流式模式：文件大小（字节） */
+  totalSize?: number;
+  /** 流式模式：推送的块数 */
+  chunks?: number;
+  /** 流式模式：读取 ID */
+  readId?: string;
+}
+
+// 流式文件读取事件
+export interface ReadFileChunkEvent {
+  readId: string;
+  path: string;
+  /** 本块内容，base64 模式下各块可直接拼接 */
+  content: string;
+  encoding: string;
+  chunkIndex: number;
+  /** 本块在文件中的字节偏移 */
+  offset: number;
+  /** 本块的字节数 */
+  length: number;
+  totalSize: number;
+  /** 是否为最后一块 */
+  done: boolean;
+}
+
+// 区间读取选项
+export interface ReadFileChunkOptions {
+  path: string;
+  /** 起始字节偏移（默认 0） */
+  offset?: number;
+  /** 读取的字节数（最大 16MB，utf8 时至少 4） */
+  length: number;
+  encoding?: 'utf8' | 'base64';
+}
+
+// 区间读取结果
+export interface ReadFileChunkResult {
+  content: string;
+  encoding: string;
+  offset: number;
+  /** 实际消费的字节数（utf8 模式下不含末尾被截断的字符），下一块从 offset + bytesRead 开始 */
+  bytesRead: number;
+  totalSize: number;
+  /** 是否已读到文件末尾 */
+  eof: boolean;
 }
 
 // 文件写入选项
@@ -54,18 +179,142 @@ export interface WriteFileOptions {
   content: string;
   encoding?: 'utf8' | 'base64';
   append?: boolean;
+  /** 是否先写入临时文件再重命名覆盖，中途崩溃不会损坏原文件（默认 false，不支持 append） */
+  atomic?: boolean;
+  /** 原子模式下的同步策略（默认 'always'） */
+  syncPolicy?: AtomicSyncPolicy;
+}
+
+// 写入会话选项
+export interface OpenWriteSessionOptions {
+  path: string;
+  /** 从该偏移继续写入并丢弃之后的内容（崩溃后按最后确认的 position 续写） */
+  offset?: number;
+  /** 未指定 offset 时是否从文件末尾追加（默认 false，清空文件） */
+  append?: boolean;
+  /** 同步策略：none 不主动同步；chunk 每块写入后同步；close 关闭时同步（默认） */
+  syncPolicy?: 'none' | 'chunk' | 'close';
+  /** 空闲多久后自动关闭（毫秒，默认 60000） */
+  idleTimeout?: number;
+}
+
+// 写入会话
+export interface WriteSession {
+  handle: string;
+  path: string;
+  /** 当前写入位置 */
+  offset: number;
+  syncPolicy: 'none' | 'chunk' | 'close';
+}
+
+// 追加数据块选项
+export interface AppendChunkOptions {
+  handle: string;
+  data: string;
+  encoding?: 'utf8' | 'base64';
+  /** 期望的写入位置，与当前位置不一致时拒绝写入（重试时避免重复写入） */
+  offset?: number;
+}
+
+// 追加数据块结果
+export interface AppendChunkResult {
+  /** 本块的写入位置 */
+  offset: number;
+  bytesWritten: number;
+  /** 写入后的位置 */
+  position: number;
+}
+
+// 关闭写入会话结果
+export interface CloseWriteSessionResult {
+  path: string;
+  size: number;
+  bytesWritten: number;
+  chunks: number;
+}
+
+// 二进制传输通道选项
+export interface OpenBinaryChannelOptions {
+  path: string;
+  /** read：GET 读取（支持 Range）；write：PUT 分块写入（默认 read） */
+  mode?: 'read' | 'write';
+  /** 写通道是否先清空文件（默认 true；false 时可从已有内容之后续传） */
+  truncate?: boolean;
+}
+
+// 二进制传输通道
+export interface BinaryChannel {
+  handle: string;
+  /**
+   * 本地 URL（http://127.0.0.1:端口/句柄）
+   * 读：fetch(url) 得到 ArrayBuffer；写：fetch(url + '?offset=N', { method: 'PUT', body })，
+   * offset 省略时追加，超过当前大小时返回 409 和当前 size。
+   * 应用的网络安全配置需允许访问 127.0.0.1 的明文流量
+   */
+  url: string;
+  mode: 'read' | 'write';
+  /** 打开时的文件大小 */
+  size: number;
+  /** 读通道：文件 MIME 类型 */
+  mimeType?: string;
+}
+
+// 关闭二进制传输通道结果
+export interface CloseBinaryChannelResult {
+  bytesTransferred: number;
+  size: number;
 }
 
 // 文件移动/复制选项
 export interface MoveFileOptions {
   sourcePath: string;
   destinationPath: string;
+  /** 操作 ID，设置后跨文件系统移动时推送 copyProgress 事件并可通过 cancelOperation 取消 */
+  operationId?: string;
+  /** 跨文件系统移动目录时的并行复制线程数（默认 4） */
+  parallelism?: number;
 }
 
 export interface CopyFileOptions {
   sourcePath: string;
   destinationPath: string;
   overwrite?: boolean;
+  /** 操作 ID，设置后推送 copyProgress 事件并可通过 cancelOperation 取消 */
+  operationId?: string;
+  /** 复制目录时的并行复制线程数（默认 4） */
+  parallelism?: number;
+}
+
+// 复制失败的条目
+export interface CopyError {
+  path: string;
+  error: string;
+}
+
+// 文件复制结果
+export interface CopyFileResult {
+  filesCopied: number;
+  bytesCopied: number;
+  /** 失败条目总数（目录复制时单个条目失败不会中断复制） */
+  errorCount: number;
+  /** 失败条目列表（最多 100 条） */
+  errors: CopyError[];
+}
+
+// 复制/移动进度事件
+export interface CopyProgressEvent {
+  operationId: string;
+  operation: 'copy' | 'move';
+  sourcePath: string;
+  destinationPath: string;
+  bytesCopied: number;
+  totalBytes: number;
+  /** 平均吞吐量（字节/秒） */
+  throughput: number;
+  filesCopied: number;
+  totalFiles: number;
+  /** 是否为最终进度 */
+  done: boolean;
 }
 
 // 文件重命名选项
@@ -80,6 +329,90 @@ export interface CreateDirectoryOptions {
   recursive?: boolean;
 }
 
+// 目录删除选项
+export interface DeleteDirectoryOptions {
+  path: string;
+  /** 快速删除：先移入回收区并立即返回，内容由后台并行清理 */
+  fast?: boolean;
+  /** 操作 ID，设置后推送 deleteProgress 事件并可通过 cancelOperation 取消（快速删除默认自动生成） */
+  operationId?: string;
+}
+
+// 删除失败的条目
+export interface DeleteError {
+  path: string;
+  error: string;
+}
+
+// 目录删除结果（快速删除时为后台清理的初始状态）
+export interface DeleteDirectoryResult {
+  deleteId?: string;
+  path: string;
+  filesDeleted: number;
+  bytesFreed: number;
+  errorCount: number;
+  /** 失败条目列表（最多 100 条） */
+  errors: DeleteError[];
+  startedAt: number;
+  cancelled: boolean;
+  /** 快速删除：目录在回收区中的位置 */
+  trashPath?: string;
+}
+
+// 删除进度事件
+export interface DeleteProgressEvent extends DeleteDirectoryResult {
+  deleteId: string;
+  /** 是否已结束（取消时剩余内容已移回原位置） */
+  done: boolean;
+}
+
+// 目录大小计算选项
+export interface CalculateDirectorySizeOptions {
+  path: string;
+  /** 是否统计隐藏文件（默认 true） */
+  includeHidden?: boolean;
+  /** 是否使用缓存：目录修改时间未变化时不重新列出（默认 true）。原地修改已有文件大小后需设为 false */
+  useCache?: boolean;
+  /** 操作 ID，设置后推送 directorySizeProgress 事件 */
+  operationId?: string;
+}
+
+// 目录大小计算结果
+export interface DirectorySizeResult {
+  path: string;
+  /** 总大小（字节） */
+  totalSize: number;
+  /** 文件数量 */
+  fileCount: number;
+  /** 子目录数量 */
+  directoryCount: number;
+  /** 最大文件大小 */
+  largestFileSize: number;
+  /** 最大文件路径 */
+  largestFilePath?: string;
+  /** 使用缓存的目录数 */
+  cachedDirectories: number;
+  /** 重新列出的目录数 */
+  scannedDirectories: number;
+  /** 无法读取的目录数 */
+  skippedDirectories: number;
+  /** 计算耗时（毫秒） */
+  calculationTime: number;
+}
+
+// 目录大小计算进度事件
+export interface DirectorySizeProgressEvent {
+  operationId: string;
+  path: string;
+  /** 当前统计的目录 */
+  currentPath: string;
+  filesScanned: number;
+  directoriesScanned: number;
+  /** 当前累计大小 */
+  currentSize: number;
+  done: boolean;
+}
+
 // 文件搜索选项
 export interface SearchFilesOptions {
   directory: string;
@@ -88,12 +421,29 @@ export interface SearchFilesOptions {
   fileTypes?: string[]; // 文件扩展名过滤
   maxResults?: number;
   recursive?: boolean;
+  /** 是否以 searchResult 事件分批推送结果 */
+  stream?: boolean;
+  /** 流式模式下的搜索 ID，用于匹配事件和取消（默认由原生层生成） */
+  searchId?: string;
+  /** 流式模式下每批最多结果数（默认 20） */
+  batchSize?: number;
+  /** 流式模式下两次推送的最大间隔（毫秒，默认 100） */
+  emitInterval?: number;
+  /** 结果格式（默认 objects），columnar 时结果以并列数组放在 columns 中，不支持流式模式 */
+  format?: 'objects' | 'columnar';
 }
 
 // 文件搜索结果
 export interface SearchFilesResult {
+  /** 流式模式和列式格式下为空数组 */
   files: FileInfo[];
   totalFound: number;
+  /** 列式格式时为 'columnar' */
+  format?: 'columnar';
+  /** 列式格式的结果 */
+  columns?: ColumnarFileList;
+  /** 流式模式：搜索 ID */
+  searchId?: string;
 }
 
 // ============ 内容搜索相关接口（原生层搜索，避免 OOM）============
@@ -154,13 +504,23 @@ export interface SearchContentOptions {
   maxDepth?: number;
   /** 是否递归搜索子目录 */
   recursive?: boolean;
+  /** 并行线程数：1 为单线程（默认），0 为使用全部 CPU 核心 */
+  parallelism?: number;
+  /** 是否以 searchResult 事件分批推送结果（不排序） */
+  stream?: boolean;
+  /** 流式模式下的搜索 ID，用于匹配事件和取消（默认由原生层生成） */
+  searchId?: string;
+  /** 流式模式下每批最多结果数（默认 20） */
+  batchSize?: number;
+  /** 流式模式下两次推送的最大间隔（毫秒，默认 100） */
+  emitInterval?: number;
 }
 
 /**
  * 内容搜索结果
  */
 export interface SearchContentResult {
-  /** 搜索结果列表 */
+  /** 搜索结果列表（流式模式下为空数组） */
   results: ContentSearchFileResult[];
   /** 总匹配文件数 */
   totalFiles: number;
@@ -170,6 +530,174 @@ export interface SearchContentResult {
   duration: number;
   /** 被跳过的文件数（因文件过大等原因） */
   skippedFiles: number;
+  /** 是否使用了搜索索引 */
+  indexed?: boolean;
+  /** 流式模式：搜索 ID */
+  searchId?: string;
+}
+
+/**
+ * 重复文件查找选项
+ */
+export interface FindDuplicateFilesOptions {
+  /** 查找目录 */
+  directory?: string;
+  /** 多个查找目录（与 directory 合并） */
+  directories?: string[];
+  /** 是否递归查找子目录（默认 true） */
+  recursive?: boolean;
+  /** 最小文件大小（字节，默认 1，即忽略空文件） */
+  minSize?: number;
+  /** 是否包含隐藏文件（默认 false） */
+  includeHidden?: boolean;
+  /** 文件扩展名过滤（如 ['.jpg', '.png']） */
+  fileExtensions?: string[];
+  /** 哈希算法（默认 md5） */
+  algorithm?: HashAlgorithm;
+  /** 并行线程数：0 为使用全部 CPU 核心（默认） */
+  parallelism?: number;
+  /** 是否以 searchResult 事件逐组推送结果 */
+  stream?: boolean;
+  /** 流式模式下的搜索 ID，用于匹配事件和取消（默认由原生层生成） */
+  searchId?: string;
+  /** 流式模式下每批最多结果数（默认 20） */
+  batchSize?: number;
+  /** 流式模式下两次推送的最大间隔（毫秒，默认 100） */
+  emitInterval?: number;
+}
+
+/**
+ * 一组内容相同的文件
+ */
+export interface DuplicateFileGroup {
+  /** 文件大小 */
+  size: number;
+  /** 哈希值 */
+  hash: string;
+  /** 重复文件列表 */
+  files: string[];
+  /** 可节省的空间（字节） */
+  wastedSpace: number;
+}
+
+/**
+ * 重复文件查找结果
+ */
+export interface FindDuplicateFilesResult {
+  /** 重复文件分组，按可节省空间降序（流式模式下为空数组） */
+  groups: DuplicateFileGroup[];
+  /** 分组数 */
+  totalGroups: number;
+  /** 重复文件数（每组保留一个） */
+  duplicateFiles?: number;
+  /** 可节省的总空间（字节） */
+  wastedSpace?: number;
+  /** 扫描的文件数 */
+  scannedFiles?: number;
+  /** 计算首尾哈希的文件数 */
+  partialHashed?: number;
+  /** 计算完整哈希的文件数 */
+  fullHashed?: number;
+  /** 使用哈希缓存的文件数 */
+  cachedHashes?: number;
+  /** 读取失败被跳过的文件数 */
+  skippedFiles?: number;
+  /** 耗时（毫秒） */
+  duration?: number;
+  /** 流式模式：搜索 ID */
+  searchId?: string;
+}
+
+/**
+ * 流式搜索结果事件
+ * searchFiles 推送 FileInfo，searchContent 推送 ContentSearchFileResult，
+ * findDuplicateFiles 推送 DuplicateFileGroup
+ */
+export interface SearchResultEvent {
+  searchId: string;
+  results: (FileInfo | ContentSearchFileResult | DuplicateFileGroup)[];
+}
+
+/**
+ * 流式搜索完成事件
+ */
+export interface SearchCompleteEvent {
+  searchId: string;
+  /** searchFiles：匹配文件数 */
+  totalFound?: number;
+  /** searchContent：匹配文件数 */
+  totalFiles?: number;
+  /** searchContent：总匹配数 */
+  totalMatches?: number;
+  /** searchContent：被跳过的文件数 */
+  skippedFiles?: number;
+  /** searchContent：是否使用了搜索索引 */
+  indexed?: boolean;
+  /** findDuplicateFiles：重复文件分组数 */
+  totalGroups?: number;
+  /** findDuplicateFiles：重复文件数 */
+  duplicateFiles?: number;
+  /** findDuplicateFiles：可节省的总空间（字节） */
+  wastedSpace?: number;
+  /** 搜索耗时（毫秒） */
+  duration: number;
+  /** 是否被取消 */
+  cancelled: boolean;
+  /** 搜索失败时的错误信息 */
+  error?: string;
+}
+
+// ============ 搜索索引相关接口 ============
+
+/**
+ * 构建索引选项
+ */
+export interface BuildIndexOptions {
+  /** 需要建立索引的根目录 */
+  roots: string[];
+  /** 单个文件最大索引大小（字节，默认 1MB） */
+  maxFileSize?: number;
+}
+
+/**
+ * 单个根目录的索引构建结果
+ */
+export interface IndexBuildStats {
+  root: string;
+  /** 索引中的文件数 */
+  files: number;
+  /** 不同 trigram 数 */
+  trigrams: number;
+  /** 本次重新读取的文件数 */
+  indexed: number;
+  /** 未变化而复用的文件数 */
+  reused: number;
+  /** 已从索引中移除的文件数 */
+  removed: number;
+  /** 索引文件大小（字节） */
+  sizeBytes: number;
+  /** 构建耗时（毫秒） */
+  duration: number;
+}
+
+export interface BuildIndexResult {
+  roots: IndexBuildStats[];
+}
+
+/**
+ * 索引状态
+ */
+export interface IndexStatus {
+  root: string;
+  files: number;
+  trigrams: number;
+  sizeBytes: number;
+  /** 构建时间戳 */
+  builtAt: number;
+}
+
+export interface GetIndexStatusResult {
+  indexes: IndexStatus[];
 }
 
 // ============ AI 编辑相关接口 ============
@@ -221,6 +749,8 @@ export interface ReplaceInFileOptions {
   replaceAll?: boolean;
   /** 是否区分大小写 */
   caseSensitive?: boolean;
+  /** 正则模式下单个匹配可跨越的行数（默认 1，逐行匹配，^ 和 $ 匹配行首行尾） */
+  windowLines?: number;
 }
 
 // 查找替换结果
@@ -231,13 +761,115 @@ export interface ReplaceInFileResult {
   modified: boolean;
 }
 
+// 目录批量替换选项
+export interface ReplaceInDirectoryOptions {
+  /** 根目录 */
+  directory: string;
+  /** 要查找的字符串或正则表达式 */
+  search: string;
+  /** 替换为的内容 */
+  replace: string;
+  /** 是否使用正则表达式 */
+  isRegex?: boolean;
+  /** 是否区分大小写（默认 true） */
+  caseSensitive?: boolean;
+  /** 正则模式下单个匹配可跨越的行数（默认 1） */
+  windowLines?: number;
+  /** 文件扩展名过滤（如 ['.ts', '.tsx']），规则与 searchContent 相同 */
+  fileExtensions?: string[];
+  /** 最大文件大小（字节），超过的文件将被跳过（默认 500KB） */
+  maxFileSize?: number;
+  /** 最大递归深度（默认 5） */
+  maxDepth?: number;
+  /** 是否递归处理子目录（默认 true） */
+  recursive?: boolean;
+  /** 并行线程数，0 为使用全部 CPU 核心（默认 0） */
+  parallelism?: number;
+  /** 只统计并返回预览，不修改文件 */
+  dryRun?: boolean;
+  /** dryRun 时每个文件返回的预览匹配数（默认 5） */
+  maxPreviewMatches?: number;
+  /** 替换 ID，用于匹配 replaceProgress 事件（默认由原生层生成） */
+  replaceId?: string;
+}
+
+// 替换预览中的单个匹配
+export interface ReplacePreviewMatch {
+  /** 匹配开始处的行号（从 1 开始） */
+  line: number;
+  match: string;
+  replacement: string;
+}
+
+// 单个文件的替换结果
+export interface ReplaceFileResult {
+  path: string;
+  replacements: number;
+  /** dryRun 时的预览 */
+  preview?: ReplacePreviewMatch[];
+}
+
+// 目录批量替换进度事件（每个有匹配的文件一次；dryRun 时随预览发出，否则在全部文件提交成功后发出）
+export interface ReplaceProgressEvent extends ReplaceFileResult {
+  replaceId: string;
+  dryRun: boolean;
+}
+
+// 目录批量替换结果
+export interface ReplaceInDirectoryResult {
+  replaceId: string;
+  /** 有匹配的文件 */
+  files: ReplaceFileResult[];
+  /** 检查的文件数 */
+  filesScanned: number;
+  filesMatched: number;
+  totalReplacements: number;
+  /** 因文件过大或不是有效的 UTF-8 被跳过的文件数 */
+  skippedFiles: number;
+  /** 不是有效的 UTF-8 而未处理的文件（避免把非法字节改写为 U+FFFD） */
+  undecodableFiles: string[];
+  dryRun: boolean;
+  duration: number;
+}
+
 // 应用 Diff 选项
 export interface ApplyDiffOptions {
+  /** 目标文件；为目录时按补丁中的文件路径应用多文件补丁 */
   path: string;
   /** Unified diff 格式的补丁内容 */
   diff: string;
   /** 是否创建备份 */
   createBackup?: boolean;
+  /** 上下文不匹配时最多忽略 hunk 首尾的上下文行数，默认 2 */
+  fuzz?: number;
+}
+
+// 单个 hunk 的应用结果
+export interface DiffHunkResult {
+  /** hunk 序号（从 1 开始） */
+  hunk: number;
+  /** 补丁中声明的原文件起始行 */
+  oldStart: number;
+  /** 实际应用的原文件起始行 */
+  appliedAt: number;
+  /** 实际位置相对声明位置的偏移行数 */
+  offset: number;
+  /** 使用的 fuzz 级别 */
+  fuzz: number;
+}
+
+// 单个文件的 Diff 应用结果
+export interface DiffFileResult {
+  path: string;
+  linesAdded: number;
+  linesDeleted: number;
+  hunksApplied: number;
+  hunks: DiffHunkResult[];
+  /** 补丁新建了该文件 */
+  created: boolean;
+  /** 补丁删除了该文件 */
+  deleted: boolean;
+  backupPath?: string;
 }
 
 // 应用 Diff 结果
@@ -252,21 +884,139 @@ export interface ApplyDiffResult {
   linesDeleted: number;
   /** 备份文件路径（如果创建了备份） */
   backupPath?: string;
+  /** 应用的 hunk 数 */
+  hunksApplied: number;
+  /** 每个文件的应用结果 */
+  files: DiffFileResult[];
+}
+
+// 批量编辑中的单个编辑
+export type EditOperation =
+  | {
+      type: 'insert';
+      /** 插入位置的行号 (1-based)，内容将插入到该行之前 */
+      line: number;
+      content: string;
+    }
+  | {
+      type: 'replace';
+      search: string;
+      replace: string;
+      isRegex?: boolean;
+      /** 默认 true */
+      replaceAll?: boolean;
+      /** 默认 true */
+      caseSensitive?: boolean;
+    }
+  | {
+      type: 'deleteRange';
+      /** 起始行号 (1-based)，包含 */
+      startLine: number;
+      /** 结束行号，包含 */
+      endLine: number;
+    }
+  | {
+      type: 'diff';
+      /** 单文件 Unified diff */
+      diff: string;
+      fuzz?: number;
+    };
+
+// 批量编辑选项
+export interface ApplyEditsOptions {
+  path: string;
+  /** 按顺序应用的编辑；任一编辑失败（如替换未找到匹配）时文件保持不变 */
+  edits: EditOperation[];
+  /** 文件当前内容的哈希值，不一致时拒绝编辑 */
+  expectedHash?: string;
+  /** 哈希算法，默认 md5 */
+  hashAlgorithm?: HashAlgorithm;
+}
+
+// 单个编辑的结果
+export interface EditResult {
+  /** 编辑在列表中的下标 */
+  index: number;
+  type: EditOperation['type'];
+  /** insert：实际插入的行号和行数 */
+  line?: number;
+  linesInserted?: number;
+  /** replace：替换次数 */
+  replacements?: number;
+  /** deleteRange / diff：删除的行数 */
+  linesDeleted?: number;
+  /** diff：添加的行数和 hunk 详情 */
+  linesAdded?: number;
+  hunksApplied?: number;
+  hunks?: DiffHunkResult[];
+}
+
+// 批量编辑结果
+export interface ApplyEditsResult {
+  success: boolean;
+  edits: EditResult[];
+  /** 新内容的哈希值 */
+  hash: string;
+  algorithm: string;
+  totalLines: number;
 }
 
 // 获取文件哈希选项
+export type HashAlgorithm = 'md5' | 'sha1' | 'sha256' | 'crc32';
+
 export interface GetFileHashOptions {
   path: string;
   /** 哈希算法 */
-  algorithm?: 'md5' | 'sha256';
+  algorithm?: HashAlgorithm;
+  /** 一次读取同时计算多个算法，优先于 algorithm */
+  algorithms?: HashAlgorithm[];
+  /** 指定后推送 hashProgress 事件 */
+  operationId?: string;
 }
 
 // 获取文件哈希结果
 export interface GetFileHashResult {
-  /** 文件哈希值 */
+  /** 文件哈希值（第一个算法） */
   hash: string;
-  /** 使用的算法 */
+  /** 使用的算法（第一个算法） */
   algorithm: string;
+  /** 每个算法的哈希值 */
+  hashes: Partial<Record<HashAlgorithm, string>>;
+  /** 文件大小（字节） */
+  size: number;
+  /** 是否来自哈希缓存（文件未变化时不读取文件） */
+  cached: boolean;
+}
+
+// 哈希缓存统计信息
+export interface HashCacheStats {
+  /** 当前缓存条目数 */
+  entries: number;
+  /** 最大条目数 */
+  maxEntries: number;
+  hits: number;
+  misses: number;
+  /** 超出上限被淘汰的条目数 */
+  evictions: number;
+  /** 因文件变化或写入而失效的条目数 */
+  invalidations: number;
+  /** 命中率（0-1） */
+  hitRate: number;
+}
+
+// 哈希缓存配置选项
+export interface ConfigureHashCacheOptions {
+  /** 最大条目数，超出时按最近最少使用淘汰（默认 20000） */
+  maxEntries: number;
+}
+
+// 哈希进度事件
+export interface HashProgressEvent {
+  operationId: string;
+  path: string;
+  bytesHashed: number;
+  totalBytes: number;
+  done: boolean;
 }
 
 // 获取文件行数结果
@@ -275,6 +1025,134 @@ export interface GetLineCountResult {
   lines: number;
 }
 
+// I/O 执行器统计信息
+export interface ExecutorStats {
+  /** 当前线程数 */
+  poolSize: number;
+  /** 最大线程数（按 CPU 核数确定） */
+  maxPoolSize: number;
+  /** 正在执行的任务数 */
+  activeCount: number;
+  /** 等待执行的任务数（含同路径排队的写操作） */
+  queueDepth: number;
+  /** 队列容量 */
+  queueCapacity: number;
+  /** 同路径排队等待的写操作数 */
+  pendingWrites: number;
+  /** 已提交任务数 */
+  submitted: number;
+  /** 已完成任务数 */
+  completed: number;
+  /** 因队列已满被拒绝的任务数 */
+  rejected: number;
+  /** 平均排队等待时间（毫秒） */
+  avgWaitMs: number;
+  /** 最大排队等待时间（毫秒） */
+  maxWaitMs: number;
+}
+
+// 批量操作类型
+export type BatchOperationType = 'copy' | 'move' | 'delete' | 'rename';
+
+// 批量操作项
+export interface BatchOperationItem {
+  /** 操作 ID（默认为序号） */
+  id?: string;
+  type: BatchOperationType;
+  sourcePath: string;
+  /** copy/move 的目标路径 */
+  destinationPath?: string;
+  /** rename 的新文件名 */
+  newName?: string;
+}
+
+// 批量操作选项
+export interface BatchOptions {
+  /** 批量操作 ID，用于暂停、恢复、取消和查询结果（默认自动生成） */
+  batchId?: string;
+  /** 是否覆盖已存在的目标（默认 false，已存在时跳过） */
+  overwrite?: boolean;
+  /** 遇到错误时是否继续（默认 true） */
+  continueOnError?: boolean;
+  /** 并行通道数（默认 4，最大 16），涉及同一路径的操作始终按顺序执行 */
+  concurrency?: number;
+}
+
+export interface BatchCopyOptions extends BatchOptions {
+  operations: { sourcePath: string; destinationPath: string }[];
+}
+
+export interface BatchDeleteOptions extends BatchOptions {
+  paths: string[];
+}
+
+export interface BatchRenameOptions extends BatchOptions {
+  directory: string;
+  /** 匹配文件名的正则表达式 */
+  pattern: string;
+  /** 替换内容（支持 $1 等分组引用） */
+  replacement: string;
+  recursive?: boolean;
+  /** 只处理这些扩展名的文件 */
+  fileTypes?: string[];
+}
+
+export interface BatchOperateOptions extends BatchOptions {
+  operations: BatchOperationItem[];
+}
+
+// 批量操作进度
+export interface BatchProgress {
+  batchId: string;
+  status: 'running' | 'paused' | 'cancelled' | 'completed';
+  total: number;
+  /** 成功数 */
+  completed: number;
+  failed: number;
+  skipped: number;
+  /** 已处理数（成功 + 失败 + 跳过） */
+  processed: number;
+  percentage: number;
+  currentFile?: string;
+  currentOperation?: BatchOperationType;
+  bytesProcessed: number;
+  /** 运行时间（毫秒，不含暂停时间） */
+  elapsed: number;
+  itemsPerSecond?: number;
+  bytesPerSecond?: number;
+  /** 预估剩余时间（毫秒） */
+  estimatedTimeRemaining?: number;
+}
+
+// 批量操作进度事件
+export interface BatchProgressEvent extends BatchProgress {
+  /** 是否为最终进度（任务完成或取消） */
+  done: boolean;
+}
+
+// 单个操作结果
+export interface BatchItemResult {
+  operationId: string;
+  type: BatchOperationType;
+  status: 'pending' | 'success' | 'failed' | 'skipped';
+  sourcePath: string;
+  destinationPath?: string;
+  error?: string;
+  skipReason?: string;
+  /** 操作耗时（毫秒） */
+  duration: number;
+}
+
+// 批量操作结果
+export interface BatchOperationResult extends BatchProgress {
+  successful: number;
+  results: BatchItemResult[];
+  /** 总耗时（毫秒） */
+  totalTime: number;
+  createdAt: number;
+  finishedAt?: number;
+}
+
 // 权限检查结果
 export interface PermissionResult {
   granted: boolean;
@@ -327,6 +1205,48 @@ export interface SystemFilePickerResult {
 
 // 主插件接口
 export interface AdvancedFileManagerPlugin {
+  // 事件监听
+  addListener(
+    eventName: 'listDirectoryChunk',
+    listenerFunc: (event: ListDirectoryChunkEvent) => void,
+  ): Promise<PluginListenerHandle>;
+  addListener(
+    eventName: 'readFileChunk',
+    listenerFunc: (event: ReadFileChunkEvent) => void,
+  ): Promise<PluginListenerHandle>;
+  addListener(
+    eventName: 'copyProgress',
+    listenerFunc: (event: CopyProgressEvent) => void,
+  ): Promise<PluginListenerHandle>;
+  addListener(
+    eventName: 'deleteProgress',
+    listenerFunc: (event: DeleteProgressEvent) => void,
+  ): Promise<PluginListenerHandle>;
+  addListener(
+    eventName: 'directorySizeProgress',
+    listenerFunc: (event: DirectorySizeProgressEvent) => void,
+  ): Promise<PluginListenerHandle>;
+  addListener(
+    eventName: 'hashProgress',
+    listenerFunc: (event: HashProgressEvent) => void,
+  ): Promise<PluginListenerHandle>;
+  addListener(
+    eventName: 'searchResult',
+    listenerFunc: (event: SearchResultEvent) => void,
+  ): Promise<PluginListenerHandle>;
+  addListener(
+    eventName: 'searchComplete',
+    listenerFunc: (event: SearchCompleteEvent) => void,
+  ): Promise<PluginListenerHandle>;
+  addListener(
+    eventName: 'batchProgress',
+    listenerFunc: (event: BatchProgressEvent) => void,
+  ): Promise<PluginListenerHandle>;
+  addListener(
+    eventName: 'replaceProgress',
+    listenerFunc: (event: ReplaceProgressEvent) => void,
+  ): Promise<PluginListenerHandle>;
+
   // 权限管理
   requestPermissions(): Promise<PermissionResult>;
   checkPermissions(): Promise<PermissionResult>;
@@ -339,18 +1259,53 @@ export interface AdvancedFileManagerPlugin {
   // 目录操作
   listDirectory(options: ListDirectoryOptions): Promise<ListDirectoryResult>;
   createDirectory(options: CreateDirectoryOptions): Promise<void>;
-  deleteDirectory(options: FileOperationOptions): Promise<void>;
+  deleteDirectory(options: DeleteDirectoryOptions): Promise<DeleteDirectoryResult>;
+  /** 获取正在后台清理的快速删除 */
+  getPendingDeletes(): Promise<{ deletes: DeleteDirectoryResult[] }>;
+  /** 计算目录大小（并行遍历，按目录修改时间缓存） */
+  calculateDirectorySize(options: CalculateDirectorySizeOptions): Promise<DirectorySizeResult>;
 
   // 文件操作
   createFile(options: CreateFileOptions): Promise<void>;
   readFile(options: ReadFileOptions): Promise<ReadFileResult>;
+  /** 按字节区间读取文件，适合大文件 */
+  readFileChunk(options: ReadFileChunkOptions): Promise<ReadFileChunkResult>;
   writeFile(options: WriteFileOptions): Promise<void>;
+  /** 立即同步 syncPolicy 为 'batch' 的原子写入尚未同步的目录项（文件数据在重命名前已逐个 fdatasync） */
+  syncPendingWrites(): Promise<{ files: number }>;
   deleteFile(options: FileOperationOptions): Promise<void>;
+  /** 打开写入会话，文件在会话期间保持打开 */
+  openWriteSession(options: OpenWriteSessionOptions): Promise<WriteSession>;
+  /** 向写入会话追加一块数据 */
+  appendChunk(options: AppendChunkOptions): Promise<AppendChunkResult>;
+  /** 关闭写入会话 */
+  closeWriteSession(options: { handle: string }): Promise<CloseWriteSessionResult>;
+  /** 打开二进制传输通道，通过本地 URL 直接读写文件字节（不经过 base64） */
+  openBinaryChannel(options: OpenBinaryChannelOptions): Promise<BinaryChannel>;
+  /** 关闭二进制传输通道（空闲 5 分钟后也会自动关闭） */
+  closeBinaryChannel(options: { handle: string }): Promise<CloseBinaryChannelResult>;
 
   // 文件移动和复制
   moveFile(options: MoveFileOptions): Promise<void>;
-  copyFile(options: CopyFileOptions): Promise<void>;
+  copyFile(options: CopyFileOptions): Promise<CopyFileResult>;
   renameFile(options: RenameFileOptions): Promise<void>;
+  /** 取消正在进行的复制、移动或删除操作 */
+  cancelOperation(options: { operationId: string }): Promise<{ cancelled: boolean }>;
+
+  // 批量操作（涉及同一路径的操作按顺序执行，其余并行）
+  batchCopy(options: BatchCopyOptions): Promise<BatchOperationResult>;
+  batchMove(options: BatchCopyOptions): Promise<BatchOperationResult>;
+  batchDelete(options: BatchDeleteOptions): Promise<BatchOperationResult>;
+  /** 按正则替换目录中的文件名 */
+  batchRename(options: BatchRenameOptions): Promise<BatchOperationResult>;
+  /** 提交批量操作后立即返回，进度通过 batchProgress 事件推送 */
+  batchOperateAsync(options: BatchOperateOptions): Promise<BatchProgress>;
+  pauseBatch(options: { batchId: string }): Promise<{ success: boolean }>;
+  resumeBatch(options: { batchId: string }): Promise<{ success: boolean }>;
+  cancelBatch(options: { batchId: string }): Promise<{ cancelled: boolean }>;
+  getBatchResult(options: { batchId: string }): Promise<BatchOperationResult>;
+  /** 获取未结束的批量操作（进程重启后恢复的任务处于暂停状态，调用 resumeBatch 继续） */
+  getPendingBatches(): Promise<{ batches: BatchProgress[] }>;
 
   // 文件信息
   getFileInfo(options: FileOperationOptions): Promise<FileInfo>;
@@ -365,6 +1320,21 @@ export interface AdvancedFileManagerPlugin {
    */
   searchContent(options: SearchContentOptions): Promise<SearchContentResult>;
 
+  /** 查找重复文件（大小 → 首尾哈希 → 完整哈希逐级筛选） */
+  findDuplicateFiles(options: FindDuplicateFilesOptions): Promise<FindDuplicateFilesResult>;
+
+  /** 取消流式搜索 */
+  cancelSearch(options: { searchId: string }): Promise<{ cancelled: boolean }>;
+
+  /** 为根目录构建或增量更新内容搜索索引 */
+  buildIndex(options: BuildIndexOptions): Promise<BuildIndexResult>;
+
+  /** 获取内容搜索索引状态 */
+  getIndexStatus(): Promise<GetIndexStatusResult>;
+
+  /** 删除根目录的内容搜索索引 */
+  dropIndex(options: { root: string }): Promise<{ dropped: boolean }>;
+
   // ============ AI 编辑相关功能 ============
   
   /** 读取文件指定行范围 */
@@ -376,15 +1346,33 @@ export interface AdvancedFileManagerPlugin {
   /** 查找并替换文件内容 */
   replaceInFile(options: ReplaceInFileOptions): Promise<ReplaceInFileResult>;
   
+  /** 在目录下批量查找替换：全部文件处理成功后才替换，失败时还原；dryRun 只返回预览 */
+  replaceInDirectory(options: ReplaceInDirectoryOptions): Promise<ReplaceInDirectoryResult>;
+  
   /** 应用 diff 补丁 */
   applyDiff(options: ApplyDiffOptions): Promise<ApplyDiffResult>;
   
+  /** 批量编辑：在内存中应用所有编辑后一次性原子写回 */
+  applyEdits(options: ApplyEditsOptions): Promise<ApplyEditsResult>;
+
   /** 获取文件哈希值 */
   getFileHash(options: GetFileHashOptions): Promise<GetFileHashResult>;
+
+  /** 获取哈希缓存统计信息 */
+  getHashCacheStats(): Promise<HashCacheStats>;
+
+  /** 配置哈希缓存 */
+  configureHashCache(options: ConfigureHashCacheOptions): Promise<HashCacheStats>;
+
+  /** 清空哈希缓存 */
+  clearHashCache(): Promise<void>;
   
   /** 获取文件行数 */
   getLineCount(options: FileOperationOptions): Promise<GetLineCountResult>;
 
   // 实用功能
+  /** 获取原生 I/O 执行器统计信息 */
+  getExecutorStats(): Promise<ExecutorStats>;
+
   echo(options: { value: string }): Promise<{ value: string }>;
 }
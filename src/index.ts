@@ -7,6 +7,8 @@ const AdvancedFileManager = registerPlugin<AdvancedFileManagerPlugin>('AdvancedF
 });
 
 export * from './definitions';
+export * from './columnar';
+export * from './binary';
 export { AdvancedFileManager };
 
 // 模块化功能导出 - 暂时注释掉，避免 Rollup 打包问题
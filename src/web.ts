@@ -9,30 +9,63 @@ import type {
   CreateFileOptions,
   ReadFileOptions,
   ReadFileResult,
+  ReadFileChunkOptions,
+  ReadFileChunkResult,
   WriteFileOptions,
+  OpenWriteSessionOptions,
+  WriteSession,
+  AppendChunkOptions,
+  AppendChunkResult,
+  CloseWriteSessionResult,
+  OpenBinaryChannelOptions,
+  BinaryChannel,
+  CloseBinaryChannelResult,
   MoveFileOptions,
   CopyFileOptions,
+  CopyFileResult,
   RenameFileOptions,
   CreateDirectoryOptions,
+  DeleteDirectoryOptions,
+  DeleteDirectoryResult,
+  CalculateDirectorySizeOptions,
+  DirectorySizeResult,
   SearchFilesOptions,
   SearchFilesResult,
   SearchContentOptions,
   SearchContentResult,
+  FindDuplicateFilesOptions,
+  FindDuplicateFilesResult,
+  BuildIndexOptions,
+  BuildIndexResult,
+  GetIndexStatusResult,
   PermissionResult,
   SystemFilePickerOptions,
   SystemFilePickerResult,
   SelectedFileInfo,
+  BatchCopyOptions,
+  BatchDeleteOptions,
+  BatchRenameOptions,
+  BatchOperateOptions,
+  BatchProgress,
+  BatchOperationResult,
   // AI 编辑相关
   ReadFileRangeOptions,
   ReadFileRangeResult,
   InsertContentOptions,
   ReplaceInFileOptions,
   ReplaceInFileResult,
+  ReplaceInDirectoryOptions,
+  ReplaceInDirectoryResult,
   ApplyDiffOptions,
   ApplyDiffResult,
+  ApplyEditsOptions,
+  ApplyEditsResult,
   GetFileHashOptions,
   GetFileHashResult,
-  GetLineCountResult
+  HashCacheStats,
+  ConfigureHashCacheOptions,
+  GetLineCountResult,
+  ExecutorStats
 } from './definitions';
 
 export class AdvancedFileManagerWeb extends WebPlugin implements AdvancedFileManagerPlugin {
@@ -137,10 +170,18 @@ export class AdvancedFileManagerWeb extends WebPlugin implements AdvancedFileMan
     throw new Error('Creating directories is not supported in web browsers for security reasons');
   }
 
-  async deleteDirectory(_options: FileOperationOptions): Promise<void> {
+  async deleteDirectory(_options: DeleteDirectoryOptions): Promise<DeleteDirectoryResult> {
     throw new Error('Deleting directories is not supported in web browsers for security reasons');
   }
 
+  async getPendingDeletes(): Promise<{ deletes: DeleteDirectoryResult[] }> {
+    return { deletes: [] };
+  }
+
+  async calculateDirectorySize(_options: CalculateDirectorySizeOptions): Promise<DirectorySizeResult> {
+    throw new Error('Calculating directory size is not supported in web browsers for security reasons');
+  }
+
   async createFile(options: CreateFileOptions): Promise<void> {
     if (!this.isFileSystemAccessSupported()) {
       throw new Error('File System Access API is not supported in this browser');
@@ -200,6 +241,10 @@ export class AdvancedFileManagerWeb extends WebPlugin implements AdvancedFileMan
     }
   }
 
+  async readFileChunk(_options: ReadFileChunkOptions): Promise<ReadFileChunkResult> {
+    throw new Error('Reading file ranges is not supported in web browsers');
+  }
+
   async writeFile(options: WriteFileOptions): Promise<void> {
     // 在Web平台，写入文件通常需要用户交互
     return this.createFile({
@@ -209,15 +254,39 @@ export class AdvancedFileManagerWeb extends WebPlugin implements AdvancedFileMan
     });
   }
 
+  async syncPendingWrites(): Promise<{ files: number }> {
+    return { files: 0 };
+  }
+
   async deleteFile(_options: FileOperationOptions): Promise<void> {
     throw new Error('Deleting files is not supported in web browsers for security reasons');
   }
 
+  async openWriteSession(_options: OpenWriteSessionOptions): Promise<WriteSession> {
+    throw new Error('Write sessions are not supported in web browsers');
+  }
+
+  async appendChunk(_options: AppendChunkOptions): Promise<AppendChunkResult> {
+    throw new Error('Write sessions are not supported in web browsers');
+  }
+
+  async closeWriteSession(_options: { handle: string }): Promise<CloseWriteSessionResult> {
+    throw new Error('Write sessions are not supported in web browsers');
+  }
+
+  async openBinaryChannel(_options: OpenBinaryChannelOptions): Promise<BinaryChannel> {
+    throw new Error('Binary channels are not supported in web browsers');
+  }
+
+  async closeBinaryChannel(_options: { handle: string }): Promise<CloseBinaryChannelResult> {
+    throw new Error('Binary channels are not supported in web browsers');
+  }
+
   async moveFile(_options: MoveFileOptions): Promise<void> {
     throw new Error('Moving files is not supported in web browsers for security reasons');
   }
 
-  async copyFile(_options: CopyFileOptions): Promise<void> {
+  async copyFile(_options: CopyFileOptions): Promise<CopyFileResult> {
     throw new Error('Copying files is not supported in web browsers for security reasons');
   }
 
@@ -225,6 +294,10 @@ export class AdvancedFileManagerWeb extends WebPlugin implements AdvancedFileMan
     throw new Error('Renaming files is not supported in web browsers for security reasons');
   }
 
+  async cancelOperation(_options: { operationId: string }): Promise<{ cancelled: boolean }> {
+    return { cancelled: false };
+  }
+
   async getFileInfo(_options: FileOperationOptions): Promise<FileInfo> {
     throw new Error('Getting file info for specific paths is not supported in web browsers');
   }
@@ -249,6 +322,26 @@ export class AdvancedFileManagerWeb extends WebPlugin implements AdvancedFileMan
     };
   }
 
+  async findDuplicateFiles(_options: FindDuplicateFilesOptions): Promise<FindDuplicateFilesResult> {
+    throw new Error('Finding duplicate files is not supported in web browsers for security reasons');
+  }
+
+  async cancelSearch(_options: { searchId: string }): Promise<{ cancelled: boolean }> {
+    return { cancelled: false };
+  }
+
+  async buildIndex(_options: BuildIndexOptions): Promise<BuildIndexResult> {
+    throw new Error('Search indexes are not supported in web browsers');
+  }
+
+  async getIndexStatus(): Promise<GetIndexStatusResult> {
+    return { indexes: [] };
+  }
+
+  async dropIndex(_options: { root: string }): Promise<{ dropped: boolean }> {
+    return { dropped: false };
+  }
+
   async openSystemFilePicker(options: SystemFilePickerOptions): Promise<SystemFilePickerResult> {
     if (!this.isFileSystemAccessSupported()) {
       throw new Error('File System Access API is not supported in this browser');
@@ -360,14 +453,34 @@ export class AdvancedFileManagerWeb extends WebPlugin implements AdvancedFileMan
     throw new Error('Replacing in file is not supported in web browsers for security reasons');
   }
 
+  async replaceInDirectory(_options: ReplaceInDirectoryOptions): Promise<ReplaceInDirectoryResult> {
+    throw new Error('Replacing in directory is not supported in web browsers for security reasons');
+  }
+
   async applyDiff(_options: ApplyDiffOptions): Promise<ApplyDiffResult> {
     throw new Error('Applying diff is not supported in web browsers for security reasons');
   }
 
+  async applyEdits(_options: ApplyEditsOptions): Promise<ApplyEditsResult> {
+    throw new Error('Applying edits is not supported in web browsers for security reasons');
+  }
+
   async getFileHash(_options: GetFileHashOptions): Promise<GetFileHashResult> {
     throw new Error('Getting file hash is not supported in web browsers for security reasons');
   }
 
+  async getHashCacheStats(): Promise<HashCacheStats> {
+    throw new Error('Hash cache is not supported in web browsers');
+  }
+
+  async configureHashCache(_options: ConfigureHashCacheOptions): Promise<HashCacheStats> {
+    throw new Error('Hash cache is not supported in web browsers');
+  }
+
+  async clearHashCache(): Promise<void> {
+    throw new Error('Hash cache is not supported in web browsers');
+  }
+
   async getLineCount(_options: FileOperationOptions): Promise<GetLineCountResult> {
     throw new Error('Getting line count is not supported in web browsers for security reasons');
   }
@@ -393,6 +506,50 @@ export class AdvancedFileManagerWeb extends WebPlugin implements AdvancedFileMan
     return mimeTypes[extension.toLowerCase()] || 'application/octet-stream';
   }
 
+  async batchCopy(_options: BatchCopyOptions): Promise<BatchOperationResult> {
+    throw new Error('Batch operations are not supported in web browsers');
+  }
+
+  async batchMove(_options: BatchCopyOptions): Promise<BatchOperationResult> {
+    throw new Error('Batch operations are not supported in web browsers');
+  }
+
+  async batchDelete(_options: BatchDeleteOptions): Promise<BatchOperationResult> {
+    throw new Error('Batch operations are not supported in web browsers');
+  }
+
+  async batchRename(_options: BatchRenameOptions): Promise<BatchOperationResult> {
+    throw new Error('Batch operations are not supported in web browsers');
+  }
+
+  async batchOperateAsync(_options: BatchOperateOptions): Promise<BatchProgress> {
+    throw new Error('Batch operations are not supported in web browsers');
+  }
+
+  async pauseBatch(_options: { batchId: string }): Promise<{ success: boolean }> {
+    throw new Error('Batch operations are not supported in web browsers');
+  }
+
+  async resumeBatch(_options: { batchId: string }): Promise<{ success: boolean }> {
+    throw new Error('Batch operations are not supported in web browsers');
+  }
+
+  async cancelBatch(_options: { batchId: string }): Promise<{ cancelled: boolean }> {
+    throw new Error('Batch operations are not supported in web browsers');
+  }
+
+  async getBatchResult(_options: { batchId: string }): Promise<BatchOperationResult> {
+    throw new Error('Batch operations are not supported in web browsers');
+  }
+
+  async getPendingBatches(): Promise<{ batches: BatchProgress[] }> {
+    return { batches: [] };
+  }
+
+  async getExecutorStats(): Promise<ExecutorStats> {
+    throw new Error('Executor stats are not available in web browsers');
+  }
+
   async echo(options: { value: string }): Promise<{ value: string }> {
     console.log('ECHO', options);
     return options;